@@ -22,6 +22,56 @@ CREATE TABLE `user_info` (
   UNIQUE KEY `user_u2` (`first_name`, `last_name`, `middle_name`)
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
 
+--
+-- Table `user_session_token`
+--
+
+DROP TABLE IF EXISTS `user_session_token`;
+CREATE TABLE `user_session_token` (
+  `id` int(11) unsigned NOT NULL AUTO_INCREMENT,
+  `token_hash` char(64) NOT NULL,
+  `user_id` int(11) unsigned NOT NULL,
+  `created_on_date_time` datetime NOT NULL,
+  `expiration_date_time` datetime NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `user_session_token_u1` (`token_hash`),
+  KEY `user_session_token_k1` (`user_id`),
+  KEY `user_session_token_k2` (`expiration_date_time`),
+  CONSTRAINT `user_session_token_fk1` FOREIGN KEY (`user_id`) REFERENCES `user_info` (`id`) ON UPDATE CASCADE ON DELETE CASCADE
+) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
+
+--
+-- Table `entity_change`
+--
+
+DROP TABLE IF EXISTS `entity_change`;
+CREATE TABLE `entity_change` (
+  `id` bigint(20) unsigned NOT NULL AUTO_INCREMENT,
+  `sequence_number` bigint(20) unsigned DEFAULT NULL,
+  `entity_type_name` varchar(64) NOT NULL,
+  `entity_id` int(11) unsigned NOT NULL,
+  `change_type` varchar(16) NOT NULL,
+  `changed_on_date_time` datetime NOT NULL,
+  `changed_by_user_id` int(11) unsigned DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `entity_change_u1` (`sequence_number`),
+  KEY `entity_change_k1` (`changed_on_date_time`),
+  KEY `entity_change_k2` (`entity_type_name`, `entity_id`),
+  KEY `entity_change_k3` (`changed_by_user_id`),
+  CONSTRAINT `entity_change_fk1` FOREIGN KEY (`changed_by_user_id`) REFERENCES `user_info` (`id`) ON UPDATE CASCADE ON DELETE SET NULL
+) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
+
+--
+-- Table `entity_change_sequence`
+--
+
+DROP TABLE IF EXISTS `entity_change_sequence`;
+CREATE TABLE `entity_change_sequence` (
+  `id` int(11) unsigned NOT NULL,
+  `last_sequence_number` bigint(20) unsigned NOT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
 --
 -- Table `user_group`
 --
@@ -402,6 +452,21 @@ CREATE TABLE `item_element_history` (
   CONSTRAINT `item_element_history_fk5` FOREIGN KEY (`derived_from_item_element_id`) REFERENCES `item_element` (`id`) ON UPDATE CASCADE ON DELETE SET NULL
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
 
+--
+-- Table `item_ancestor`
+--
+
+DROP TABLE IF EXISTS `item_ancestor`;
+CREATE TABLE `item_ancestor` (
+  `descendant_item_id` int(11) unsigned NOT NULL,
+  `ancestor_item_id` int(11) unsigned NOT NULL,
+  `path_count` int(11) NOT NULL DEFAULT 1,
+  PRIMARY KEY (`descendant_item_id`, `ancestor_item_id`),
+  KEY `item_ancestor_k1` (`ancestor_item_id`),
+  CONSTRAINT `item_ancestor_fk1` FOREIGN KEY (`descendant_item_id`) REFERENCES `item` (`id`) ON UPDATE CASCADE ON DELETE CASCADE,
+  CONSTRAINT `item_ancestor_fk2` FOREIGN KEY (`ancestor_item_id`) REFERENCES `item` (`id`) ON UPDATE CASCADE ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
 --
 -- Table `item_element_log
 --
@@ -1002,6 +1067,7 @@ CREATE TABLE `property_value` (
   PRIMARY KEY (`id`),
   KEY `property_value_k1` (`property_type_id`),
   KEY `property_value_k2` (`entered_by_user_id`),
+  KEY `property_value_k3` (`property_type_id`, `value`(190)),
   CONSTRAINT `property_value_fk1` FOREIGN KEY (`property_type_id`) REFERENCES `property_type` (`id`) ON UPDATE CASCADE,
   CONSTRAINT `property_value_fk2` FOREIGN KEY (`entered_by_user_id`) REFERENCES `user_info` (`id`) ON UPDATE CASCADE
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
@@ -1019,6 +1085,7 @@ CREATE TABLE `property_metadata` (
   PRIMARY KEY (`id`),
   UNIQUE KEY `property_metadata_u1` (`property_value_id`, `metadata_key`),
   KEY `property_metadata_k1` (`property_value_id`),
+  KEY `property_metadata_k2` (`metadata_key`, `metadata_value`(190)),
   CONSTRAINT `property_metadata_fk1` FOREIGN KEY (`property_value_id`) REFERENCES `property_value` (`id`) ON UPDATE CASCADE ON DELETE CASCADE
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
 
@@ -1108,6 +1175,26 @@ CREATE TABLE `item_element_property` (
   CONSTRAINT `item_element_property_fk2` FOREIGN KEY (`property_value_id`) REFERENCES `property_value` (`id`) ON UPDATE CASCADE
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
 
+--
+-- Table `item_property_index`
+--
+
+DROP TABLE IF EXISTS `item_property_index`;
+CREATE TABLE `item_property_index` (
+  `id` int(11) unsigned NOT NULL AUTO_INCREMENT,
+  `item_id` int(11) unsigned NOT NULL,
+  `property_value_id` int(11) unsigned NOT NULL,
+  `property_type_id` int(11) unsigned NOT NULL,
+  `metadata_key` varchar(64) NOT NULL DEFAULT '',
+  `value` varchar(256) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `item_property_index_u1` (`item_id`, `property_value_id`, `metadata_key`),
+  KEY `item_property_index_k1` (`property_type_id`, `metadata_key`, `value`(190)),
+  KEY `item_property_index_k2` (`property_value_id`),
+  CONSTRAINT `item_property_index_fk1` FOREIGN KEY (`item_id`) REFERENCES `item` (`id`) ON UPDATE CASCADE ON DELETE CASCADE,
+  CONSTRAINT `item_property_index_fk2` FOREIGN KEY (`property_value_id`) REFERENCES `property_value` (`id`) ON UPDATE CASCADE ON DELETE CASCADE
+) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
+
 --
 -- Table `connector_property`
 --
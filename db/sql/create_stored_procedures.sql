@@ -5,19 +5,6 @@
 
 delimiter //
 
-drop procedure if exists items_with_write_permission_for_user;//
-create procedure `items_with_write_permission_for_user` (IN user_id int, IN domain_id int)
-BEGIN
-    SET @query = 'SELECT i.* FROM item i inner join v_item_self_element ise on i.id = ise.item_id inner join entity_info ei on ise.entity_info_id = ei.id WHERE';
-    SET @query = CONCAT(@query, ' i.domain_id =', domain_id);
-    SET @query = CONCAT(@query, ' AND (ei.owner_user_id =', user_id);
-    SET @query = CONCAT(@query, ' OR ', '(ei.owner_user_group_id in (select ug.id from user_group ug inner join user_user_group uug on uug.user_group_id = ug.id where uug.user_id = ', user_id, ')');
-    SET @query = CONCAT(@query, ' AND ei.is_group_writeable = 1))');
-
-    PREPARE stmt FROM @query;
-    EXECUTE stmt;
-END //
-
 drop function if exists is_record_unique;//
 CREATE FUNCTION `is_record_unique`
 	(row_count INT,
@@ -133,6 +120,12 @@ BEGIN
 	DECLARE unique_result BOOLEAN;
 	DECLARE item_identifier1_label VARCHAR(32);
 	DECLARE item_identifier2_label VARCHAR(32);
+
+	# Set by the portal for bulk writes it has already validated as a set.
+	IF @cdb_skip_item_checks = 1
+	THEN
+		RETURN true;
+	END IF;
 	
 	CALL is_item_attributes_valid(domain_id, item_identifier1, item_identifier2, error_message, item_identifier1_label, item_identifier2_label);
 
@@ -209,6 +202,12 @@ CREATE FUNCTION check_item_element
 RETURNS BOOLEAN
 BEGIN	
 	DECLARE result BOOLEAN;
+
+	IF @cdb_skip_item_checks = 1
+	THEN
+		RETURN true;
+	END IF;
+
 	SET result = is_item_element_attributes_unique(item_element_name, parent_item_id, derived_from_item_element_id, existing_item_element_id); 
 
 	IF not result
@@ -220,4 +219,139 @@ BEGIN
 	RETURN true;
 END//
 
+DROP PROCEDURE IF EXISTS update_item_ancestor//
+CREATE PROCEDURE update_item_ancestor
+	(edge_parent_item_id INT,
+	edge_contained_item_id INT,
+	path_count_sign INT)
+BEGIN
+	# Paths through the edge lead from the parent item and its ancestors to 
+	# the contained item and its descendants. 
+	DROP TEMPORARY TABLE IF EXISTS item_ancestor_change;
+	CREATE TEMPORARY TABLE item_ancestor_change
+	SELECT d.descendant_item_id, a.ancestor_item_id, 
+		a.path_count * d.path_count * path_count_sign AS path_count
+	FROM 
+		(SELECT edge_parent_item_id AS ancestor_item_id, 1 AS path_count
+		UNION ALL
+		SELECT ia.ancestor_item_id, ia.path_count
+		FROM item_ancestor ia
+		WHERE ia.descendant_item_id = edge_parent_item_id) a
+	CROSS JOIN
+		(SELECT edge_contained_item_id AS descendant_item_id, 1 AS path_count
+		UNION ALL
+		SELECT ia.descendant_item_id, ia.path_count
+		FROM item_ancestor ia
+		WHERE ia.ancestor_item_id = edge_contained_item_id) d
+	WHERE a.ancestor_item_id != d.descendant_item_id;
+
+	INSERT INTO item_ancestor (descendant_item_id, ancestor_item_id, path_count)
+	SELECT c.descendant_item_id, c.ancestor_item_id, c.path_count
+	FROM item_ancestor_change c
+	ON DUPLICATE KEY UPDATE path_count = item_ancestor.path_count + c.path_count;
+
+	DELETE ia FROM item_ancestor ia 
+	INNER JOIN item_ancestor_change c 
+		ON ia.descendant_item_id = c.descendant_item_id
+		AND ia.ancestor_item_id = c.ancestor_item_id
+	WHERE ia.path_count <= 0;
+
+	DROP TEMPORARY TABLE item_ancestor_change;
+END//
+
+DROP PROCEDURE IF EXISTS rebuild_item_ancestor//
+CREATE PROCEDURE rebuild_item_ancestor()
+BEGIN
+	# Paths are added one length at a time; each layer holds the number of 
+	# paths of the current length between two items. 
+	DECLARE layer_size INT DEFAULT 1;
+	DECLARE path_length INT DEFAULT 1;
+
+	DELETE FROM item_ancestor;
+
+	DROP TEMPORARY TABLE IF EXISTS item_ancestor_layer;
+	CREATE TEMPORARY TABLE item_ancestor_layer
+	SELECT contained_item_id1 AS descendant_item_id, 
+		parent_item_id AS ancestor_item_id, COUNT(*) AS path_count
+	FROM item_element
+	WHERE contained_item_id1 IS NOT NULL
+	GROUP BY contained_item_id1, parent_item_id;
+
+	WHILE layer_size > 0 AND path_length <= 1000 DO
+		INSERT INTO item_ancestor (descendant_item_id, ancestor_item_id, path_count)
+		SELECT l.descendant_item_id, l.ancestor_item_id, l.path_count
+		FROM item_ancestor_layer l
+		WHERE l.descendant_item_id != l.ancestor_item_id
+		ON DUPLICATE KEY UPDATE path_count = item_ancestor.path_count + l.path_count;
+
+		DROP TEMPORARY TABLE IF EXISTS item_ancestor_next_layer;
+		CREATE TEMPORARY TABLE item_ancestor_next_layer
+		SELECT ie.contained_item_id1 AS descendant_item_id, 
+			l.ancestor_item_id, SUM(l.path_count) AS path_count
+		FROM item_ancestor_layer l
+		INNER JOIN item_element ie ON ie.parent_item_id = l.descendant_item_id
+		WHERE ie.contained_item_id1 IS NOT NULL
+		GROUP BY ie.contained_item_id1, l.ancestor_item_id;
+
+		DROP TEMPORARY TABLE item_ancestor_layer;
+		ALTER TABLE item_ancestor_next_layer RENAME TO item_ancestor_layer;
+		SELECT COUNT(*) INTO layer_size FROM item_ancestor_layer;
+		SET path_length = path_length + 1;
+	END WHILE;
+
+	DROP TEMPORARY TABLE item_ancestor_layer;
+END//
+
+DROP PROCEDURE IF EXISTS update_item_property_index//
+CREATE PROCEDURE update_item_property_index
+	(index_property_value_id INT)
+BEGIN
+	# Values and metadata of properties assigned to the self element of an 
+	# item are indexed for filtering and sorting of item lists. 
+	DELETE FROM item_property_index
+	WHERE property_value_id = index_property_value_id;
+
+	INSERT INTO item_property_index 
+		(item_id, property_value_id, property_type_id, metadata_key, value)
+	SELECT ie.parent_item_id, pv.id, pv.property_type_id, '', pv.value
+	FROM property_value pv
+	INNER JOIN item_element_property iep ON iep.property_value_id = pv.id
+	INNER JOIN item_element ie ON ie.id = iep.item_element_id
+	WHERE pv.id = index_property_value_id
+		AND ie.name IS NULL 
+		AND ie.derived_from_item_element_id IS NULL
+	UNION ALL
+	SELECT ie.parent_item_id, pv.id, pv.property_type_id, pm.metadata_key, pm.metadata_value
+	FROM property_value pv
+	INNER JOIN property_metadata pm ON pm.property_value_id = pv.id
+	INNER JOIN item_element_property iep ON iep.property_value_id = pv.id
+	INNER JOIN item_element ie ON ie.id = iep.item_element_id
+	WHERE pv.id = index_property_value_id
+		AND ie.name IS NULL 
+		AND ie.derived_from_item_element_id IS NULL;
+END//
+
+DROP PROCEDURE IF EXISTS rebuild_item_property_index//
+CREATE PROCEDURE rebuild_item_property_index()
+BEGIN
+	DELETE FROM item_property_index;
+
+	INSERT INTO item_property_index 
+		(item_id, property_value_id, property_type_id, metadata_key, value)
+	SELECT ie.parent_item_id, pv.id, pv.property_type_id, '', pv.value
+	FROM property_value pv
+	INNER JOIN item_element_property iep ON iep.property_value_id = pv.id
+	INNER JOIN item_element ie ON ie.id = iep.item_element_id
+	WHERE ie.name IS NULL 
+		AND ie.derived_from_item_element_id IS NULL
+	UNION ALL
+	SELECT ie.parent_item_id, pv.id, pv.property_type_id, pm.metadata_key, pm.metadata_value
+	FROM property_value pv
+	INNER JOIN property_metadata pm ON pm.property_value_id = pv.id
+	INNER JOIN item_element_property iep ON iep.property_value_id = pv.id
+	INNER JOIN item_element ie ON ie.id = iep.item_element_id
+	WHERE ie.name IS NULL 
+		AND ie.derived_from_item_element_id IS NULL;
+END//
+
 delimiter ;
@@ -60,4 +60,98 @@ BEGIN
 		NEW.id);
 END //
 
+DROP TRIGGER IF EXISTS insert_item_element_ancestor//
+CREATE trigger insert_item_element_ancestor AFTER INSERT ON item_element
+FOR EACH ROW
+BEGIN
+	IF NEW.contained_item_id1 IS NOT NULL
+	THEN
+		CALL update_item_ancestor(NEW.parent_item_id, NEW.contained_item_id1, 1);
+	END IF;
+END //
+
+DROP TRIGGER IF EXISTS update_item_element_ancestor//
+CREATE trigger update_item_element_ancestor AFTER UPDATE ON item_element
+FOR EACH ROW
+BEGIN
+	IF NOT (OLD.contained_item_id1 <=> NEW.contained_item_id1) 
+		OR OLD.parent_item_id != NEW.parent_item_id
+	THEN
+		IF OLD.contained_item_id1 IS NOT NULL
+		THEN
+			CALL update_item_ancestor(OLD.parent_item_id, OLD.contained_item_id1, -1);
+		END IF;
+		IF NEW.contained_item_id1 IS NOT NULL
+		THEN
+			CALL update_item_ancestor(NEW.parent_item_id, NEW.contained_item_id1, 1);
+		END IF;
+	END IF;
+END //
+
+DROP TRIGGER IF EXISTS delete_item_element_ancestor//
+CREATE trigger delete_item_element_ancestor AFTER DELETE ON item_element
+FOR EACH ROW
+BEGIN
+	IF OLD.contained_item_id1 IS NOT NULL
+	THEN
+		CALL update_item_ancestor(OLD.parent_item_id, OLD.contained_item_id1, -1);
+	END IF;
+END //
+
+DROP TRIGGER IF EXISTS insert_item_element_property_index//
+CREATE trigger insert_item_element_property_index AFTER INSERT ON item_element_property
+FOR EACH ROW
+BEGIN
+	CALL update_item_property_index(NEW.property_value_id);
+END //
+
+DROP TRIGGER IF EXISTS delete_item_element_property_index//
+CREATE trigger delete_item_element_property_index AFTER DELETE ON item_element_property
+FOR EACH ROW
+BEGIN
+	CALL update_item_property_index(OLD.property_value_id);
+END //
+
+DROP TRIGGER IF EXISTS update_property_value_index//
+CREATE trigger update_property_value_index AFTER UPDATE ON property_value
+FOR EACH ROW
+BEGIN
+	IF NOT (OLD.value <=> NEW.value) 
+		OR OLD.property_type_id != NEW.property_type_id
+	THEN
+		CALL update_item_property_index(NEW.id);
+	END IF;
+END //
+
+DROP TRIGGER IF EXISTS insert_property_metadata_index//
+CREATE trigger insert_property_metadata_index AFTER INSERT ON property_metadata
+FOR EACH ROW
+BEGIN
+	CALL update_item_property_index(NEW.property_value_id);
+END //
+
+DROP TRIGGER IF EXISTS update_property_metadata_index//
+CREATE trigger update_property_metadata_index AFTER UPDATE ON property_metadata
+FOR EACH ROW
+BEGIN
+	CALL update_item_property_index(OLD.property_value_id);
+	IF OLD.property_value_id != NEW.property_value_id
+	THEN
+		CALL update_item_property_index(NEW.property_value_id);
+	END IF;
+END //
+
+DROP TRIGGER IF EXISTS delete_property_metadata_index//
+CREATE trigger delete_property_metadata_index AFTER DELETE ON property_metadata
+FOR EACH ROW
+BEGIN
+	CALL update_item_property_index(OLD.property_value_id);
+END //
+
 DELIMITER ;
+
+-- item_ancestor is maintained by triggers; build it for populated data
+CALL rebuild_item_ancestor();
+
+-- item_property_index is maintained by triggers; build it for populated data
+CALL rebuild_item_property_index();
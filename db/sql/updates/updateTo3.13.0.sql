@@ -0,0 +1,417 @@
+--
+-- Copyright (c) UChicago Argonne, LLC. All rights reserved.
+-- See LICENSE file.
+--
+
+-- Execute by running `mysql CDB_DB_NAME --host=127.0.0.1 --user=cdb -p < updateTo3.13.0.sql`
+
+--
+-- Table `user_session_token`
+--
+
+CREATE TABLE IF NOT EXISTS `user_session_token` (
+  `id` int(11) unsigned NOT NULL AUTO_INCREMENT,
+  `token_hash` char(64) NOT NULL,
+  `user_id` int(11) unsigned NOT NULL,
+  `created_on_date_time` datetime NOT NULL,
+  `expiration_date_time` datetime NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `user_session_token_u1` (`token_hash`),
+  KEY `user_session_token_k1` (`user_id`),
+  KEY `user_session_token_k2` (`expiration_date_time`),
+  CONSTRAINT `user_session_token_fk1` FOREIGN KEY (`user_id`) REFERENCES `user_info` (`id`) ON UPDATE CASCADE ON DELETE CASCADE
+) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
+
+
+-- write permissions are resolved with JPQL by the portal
+DROP PROCEDURE IF EXISTS items_with_write_permission_for_user;
+
+--
+-- Table `item_ancestor`
+--
+
+DROP TABLE IF EXISTS `item_ancestor`;
+CREATE TABLE `item_ancestor` (
+  `descendant_item_id` int(11) unsigned NOT NULL,
+  `ancestor_item_id` int(11) unsigned NOT NULL,
+  `path_count` int(11) NOT NULL DEFAULT 1,
+  PRIMARY KEY (`descendant_item_id`, `ancestor_item_id`),
+  KEY `item_ancestor_k1` (`ancestor_item_id`),
+  CONSTRAINT `item_ancestor_fk1` FOREIGN KEY (`descendant_item_id`) REFERENCES `item` (`id`) ON UPDATE CASCADE ON DELETE CASCADE,
+  CONSTRAINT `item_ancestor_fk2` FOREIGN KEY (`ancestor_item_id`) REFERENCES `item` (`id`) ON UPDATE CASCADE ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+delimiter //
+
+DROP PROCEDURE IF EXISTS update_item_ancestor//
+CREATE PROCEDURE update_item_ancestor
+	(edge_parent_item_id INT,
+	edge_contained_item_id INT,
+	path_count_sign INT)
+BEGIN
+	# Paths through the edge lead from the parent item and its ancestors to 
+	# the contained item and its descendants. 
+	DROP TEMPORARY TABLE IF EXISTS item_ancestor_change;
+	CREATE TEMPORARY TABLE item_ancestor_change
+	SELECT d.descendant_item_id, a.ancestor_item_id, 
+		a.path_count * d.path_count * path_count_sign AS path_count
+	FROM 
+		(SELECT edge_parent_item_id AS ancestor_item_id, 1 AS path_count
+		UNION ALL
+		SELECT ia.ancestor_item_id, ia.path_count
+		FROM item_ancestor ia
+		WHERE ia.descendant_item_id = edge_parent_item_id) a
+	CROSS JOIN
+		(SELECT edge_contained_item_id AS descendant_item_id, 1 AS path_count
+		UNION ALL
+		SELECT ia.descendant_item_id, ia.path_count
+		FROM item_ancestor ia
+		WHERE ia.ancestor_item_id = edge_contained_item_id) d
+	WHERE a.ancestor_item_id != d.descendant_item_id;
+
+	INSERT INTO item_ancestor (descendant_item_id, ancestor_item_id, path_count)
+	SELECT c.descendant_item_id, c.ancestor_item_id, c.path_count
+	FROM item_ancestor_change c
+	ON DUPLICATE KEY UPDATE path_count = item_ancestor.path_count + c.path_count;
+
+	DELETE ia FROM item_ancestor ia 
+	INNER JOIN item_ancestor_change c 
+		ON ia.descendant_item_id = c.descendant_item_id
+		AND ia.ancestor_item_id = c.ancestor_item_id
+	WHERE ia.path_count <= 0;
+
+	DROP TEMPORARY TABLE item_ancestor_change;
+END//
+
+DROP PROCEDURE IF EXISTS rebuild_item_ancestor//
+CREATE PROCEDURE rebuild_item_ancestor()
+BEGIN
+	# Paths are added one length at a time; each layer holds the number of 
+	# paths of the current length between two items. 
+	DECLARE layer_size INT DEFAULT 1;
+	DECLARE path_length INT DEFAULT 1;
+
+	DELETE FROM item_ancestor;
+
+	DROP TEMPORARY TABLE IF EXISTS item_ancestor_layer;
+	CREATE TEMPORARY TABLE item_ancestor_layer
+	SELECT contained_item_id1 AS descendant_item_id, 
+		parent_item_id AS ancestor_item_id, COUNT(*) AS path_count
+	FROM item_element
+	WHERE contained_item_id1 IS NOT NULL
+	GROUP BY contained_item_id1, parent_item_id;
+
+	WHILE layer_size > 0 AND path_length <= 1000 DO
+		INSERT INTO item_ancestor (descendant_item_id, ancestor_item_id, path_count)
+		SELECT l.descendant_item_id, l.ancestor_item_id, l.path_count
+		FROM item_ancestor_layer l
+		WHERE l.descendant_item_id != l.ancestor_item_id
+		ON DUPLICATE KEY UPDATE path_count = item_ancestor.path_count + l.path_count;
+
+		DROP TEMPORARY TABLE IF EXISTS item_ancestor_next_layer;
+		CREATE TEMPORARY TABLE item_ancestor_next_layer
+		SELECT ie.contained_item_id1 AS descendant_item_id, 
+			l.ancestor_item_id, SUM(l.path_count) AS path_count
+		FROM item_ancestor_layer l
+		INNER JOIN item_element ie ON ie.parent_item_id = l.descendant_item_id
+		WHERE ie.contained_item_id1 IS NOT NULL
+		GROUP BY ie.contained_item_id1, l.ancestor_item_id;
+
+		DROP TEMPORARY TABLE item_ancestor_layer;
+		ALTER TABLE item_ancestor_next_layer RENAME TO item_ancestor_layer;
+		SELECT COUNT(*) INTO layer_size FROM item_ancestor_layer;
+		SET path_length = path_length + 1;
+	END WHILE;
+
+	DROP TEMPORARY TABLE item_ancestor_layer;
+END//
+
+DROP TRIGGER IF EXISTS insert_item_element_ancestor//
+CREATE trigger insert_item_element_ancestor AFTER INSERT ON item_element
+FOR EACH ROW
+BEGIN
+	IF NEW.contained_item_id1 IS NOT NULL
+	THEN
+		CALL update_item_ancestor(NEW.parent_item_id, NEW.contained_item_id1, 1);
+	END IF;
+END //
+
+DROP TRIGGER IF EXISTS update_item_element_ancestor//
+CREATE trigger update_item_element_ancestor AFTER UPDATE ON item_element
+FOR EACH ROW
+BEGIN
+	IF NOT (OLD.contained_item_id1 <=> NEW.contained_item_id1) 
+		OR OLD.parent_item_id != NEW.parent_item_id
+	THEN
+		IF OLD.contained_item_id1 IS NOT NULL
+		THEN
+			CALL update_item_ancestor(OLD.parent_item_id, OLD.contained_item_id1, -1);
+		END IF;
+		IF NEW.contained_item_id1 IS NOT NULL
+		THEN
+			CALL update_item_ancestor(NEW.parent_item_id, NEW.contained_item_id1, 1);
+		END IF;
+	END IF;
+END //
+
+DROP TRIGGER IF EXISTS delete_item_element_ancestor//
+CREATE trigger delete_item_element_ancestor AFTER DELETE ON item_element
+FOR EACH ROW
+BEGIN
+	IF OLD.contained_item_id1 IS NOT NULL
+	THEN
+		CALL update_item_ancestor(OLD.parent_item_id, OLD.contained_item_id1, -1);
+	END IF;
+END //
+
+delimiter ;
+
+CALL rebuild_item_ancestor();
+
+--
+-- Indexed property values
+--
+
+ALTER TABLE `property_value` ADD KEY `property_value_k3` (`property_type_id`, `value`(190));
+ALTER TABLE `property_metadata` ADD KEY `property_metadata_k2` (`metadata_key`, `metadata_value`(190));
+
+DROP TABLE IF EXISTS `item_property_index`;
+CREATE TABLE `item_property_index` (
+  `id` int(11) unsigned NOT NULL AUTO_INCREMENT,
+  `item_id` int(11) unsigned NOT NULL,
+  `property_value_id` int(11) unsigned NOT NULL,
+  `property_type_id` int(11) unsigned NOT NULL,
+  `metadata_key` varchar(64) NOT NULL DEFAULT '',
+  `value` varchar(256) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `item_property_index_u1` (`item_id`, `property_value_id`, `metadata_key`),
+  KEY `item_property_index_k1` (`property_type_id`, `metadata_key`, `value`(190)),
+  KEY `item_property_index_k2` (`property_value_id`),
+  CONSTRAINT `item_property_index_fk1` FOREIGN KEY (`item_id`) REFERENCES `item` (`id`) ON UPDATE CASCADE ON DELETE CASCADE,
+  CONSTRAINT `item_property_index_fk2` FOREIGN KEY (`property_value_id`) REFERENCES `property_value` (`id`) ON UPDATE CASCADE ON DELETE CASCADE
+) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
+
+delimiter //
+
+DROP PROCEDURE IF EXISTS update_item_property_index//
+CREATE PROCEDURE update_item_property_index
+	(index_property_value_id INT)
+BEGIN
+	# Values and metadata of properties assigned to the self element of an 
+	# item are indexed for filtering and sorting of item lists. 
+	DELETE FROM item_property_index
+	WHERE property_value_id = index_property_value_id;
+
+	INSERT INTO item_property_index 
+		(item_id, property_value_id, property_type_id, metadata_key, value)
+	SELECT ie.parent_item_id, pv.id, pv.property_type_id, '', pv.value
+	FROM property_value pv
+	INNER JOIN item_element_property iep ON iep.property_value_id = pv.id
+	INNER JOIN item_element ie ON ie.id = iep.item_element_id
+	WHERE pv.id = index_property_value_id
+		AND ie.name IS NULL 
+		AND ie.derived_from_item_element_id IS NULL
+	UNION ALL
+	SELECT ie.parent_item_id, pv.id, pv.property_type_id, pm.metadata_key, pm.metadata_value
+	FROM property_value pv
+	INNER JOIN property_metadata pm ON pm.property_value_id = pv.id
+	INNER JOIN item_element_property iep ON iep.property_value_id = pv.id
+	INNER JOIN item_element ie ON ie.id = iep.item_element_id
+	WHERE pv.id = index_property_value_id
+		AND ie.name IS NULL 
+		AND ie.derived_from_item_element_id IS NULL;
+END//
+
+DROP PROCEDURE IF EXISTS rebuild_item_property_index//
+CREATE PROCEDURE rebuild_item_property_index()
+BEGIN
+	DELETE FROM item_property_index;
+
+	INSERT INTO item_property_index 
+		(item_id, property_value_id, property_type_id, metadata_key, value)
+	SELECT ie.parent_item_id, pv.id, pv.property_type_id, '', pv.value
+	FROM property_value pv
+	INNER JOIN item_element_property iep ON iep.property_value_id = pv.id
+	INNER JOIN item_element ie ON ie.id = iep.item_element_id
+	WHERE ie.name IS NULL 
+		AND ie.derived_from_item_element_id IS NULL
+	UNION ALL
+	SELECT ie.parent_item_id, pv.id, pv.property_type_id, pm.metadata_key, pm.metadata_value
+	FROM property_value pv
+	INNER JOIN property_metadata pm ON pm.property_value_id = pv.id
+	INNER JOIN item_element_property iep ON iep.property_value_id = pv.id
+	INNER JOIN item_element ie ON ie.id = iep.item_element_id
+	WHERE ie.name IS NULL 
+		AND ie.derived_from_item_element_id IS NULL;
+END//
+
+DROP TRIGGER IF EXISTS insert_item_element_property_index//
+CREATE trigger insert_item_element_property_index AFTER INSERT ON item_element_property
+FOR EACH ROW
+BEGIN
+	CALL update_item_property_index(NEW.property_value_id);
+END //
+
+DROP TRIGGER IF EXISTS delete_item_element_property_index//
+CREATE trigger delete_item_element_property_index AFTER DELETE ON item_element_property
+FOR EACH ROW
+BEGIN
+	CALL update_item_property_index(OLD.property_value_id);
+END //
+
+DROP TRIGGER IF EXISTS update_property_value_index//
+CREATE trigger update_property_value_index AFTER UPDATE ON property_value
+FOR EACH ROW
+BEGIN
+	IF NOT (OLD.value <=> NEW.value) 
+		OR OLD.property_type_id != NEW.property_type_id
+	THEN
+		CALL update_item_property_index(NEW.id);
+	END IF;
+END //
+
+DROP TRIGGER IF EXISTS insert_property_metadata_index//
+CREATE trigger insert_property_metadata_index AFTER INSERT ON property_metadata
+FOR EACH ROW
+BEGIN
+	CALL update_item_property_index(NEW.property_value_id);
+END //
+
+DROP TRIGGER IF EXISTS update_property_metadata_index//
+CREATE trigger update_property_metadata_index AFTER UPDATE ON property_metadata
+FOR EACH ROW
+BEGIN
+	CALL update_item_property_index(OLD.property_value_id);
+	IF OLD.property_value_id != NEW.property_value_id
+	THEN
+		CALL update_item_property_index(NEW.property_value_id);
+	END IF;
+END //
+
+DROP TRIGGER IF EXISTS delete_property_metadata_index//
+CREATE trigger delete_property_metadata_index AFTER DELETE ON property_metadata
+FOR EACH ROW
+BEGIN
+	CALL update_item_property_index(OLD.property_value_id);
+END //
+
+delimiter ;
+
+CALL rebuild_item_property_index();
+
+--
+-- Item checks skipped for bulk writes validated by the portal
+--
+
+delimiter //
+
+DROP FUNCTION IF EXISTS check_item//
+CREATE FUNCTION check_item
+	(domain_id INT, 
+	item_name VARCHAR(64), 
+	item_identifier1 VARCHAR(32), 
+	item_identifier2 VARCHAR(32), 
+	derived_from_item_id INT,
+	existing_item_id INT)
+RETURNS BOOLEAN
+BEGIN
+	DECLARE error_message varchar(128);  
+	DECLARE unique_result BOOLEAN;
+	DECLARE item_identifier1_label VARCHAR(32);
+	DECLARE item_identifier2_label VARCHAR(32);
+
+	# Set by the portal for bulk writes it has already validated as a set.
+	IF @cdb_skip_item_checks = 1
+	THEN
+		RETURN true;
+	END IF;
+	
+	CALL is_item_attributes_valid(domain_id, item_identifier1, item_identifier2, error_message, item_identifier1_label, item_identifier2_label);
+
+	IF ISNULL(error_message)
+	THEN
+		CALL is_item_attributes_unique(domain_id, item_name, item_identifier1, item_identifier2, derived_from_item_id, existing_item_id, unique_result);
+
+		IF NOT unique_result
+		THEN
+			set error_message = 'Item has nonunique attributes, please update one or more of the following: name';
+			
+			IF NOT ISNULL(item_identifier1_label) AND NOT ISNULL(item_identifier1) THEN
+				set error_message = CONCAT(error_message, ', ', item_identifier1_label);
+			END IF;
+
+			IF NOT ISNULL(item_identifier2_label) AND NOT ISNULL(item_identifier2) THEN
+				set error_message = CONCAT(error_message, ', ', item_identifier2_label);
+			END IF;
+			
+			SIGNAL SQLSTATE '45000'
+				SET MESSAGE_TEXT = error_message;
+		END IF;
+	END IF;
+
+	IF NOT ISNULL(error_message)
+	THEN
+		SIGNAL SQLSTATE '45000'
+			SET MESSAGE_TEXT = error_message;
+	END IF;
+
+	RETURN true;
+END//
+
+DROP FUNCTION IF EXISTS check_item_element//
+CREATE FUNCTION check_item_element
+	(item_element_name VARCHAR(64),
+	parent_item_id INT,
+	derived_from_item_element_id INT,
+	existing_item_element_id INT)
+RETURNS BOOLEAN
+BEGIN	
+	DECLARE result BOOLEAN;
+
+	IF @cdb_skip_item_checks = 1
+	THEN
+		RETURN true;
+	END IF;
+
+	SET result = is_item_element_attributes_unique(item_element_name, parent_item_id, derived_from_item_element_id, existing_item_element_id); 
+
+	IF not result
+	THEN 
+		SIGNAL SQLSTATE '45000'
+			SET MESSAGE_TEXT = 'Item element is not unque, please update: name, parent item, or derived from item element attribute.';
+	END IF;
+
+	RETURN true;
+END//
+
+delimiter ;
+
+--
+-- Table `entity_change`
+--
+
+CREATE TABLE IF NOT EXISTS `entity_change` (
+  `id` bigint(20) unsigned NOT NULL AUTO_INCREMENT,
+  `sequence_number` bigint(20) unsigned DEFAULT NULL,
+  `entity_type_name` varchar(64) NOT NULL,
+  `entity_id` int(11) unsigned NOT NULL,
+  `change_type` varchar(16) NOT NULL,
+  `changed_on_date_time` datetime NOT NULL,
+  `changed_by_user_id` int(11) unsigned DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `entity_change_u1` (`sequence_number`),
+  KEY `entity_change_k1` (`changed_on_date_time`),
+  KEY `entity_change_k2` (`entity_type_name`, `entity_id`),
+  KEY `entity_change_k3` (`changed_by_user_id`),
+  CONSTRAINT `entity_change_fk1` FOREIGN KEY (`changed_by_user_id`) REFERENCES `user_info` (`id`) ON UPDATE CASCADE ON DELETE SET NULL
+) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8;
+
+--
+-- Table `entity_change_sequence`
+--
+
+CREATE TABLE IF NOT EXISTS `entity_change_sequence` (
+  `id` int(11) unsigned NOT NULL,
+  `last_sequence_number` bigint(20) unsigned NOT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
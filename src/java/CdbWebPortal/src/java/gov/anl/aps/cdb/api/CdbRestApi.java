@@ -4,6 +4,7 @@
  */
 package gov.anl.aps.cdb.api;
 
+import com.google.gson.Gson;
 import gov.anl.aps.cdb.common.constants.CdbHttpHeader;
 import gov.anl.aps.cdb.common.constants.CdbProperty;
 import gov.anl.aps.cdb.common.constants.CdbRole;
@@ -17,19 +18,28 @@ import gov.anl.aps.cdb.common.exceptions.CdbException;
 import gov.anl.aps.cdb.common.exceptions.CdbExceptionFactory;
 import gov.anl.aps.cdb.common.utilities.NoServerVerificationSSLSocketFactory;
 import java.io.BufferedReader;
-import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.ConnectException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.ProtocolException;
+import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import javax.net.ssl.HttpsURLConnection;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -58,8 +68,21 @@ public class CdbRestApi {
         return true;
     }
 
+    private static final int DEFAULT_CONNECT_TIMEOUT_IN_MILLIS = 10 * 1000;
+    private static final int DEFAULT_READ_TIMEOUT_IN_MILLIS = 60 * 1000;
+    private static final int RESPONSE_CACHE_SIZE = 1000;
+
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    // response caches are shared by all clients of a service
+    private static final Map<String, ResponseCache> responseCacheMap = new ConcurrentHashMap<>();
+
     private URL serviceUrl;
     private CdbSession session = new CdbSession();
+    private ServiceCircuitBreaker circuitBreaker;
+    private ResponseCache responseCache = null;
+    private int connectTimeout = DEFAULT_CONNECT_TIMEOUT_IN_MILLIS;
+    private int readTimeout = DEFAULT_READ_TIMEOUT_IN_MILLIS;
 
     /**
      * Constructor.
@@ -115,6 +138,40 @@ public class CdbRestApi {
         if (protocol == null) {
             throw new ConfigurationError("Unsupported service protocol specified in " + webServiceUrl);
         }
+
+        circuitBreaker = ServiceCircuitBreaker.getInstance(webServiceUrl);
+        connectTimeout = Integer.getInteger(CdbProperty.WEB_SERVICE_CONNECT_TIMEOUT_PROPERTY_NAME, DEFAULT_CONNECT_TIMEOUT_IN_MILLIS);
+        readTimeout = Integer.getInteger(CdbProperty.WEB_SERVICE_READ_TIMEOUT_PROPERTY_NAME, DEFAULT_READ_TIMEOUT_IN_MILLIS);
+        Integer responseCacheTtl = Integer.getInteger(CdbProperty.WEB_SERVICE_RESPONSE_CACHE_TTL_PROPERTY_NAME);
+        if (responseCacheTtl != null && responseCacheTtl > 0) {
+            enableResponseCache(responseCacheTtl * 1000L);
+        }
+    }
+
+    /**
+     * Set connection timeouts used for requests to this service.
+     *
+     * @param connectTimeout connect timeout in milliseconds, 0 waits forever
+     * @param readTimeout read timeout in milliseconds, 0 waits forever
+     */
+    public void setTimeouts(int connectTimeout, int readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Cache responses of GET requests by request URL. The cache is shared by
+     * all clients of the same service; the first configured TTL is used.
+     *
+     * @param ttlInMillis time to live of cached responses
+     */
+    public void enableResponseCache(long ttlInMillis) {
+        responseCache = responseCacheMap.computeIfAbsent(serviceUrl.toString(),
+                url -> new ResponseCache(RESPONSE_CACHE_SIZE, ttlInMillis));
+    }
+
+    public ServiceCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
     }
 
     public URL getServiceUrl() {
@@ -223,6 +280,17 @@ public class CdbRestApi {
         }
     }
 
+    /**
+     * Prepare post data as a JSON object.
+     *
+     * @param data key/value data map; values may be of any type, e.g. arrays
+     * or booleans
+     * @return JSON string suitable for HTTP post request
+     */
+    public static String prepareJsonPostData(Map<String, ?> data) {
+        return new Gson().toJson(data);
+    }
+
     /**
      * Update session cookie from connection's HTTP headers.
      *
@@ -247,16 +315,24 @@ public class CdbRestApi {
      * @param data key/value data map
      * @param connection HTTP connection
      * @throws InvalidArgument in case there is a problem with post data
-     * @throws CdbException in case of any other error
+     * @throws IOException in case the data cannot be sent
      */
-    private static void sendPostData(Map<String, String> data, HttpURLConnection connection) throws InvalidArgument, CdbException {
-        String postData = preparePostData(data);
-        try (DataOutputStream dos = new DataOutputStream(connection.getOutputStream())) {
-            dos.writeBytes(postData);
-            dos.flush();
-        } catch (IOException ex) {
-            logger.error(ex);
-            throw new CdbException(ex);
+    private static void sendPostData(Map<String, String> data, HttpURLConnection connection) throws InvalidArgument, IOException {
+        sendRequestData(preparePostData(data), connection);
+    }
+
+    /**
+     * Send request body encoded as UTF-8. Communication errors are left to
+     * the caller, which counts them as failures of the service.
+     *
+     * @param postData request body
+     * @param connection HTTP connection
+     * @throws IOException in case the body cannot be sent
+     */
+    private static void sendRequestData(String postData, HttpURLConnection connection) throws IOException {
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(postData.getBytes(StandardCharsets.UTF_8));
+            outputStream.flush();
         }
     }
 
@@ -268,9 +344,8 @@ public class CdbRestApi {
      * @throws CdbException in case of any errors
      */
     protected static String readHttpResponse(HttpURLConnection connection) throws CdbException {
-        try {
-            BufferedReader br = new BufferedReader(new InputStreamReader(
-                    (connection.getInputStream())));
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                (connection.getInputStream())))) {
             StringBuilder sb = new StringBuilder();
             String output;
             while ((output = br.readLine()) != null) {
@@ -421,10 +496,10 @@ public class CdbRestApi {
      */
     public void login(String username, String password, String sessionId) throws CdbException {
         HttpURLConnection connection = null;
+        boolean communicationFailed = false;
         try {
             String urlString = getFullRequestUrl(LOGIN_REQUEST_URL);
-            URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
+            connection = openConnection(urlString);
             setPostRequestHeaders(connection);
             HashMap<String, String> loginData = new HashMap<>();
             loginData.put("username", username);
@@ -438,9 +513,15 @@ public class CdbRestApi {
             session.setId(sessionId);
             updateSessionCookie(connection);
         } catch (ConnectException ex) {
+            communicationFailed = true;
             String errorMsg = "Cannot connect to " + getServiceUrl();
             logger.error(errorMsg);
             throw new CommunicationError(errorMsg, ex);
+        } catch (SocketTimeoutException ex) {
+            communicationFailed = true;
+            String errorMsg = "Timed out waiting for " + getServiceUrl();
+            logger.error(errorMsg);
+            throw new CommunicationError(errorMsg, ex);
         } catch (CdbException ex) {
             logger.error(ex);
             throw ex;
@@ -449,6 +530,11 @@ public class CdbRestApi {
             throw new CdbException(ex);
         } finally {
             if (connection != null) {
+                if (communicationFailed) {
+                    circuitBreaker.recordFailure();
+                } else {
+                    circuitBreaker.recordSuccess();
+                }
                 connection.disconnect();
             }
         }
@@ -476,34 +562,7 @@ public class CdbRestApi {
      * @throws CdbException in case of any errors
      */
     public String invokeSessionGetRequest(String requestUrl) throws CdbException {
-        String urlString = getFullRequestUrl(requestUrl);
-        HttpURLConnection connection = null;
-        try {
-            logger.debug("Invoking session get request for URL: " + requestUrl);
-            String sessionCookie = session.verifyCookie();
-            URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
-
-            setGetRequestHeaders(connection, sessionCookie);
-            updateSessionCookie(connection);
-            checkHttpResponseForCdbException(connection);
-            logger.debug("Response message:\n" + connection.getResponseMessage());
-            return readHttpResponse(connection);
-        } catch (CdbException ex) {
-            throw ex;
-        } catch (ConnectException ex) {
-            String errorMsg = "Cannot connect to " + getServiceUrl();
-            logger.error(errorMsg);
-            throw new CommunicationError(errorMsg, ex);
-        } catch (IOException ex) {
-            CdbException cdbException = convertHttpErrorToCdbException(ex, connection);
-            logger.error(ex.getMessage());
-            throw cdbException;
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-        }
+        return invokeRequest("GET", requestUrl, null, true);
     }
 
     /**
@@ -514,31 +573,7 @@ public class CdbRestApi {
      * @throws CdbException in case of any errors
      */
     public String invokeGetRequest(String requestUrl) throws CdbException {
-        String urlString = getFullRequestUrl(requestUrl);
-        HttpURLConnection connection = null;
-        try {
-            logger.debug("Invoking get request for URL: " + requestUrl);
-            URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
-            updateSessionCookie(connection);
-            checkHttpResponseForCdbException(connection);
-            logger.debug("Response message:\n" + connection.getResponseMessage());
-            return readHttpResponse(connection);
-        } catch (CdbException ex) {
-            throw ex;
-        } catch (ConnectException ex) {
-            String errorMsg = "Cannot connect to " + getServiceUrl();
-            logger.error(errorMsg);
-            throw new CommunicationError(errorMsg, ex);
-        } catch (IOException ex) {
-            CdbException cdbException = convertHttpErrorToCdbException(ex, connection);
-            logger.error(ex.getMessage());
-            throw cdbException;
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-        }
+        return invokeRequest("GET", requestUrl, null, false);
     }
 
     /**
@@ -549,36 +584,33 @@ public class CdbRestApi {
      * @return service response string
      * @throws CdbException in case of any errors
      */
-    public String invokeSessionPostRequest(String requestUrl, Map<String, String> data) throws CdbException {
-        String urlString = getFullRequestUrl(requestUrl);
-        HttpURLConnection connection = null;
-        try {
-            logger.debug("Invoking session post request for URL: " + requestUrl);
-            String sessionCookie = session.verifyCookie();
-            URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
+    public String invokePostRequest(String requestUrl, Map<String, String> data) throws CdbException {
+        return invokeRequest("POST", requestUrl, data, false);
+    }
 
-            setPostRequestHeaders(connection, sessionCookie);
-            sendPostData(data, connection);
-            updateSessionCookie(connection);
-            checkHttpResponseForCdbException(connection);
-            logger.debug("Response message:\n" + connection.getResponseMessage());
-            return readHttpResponse(connection);
-        } catch (CdbException ex) {
-            throw ex;
-        } catch (ConnectException ex) {
-            String errorMsg = "Cannot connect to " + getServiceUrl();
-            logger.error(errorMsg);
-            throw new CommunicationError(errorMsg, ex);
-        } catch (IOException ex) {
-            CdbException cdbException = convertHttpErrorToCdbException(ex, connection);
-            logger.error(ex.getMessage());
-            throw cdbException;
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-        }
+    /**
+     * Invoke POST request with a request body of the given content type.
+     *
+     * @param requestUrl relative request path, e.g. /object
+     * @param data request body
+     * @param contentType content type of the request body
+     * @return service response string
+     * @throws CdbException in case of any errors
+     */
+    protected String invokePostRequest(String requestUrl, String data, String contentType) throws CdbException {
+        return invokeRequest("POST", requestUrl, data, contentType, false);
+    }
+
+    /**
+     * Invoke POST request.
+     *
+     * @param requestUrl relative request path, e.g. /object
+     * @param data request data
+     * @return service response string
+     * @throws CdbException in case of any errors
+     */
+    public String invokeSessionPostRequest(String requestUrl, Map<String, String> data) throws CdbException {
+        return invokeRequest("POST", requestUrl, data, true);
     }
 
     /**
@@ -590,71 +622,221 @@ public class CdbRestApi {
      * @throws CdbException in case of any errors
      */
     public String invokeSessionPutRequest(String requestUrl, Map<String, String> data) throws CdbException {
-        String urlString = getFullRequestUrl(requestUrl);
-        HttpURLConnection connection = null;
+        return invokeRequest("PUT", requestUrl, data, true);
+    }
+
+    /**
+     * Invoke DELETE request.
+     *
+     * @param requestUrl relative request path, e.g. /cdb/object
+     * @return service response string
+     * @throws CdbException in case of any errors
+     */
+    public String invokeSessionDeleteRequest(String requestUrl) throws CdbException {
+        return invokeRequest("DELETE", requestUrl, null, true);
+    }
+
+    /**
+     * Invoke GET request on the given executor. The client does not own any
+     * threads; in the portal pass a container managed executor.
+     *
+     * @param requestUrl relative request path, e.g. /object
+     * @param executor executor running the request
+     * @return future service response string; fails with CdbException
+     */
+    public CompletableFuture<String> invokeGetRequestAsync(String requestUrl, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return invokeGetRequest(requestUrl);
+            } catch (CdbException ex) {
+                throw new CompletionException(ex);
+            }
+        }, executor);
+    }
+
+    /**
+     * Invoke GET requests in parallel on the given executor and wait for all
+     * of them.
+     *
+     * @param requestUrls relative request paths
+     * @param executor executor running the requests
+     * @return service response string for each request that succeeded
+     */
+    public Map<String, String> invokeGetRequests(Collection<String> requestUrls, Executor executor) {
+        Map<String, CompletableFuture<String>> futureMap = new LinkedHashMap<>();
+        for (String requestUrl : requestUrls) {
+            futureMap.putIfAbsent(requestUrl, invokeGetRequestAsync(requestUrl, executor));
+        }
+
+        Map<String, String> responseMap = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<String>> entry : futureMap.entrySet()) {
+            try {
+                responseMap.put(entry.getKey(), entry.getValue().join());
+            } catch (CompletionException ex) {
+                logger.error("Request " + entry.getKey() + " failed: " + ex.getCause());
+            }
+        }
+        return responseMap;
+    }
+
+    /**
+     * Open connection to the service with configured timeouts.
+     *
+     * @param urlString full request URL
+     * @return HTTP connection
+     * @throws CommunicationError if requests to the service are suspended
+     * @throws IOException in case URL cannot be opened
+     */
+    private HttpURLConnection openConnection(String urlString) throws CommunicationError, IOException {
+        if (!circuitBreaker.allowRequest()) {
+            throw new CommunicationError("Requests to " + getServiceUrl() + " are suspended after repeated communication failures.");
+        }
         try {
-            logger.debug("Invoking session put request for URL: " + requestUrl);
-            String sessionCookie = session.verifyCookie();
             URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
-
-            setPutRequestHeaders(connection, sessionCookie);
-            sendPostData(data, connection);
-            updateSessionCookie(connection);
-            checkHttpResponseForCdbException(connection);
-            logger.debug("Response message:\n" + connection.getResponseMessage());
-            return readHttpResponse(connection);
-        } catch (CdbException ex) {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(connectTimeout);
+            connection.setReadTimeout(readTimeout);
+            configureConnection(connection);
+            return connection;
+        } catch (IOException | RuntimeException ex) {
+            // nothing was sent, so the outcome of a trial request is unknown
+            circuitBreaker.releaseTrial();
             throw ex;
-        } catch (ConnectException ex) {
-            String errorMsg = "Cannot connect to " + getServiceUrl();
-            logger.error(errorMsg);
-            throw new CommunicationError(errorMsg, ex);
-        } catch (IOException ex) {
-            CdbException cdbException = convertHttpErrorToCdbException(ex, connection);
-            logger.error(ex.getMessage());
-            throw cdbException;
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
+        }
+    }
+
+    /**
+     * Set request properties needed by every request to the service, e.g.
+     * authorization headers. Called for each new connection.
+     *
+     * @param connection HTTP connection
+     */
+    protected void configureConnection(HttpURLConnection connection) {
+    }
+
+    /**
+     * Release connection for reuse by the keep-alive cache.
+     *
+     * Unlike disconnect(), draining and closing the response streams leaves
+     * the underlying socket open for the next request to the same service.
+     *
+     * @param connection HTTP connection (may be null)
+     */
+    private static void releaseConnection(HttpURLConnection connection) {
+        if (connection == null) {
+            return;
+        }
+        try (InputStream errorStream = connection.getErrorStream()) {
+            if (errorStream != null) {
+                byte[] buffer = new byte[4096];
+                while (errorStream.read(buffer) != -1) {
+                }
             }
+        } catch (IOException ex) {
+            connection.disconnect();
         }
     }
 
     /**
-     * Invoke DELETE request.
+     * Invoke request.
      *
-     * @param requestUrl relative request path, e.g. /cdb/object
+     * @param method HTTP method
+     * @param requestUrl relative request path, e.g. /object
+     * @param data request data (may be null)
+     * @param sessionRequest send session cookie with the request
      * @return service response string
      * @throws CdbException in case of any errors
      */
-    public String invokeSessionDeleteRequest(String requestUrl) throws CdbException {
+    private String invokeRequest(String method, String requestUrl, Map<String, String> data, boolean sessionRequest) throws CdbException {
+        String postData = (data != null) ? preparePostData(data) : null;
+        return invokeRequest(method, requestUrl, postData, FORM_CONTENT_TYPE, sessionRequest);
+    }
+
+    /**
+     * Invoke request.
+     *
+     * @param method HTTP method
+     * @param requestUrl relative request path, e.g. /object
+     * @param postData request body (may be null)
+     * @param contentType content type of the request body
+     * @param sessionRequest send session cookie with the request
+     * @return service response string
+     * @throws CdbException in case of any errors
+     */
+    private String invokeRequest(String method, String requestUrl, String postData, String contentType, boolean sessionRequest) throws CdbException {
         String urlString = getFullRequestUrl(requestUrl);
+        String sessionCookie = null;
+        if (sessionRequest) {
+            sessionCookie = session.verifyCookie();
+        }
+
+        String cacheKey = null;
+        if (responseCache != null && method.equals("GET")) {
+            cacheKey = (sessionCookie != null) ? sessionCookie + " " + urlString : urlString;
+            String response = responseCache.get(cacheKey);
+            if (response != null) {
+                logger.debug("Using cached response for URL: " + requestUrl);
+                return response;
+            }
+        }
+
         HttpURLConnection connection = null;
+        boolean communicationFailed = false;
         try {
-            logger.debug("Invoking session post request for URL: " + requestUrl);
-            String sessionCookie = session.verifyCookie();
-            URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
-
-            setDeleteRequestHeaders(connection, sessionCookie);
+            logger.debug("Invoking " + (sessionRequest ? "session " : "") + method.toLowerCase() + " request for URL: " + requestUrl);
+            connection = openConnection(urlString);
+
+            switch (method) {
+                case "POST":
+                    setPostRequestHeaders(connection, sessionCookie);
+                    break;
+                case "PUT":
+                    setPutRequestHeaders(connection, sessionCookie);
+                    break;
+                case "DELETE":
+                    setDeleteRequestHeaders(connection, sessionCookie);
+                    break;
+                default:
+                    setGetRequestHeaders(connection, sessionCookie);
+            }
+            if (postData != null) {
+                connection.setRequestProperty("Content-Type", contentType);
+                sendRequestData(postData, connection);
+            }
             updateSessionCookie(connection);
             checkHttpResponseForCdbException(connection);
             logger.debug("Response message:\n" + connection.getResponseMessage());
-            return readHttpResponse(connection);
+            String response = readHttpResponse(connection);
+            if (cacheKey != null) {
+                responseCache.put(cacheKey, response);
+            }
+            return response;
         } catch (CdbException ex) {
             throw ex;
         } catch (ConnectException ex) {
+            communicationFailed = true;
             String errorMsg = "Cannot connect to " + getServiceUrl();
             logger.error(errorMsg);
             throw new CommunicationError(errorMsg, ex);
+        } catch (SocketTimeoutException ex) {
+            communicationFailed = true;
+            String errorMsg = "Timed out waiting for " + getServiceUrl();
+            logger.error(errorMsg);
+            throw new CommunicationError(errorMsg, ex);
         } catch (IOException ex) {
             CdbException cdbException = convertHttpErrorToCdbException(ex, connection);
             logger.error(ex.getMessage());
             throw cdbException;
         } finally {
             if (connection != null) {
-                connection.disconnect();
+                // any response means the service is reachable
+                if (communicationFailed) {
+                    circuitBreaker.recordFailure();
+                    connection.disconnect();
+                } else {
+                    circuitBreaker.recordSuccess();
+                    releaseConnection(connection);
+                }
             }
         }
     }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of web service responses keyed by request URL, with a
+ * fixed time to live per entry.
+ */
+public class ResponseCache {
+
+    private final Map<String, Entry> entryMap;
+    private final long ttlInMillis;
+
+    public ResponseCache(int maxSize, long ttlInMillis) {
+        this.ttlInMillis = ttlInMillis;
+        this.entryMap = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return cached response or null if there is none or it has expired
+     */
+    public synchronized String get(String key) {
+        Entry entry = entryMap.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expirationTime) {
+            entryMap.remove(key);
+            return null;
+        }
+        return entry.response;
+    }
+
+    public synchronized void put(String key, String response) {
+        entryMap.put(key, new Entry(response, System.currentTimeMillis() + ttlInMillis));
+    }
+
+    public synchronized void clear() {
+        entryMap.clear();
+    }
+
+    public synchronized int size() {
+        return entryMap.size();
+    }
+
+    private static class Entry {
+
+        private final String response;
+        private final long expirationTime;
+
+        Entry(String response, long expirationTime) {
+            this.response = response;
+            this.expirationTime = expirationTime;
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.api;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Circuit breaker shared by all clients of a single web service.
+ *
+ * After a number of consecutive communication failures the circuit opens
+ * and requests fail immediately instead of waiting for timeouts. Once the
+ * open interval passes, a single trial request is let through; its outcome
+ * closes the circuit or opens it again.
+ */
+public class ServiceCircuitBreaker {
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_INTERVAL_IN_MILLIS = 30 * 1000;
+
+    private static final Map<String, ServiceCircuitBreaker> circuitBreakerMap = new ConcurrentHashMap<>();
+
+    private final int failureThreshold;
+    private final long openIntervalInMillis;
+
+    private int failureCount = 0;
+    private long openedTime = 0;
+    private boolean trialInProgress = false;
+
+    public ServiceCircuitBreaker(int failureThreshold, long openIntervalInMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openIntervalInMillis = openIntervalInMillis;
+    }
+
+    /**
+     * @param serviceUrl web service URL
+     * @return circuit breaker of the service, created with default settings
+     * on first use
+     */
+    public static ServiceCircuitBreaker getInstance(String serviceUrl) {
+        return circuitBreakerMap.computeIfAbsent(serviceUrl,
+                url -> new ServiceCircuitBreaker(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_INTERVAL_IN_MILLIS));
+    }
+
+    /**
+     * @return true if a request may be sent to the service
+     */
+    public synchronized boolean allowRequest() {
+        if (failureCount < failureThreshold) {
+            return true;
+        }
+        if (trialInProgress) {
+            return false;
+        }
+        if (System.currentTimeMillis() - openedTime >= openIntervalInMillis) {
+            trialInProgress = true;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void recordSuccess() {
+        failureCount = 0;
+        trialInProgress = false;
+    }
+
+    public synchronized void recordFailure() {
+        failureCount++;
+        if (failureCount >= failureThreshold) {
+            openedTime = System.currentTimeMillis();
+        }
+        trialInProgress = false;
+    }
+
+    /**
+     * Lets another trial request through when the allowed request was not
+     * sent, e.g. because its connection could not be set up.
+     */
+    public synchronized void releaseTrial() {
+        trialInProgress = false;
+    }
+
+    public synchronized boolean isOpen() {
+        return failureCount >= failureThreshold;
+    }
+
+}
@@ -10,6 +10,9 @@ package gov.anl.aps.cdb.common.constants;
 public class CdbProperty {
 
     public static final String WEB_SERVICE_URL_PROPERTY_NAME = "cdb.webService.url";
+    public static final String WEB_SERVICE_CONNECT_TIMEOUT_PROPERTY_NAME = "cdb.webService.connectTimeout";
+    public static final String WEB_SERVICE_READ_TIMEOUT_PROPERTY_NAME = "cdb.webService.readTimeout";
+    public static final String WEB_SERVICE_RESPONSE_CACHE_TTL_PROPERTY_NAME = "cdb.webService.responseCacheTtl";
     
     public static final String PERMANENT_CONTEXT_ROOT_URL_PROPERTY_NAME = "cdb.permanentContextRoot.url";
 
@@ -19,4 +22,21 @@ public class CdbProperty {
 
     public static final String HTTP_LINK_DISPLAY_LENGTH_PROPERTY_NAME = "cdb.portal.handler.http.linkDisplayLength";        
     
+    public static final String SEARCH_INDEX_REFRESH_INTERVAL_PROPERTY_NAME = "cdb.portal.search.indexRefreshInterval";
+    
+    public static final String SHARED_CACHE_SIZE_PROPERTY_NAME = "cdb.portal.cache.size";
+    public static final String SHARED_CACHE_TTL_PROPERTY_NAME = "cdb.portal.cache.ttl";
+    
+    public static final String BULK_WRITE_FLUSH_SIZE_PROPERTY_NAME = "cdb.portal.bulkWrite.flushSize";
+    public static final String MULTI_EDIT_SAVE_CHUNK_SIZE_PROPERTY_NAME = "cdb.portal.multiEdit.saveChunkSize";
+    
+    public static final String REST_SESSION_MAX_TOKENS_PER_USER_PROPERTY_NAME = "cdb.portal.rest.maxTokensPerUser";
+    public static final String REST_SESSION_SWEEP_INTERVAL_PROPERTY_NAME = "cdb.portal.rest.sessionSweepInterval";
+    public static final String REST_SESSION_PERSIST_TOKENS_PROPERTY_NAME = "cdb.portal.rest.persistTokens";
+    public static final String HIERARCHY_MAX_DEPTH_PROPERTY_NAME = "cdb.portal.hierarchy.maxDepth";
+    public static final String MACHINE_DESIGN_MAX_FILTER_NODES_PROPERTY_NAME = "cdb.portal.machineDesign.maxFilterNodes";
+    public static final String DOWNLOAD_PREVIEW_CACHE_SIZE_PROPERTY_NAME = "cdb.portal.download.previewCacheSize";
+    public static final String CHANGE_FEED_RETENTION_DAYS_PROPERTY_NAME = "cdb.portal.changeFeed.retentionDays";
+    public static final String ITEM_DOMAIN_DELTA_OVERLAP_PROPERTY_NAME = "cdb.portal.itemDelta.overlap";
+    
 }
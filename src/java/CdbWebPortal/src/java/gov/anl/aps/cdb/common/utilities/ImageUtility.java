@@ -7,12 +7,14 @@ package gov.anl.aps.cdb.common.utilities;
 import com.drew.imaging.ImageMetadataReader;
 import com.drew.metadata.Directory;
 import com.drew.metadata.Metadata;
+import com.drew.metadata.MetadataException;
 import com.drew.metadata.exif.ExifIFD0Directory;
 import gov.anl.aps.cdb.common.exceptions.ImageProcessingFailed;
 import java.awt.AlphaComposite;
 import java.awt.image.BufferedImage;
 import javax.swing.ImageIcon;
 import java.awt.Image;
+import java.io.File;
 import java.io.IOException;
 import java.awt.geom.AffineTransform;
 import java.awt.Graphics2D;
@@ -71,10 +73,26 @@ public class ImageUtility {
             ByteArrayInputStream data = new ByteArrayInputStream(imageData);
             BufferedImage imageIo = ImageIO.read(data);
 
-            ImageIO.createImageInputStream(data);
+            return resizeImage(imageIo, maxDim, imageFormat);
+        } catch (IOException ex) {
+            logger.error("Could not process image: " + ex.getMessage());
+            throw new ImageProcessingFailed(ex);
+        }
+    }
 
-            int origWidth = imageIo.getWidth();
-            int origHeight = imageIo.getHeight();
+    /**
+     * Resize decoded image using provided format.
+     *
+     * @param image decoded image, see readImage()
+     * @param maxDim largest dimension of the resized image
+     * @param imageFormat image format
+     * @return resized image
+     * @throws ImageProcessingFailed if processing fails for any reason
+     */
+    public static byte[] resizeImage(BufferedImage image, int maxDim, String imageFormat) throws ImageProcessingFailed {
+        try {
+            int origWidth = image.getWidth();
+            int origHeight = image.getHeight();
 
             double scale = (double) maxDim / (double) (origWidth);
             if (origHeight > origWidth) {
@@ -90,7 +108,8 @@ public class ImageUtility {
                 tx.scale(scale, scale);
             }
 
-            return transformImage(imageData, tx, scaledW, scaledH, imageFormat);
+            BufferedImage outImage = transformImage(image, tx, scaledW, scaledH, imageFormat);
+            return writeImage(outImage, imageFormat);
 
         } catch (IOException ex) {
             logger.error("Could not process image: " + ex.getMessage());
@@ -101,6 +120,81 @@ public class ImageUtility {
         }
     }
 
+    public static Boolean verifyImageSizeBigger(BufferedImage image, int maxDim) {
+        return ((image.getWidth() > maxDim) || (image.getHeight() > maxDim));
+    }
+
+    /**
+     * Decodes an image file once, rotated according to its metadata. The file
+     * is read directly from disk rather than from a copy in memory.
+     *
+     * @param imageFile image file
+     * @param imageFormat image format
+     * @return decoded image
+     * @throws ImageProcessingFailed if the file is not a readable image
+     */
+    public static BufferedImage readImage(File imageFile, String imageFormat) throws ImageProcessingFailed {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(imageFile);
+        } catch (IOException ex) {
+            logger.error("Could not read image: " + ex.getMessage());
+            throw new ImageProcessingFailed(ex);
+        }
+        if (image == null) {
+            throw new ImageProcessingFailed("Could not read image: " + imageFile.getName());
+        }
+
+        int orientation;
+        try {
+            orientation = getOrientation(ImageMetadataReader.readMetadata(imageFile));
+        } catch (Exception ex) {
+            logger.debug("No orientation for image " + imageFile.getName() + ": " + ex.getMessage());
+            return image;
+        }
+
+        return rotateImage(image, orientation, imageFormat);
+    }
+
+    /**
+     * Decodes image data once, rotated according to its metadata.
+     *
+     * @param imageData image data
+     * @param imageFormat image format
+     * @return decoded image
+     * @throws ImageProcessingFailed if the data is not a readable image
+     */
+    public static BufferedImage readImage(byte[] imageData, String imageFormat) throws ImageProcessingFailed {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(new ByteArrayInputStream(imageData));
+        } catch (IOException ex) {
+            logger.error("Could not read image: " + ex.getMessage());
+            throw new ImageProcessingFailed(ex);
+        }
+        if (image == null) {
+            throw new ImageProcessingFailed("Could not read image data.");
+        }
+
+        int orientation;
+        try {
+            orientation = getOrientation(ImageMetadataReader.readMetadata(new ByteArrayInputStream(imageData)));
+        } catch (Exception ex) {
+            logger.debug("No orientation for image data: " + ex.getMessage());
+            return image;
+        }
+
+        return rotateImage(image, orientation, imageFormat);
+    }
+
+    private static int getOrientation(Metadata metadata) throws MetadataException {
+        Directory exifD0 = metadata.getFirstDirectoryOfType(ExifIFD0Directory.class);
+        if (exifD0 == null) {
+            throw new MetadataException("No EXIF data.");
+        }
+        return exifD0.getInt(ExifIFD0Directory.TAG_ORIENTATION);
+    }
+
     private static byte[] rotateImageUsingMetadataIfNeeded(byte[] imageData, String imageFormat) throws IOException {
         // Get orientation
         int orientation = -1;
@@ -118,16 +212,23 @@ public class ImageUtility {
 
         ByteArrayInputStream data = new ByteArrayInputStream(imageData);
         BufferedImage imageIo = ImageIO.read(data);
-        int width = imageIo.getWidth();
-        int height = imageIo.getHeight();
+        BufferedImage rotatedImage = rotateImage(imageIo, orientation, imageFormat);
+        if (rotatedImage == imageIo) {
+            return imageData;
+        }
 
-        AffineTransform tx = new AffineTransform();
+        return writeImage(rotatedImage, imageFormat);
+    }
+
+    private static BufferedImage rotateImage(BufferedImage image, int orientation, String imageFormat) {
+        int width = image.getWidth();
+        int height = image.getHeight();
 
-        boolean flipAxes = false;
+        AffineTransform tx = new AffineTransform();
 
         switch (orientation) {
             case 1:
-                return imageData;
+                return image;
             case 2: // Flip X
                 tx.scale(-1.0, 1.0);
                 tx.translate(-height, 0);
@@ -159,7 +260,7 @@ public class ImageUtility {
                 tx.rotate(3 * Math.PI / 2);
                 break;
             default:
-                return imageData;
+                return image;
         }
 
         if (orientation > 4) {
@@ -168,14 +269,11 @@ public class ImageUtility {
             height = tmp;
         }
 
-        return transformImage(imageData, tx, width, height, imageFormat);
+        return transformImage(image, tx, width, height, imageFormat);
 
     }
 
-    private static byte[] transformImage(byte[] imageBytes, AffineTransform transformation, int width, int height, String imageFormat) throws IOException {
-        ByteArrayInputStream data = new ByteArrayInputStream(imageBytes);
-        BufferedImage imageIo = ImageIO.read(data);
-
+    private static BufferedImage transformImage(BufferedImage imageIo, AffineTransform transformation, int width, int height, String imageFormat) {
         // Chose image type based on incoming image format.
         int imageType;
         switch (imageFormat.toLowerCase()) {
@@ -209,8 +307,12 @@ public class ImageUtility {
         g2d.drawImage(imageIo, transformation, null);
         g2d.dispose();
 
+        return outImage;
+    }
+
+    private static byte[] writeImage(BufferedImage image, String imageFormat) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(outImage, imageFormat, baos);
+        ImageIO.write(image, imageFormat, baos);
         byte[] bytesOut = baos.toByteArray();
         return bytesOut;
     }
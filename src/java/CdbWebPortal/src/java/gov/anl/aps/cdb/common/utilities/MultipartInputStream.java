@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.common.utilities;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming reader of a multipart/form-data request body.
+ *
+ * Parts are read one after the other with a fixed size buffer, so a part of
+ * any size can be copied without holding it in memory. After nextPart()
+ * returns true, the read methods return the content of the current part.
+ */
+public class MultipartInputStream extends InputStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_LINE_LENGTH = 8 * 1024;
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private static final Pattern BOUNDARY_PATTERN = Pattern.compile("boundary=(\"([^\"]+)\"|[^;\\s]+)", Pattern.CASE_INSENSITIVE);
+
+    private final InputStream input;
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int position = 0;
+    private int limit = 0;
+    private boolean endOfInput = false;
+
+    private boolean partEnded = false;
+    private boolean lastPartRead = false;
+    private String partName;
+    private String partFileName;
+    private String partContentType;
+
+    public MultipartInputStream(InputStream input, String boundary) {
+        this.input = input;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.US_ASCII);
+        this.buffer = new byte[BUFFER_SIZE + delimiter.length];
+
+        // The first boundary is not preceded by a line break. Content before
+        // it is read as an unnamed preamble part.
+        System.arraycopy(CRLF, 0, buffer, 0, CRLF.length);
+        limit = CRLF.length;
+    }
+
+    /**
+     * @param contentType value of the Content-Type header
+     * @return boundary parameter of a multipart content type or null
+     */
+    public static String getBoundary(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        Matcher matcher = BOUNDARY_PATTERN.matcher(contentType);
+        if (!matcher.find()) {
+            return null;
+        }
+        if (matcher.group(2) != null) {
+            return matcher.group(2);
+        }
+        return matcher.group(1);
+    }
+
+    /**
+     * Skips remaining content of the current part and reads headers of the
+     * next one.
+     *
+     * @return false when there are no more parts
+     * @throws IOException if the body is not a valid multipart body
+     */
+    public boolean nextPart() throws IOException {
+        if (lastPartRead) {
+            return false;
+        }
+
+        byte[] skipBuffer = new byte[BUFFER_SIZE];
+        while (read(skipBuffer, 0, skipBuffer.length) != -1) {
+        }
+
+        // positioned at the delimiter
+        position += delimiter.length;
+        String delimiterEnd = readLine();
+        if (delimiterEnd.startsWith("--")) {
+            lastPartRead = true;
+            return false;
+        }
+
+        partName = null;
+        partFileName = null;
+        partContentType = null;
+
+        String header;
+        while (!(header = readLine()).isEmpty()) {
+            int separatorIndex = header.indexOf(':');
+            if (separatorIndex < 0) {
+                continue;
+            }
+            String headerName = header.substring(0, separatorIndex).trim();
+            String headerValue = header.substring(separatorIndex + 1).trim();
+            if (headerName.equalsIgnoreCase("Content-Disposition")) {
+                partName = getHeaderParameter(headerValue, "name");
+                partFileName = getHeaderParameter(headerValue, "filename");
+            } else if (headerName.equalsIgnoreCase("Content-Type")) {
+                partContentType = headerValue;
+            }
+        }
+
+        partEnded = false;
+        return true;
+    }
+
+    /**
+     * Moves to the first part that contains a file.
+     *
+     * @return false if the body does not contain a file
+     * @throws IOException if the body is not a valid multipart body
+     */
+    public boolean nextFilePart() throws IOException {
+        while (nextPart()) {
+            if (partFileName != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getPartName() {
+        return partName;
+    }
+
+    public String getPartFileName() {
+        return partFileName;
+    }
+
+    public String getPartContentType() {
+        return partContentType;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] singleByte = new byte[1];
+        int count = read(singleByte, 0, 1);
+        if (count == -1) {
+            return -1;
+        }
+        return singleByte[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (partEnded) {
+            return -1;
+        }
+        if (len == 0) {
+            return 0;
+        }
+
+        while (true) {
+            int delimiterIndex = indexOfDelimiter();
+            if (delimiterIndex == position) {
+                partEnded = true;
+                return -1;
+            }
+
+            // bytes at the end of the buffer may be the start of a delimiter
+            int available;
+            if (delimiterIndex >= 0) {
+                available = delimiterIndex - position;
+            } else {
+                available = limit - position - (delimiter.length - 1);
+            }
+
+            if (available > 0) {
+                int count = Math.min(len, available);
+                System.arraycopy(buffer, position, b, off, count);
+                position += count;
+                return count;
+            }
+
+            if (!fill()) {
+                throw new IOException("Unexpected end of multipart request body.");
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private int indexOfDelimiter() {
+        int lastStart = limit - delimiter.length;
+        for (int i = position; i <= lastStart; i++) {
+            int j = 0;
+            while (j < delimiter.length && buffer[i + j] == delimiter[j]) {
+                j++;
+            }
+            if (j == delimiter.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves unread bytes to the start of the buffer and reads more input.
+     *
+     * @return false if no more input is available
+     */
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+
+        int remaining = limit - position;
+        System.arraycopy(buffer, position, buffer, 0, remaining);
+        position = 0;
+        limit = remaining;
+
+        int count = input.read(buffer, limit, buffer.length - limit);
+        if (count == -1) {
+            endOfInput = true;
+            return false;
+        }
+        limit += count;
+        return true;
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (true) {
+            if (position >= limit && !fill()) {
+                throw new IOException("Unexpected end of multipart request body.");
+            }
+            byte b = buffer[position++];
+            if (b == '\n') {
+                break;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+            if (line.size() > MAX_HEADER_LINE_LENGTH) {
+                throw new IOException("Multipart header line is too long.");
+            }
+        }
+        return new String(line.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String getHeaderParameter(String headerValue, String parameterName) {
+        Pattern pattern = Pattern.compile("(^|;)\\s*" + parameterName + "=(\"([^\"]*)\"|[^;\\s]*)", Pattern.CASE_INSENSITIVE);
+        Matcher matcher = pattern.matcher(headerValue);
+        if (!matcher.find()) {
+            return null;
+        }
+        if (matcher.group(3) != null) {
+            return matcher.group(3);
+        }
+        return matcher.group(2);
+    }
+
+}
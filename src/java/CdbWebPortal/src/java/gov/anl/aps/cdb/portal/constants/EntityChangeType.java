@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.constants;
+
+/**
+ * Kinds of changes published by the entity change feed.
+ */
+public enum EntityChangeType {
+
+    created("created"),
+    updated("updated"),
+    deleted("deleted");
+
+    private String value;
+
+    private EntityChangeType(String value) {
+        this.value = value;
+    }
+
+    public final String getValue() {
+        return value;
+    }
+}
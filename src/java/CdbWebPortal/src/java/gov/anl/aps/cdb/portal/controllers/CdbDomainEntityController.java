@@ -384,6 +384,9 @@ public abstract class CdbDomainEntityController<ControllerUtility extends CdbDom
             logger.debug("Data model pre process iterate starting.");
             preparePreProcessListDataModelIterate();
             DataModel<CdbDomainEntity> cdbDomainEntityList = preProcessDomainEntityListDataModel;
+            if (isFilterByPropertiesAutoLoad()) {
+                configurePreProcessPropertyValueDisplay(cdbDomainEntityList);
+            }
             Iterator<CdbDomainEntity> cdbDomainEntityIterator = cdbDomainEntityList.iterator();
             while (cdbDomainEntityIterator.hasNext()) {
                 CdbDomainEntity cdbDomainEntity = cdbDomainEntityIterator.next();
@@ -401,6 +404,48 @@ public abstract class CdbDomainEntityController<ControllerUtility extends CdbDom
         }
     }
 
+    /**
+     * Resolves display values of all displayed property types of the list at
+     * once, so handlers are called once per handler instead of once per item.
+     *
+     * @param cdbDomainEntityList
+     */
+    protected void configurePreProcessPropertyValueDisplay(DataModel<CdbDomainEntity> cdbDomainEntityList) {
+        List<Integer> propertyTypeIdList = getPreProcessPropertyTypeIdList();
+        if (propertyTypeIdList.isEmpty()) {
+            return;
+        }
+
+        List<PropertyValue> propertyValueList = new ArrayList<>();
+        for (CdbDomainEntity entity : cdbDomainEntityList) {
+            for (Integer propertyTypeId : propertyTypeIdList) {
+                if (!entity.isPropertyValueInformationLoaded(propertyTypeId)) {
+                    propertyValueList.addAll(entity.getPropertyValueList(propertyTypeId));
+                }
+            }
+        }
+        PropertyValueUtility.configurePropertyValueDisplay(propertyValueList);
+    }
+
+    /**
+     * @return ids of property types displayed in the list
+     */
+    protected List<Integer> getPreProcessPropertyTypeIdList() {
+        List<Integer> propertyTypeIdList = new ArrayList<>();
+        Integer[] propertyTypeIds = {
+            settingObject.getDisplayPropertyTypeId1(),
+            settingObject.getDisplayPropertyTypeId2(),
+            settingObject.getDisplayPropertyTypeId3(),
+            settingObject.getDisplayPropertyTypeId4(),
+            settingObject.getDisplayPropertyTypeId5()};
+        for (Integer propertyTypeId : propertyTypeIds) {
+            if (propertyTypeId != null && !propertyTypeIdList.contains(propertyTypeId)) {
+                propertyTypeIdList.add(propertyTypeId);
+            }
+        }
+        return propertyTypeIdList;
+    }
+
     protected void loadPropertyValueInformation(Integer propertyTypeId, CdbDomainEntity entity) {
         if (propertyTypeId != null) {
             entity.getPropertyValueInformation(propertyTypeId);
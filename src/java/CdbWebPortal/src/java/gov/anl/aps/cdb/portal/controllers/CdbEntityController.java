@@ -10,6 +10,7 @@ import gov.anl.aps.cdb.common.constants.CdbRole;
 import gov.anl.aps.cdb.common.exceptions.AuthorizationError;
 import gov.anl.aps.cdb.common.exceptions.CdbException;
 import gov.anl.aps.cdb.common.exceptions.InvalidRequest;
+import gov.anl.aps.cdb.portal.model.db.beans.BatchWriteListener;
 import gov.anl.aps.cdb.portal.model.db.beans.CdbEntityFacade;
 import gov.anl.aps.cdb.portal.model.db.beans.LogTopicFacade;
 import gov.anl.aps.cdb.portal.model.db.entities.CdbEntity;
@@ -27,6 +28,8 @@ import gov.anl.aps.cdb.portal.constants.PortalStyles;
 import gov.anl.aps.cdb.portal.controllers.settings.ICdbSettings;
 import gov.anl.aps.cdb.portal.controllers.utilities.CdbEntityControllerUtility;
 import gov.anl.aps.cdb.portal.import_export.export.wizard.ItemDomainExportWizard;
+import gov.anl.aps.cdb.portal.import_export.export.objects.ExportEntitySource;
+import gov.anl.aps.cdb.portal.import_export.export.objects.ListExportEntitySource;
 import gov.anl.aps.cdb.portal.model.ItemLazyDataModel;
 import gov.anl.aps.cdb.portal.model.db.entities.Item;
 import gov.anl.aps.cdb.portal.model.db.entities.UserGroup;
@@ -279,6 +282,21 @@ public abstract class CdbEntityController<ControllerUtility extends CdbEntityCon
         return getEntityDbFacade().findUniqueByName(name, domainName);
     }
 
+    /**
+     * Find entities for a list of ids with a single query.
+     */
+    public List<EntityType> findByIdList(List<Integer> idList) {
+        return getEntityDbFacade().findByIdList(idList);
+    }
+
+    /**
+     * Find entities for a list of names with a single query. Raises
+     * CdbException if the facade does not support lookup by name list.
+     */
+    public List<EntityType> findByNameList(List<String> nameList, String domainName) throws CdbException {
+        return getEntityDbFacade().findByNameList(nameList, domainName);
+    }
+
     public EntityType findUniqueByPath(String path) throws CdbException {
 
         if ((path == null) || (path.isEmpty())) {
@@ -955,10 +973,14 @@ public abstract class CdbEntityController<ControllerUtility extends CdbEntityCon
     }
 
     public void performListCreateOperations(List<EntityType> entities) throws CdbException, RuntimeException {
+        performListCreateOperations(entities, null);
+    }
+
+    public void performListCreateOperations(List<EntityType> entities, BatchWriteListener listener) throws CdbException, RuntimeException {
         UserInfo user = SessionUtility.getUser();
         CdbEntityControllerUtility controllerUtility = getControllerUtility();
 
-        controllerUtility.createList(entities, user);
+        controllerUtility.createList(entities, user, listener);
 
         resetListDataModel();
         resetSelectDataModel();
@@ -969,8 +991,12 @@ public abstract class CdbEntityController<ControllerUtility extends CdbEntityCon
     }
 
     public void createList(List<EntityType> entities, boolean silent) throws CdbException, RuntimeException {
+        createList(entities, silent, null);
+    }
+
+    public void createList(List<EntityType> entities, boolean silent, BatchWriteListener listener) throws CdbException, RuntimeException {
         try {
-            performListCreateOperations(entities);
+            performListCreateOperations(entities, listener);
             if (!silent) {
                 SessionUtility.addInfoMessage("Success", "Created " + entities.size() + " " + getDisplayEntityTypeName() + " instances.");
             }
@@ -1059,8 +1085,12 @@ public abstract class CdbEntityController<ControllerUtility extends CdbEntityCon
     }
 
     public void updateList(List<EntityType> entities) throws CdbException, RuntimeException {
+        updateList(entities, null);
+    }
+
+    public void updateList(List<EntityType> entities, BatchWriteListener listener) throws CdbException, RuntimeException {
         try {
-            performUpdateOperations(entities);
+            performUpdateOperations(entities, listener);
             SessionUtility.addInfoMessage("Success", "Updated " + entities.size() + " " + getDisplayEntityTypeName() + " instances.");
         } catch (CdbException ex) {
             SessionUtility.addErrorMessage("Error", "Could not update list of " + getDisplayEntityTypeName() + ": " + ex.getMessage());
@@ -1073,10 +1103,14 @@ public abstract class CdbEntityController<ControllerUtility extends CdbEntityCon
     }
 
     public void performUpdateOperations(List<EntityType> entities) throws CdbException, RuntimeException {
+        performUpdateOperations(entities, null);
+    }
+
+    public void performUpdateOperations(List<EntityType> entities, BatchWriteListener listener) throws CdbException, RuntimeException {
         CdbEntityControllerUtility controllerUtility = getControllerUtility();
         UserInfo user = SessionUtility.getUser();
 
-        controllerUtility.updateList(entities, user);
+        controllerUtility.updateList(entities, user, listener);
 
         for (EntityType entity : entities) {
             completeEntityUpdate(entity);
@@ -1723,26 +1757,20 @@ public abstract class CdbEntityController<ControllerUtility extends CdbEntityCon
     }
     
     /**
-     * Return list of entities for current export operation.  Subclasses
-     * may override to customize.
+     * Return source of entities for current export operation.  Entities of
+     * lazy data models are paged from the database while the export is
+     * written.  Subclasses may override to customize.
      */
-    public List<EntityType> getExportEntityList() {
+    public ExportEntitySource getExportEntitySource() {
         
         DataModel dataModel = getListDataModel();
         
-        List<EntityType> entityList = null;
         if (dataModel instanceof ItemLazyDataModel) {
             ItemLazyDataModel lazyDataModel = (ItemLazyDataModel) dataModel;
-            entityList = lazyDataModel.getFilteredEntities();
-        } else {
-            entityList = getFilteredEntities();
-        }
-        
-        if (entityList == null) {
-            entityList = new ArrayList<>();
-        }
+            return lazyDataModel.getExportEntitySource();
+        } 
         
-        return entityList;
+        return new ListExportEntitySource(getFilteredEntities());
     }
     
     /**
@@ -69,7 +69,11 @@ import gov.anl.aps.cdb.portal.view.objects.ItemElementConstraintInformation;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import javax.ejb.EJB;
 import javax.faces.component.UIComponent;
 import javax.faces.context.FacesContext;
@@ -1865,6 +1869,19 @@ public abstract class ItemController<
         return fetchFilterablePropertyValue(settingObject.getDisplayListDataModelScopePropertyTypeId());
     }
 
+    @Override
+    protected List<Integer> getPreProcessPropertyTypeIdList() {
+        List<Integer> propertyTypeIdList = super.getPreProcessPropertyTypeIdList();
+
+        if (settingObject.isDisplayListDataModelScopePropertyTypeSelection()) {
+            Integer propertyTypeId = settingObject.getDisplayListDataModelScopePropertyTypeId();
+            if (propertyTypeId != null && !propertyTypeIdList.contains(propertyTypeId)) {
+                propertyTypeIdList.add(propertyTypeId);
+            }
+        }
+        return propertyTypeIdList;
+    }
+
     @Override
     protected void setPreProcessPropertyValueInformation(CdbDomainEntity entity) {
         super.setPreProcessPropertyValueInformation(entity);
@@ -2041,6 +2058,38 @@ public abstract class ItemController<
         return null;
     }
 
+    /**
+     * Same as getPrimaryImageForItem() for many items, without loading them.
+     *
+     * @return primary image value by item id
+     */
+    public static Map<Integer, String> getPrimaryImageMap(ItemFacadeBase itemFacade, List<Integer> itemIdList) {
+        List<Object[]> imageRowList = itemFacade.findPropertyValueAttributeList(itemIdList, ImagePropertyTypeHandler.HANDLER_NAME);
+        List<Integer> propertyValueIdList = new ArrayList<>();
+        for (Object[] imageRow : imageRowList) {
+            propertyValueIdList.add((Integer) imageRow[1]);
+        }
+        Set<Integer> primaryIdSet = itemFacade.findPropertyValueIdSetWithMetadata(
+                propertyValueIdList, PRIMARY_IMAGE_PROPERTY_METADATA_KEY, "true");
+
+        Map<Integer, String> primaryImageMap = new HashMap<>();
+        Set<Integer> primaryItemIdSet = new HashSet<>();
+        for (Object[] imageRow : imageRowList) {
+            Integer itemId = (Integer) imageRow[0];
+            if (primaryItemIdSet.contains(itemId)) {
+                continue;
+            }
+            if (primaryIdSet.contains((Integer) imageRow[1])) {
+                primaryImageMap.put(itemId, (String) imageRow[2]);
+                primaryItemIdSet.add(itemId);
+            } else {
+                // first image unless another one is marked primary
+                primaryImageMap.putIfAbsent(itemId, (String) imageRow[2]);
+            }
+        }
+        return primaryImageMap;
+    }
+
     private static List<PropertyValue> getPropertyValueListWithHandlerForImages(Item item) {
         String imageHandlerName = ImagePropertyTypeHandler.HANDLER_NAME;
         return getPropertyValueListWithHandler(item.getPropertyValueList(), imageHandlerName);
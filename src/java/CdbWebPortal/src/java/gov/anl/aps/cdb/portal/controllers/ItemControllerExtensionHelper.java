@@ -490,6 +490,10 @@ public abstract class ItemControllerExtensionHelper implements IItemController<I
         getItemController().performUpdateOperations(entity);
     } 
 
+    public void performUpdateOperations(List<Item> entities) throws CdbException, RuntimeException {
+        getItemController().performUpdateOperations(entities);
+    }
+
     @Override
     public void performDestroyOperations(Item entity) throws CdbException, RuntimeException {
         getItemController().performDestroyOperations(entity);
@@ -37,7 +37,9 @@ import gov.anl.aps.cdb.portal.model.db.entities.PropertyValue;
 import gov.anl.aps.cdb.portal.model.db.entities.RelationshipType;
 import gov.anl.aps.cdb.portal.model.db.entities.UserGroup;
 import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
+import gov.anl.aps.cdb.portal.model.db.utilities.ItemHierarchyLoader;
 import gov.anl.aps.cdb.portal.utilities.AuthorizationUtility;
+import gov.anl.aps.cdb.portal.utilities.ItemSearchIndex;
 import gov.anl.aps.cdb.portal.utilities.SearchResult;
 import gov.anl.aps.cdb.portal.utilities.SessionUtility;
 import gov.anl.aps.cdb.portal.view.objects.DomainImportExportInfo;
@@ -46,10 +48,13 @@ import gov.anl.aps.cdb.portal.view.objects.KeyValueObject;
 import gov.anl.aps.cdb.portal.view.objects.MachineDesignConnectorCableMapperItem;
 import gov.anl.aps.cdb.portal.view.objects.MachineDesignConnectorListObject;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.Stack;
 import java.util.logging.Level;
 import java.util.regex.Pattern;
@@ -333,13 +338,31 @@ public class ItemDomainMachineDesignController
     }
 
     public void searchMachineDesign() {
-        Pattern searchPattern = Pattern.compile(Pattern.quote(mdSearchString), Pattern.CASE_INSENSITIVE);
-
         ItemDomainMachineDesignTreeNode mdRoot = getCurrentMachineDesignListRootTreeNode();
 
+        if (searchResultsList != null) {
+            for (ItemDomainMachineDesignTreeNode node : searchResultsList) {
+                node.getElement().setRowStyle(null);
+            }
+        }
         searchResultsList = new ArrayList();
 
-        searchMachineDesign(mdRoot, searchPattern, searchResultsList);
+        if (getControllerUtility().isEntitySearchIndexed()) {
+            // find matches in the search index and only walk the branches leading to them
+            Set<Integer> resultIdSet = new HashSet<>();
+            for (ItemSearchIndex.Hit hit : getControllerUtility().getSearchIndex().search(mdSearchString, true)) {
+                resultIdSet.add(hit.getId());
+            }
+            resultIdSet.addAll(getEntityDbFacade().findIdListByAssignedItemNameContaining(mdSearchString));
+            if (!resultIdSet.isEmpty()) {
+                Set<Integer> branchIdSet = getEntityDbFacade().findAncestorIdSet(resultIdSet);
+                mdRoot.loadBranches(branchIdSet);
+                searchMachineDesign(mdRoot, resultIdSet, branchIdSet, searchResultsList);
+            }
+        } else {
+            Pattern searchPattern = Pattern.compile(Pattern.quote(mdSearchString), Pattern.CASE_INSENSITIVE);
+            searchMachineDesign(mdRoot, searchPattern, searchResultsList);
+        }
 
         if (searchResultsList.size() > 0) {
             for (TreeNode node : searchResultsList) {
@@ -378,6 +401,25 @@ public class ItemDomainMachineDesignController
         }
     }
 
+    private void searchMachineDesign(ItemDomainMachineDesignTreeNode parentNode,
+            Set<Integer> resultIdSet, Set<Integer> branchIdSet, List<ItemDomainMachineDesignTreeNode> results) {
+        parentNode.setExpanded(false);
+
+        for (ItemDomainMachineDesignTreeNode node : parentNode.getMachineChildren()) {
+            Item item = node.getElement().getContainedItem();
+            if (item == null) {
+                continue;
+            }
+            if (resultIdSet.contains(item.getId())) {
+                results.add(node);
+                node.getElement().setRowStyle(SearchResult.SEARCH_RESULT_ROW_STYLE);
+            }
+            if (branchIdSet.contains(item.getId())) {
+                searchMachineDesign(node, resultIdSet, branchIdSet, results);
+            }
+        }
+    }
+
     public void selectNextResult() {
         if (searchResultsList != null && searchResultsList.size() > 0) {
             TreeNode selectedItemInListTreeTable = getSelectedItemInListTreeTable();
@@ -2754,15 +2796,32 @@ public class ItemDomainMachineDesignController
             boolean isRootItem,
             boolean rootRelationshipOnly) {
 
-        boolean isValid = true;
-        String validString = "";
+        // load the whole subtree up front, one query per level
+        ItemHierarchyLoader loader = new ItemHierarchyLoader();
+        loader.load(Collections.singletonList(parentItem), false, ItemHierarchyLoader.getConfiguredMaxDepth());
 
-        List<ItemElement> displayList = parentItem.getItemElementDisplayList();
+        collectItemsForDeletion(parentItem, collectedItems, collectedElements, isRootItem, rootRelationshipOnly, loader);
+    }
+
+    private void collectItemsForDeletion(
+            ItemDomainMachineDesign parentItem,
+            List<ItemDomainMachineDesign> collectedItems,
+            List<ItemElement> collectedElements,
+            boolean isRootItem,
+            boolean rootRelationshipOnly,
+            ItemHierarchyLoader loader) {
+
+        List<ItemElement> displayList;
+        if (isRootItem) {
+            displayList = parentItem.getItemElementDisplayList();
+        } else {
+            displayList = loader.getItemElementDisplayList(parentItem);
+        }
         for (ItemElement ie : displayList) {
             Item childItem = ie.getContainedItem();
             if (childItem instanceof ItemDomainMachineDesign) {
                 // depth first ordering is important here, otherwise there are merge errors for deleted items
-                collectItemsForDeletion((ItemDomainMachineDesign) childItem, collectedItems, collectedElements, false, rootRelationshipOnly);
+                collectItemsForDeletion((ItemDomainMachineDesign) childItem, collectedItems, collectedElements, false, rootRelationshipOnly, loader);
                 collectedItems.add((ItemDomainMachineDesign) childItem);
                 if (!rootRelationshipOnly) {
                     collectedElements.add(ie);
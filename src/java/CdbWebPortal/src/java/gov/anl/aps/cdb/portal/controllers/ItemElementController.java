@@ -548,9 +548,7 @@ public class ItemElementController extends CdbDomainEntityController<ItemElement
 
     public void prepareComponentInstancePropertyValueDisplay(ItemElement designElement) {
         List<PropertyValue> propertyValueList = designElement.getPropertyValueList();
-        for (PropertyValue propertyValue : propertyValueList) {
-            PropertyValueUtility.configurePropertyValueDisplay(propertyValue);
-        }
+        PropertyValueUtility.configurePropertyValueDisplay(propertyValueList);
     }
 
     @Override
@@ -25,6 +25,7 @@ import gov.anl.aps.cdb.portal.model.db.entities.RelationshipType;
 import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
 import gov.anl.aps.cdb.portal.model.db.utilities.ItemElementRelationshipUtility;
 import gov.anl.aps.cdb.portal.model.db.utilities.ItemElementUtility;
+import gov.anl.aps.cdb.portal.model.db.utilities.ItemHierarchyLoader;
 import gov.anl.aps.cdb.portal.model.db.utilities.ItemUtility;
 import gov.anl.aps.cdb.portal.utilities.SessionUtility;
 import gov.anl.aps.cdb.portal.view.objects.ItemHierarchyCache;
@@ -560,6 +561,7 @@ public class LocatableItemController implements Serializable {
         if (lowestLocationItem != null) {
             List<ItemDomainLocation> itemHerarchyList = new ArrayList<>();
             Item currentLowestItem = lowestLocationItem;
+            ItemHierarchyLoader ancestorLoader = null;
 
             while (currentLowestItem != null) {
                 if (currentLowestItem instanceof ItemDomainLocation) {
@@ -574,7 +576,11 @@ public class LocatableItemController implements Serializable {
                     currentLowestItem = lowestItem;
                 } else {
                     // Location item 
-                    currentLowestItem = getParentLocationItem(currentLowestItem);
+                    if (ancestorLoader == null) {
+                        // load memberships of all parent locations with one query
+                        ancestorLoader = ItemHierarchyLoader.loadAncestors(currentLowestItem);
+                    }
+                    currentLowestItem = getParentLocationItem(ancestorLoader.getLoadedItem(currentLowestItem));
                 }
             }
 
@@ -930,6 +936,7 @@ public class LocatableItemController implements Serializable {
                 }
 
                 ierhList.add(ierh);
+                item.setLocationChanged(true);
 
             } else {
                 logger.error("updateItemLocation(): item location relationship unexpectedly null for item: " + item.toString());
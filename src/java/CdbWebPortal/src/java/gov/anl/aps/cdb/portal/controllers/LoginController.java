@@ -8,14 +8,15 @@ import gov.anl.aps.cdb.common.constants.CdbRole;
 import gov.anl.aps.cdb.portal.model.db.beans.UserInfoFacade;
 import gov.anl.aps.cdb.portal.model.db.entities.EntityInfo;
 import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
-import gov.anl.aps.cdb.portal.utilities.AuthorizationUtility;
 import gov.anl.aps.cdb.portal.utilities.ConfigurationUtility;
+import gov.anl.aps.cdb.portal.utilities.EntityPermissionCache;
 import gov.anl.aps.cdb.common.utilities.LdapUtility;
 import gov.anl.aps.cdb.portal.utilities.SessionUtility;
 import gov.anl.aps.cdb.common.utilities.CryptUtility;
 import gov.anl.aps.cdb.portal.constants.SystemLogLevel;
 import gov.anl.aps.cdb.portal.model.db.utilities.LogUtility;
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 import javax.ejb.EJB;
 import javax.enterprise.context.SessionScoped;
@@ -46,6 +47,7 @@ public class LoginController implements Serializable {
     private boolean checkedSession = false;
     private boolean registeredSession = false;
     private UserInfo user = null;
+    private EntityPermissionCache entityPermissionCache = null;
     private Integer sessionTimeoutInMiliseconds = null;
 
     private SettingController settingController = null;
@@ -324,10 +326,31 @@ public class LoginController implements Serializable {
             return true;
         }
 
-        return AuthorizationUtility.isEntityWriteableByUser(entityInfo, user);
+        return getEntityPermissionCache().isEntityWriteable(entityInfo);
 
     }
 
+    /**
+     * Resolves write permissions for a batch of entity infos with a single
+     * query before they are checked one by one, e.g. while rendering a list.
+     */
+    public void prefetchEntityWriteable(Collection<Integer> entityInfoIds) {
+        if (!isLoggedIn() || isLoggedInAsAdmin() || isLoggedInAsMaintainer()) {
+            return;
+        }
+        getEntityPermissionCache().prefetch(entityInfoIds);
+    }
+
+    public EntityPermissionCache getEntityPermissionCache() {
+        if (user == null) {
+            return null;
+        }
+        if (entityPermissionCache == null || !user.getId().equals(entityPermissionCache.getUserId())) {
+            entityPermissionCache = new EntityPermissionCache(user);
+        }
+        return entityPermissionCache;
+    }
+
     public boolean isUserWriteable(UserInfo user) {
         if (!isLoggedIn()) {
             return false;
@@ -339,6 +362,7 @@ public class LoginController implements Serializable {
         loggedInAsAdmin = false;
         loggedInAsUser = false;
         user = null;
+        entityPermissionCache = null;
     }
 
     public void handleInvalidSessionRequest() {
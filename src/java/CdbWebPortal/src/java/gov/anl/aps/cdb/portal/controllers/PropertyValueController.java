@@ -11,12 +11,14 @@ import gov.anl.aps.cdb.portal.constants.DisplayType;
 import gov.anl.aps.cdb.portal.controllers.settings.PropertyValueSettings;
 import gov.anl.aps.cdb.portal.controllers.utilities.PropertyValueControllerUtility;
 import gov.anl.aps.cdb.portal.model.db.beans.PropertyMetadataFacade;
+import gov.anl.aps.cdb.portal.model.db.entities.ItemElement;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyValue;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyValue.PropertyValueMetadata;
 import gov.anl.aps.cdb.portal.model.db.beans.PropertyValueFacade;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyMetadata;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyType;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyValueBase;
+import gov.anl.aps.cdb.portal.model.db.utilities.PropertyValueUtility;
 import gov.anl.aps.cdb.portal.model.jsf.handlers.PropertyTypeHandlerFactory;
 import gov.anl.aps.cdb.portal.model.jsf.handlers.PropertyTypeHandlerInterface;
 import gov.anl.aps.cdb.portal.utilities.GalleryUtility;
@@ -150,6 +152,15 @@ public class PropertyValueController extends CdbEntityController<PropertyValueCo
         }
         String displayValue = propertyValue.getDisplayValue();
         DisplayType result = propertyValue.getPropertyType().getDisplayType();
+        if (!propertyValue.isHandlerInfoSet()) {
+            // configure the rest of the property table along with this row
+            List<ItemElement> itemElementList = propertyValue.getItemElementList();
+            if (itemElementList != null && itemElementList.size() == 1) {
+                PropertyValueUtility.configurePropertyValueDisplay(itemElementList.get(0).getPropertyValueList());
+                displayValue = propertyValue.getDisplayValue();
+                result = propertyValue.getPropertyType().getDisplayType();
+            }
+        }
         if (result == null || displayValue == null || displayValue.isEmpty() || !propertyValue.isHandlerInfoSet()) {
             result = configurePropertyValueDisplay(propertyValue);
         }
@@ -5,6 +5,7 @@
 package gov.anl.aps.cdb.portal.controllers.extensions;
 
 import gov.anl.aps.cdb.portal.constants.ItemDefaultColumnReferences;
+import gov.anl.aps.cdb.common.constants.CdbProperty;
 import gov.anl.aps.cdb.common.exceptions.CdbException;
 import gov.anl.aps.cdb.common.utilities.StringUtility;
 import gov.anl.aps.cdb.portal.constants.SystemLogLevel;
@@ -19,17 +20,22 @@ import gov.anl.aps.cdb.portal.model.db.entities.EntityInfo;
 import gov.anl.aps.cdb.portal.model.db.entities.Item;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemDomainLocation;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemElement;
+import gov.anl.aps.cdb.portal.model.db.entities.ItemElementHistory;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemProject;
 import gov.anl.aps.cdb.portal.model.db.entities.LocatableItem;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyType;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyValue;
+import gov.anl.aps.cdb.portal.model.db.entities.PropertyValueHistory;
 import gov.anl.aps.cdb.portal.model.db.entities.UserGroup;
 import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
 import gov.anl.aps.cdb.portal.model.db.utilities.EntityInfoUtility;
+import gov.anl.aps.cdb.portal.utilities.ConfigurationUtility;
+import gov.anl.aps.cdb.portal.utilities.EntityPermissionCache;
 import gov.anl.aps.cdb.portal.utilities.SessionUtility;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -53,6 +59,8 @@ public abstract class ItemMultiEditController extends ItemControllerExtensionHel
 
     private static final Logger logger = LogManager.getLogger(Item.class.getName());
 
+    private static final int DEFAULT_SAVE_CHUNK_SIZE = 100;
+
     @EJB
     protected PropertyValueFacade propertyValueFacade;
 
@@ -307,28 +315,51 @@ public abstract class ItemMultiEditController extends ItemControllerExtensionHel
         int successUpdateCounter = 0;
         int successCreateCounter = 0;
 
-        for (int i = 0; i < selectedItemsToEdit.size(); i++) {
-            Item item = selectedItemsToEdit.get(i);
-            
-            boolean success = false; 
+        List<Item> existingItemList = new ArrayList<>();
+        List<Item> savedItemList = new ArrayList<>();
+        for (Item item : selectedItemsToEdit) {
             if (isItemExistInDb(item)) {
-                if (performSaveOperationsOnItem(item)) {
-                    success = true;
-                    successUpdateCounter++;
-                }
+                existingItemList.add(item);
             } else if (performSaveOperationsOnItem(item)) {
-                success = true; 
                 successCreateCounter++;
+                savedItemList.add(item);
             }
+        }
 
-            if (success) {
-                // Reload the updated item. 
-                Item updatedItem = getItemDbFacade().findById(item.getId());
-                selectedItemsToEdit.remove(i);
-                selectedItemsToEdit.add(i, updatedItem);
+        int chunkSize = getSaveChunkSize();
+        if (chunkSize <= 0) {
+            chunkSize = Math.max(1, existingItemList.size());
+        }
+        for (int start = 0; start < existingItemList.size(); start += chunkSize) {
+            List<Item> chunk = existingItemList.subList(start, Math.min(start + chunkSize, existingItemList.size()));
+            if (chunk.size() > 1) {
+                List<UnsavedItemState> unsavedStateList = new ArrayList<>(chunk.size());
+                for (Item item : chunk) {
+                    unsavedStateList.add(new UnsavedItemState(item));
+                }
+                try {
+                    performUpdateOperations(new ArrayList<>(chunk));
+                    successUpdateCounter += chunk.size();
+                    savedItemList.addAll(chunk);
+                    continue;
+                } catch (CdbException | RuntimeException ex) {
+                    // the chunk was rolled back, find the items that fail
+                    logger.warn("Could not update " + chunk.size() + " items at once, updating one by one: " + ex);
+                    for (UnsavedItemState unsavedState : unsavedStateList) {
+                        unsavedState.restore();
+                    }
+                }
+            }
+            for (Item item : chunk) {
+                if (performSaveOperationsOnItem(item)) {
+                    successUpdateCounter++;
+                    savedItemList.add(item);
+                }
             }
         }
 
+        reloadSavedItems(savedItemList);
+
         // Summary message
         int totalSaved = successCreateCounter + successUpdateCounter;
 
@@ -346,6 +377,121 @@ public abstract class ItemMultiEditController extends ItemControllerExtensionHel
         }
     }
 
+    /**
+     * Replaces saved items in the selection with reloaded instances, fetched
+     * with a single query.
+     */
+    private void reloadSavedItems(List<Item> savedItemList) {
+        List<Integer> idList = new ArrayList<>(savedItemList.size());
+        for (Item item : savedItemList) {
+            idList.add(item.getId());
+        }
+        List<Item> reloadedItemList = getItemDbFacade().findByIdList(idList);
+        Map<Integer, Item> reloadedItemMap = new HashMap<>();
+        for (Item item : reloadedItemList) {
+            reloadedItemMap.put(item.getId(), item);
+        }
+
+        for (int i = 0; i < selectedItemsToEdit.size(); i++) {
+            Item updatedItem = reloadedItemMap.get(selectedItemsToEdit.get(i).getId());
+            if (updatedItem != null) {
+                selectedItemsToEdit.set(i, updatedItem);
+            }
+        }
+    }
+
+    /**
+     * In-memory state of an item before a chunk update. The update is
+     * prepared and flushed on the item itself, so a rolled back chunk leaves
+     * history records and ids of rows that were never committed. Restoring
+     * the state lets the item be prepared and saved again on its own, with
+     * the user's edits kept.
+     */
+    private static class UnsavedItemState {
+
+        // entities compare by id, which the update changes
+        private final Map<PropertyValue, List<PropertyValueHistory>> propertyValueHistoryMap = new IdentityHashMap<>();
+        private final Map<ItemElement, List<ItemElementHistory>> itemElementHistoryMap = new IdentityHashMap<>();
+        private final List<PropertyValue> newPropertyValueList = new ArrayList<>();
+        private final List<ItemElement> newItemElementList = new ArrayList<>();
+        private final List<EntityInfo> newEntityInfoList = new ArrayList<>();
+        private final List<Item> newDerivedItemList = new ArrayList<>();
+
+        UnsavedItemState(Item item) {
+            List<PropertyValue> propertyValueList = item.getPropertyValueList();
+            if (propertyValueList != null) {
+                for (PropertyValue propertyValue : propertyValueList) {
+                    propertyValueHistoryMap.put(propertyValue, copyList(propertyValue.getPropertyValueHistoryList()));
+                    if (propertyValue.getId() == null) {
+                        newPropertyValueList.add(propertyValue);
+                    }
+                }
+            }
+            List<ItemElement> itemElementList = new ArrayList<>();
+            if (item.getFullItemElementList() != null) {
+                itemElementList.addAll(item.getFullItemElementList());
+            }
+            if (item.getItemElementMemberList() != null) {
+                itemElementList.addAll(item.getItemElementMemberList());
+            }
+            for (ItemElement itemElement : itemElementList) {
+                itemElementHistoryMap.put(itemElement, copyList(itemElement.getItemElementHistoryList()));
+                if (itemElement.getId() == null) {
+                    newItemElementList.add(itemElement);
+                    EntityInfo entityInfo = itemElement.getEntityInfo();
+                    if (entityInfo != null && entityInfo.getId() == null) {
+                        newEntityInfoList.add(entityInfo);
+                    }
+                }
+            }
+            List<Item> derivedItemList = item.getDerivedFromItemList();
+            if (derivedItemList != null) {
+                for (Item derivedItem : derivedItemList) {
+                    if (derivedItem.getId() == null) {
+                        newDerivedItemList.add(derivedItem);
+                    }
+                }
+            }
+        }
+
+        private static <T> List<T> copyList(List<T> list) {
+            return list != null ? new ArrayList<>(list) : null;
+        }
+
+        /**
+         * Drops history records added by the rolled back update and clears
+         * ids assigned to rows it inserted.
+         */
+        void restore() {
+            for (Map.Entry<PropertyValue, List<PropertyValueHistory>> entry : propertyValueHistoryMap.entrySet()) {
+                entry.getKey().setPropertyValueHistoryList(copyList(entry.getValue()));
+            }
+            for (Map.Entry<ItemElement, List<ItemElementHistory>> entry : itemElementHistoryMap.entrySet()) {
+                entry.getKey().setItemElementHistoryList(copyList(entry.getValue()));
+            }
+            for (PropertyValue propertyValue : newPropertyValueList) {
+                propertyValue.setId(null);
+            }
+            for (ItemElement itemElement : newItemElementList) {
+                itemElement.setId(null);
+            }
+            for (EntityInfo entityInfo : newEntityInfoList) {
+                entityInfo.setId(null);
+            }
+            for (Item derivedItem : newDerivedItemList) {
+                derivedItem.setId(null);
+            }
+        }
+    }
+
+    private static int getSaveChunkSize() {
+        Integer chunkSize = ConfigurationUtility.getPortalPropertyAsInteger(CdbProperty.MULTI_EDIT_SAVE_CHUNK_SIZE_PROPERTY_NAME);
+        if (chunkSize == null || chunkSize < 0) {
+            return DEFAULT_SAVE_CHUNK_SIZE;
+        }
+        return chunkSize;
+    }
+
     private void processDatabaseOperationsException(Exception ex, Item item, MultiEditMode mode) {
         String actionWord = "";
         if (mode == MultiEditMode.create) {
@@ -481,8 +627,9 @@ public abstract class ItemMultiEditController extends ItemControllerExtensionHel
     }
 
     protected List<Item> getEditableItemsForCurrentNonAdminUser() {
-        UserInfo userInfo = (UserInfo) SessionUtility.getUser();
-        return getItemDbFacade().findItemsWithPermissionsOfDomain(userInfo.getId(), getDomainId());
+        EntityPermissionCache permissionCache = LoginController.getInstance().getEntityPermissionCache();
+        return getItemDbFacade().findItemsWithPermissionsOfDomain(
+                permissionCache.getUserId(), permissionCache.getUserGroupIdList(), getDomainId());
     }
 
     public void updateSingleItem(Item item) {
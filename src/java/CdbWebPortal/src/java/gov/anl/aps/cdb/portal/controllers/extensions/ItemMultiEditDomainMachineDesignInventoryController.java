@@ -5,6 +5,7 @@
 package gov.anl.aps.cdb.portal.controllers.extensions;
 
 import gov.anl.aps.cdb.portal.controllers.ItemController;
+import gov.anl.aps.cdb.portal.controllers.LoginController;
 import gov.anl.aps.cdb.portal.controllers.ItemDomainMachineDesignInventoryController;
 import gov.anl.aps.cdb.portal.model.db.entities.EntityInfo;
 import gov.anl.aps.cdb.portal.model.db.entities.Item;
@@ -13,7 +14,7 @@ import gov.anl.aps.cdb.portal.model.db.entities.ItemElement;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyType;
 import gov.anl.aps.cdb.portal.model.db.entities.UserGroup;
 import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
-import gov.anl.aps.cdb.portal.utilities.AuthorizationUtility;
+import gov.anl.aps.cdb.portal.utilities.EntityPermissionCache;
 import gov.anl.aps.cdb.portal.utilities.SessionUtility;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -107,13 +108,13 @@ public class ItemMultiEditDomainMachineDesignInventoryController extends ItemMul
     @Override
     protected List<Item> getEditableItemsForCurrentNonAdminUser() {
         List<Item> itemList = getItemList();
-        UserInfo user = (UserInfo) SessionUtility.getUser();
+        EntityPermissionCache permissionCache = LoginController.getInstance().getEntityPermissionCache();
         
         List<Item> editableItems = new ArrayList<>(); 
         
         for (Item item : itemList) {
             EntityInfo entityInfo = item.getEntityInfo();
-            if (AuthorizationUtility.isEntityWriteableByUser(entityInfo, user)) {
+            if (permissionCache.isEntityWriteable(entityInfo)) {
                 editableItems.add(item); 
             }
         }
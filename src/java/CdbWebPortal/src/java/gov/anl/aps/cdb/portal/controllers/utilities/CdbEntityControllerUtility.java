@@ -5,11 +5,17 @@
 package gov.anl.aps.cdb.portal.controllers.utilities;
 
 import gov.anl.aps.cdb.common.exceptions.CdbException;
+import gov.anl.aps.cdb.portal.constants.EntityChangeType;
 import gov.anl.aps.cdb.portal.constants.SystemLogLevel;
+import gov.anl.aps.cdb.portal.model.db.beans.BatchWriteListener;
 import gov.anl.aps.cdb.portal.model.db.beans.CdbEntityFacade;
+import gov.anl.aps.cdb.portal.model.db.beans.EntityChangeFacade;
+import gov.anl.aps.cdb.portal.model.db.beans.EntityChangeWrite;
 import gov.anl.aps.cdb.portal.model.db.entities.CdbEntity;
 import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
+import gov.anl.aps.cdb.portal.utilities.EntityChangeFeed;
 import gov.anl.aps.cdb.portal.utilities.SearchResult;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -46,7 +52,11 @@ public abstract class CdbEntityControllerUtility<EntityType extends CdbEntity, F
     public EntityType create(EntityType entity, UserInfo createdByUserInfo) throws CdbException, RuntimeException {
         try {            
             prepareEntityInsert(entity, createdByUserInfo);
-            getEntityDbFacade().create(entity);
+            writeRecordingChanges(() -> {
+                getEntityDbFacade().create(entity);
+                addEntityChanges(Collections.singletonList(entity), EntityChangeType.created, createdByUserInfo);
+                return entity;
+            });
            
             addCreatedSystemLog(entity, createdByUserInfo);
             entity.setPersitanceErrorMessage(null);
@@ -67,11 +77,19 @@ public abstract class CdbEntityControllerUtility<EntityType extends CdbEntity, F
     }
     
     public void createList(List<EntityType> entities, UserInfo createdByUserInfo) throws CdbException, RuntimeException {
+        createList(entities, createdByUserInfo, null);
+    }
+    
+    public void createList(List<EntityType> entities, UserInfo createdByUserInfo, BatchWriteListener listener) throws CdbException, RuntimeException {
         try {
             for (EntityType entity : entities) {
                 prepareEntityInsert(entity, createdByUserInfo);
             }
-            getEntityDbFacade().create(entities);            
+            writeRecordingChanges(() -> {
+                createEntityList(entities, listener);
+                addEntityChanges(entities, EntityChangeType.created, createdByUserInfo);
+                return entities;
+            });
             
             addCdbEntitySystemLog(SystemLogLevel.entityInfo, "Created " + entities.size() + " entities.", createdByUserInfo);            
             setPersistenceErrorMessageForList(entities, null);
@@ -94,7 +112,11 @@ public abstract class CdbEntityControllerUtility<EntityType extends CdbEntity, F
         try {            
             logger.debug("Updating " + getDisplayEntityTypeName() + " " + getEntityInstanceName(entity));
             prepareEntityUpdate(entity, updatedByUserInfo);
-            EntityType updatedEntity = getEntityDbFacade().edit(entity);
+            EntityType updatedEntity = writeRecordingChanges(() -> {
+                EntityType result = getEntityDbFacade().edit(entity);
+                addEntityChanges(Collections.singletonList(entity), EntityChangeType.updated, updatedByUserInfo);
+                return result;
+            });
             addCdbEntitySystemLog(SystemLogLevel.entityInfo, "Updated: " + entity.getSystemLogString(), updatedByUserInfo);
             entity.setPersitanceErrorMessage(null);
             
@@ -119,7 +141,11 @@ public abstract class CdbEntityControllerUtility<EntityType extends CdbEntity, F
         try {
             logger.debug("Updating " + getDisplayEntityTypeName() + " " + getEntityInstanceName(entity));
             prepareEntityUpdateOnRemoval(entity);
-            EntityType updatedEntity = getEntityDbFacade().edit(entity);
+            EntityType updatedEntity = writeRecordingChanges(() -> {
+                EntityType result = getEntityDbFacade().edit(entity);
+                addEntityChanges(Collections.singletonList(entity), EntityChangeType.updated, updatedByUserInfo);
+                return result;
+            });
                         
             return updatedEntity; 
         } catch (CdbException ex) {
@@ -139,12 +165,20 @@ public abstract class CdbEntityControllerUtility<EntityType extends CdbEntity, F
     }
     
     public void updateList(List<EntityType> entities, UserInfo updatedByUserInfo) throws CdbException, RuntimeException {
+        updateList(entities, updatedByUserInfo, null);
+    }
+    
+    public void updateList(List<EntityType> entities, UserInfo updatedByUserInfo, BatchWriteListener listener) throws CdbException, RuntimeException {
         try {
             for (EntityType entity : entities) {
                 logger.debug("Updating " + getDisplayEntityTypeName() + " " + getEntityInstanceName(entity));
                 prepareEntityUpdate(entity, updatedByUserInfo);
             }
-            getEntityDbFacade().edit(entities);
+            writeRecordingChanges(() -> {
+                updateEntityList(entities, listener);
+                addEntityChanges(entities, EntityChangeType.updated, updatedByUserInfo);
+                return entities;
+            });
             for (EntityType entity : entities) {                
                 entity.setPersitanceErrorMessage(null);
                 addCdbEntitySystemLog(SystemLogLevel.entityInfo, "Updated: " + entity.getSystemLogString(), updatedByUserInfo);
@@ -163,10 +197,28 @@ public abstract class CdbEntityControllerUtility<EntityType extends CdbEntity, F
         }
     }
     
+    /**
+     * Writes prepared entities of createList().
+     */
+    protected void createEntityList(List<EntityType> entities, BatchWriteListener listener) throws CdbException {
+        getEntityDbFacade().create(entities, listener);
+    }
+
+    /**
+     * Writes prepared entities of updateList().
+     */
+    protected void updateEntityList(List<EntityType> entities, BatchWriteListener listener) throws CdbException {
+        getEntityDbFacade().edit(entities, listener);
+    }
+    
     public void destroy(EntityType entity, UserInfo destroyedByUserInfo) throws CdbException, RuntimeException {
         try {
             prepareEntityDestroy(entity, destroyedByUserInfo);
-            getEntityDbFacade().remove(entity);
+            writeRecordingChanges(() -> {
+                getEntityDbFacade().remove(entity);
+                addEntityChanges(Collections.singletonList(entity), EntityChangeType.deleted, destroyedByUserInfo);
+                return entity;
+            });
             
             addCdbEntitySystemLog(SystemLogLevel.entityInfo, "Deleted: " + entity.getSystemLogString(), destroyedByUserInfo);            
         } catch (CdbException ex) {
@@ -201,7 +253,14 @@ public abstract class CdbEntityControllerUtility<EntityType extends CdbEntity, F
                 }
             }
 
-            getEntityDbFacade().remove(entities, updateEntity);
+            writeRecordingChanges(() -> {
+                getEntityDbFacade().remove(entities, updateEntity);
+                addEntityChanges(entities, EntityChangeType.deleted, destroyedByUserInfo);
+                if (updateEntity != null) {
+                    addEntityChanges(Collections.singletonList(updateEntity), EntityChangeType.updated, destroyedByUserInfo);
+                }
+                return entities;
+            });
 
             addCdbEntitySystemLog(SystemLogLevel.entityInfo, "Deleted: " + entities.size() + " entities.", destroyedByUserInfo);
             setPersistenceErrorMessageForList(entities, null);
@@ -341,6 +400,36 @@ public abstract class CdbEntityControllerUtility<EntityType extends CdbEntity, F
         logControllerUtility.addSystemLog(logLevel, message);
     }
     
+    /**
+     * Name under which changes of the entities are published by the entity
+     * change feed. Changes of entity types without a name are not published.
+     */
+    protected String getChangeFeedEntityTypeName() {
+        return null;
+    }
+
+    /**
+     * Performs the write in one transaction with the recording of its
+     * changes, for entity types published by the entity change feed.
+     */
+    protected <R> R writeRecordingChanges(EntityChangeWrite<R> write) throws CdbException {
+        if (getChangeFeedEntityTypeName() == null) {
+            return write.execute();
+        }
+        return EntityChangeFacade.getInstance().writeRecordingChanges(write);
+    }
+
+    /**
+     * Records changes of the entities with the entity change feed. Called
+     * within writeRecordingChanges(), after the entities are written.
+     */
+    protected void addEntityChanges(List<? extends CdbEntity> entities, EntityChangeType changeType, UserInfo userInfo) {
+        String entityTypeName = getChangeFeedEntityTypeName();
+        if (entityTypeName != null) {
+            EntityChangeFeed.getInstance().recordChanges(entityTypeName, entities, changeType, userInfo);
+        }
+    }
+
     protected void setPersistenceErrorMessageForList(List<EntityType> entities, String msg) {
         for (EntityType entity : entities) {
             entity.setPersitanceErrorMessage(msg);
@@ -7,14 +7,18 @@ package gov.anl.aps.cdb.portal.controllers.utilities;
 import gov.anl.aps.cdb.common.exceptions.CdbException;
 import gov.anl.aps.cdb.common.exceptions.InvalidRequest;
 import gov.anl.aps.cdb.common.exceptions.ObjectAlreadyExists;
+import gov.anl.aps.cdb.portal.constants.EntityChangeType;
 import gov.anl.aps.cdb.portal.constants.ListName;
 import gov.anl.aps.cdb.portal.controllers.PropertyTypeController;
 import gov.anl.aps.cdb.portal.model.db.beans.AllowedPropertyMetadataValueFacade;
+import gov.anl.aps.cdb.portal.model.db.beans.BatchWriteListener;
 import gov.anl.aps.cdb.portal.model.db.beans.DomainFacade;
+import gov.anl.aps.cdb.portal.model.db.beans.ItemElementFacade;
 import gov.anl.aps.cdb.portal.model.db.beans.ItemFacadeBase;
 import gov.anl.aps.cdb.portal.model.db.beans.PropertyTypeFacade;
 import gov.anl.aps.cdb.portal.model.db.beans.PropertyTypeMetadataFacade;
 import gov.anl.aps.cdb.portal.model.db.entities.AllowedPropertyMetadataValue;
+import gov.anl.aps.cdb.portal.model.db.entities.CdbEntity;
 import gov.anl.aps.cdb.portal.model.db.entities.Domain;
 import gov.anl.aps.cdb.portal.model.db.entities.EntityInfo;
 import gov.anl.aps.cdb.portal.model.db.entities.Item;
@@ -29,14 +33,21 @@ import gov.anl.aps.cdb.portal.model.db.entities.SettingEntity;
 import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
 import gov.anl.aps.cdb.portal.model.db.utilities.EntityInfoUtility;
 import gov.anl.aps.cdb.portal.model.db.utilities.ItemElementUtility;
+import gov.anl.aps.cdb.portal.model.db.utilities.ItemUniquenessValidator;
 import gov.anl.aps.cdb.portal.model.db.utilities.PropertyValueUtility;
+import gov.anl.aps.cdb.portal.utilities.EntityChangeFeed;
+import gov.anl.aps.cdb.portal.utilities.ItemSearchIndex;
+import gov.anl.aps.cdb.portal.utilities.SearchResult;
 import gov.anl.aps.cdb.portal.view.objects.ItemMetadataFieldInfo;
 import gov.anl.aps.cdb.portal.view.objects.ItemMetadataPropertyInfo;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
 import java.util.regex.Pattern;
@@ -58,6 +69,8 @@ public abstract class ItemControllerUtility<ItemDomainEntity extends Item, ItemD
     PropertyTypeMetadataFacade propertyTypeMetadataFacade;
     AllowedPropertyMetadataValueFacade allowedPropertyMetadataValueFacade;
 
+    private boolean itemListUniquenessDeferred = false;
+
     public ItemControllerUtility() {
         domainFacade = DomainFacade.getInstance();
         itemFacade = getItemFacadeInstance();
@@ -283,25 +296,30 @@ public abstract class ItemControllerUtility<ItemDomainEntity extends Item, ItemD
             }
         }
 
-        if (verifyItemNameCombinationUniqueness(item) == false) {
-            String additionalInfo = "Please update some of the following:  ";
+        // checked for the whole list by createList() and updateList()
+        if (!itemListUniquenessDeferred && verifyItemNameCombinationUniqueness(item) == false) {
+            throw createNonuniqueItemException(item);
+        }
 
-            if (isEntityHasName()) {
-                additionalInfo += "Name, ";
-            }
-            if (isEntityHasItemIdentifier1()) {
-                additionalInfo += getItemIdentifier1Title() + ", ";
-            }
-            if (isEntityHasItemIdentifier2()) {
-                additionalInfo += getItemIdentifier2Title() + ", ";
-            }
+    }
 
-            //Remove last comma. 
-            additionalInfo = additionalInfo.substring(0, additionalInfo.length() - 2);
+    private ObjectAlreadyExists createNonuniqueItemException(Item item) {
+        String additionalInfo = "Please update some of the following:  ";
 
-            throw new ObjectAlreadyExists("Item " + itemDomainToString(item) + " has nonunique attributes. " + additionalInfo);
+        if (isEntityHasName()) {
+            additionalInfo += "Name, ";
+        }
+        if (isEntityHasItemIdentifier1()) {
+            additionalInfo += getItemIdentifier1Title() + ", ";
+        }
+        if (isEntityHasItemIdentifier2()) {
+            additionalInfo += getItemIdentifier2Title() + ", ";
         }
 
+        //Remove last comma. 
+        additionalInfo = additionalInfo.substring(0, additionalInfo.length() - 2);
+
+        return new ObjectAlreadyExists("Item " + itemDomainToString(item) + " has nonunique attributes. " + additionalInfo);
     }
 
     protected boolean verifyItemNameCombinationUniqueness(Item item) {
@@ -316,12 +334,97 @@ public abstract class ItemControllerUtility<ItemDomainEntity extends Item, ItemD
         // The same item will have all the same attributes if it wasn't changed.  
         if (existingItem != null) {
             if (Objects.equals(item.getId(), existingItem.getId()) == false) {
-                return false;
+                return makeItemNameCombinationUnique(item);
             }
         }
         return true;
     }
 
+    /**
+     * Called for items whose name combination is already taken.
+     *
+     * @return true if the attributes of the item were changed to be unique
+     */
+    protected boolean makeItemNameCombinationUnique(Item item) {
+        return false;
+    }
+
+    @Override
+    public void createList(List<ItemDomainEntity> entities, UserInfo createdByUserInfo, BatchWriteListener listener) throws CdbException, RuntimeException {
+        itemListUniquenessDeferred = true;
+        try {
+            super.createList(entities, createdByUserInfo, listener);
+        } finally {
+            itemListUniquenessDeferred = false;
+        }
+    }
+
+    @Override
+    public void updateList(List<ItemDomainEntity> entities, UserInfo updatedByUserInfo, BatchWriteListener listener) throws CdbException, RuntimeException {
+        itemListUniquenessDeferred = true;
+        try {
+            super.updateList(entities, updatedByUserInfo, listener);
+        } finally {
+            itemListUniquenessDeferred = false;
+        }
+    }
+
+    @Override
+    protected void createEntityList(List<ItemDomainEntity> entities, BatchWriteListener listener) throws CdbException {
+        checkItemListUniqueness(entities);
+        getEntityDbFacade().createValidated(entities, listener);
+    }
+
+    @Override
+    protected void updateEntityList(List<ItemDomainEntity> entities, BatchWriteListener listener) throws CdbException {
+        checkItemListUniqueness(entities);
+        getEntityDbFacade().editValidated(entities, listener);
+    }
+
+    @Override
+    protected String getChangeFeedEntityTypeName() {
+        return EntityChangeFeed.ITEM_ENTITY_TYPE_NAME;
+    }
+
+    /**
+     * Also publishes location changes of locatable items saved with a new
+     * location.
+     */
+    @Override
+    protected void addEntityChanges(List<? extends CdbEntity> entities, EntityChangeType changeType, UserInfo userInfo) {
+        super.addEntityChanges(entities, changeType, userInfo);
+
+        List<Item> locationChangedItemList = new ArrayList<>();
+        for (CdbEntity entity : entities) {
+            if (entity instanceof LocatableItem && ((LocatableItem) entity).isLocationChanged()) {
+                ((LocatableItem) entity).setLocationChanged(false);
+                locationChangedItemList.add((Item) entity);
+            }
+        }
+        if (!locationChangedItemList.isEmpty() && changeType != EntityChangeType.deleted) {
+            EntityChangeFeed.getInstance().recordChanges(EntityChangeFeed.ITEM_LOCATION_ENTITY_TYPE_NAME,
+                    locationChangedItemList, EntityChangeType.updated, userInfo);
+        }
+    }
+
+    /**
+     * Performs the checks of the item triggers for all items of a bulk write
+     * with a few set based queries, so that the triggers can skip them.
+     */
+    protected void checkItemListUniqueness(List<ItemDomainEntity> entities) throws CdbException {
+        List<Item> itemList = getEntityDbFacade().findItemsToWrite(entities);
+
+        for (int index : ItemUniquenessValidator.findNonuniqueItemIndexList(itemList, getEntityDbFacade())) {
+            Item item = itemList.get(index);
+            if (!makeItemNameCombinationUnique(item)) {
+                throw createNonuniqueItemException(item);
+            }
+        }
+
+        ItemUniquenessValidator.checkItemAttributes(itemList);
+        ItemUniquenessValidator.checkItemElements(itemList, ItemElementFacade.getInstance());
+    }
+
     public void checkItemElementsForItem(ItemDomainEntity item) throws CdbException {
         item.resetItemElementDisplayList();
         List<String> elementNames = new ArrayList<>();
@@ -589,6 +692,134 @@ public abstract class ItemControllerUtility<ItemDomainEntity extends Item, ItemD
         return getEntityDbFacade().findByDomain(getDefaultDomainName());
     }
 
+    /**
+     * Entity search uses the domain search index when the searched item list
+     * is the whole default domain. Subclasses that search a different item
+     * list should override and return false.
+     */
+    public boolean isEntitySearchIndexed() {
+        return true;
+    }
+
+    public ItemSearchIndex getSearchIndex() {
+        ItemSearchIndex searchIndex = ItemSearchIndex.getInstance(getDefaultDomainName());
+        synchronized (searchIndex) {
+            String domainName = getDefaultDomainName();
+            Object[] stamp = null;
+            if (searchIndex.isStalenessCheckRequired()) {
+                stamp = getEntityDbFacade().findSearchIndexStampByDomain(domainName);
+                searchIndex.checkStaleness(((Number) stamp[0]).longValue(), (Date) stamp[1]);
+            }
+            if (searchIndex.isLoadRequired()) {
+                searchIndex.beginLoad();
+                try {
+                    if (stamp == null) {
+                        stamp = getEntityDbFacade().findSearchIndexStampByDomain(domainName);
+                    }
+                    List<Object[]> itemRows = getEntityDbFacade().findSearchIndexRowsByDomain(domainName);
+
+                    List<Object[]> coreMetadataRows = null;
+                    ItemMetadataPropertyInfo coreMetadataInfo = createCoreMetadataPropertyInfo();
+                    if (coreMetadataInfo != null) {
+                        coreMetadataRows = getEntityDbFacade().findSearchIndexCoreMetadataRowsByDomain(
+                                domainName, coreMetadataInfo.getPropertyName());
+                    }
+
+                    List<Object[]> attributeRows = findSearchIndexAttributeRows(domainName);
+
+                    searchIndex.load(itemRows, coreMetadataRows, coreMetadataInfo, attributeRows, (Date) stamp[1]);
+                } catch (RuntimeException ex) {
+                    searchIndex.abortLoad();
+                    throw ex;
+                }
+            }
+        }
+        return searchIndex;
+    }
+
+    /**
+     * Domain specific attributes for the search index as rows of [item id,
+     * attribute key, attribute value]. Must match the attributes added by
+     * Item.collectSearchIndexAttributes() of the domain.
+     */
+    protected List<Object[]> findSearchIndexAttributeRows(String domainName) {
+        return null;
+    }
+
+    @Override
+    public LinkedList<SearchResult> performEntitySearch(String searchString, boolean caseInsensitive) {
+        if (!isEntitySearchIndexed()) {
+            return super.performEntitySearch(searchString, caseInsensitive);
+        }
+        return performEntitySearch(searchString, caseInsensitive, 0, null);
+    }
+
+    /**
+     * Search domain search index for a given string. Only the requested page
+     * of ranked results is loaded from the database.
+     *
+     * @param searchString search string
+     * @param caseInsensitive use case insensitive search
+     * @param firstResult index of first ranked result to return
+     * @param maxResults maximum number of results to return, null for all
+     * @return search results ordered by rank
+     */
+    public LinkedList<SearchResult> performEntitySearch(String searchString, boolean caseInsensitive, int firstResult, Integer maxResults) {
+        LinkedList<SearchResult> searchResultList = new LinkedList<>();
+        if (searchString == null || searchString.isEmpty()) {
+            return searchResultList;
+        }
+
+        List<ItemSearchIndex.Hit> hitList = getSearchIndex().search(searchString, caseInsensitive);
+        int lastResult = hitList.size();
+        if (maxResults != null) {
+            lastResult = Math.min(lastResult, firstResult + maxResults);
+        }
+        if (firstResult >= lastResult) {
+            return searchResultList;
+        }
+        hitList = hitList.subList(firstResult, lastResult);
+
+        List<Integer> idList = new ArrayList<>();
+        for (ItemSearchIndex.Hit hit : hitList) {
+            idList.add(hit.getId());
+        }
+        Map<Integer, ItemDomainEntity> itemMap = new HashMap<>();
+        for (ItemDomainEntity item : getEntityDbFacade().findByIdList(idList)) {
+            itemMap.put(item.getId(), item);
+        }
+
+        Pattern searchPattern;
+        if (caseInsensitive) {
+            searchPattern = Pattern.compile(Pattern.quote(searchString), Pattern.CASE_INSENSITIVE);
+        } else {
+            searchPattern = Pattern.compile(Pattern.quote(searchString));
+        }
+
+        for (ItemSearchIndex.Hit hit : hitList) {
+            ItemDomainEntity item = itemMap.get(hit.getId());
+            if (item == null) {
+                // Removed since the index was updated.
+                continue;
+            }
+            SearchResult searchResult;
+            try {
+                searchResult = item.search(searchPattern);
+            } catch (RuntimeException ex) {
+                logger.warn("Could not search entity " + item.toString() + " (Error: " + ex.toString() + ")");
+                searchResult = new SearchResult(item, item.getId(), hit.getTitle());
+            }
+            for (Map.Entry<String, String> match : hit.getAttributeMatchMap().entrySet()) {
+                if (!searchResult.getObjectAttributeMatchMap().containsKey(match.getKey())) {
+                    searchResult.addAttributeMatch(match.getKey(), match.getValue());
+                }
+            }
+            searchResultList.add(searchResult);
+        }
+
+        return searchResultList;
+    }
+
     protected String itemDomainToString(Item item) {
         return item.toString();
     }
@@ -45,17 +45,16 @@ public class ItemDomainMachineDesignControllerUtility extends ItemControllerUtil
     }
 
     @Override
-    protected boolean verifyItemNameCombinationUniqueness(Item item) {
-        boolean unique = super.verifyItemNameCombinationUniqueness(item);
+    protected List<Object[]> findSearchIndexAttributeRows(String domainName) {
+        return getEntityDbFacade().findSearchIndexAssignedItemNameRows();
+    }
 
+    @Override
+    protected boolean makeItemNameCombinationUnique(Item item) {
         // Ensure all machine designs are unique
-        if (!unique) {
-            String viewUUID = item.getViewUUID();
-            item.setItemIdentifier2(viewUUID);
-            unique = true;
-        }
-
-        return unique;
+        String viewUUID = item.getViewUUID();
+        item.setItemIdentifier2(viewUUID);
+        return true;
     }
 
     @Override
@@ -17,5 +17,10 @@ public class ItemDomainMachineDesignDeletedControllerUtility extends ItemDomainM
     public List<ItemDomainMachineDesign> getItemList() {
         return itemFacade.getDeletedItems();
     }
+
+    @Override
+    public boolean isEntitySearchIndexed() {
+        return false;
+    }
     
 }
@@ -36,6 +36,11 @@ public class ItemDomainMachineDesignInventoryControllerUtility extends ItemDomai
     public List<ItemDomainMachineDesign> getItemList() {
         return itemFacade.getTopLevelMachineDesignInventory();
     } 
+
+    @Override
+    public boolean isEntitySearchIndexed() {
+        return false;
+    }
     
     public void assignInventoryAttributes(ItemDomainMachineDesign newInventory, ItemDomainMachineDesign templateItem, UserInfo sessionUser) {
         newInventory.setDerivedFromItem(templateItem);
@@ -28,5 +28,10 @@ public class ItemElementRelationshipControllerUtility extends CdbEntityControlle
     public String getEntityTypeName() {
         return "itemElementRelationship";
     }
+
+    @Override
+    protected String getChangeFeedEntityTypeName() {
+        return getEntityTypeName();
+    }
     
 }
@@ -63,6 +63,11 @@ public class ItemGenericControllerUtility extends ItemControllerUtility<Item, It
     public List<Item> getItemList() {
         return itemFacade.findAll(); 
     }
+
+    @Override
+    public boolean isEntitySearchIndexed() {
+        return false;
+    }
     
     @Override
     protected Item instenciateNewItemDomainEntity() {
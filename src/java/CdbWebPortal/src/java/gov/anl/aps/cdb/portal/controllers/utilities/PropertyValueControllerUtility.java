@@ -24,6 +24,11 @@ public class PropertyValueControllerUtility extends CdbEntityControllerUtility<P
         return "propertyValue";
     }
 
+    @Override
+    protected String getChangeFeedEntityTypeName() {
+        return getEntityTypeName();
+    }
+
     @Override
     public PropertyValue createEntityInstance(UserInfo sessionUser) {
         return new PropertyValue(); 
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.import_export.export.objects;
+
+import gov.anl.aps.cdb.portal.model.db.entities.CdbEntity;
+import java.util.List;
+
+/**
+ * Supplies entities for export in chunks, so that an export does not need
+ * to hold the complete entity list in memory.
+ */
+public interface ExportEntitySource {
+
+    public interface ChunkHandler {
+
+        /**
+         * @param chunk next entities in export order
+         * @return false to stop iteration
+         */
+        public boolean handleChunk(List<CdbEntity> chunk);
+    }
+
+    public int getEntityCount();
+
+    /**
+     * Passes all entities to the chunk handler in export order. May be
+     * invoked more than once, each call starts from the first entity.
+     *
+     * @param chunkSize preferred number of entities per chunk
+     * @param chunkHandler receives each chunk
+     */
+    public void forEachChunk(int chunkSize, ChunkHandler chunkHandler);
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.import_export.export.objects;
+
+import gov.anl.aps.cdb.portal.model.db.entities.CdbEntity;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Export source for entities already held in memory, e.g. a machine design
+ * tree. The list is handed over as a single chunk since output handlers such
+ * as the hierarchy handler need to see all entities at once.
+ */
+public class ListExportEntitySource implements ExportEntitySource {
+
+    private final List<CdbEntity> entityList;
+
+    public ListExportEntitySource(List<? extends CdbEntity> entityList) {
+        if (entityList == null) {
+            this.entityList = new ArrayList<>();
+        } else {
+            this.entityList = new ArrayList<>(entityList);
+        }
+    }
+
+    @Override
+    public int getEntityCount() {
+        return entityList.size();
+    }
+
+    @Override
+    public void forEachChunk(int chunkSize, ChunkHandler chunkHandler) {
+        if (!entityList.isEmpty()) {
+            chunkHandler.handleChunk(entityList);
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.import_export.export.objects;
+
+import gov.anl.aps.cdb.portal.model.db.beans.ItemFacadeBase;
+import gov.anl.aps.cdb.portal.model.db.beans.builder.ItemQueryBuilder;
+import gov.anl.aps.cdb.portal.model.db.entities.CdbEntity;
+import gov.anl.aps.cdb.portal.model.db.entities.Item;
+import java.util.List;
+
+/**
+ * Export source paging the filtered and sorted result of a data table
+ * query from the database. Results ordered by id are paged with a keyset
+ * cursor, other sort orders fall back to offset paging.
+ */
+public class QueryExportEntitySource implements ExportEntitySource {
+
+    private final ItemFacadeBase facade;
+    private final ItemQueryBuilder queryBuilder;
+    private Integer entityCount = null;
+
+    public QueryExportEntitySource(ItemFacadeBase facade, ItemQueryBuilder queryBuilder) {
+        this.facade = facade;
+        this.queryBuilder = queryBuilder;
+    }
+
+    @Override
+    public int getEntityCount() {
+        if (entityCount == null) {
+            entityCount = facade.countByDataTableFilterQueryBuilder(queryBuilder);
+        }
+        return entityCount;
+    }
+
+    @Override
+    public void forEachChunk(int chunkSize, ChunkHandler chunkHandler) {
+        int first = 0;
+        Integer lastItemId = null;
+        while (true) {
+            List<Item> chunk;
+            if (lastItemId != null && queryBuilder.isSortedById()) {
+                chunk = facade.findByDataTableFilterQueryBuilderAfterId(queryBuilder, lastItemId, chunkSize);
+            } else {
+                chunk = facade.findByDataTableFilterQueryBuilder(queryBuilder, first, chunkSize);
+            }
+
+            if (chunk.isEmpty()) {
+                return;
+            }
+            if (!chunkHandler.handleChunk((List<CdbEntity>) (List) chunk)) {
+                return;
+            }
+            if (chunk.size() < chunkSize) {
+                return;
+            }
+
+            first = first + chunk.size();
+            lastItemId = chunk.get(chunk.size() - 1).getId();
+        }
+    }
+
+}
@@ -14,12 +14,14 @@ import gov.anl.aps.cdb.portal.controllers.UserGroupController;
 import gov.anl.aps.cdb.portal.controllers.UserInfoController;
 import gov.anl.aps.cdb.portal.import_export.export.objects.ColumnValueResult;
 import gov.anl.aps.cdb.portal.import_export.export.objects.ExportColumnData;
+import gov.anl.aps.cdb.portal.import_export.export.objects.ExportEntitySource;
 import gov.anl.aps.cdb.portal.import_export.export.objects.FieldValueDifference;
 import gov.anl.aps.cdb.portal.import_export.export.objects.FieldValueDifferenceMap;
 import gov.anl.aps.cdb.portal.import_export.export.objects.FieldValueMap;
 import gov.anl.aps.cdb.portal.import_export.export.objects.FieldValueMapResult;
 import gov.anl.aps.cdb.portal.import_export.export.objects.GenerateExportResult;
 import gov.anl.aps.cdb.portal.import_export.export.objects.HandleOutputResult;
+import gov.anl.aps.cdb.portal.import_export.export.objects.ListExportEntitySource;
 import gov.anl.aps.cdb.portal.import_export.export.objects.handlers.OutputHandler;
 import gov.anl.aps.cdb.portal.import_export.import_.objects.ColumnModeOptions;
 import gov.anl.aps.cdb.portal.import_export.import_.objects.ColumnSpecInitInfo;
@@ -34,11 +36,14 @@ import gov.anl.aps.cdb.portal.import_export.import_.objects.InputColumnModel;
 import gov.anl.aps.cdb.portal.import_export.import_.objects.handlers.InputHandler;
 import gov.anl.aps.cdb.portal.import_export.import_.objects.OutputColumnModel;
 import gov.anl.aps.cdb.portal.import_export.import_.objects.ValidInfo;
+import gov.anl.aps.cdb.portal.import_export.import_.objects.RefObjectCache;
+import gov.anl.aps.cdb.portal.import_export.import_.objects.XlsxSheetReader;
 import gov.anl.aps.cdb.portal.import_export.import_.objects.specs.BooleanColumnSpec;
 import gov.anl.aps.cdb.portal.import_export.import_.objects.specs.IdOrNameRefColumnSpec;
 import gov.anl.aps.cdb.portal.import_export.import_.objects.specs.IdOrNameRefListColumnSpec;
 import gov.anl.aps.cdb.portal.import_export.import_.objects.specs.IntegerColumnSpec;
 import gov.anl.aps.cdb.portal.import_export.import_.objects.specs.StringColumnSpec;
+import gov.anl.aps.cdb.portal.model.db.beans.BatchWriteListener;
 import gov.anl.aps.cdb.portal.model.db.entities.CdbEntity;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemDomainLocation;
 import gov.anl.aps.cdb.portal.model.db.entities.UserGroup;
@@ -47,6 +52,8 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -66,7 +73,7 @@ import org.apache.poi.ss.usermodel.RichTextString;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.primefaces.model.DefaultStreamedContent;
 import org.primefaces.model.DefaultTreeNode;
@@ -83,6 +90,9 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
 
     private static final Logger LOGGER = LogManager.getLogger(ImportHelperBase.class.getName());
     
+    private int importWrittenCount = 0;
+    protected final BatchWriteListener importBatchListener = this::importBatchWritten;
+    
     private static final String MODE_CREATE = "create";
     private static final String MODE_UPDATE = "update";
     private static final String MODE_DELETE = "delete";
@@ -107,9 +117,13 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
     
     
     private static final String INDICATOR_COMMENT = "//";
+    
+    // number of entities fetched per page and rows kept in memory while writing export
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final int EXPORT_ROW_WINDOW_SIZE = 100;
 
     protected List<EntityType> rows = new ArrayList<>();
-    private List<CdbEntity> exportEntityList;
+    private ExportEntitySource exportEntitySource;
     
     protected ImportMode importMode;
     protected ExportMode exportMode;
@@ -117,6 +131,7 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
     protected SortedMap<Integer, InputColumnModel> inputColumnMap = new TreeMap<>();
     
     protected List<InputHandler> inputHandlers = null;
+    private RefObjectCache refObjectCache = new RefObjectCache();
     
     private List<OutputColumnModel> outputColumns = new ArrayList<>();
     
@@ -124,6 +139,8 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
     
     protected byte[] templateExcelFile = null;
     protected boolean validInput = true;
+    private volatile int parsedRowCount = 0;
+    private volatile int invalidRowCount = 0;
     private String validationMessage = "";
     private String summaryMessage = "";
     protected TreeNode rootTreeNode = new DefaultTreeNode("Root", null);
@@ -143,29 +160,38 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
         String validString = "";
         
         List<EntityType> entityList = generateExportEntityList_();
-        setExportEntityList((List<CdbEntity>) entityList);
+        if (entityList != null) {
+            setExportEntitySource(new ListExportEntitySource(entityList));
+        } else {
+            setExportEntitySource(getEntityController().getExportEntitySource());
+        }
         
         return new ValidInfo(isValid, validString);
     }
     
+    /**
+     * Returns in-memory list of entities to export.  Default returns null,
+     * in which case entities are paged from the entity controller's export
+     * source.  Subclasses override to export a custom list.
+     */
     protected List<EntityType> generateExportEntityList_() {
-        return getEntityController().getExportEntityList();
+        return null;
     }
 
-    public List<CdbEntity> getExportEntityList() {
-        return exportEntityList;
+    public ExportEntitySource getExportEntitySource() {
+        return exportEntitySource;
     }
     
     public int getExportEntityCount() {
-        if (exportEntityList == null) {
+        if (exportEntitySource == null) {
             return 0;
         } else {
-            return exportEntityList.size();
+            return exportEntitySource.getEntityCount();
         }
     }
 
-    public void setExportEntityList(List<CdbEntity> exportEntityList) {
-        this.exportEntityList = exportEntityList;
+    public void setExportEntitySource(ExportEntitySource exportEntitySource) {
+        this.exportEntitySource = exportEntitySource;
     }
     
     public ImportMode getImportMode() {
@@ -340,6 +366,9 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
     
     protected void initializeInputHandlers(List<InputHandler> specs) {        
         inputHandlers = specs;
+        for (InputHandler handler : inputHandlers) {
+            handler.setRefObjectCache(refObjectCache);
+        }
     }
     
     protected void initializeValidationTableColumns(List<OutputColumnModel> columns) {        
@@ -410,13 +439,21 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
     
     protected String parseStringCell(Cell cell) {
 
+        if (cell == null) {
+            return null;
+        }
+        cell.setCellType(CellType.STRING);
+        return parseStringValue(cell.getStringCellValue());
+    }
+    
+    protected String parseStringValue(String cellValue) {
+
         String parsedValue;
 
-        if (cell == null) {
+        if (cellValue == null) {
             parsedValue = null;
         } else {
-            cell.setCellType(CellType.STRING);
-            parsedValue = cell.getStringCellValue().trim();
+            parsedValue = cellValue.trim();
             if ((!parsedValue.isEmpty()) && (parsedValue.charAt(0) == '\'')) {
                 if (parsedValue.length() > 1) {
                     parsedValue = parsedValue.substring(1);
@@ -489,46 +526,145 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
         }
     }
 
+    /**
+     * Generates export content for the current export entity source.  The
+     * first chunk of entities is run through the output handlers to report
+     * problems before download, the workbook itself is written when the
+     * content is downloaded.  Entities are paged from the source and rows
+     * are written with a streaming workbook that keeps only a window of rows
+     * in memory, directly to the response output stream.
+     */
     public GenerateExportResult generateExportFile() {
         
-        boolean isValid = true;
-        String validString = "";
-        
-        // get export content via output handlers for each column
-        List<ExportColumnData> exportContent = new ArrayList<>();
-        List<CdbEntity> entities = getExportEntityList();
         for (ColumnSpec spec : getColumnSpecs()) {
             OutputHandler handler = spec.getOutputHandler(getExportMode());
             if (handler == null) {                
                 ValidInfo validInfo = new ValidInfo(false, "Unexpected error, no output handler for column: " + spec.getHeader());
                 return new GenerateExportResult(validInfo, null);
             }
+        }
+        
+        ExportEntitySource source = getExportEntitySource();
+        if (source == null) {
+            ValidInfo validInfo = new ValidInfo(false, "Unexpected error, no entities selected for export");
+            return new GenerateExportResult(validInfo, null);
+        }
+        
+        // validate output for first chunk of entities
+        final ValidInfo[] firstChunkValidInfo = {new ValidInfo(true, "")};
+        source.forEachChunk(EXPORT_CHUNK_SIZE, (chunk) -> {
+            List<ExportColumnData> columnData = new ArrayList<>();
+            firstChunkValidInfo[0] = generateExportColumnData(chunk, columnData);
+            return false;
+        });
+        if (!firstChunkValidInfo[0].isValid()) {
+            return new GenerateExportResult(firstChunkValidInfo[0], null);
+        }
+        
+        DefaultStreamedContent.Builder builder = DefaultStreamedContent.builder();
+        builder.writer((outputStream) -> writeExportFile(source, outputStream)); 
+        builder.contentType("xlsx"); 
+        builder.name(getExportFilename() + ".xlsx");
+        StreamedContent content = builder.build(); 
+        
+        return new GenerateExportResult(new ValidInfo(true, ""), content);
+    }
+    
+    /**
+     * Gets export content via output handlers for each column.
+     */
+    private ValidInfo generateExportColumnData(List<CdbEntity> entities, List<ExportColumnData> exportContent) {
+        for (ColumnSpec spec : getColumnSpecs()) {
+            OutputHandler handler = spec.getOutputHandler(getExportMode());
             
             HandleOutputResult handleOutputResult = handler.handleOutput(entities, getExportMode());
             if (!handleOutputResult.getValidInfo().isValid()) {                
-                ValidInfo validInfo = new ValidInfo(false, handleOutputResult.getValidInfo().getValidString());
-                return new GenerateExportResult(validInfo, null);
+                return new ValidInfo(false, handleOutputResult.getValidInfo().getValidString());
             }
             
             if ((handleOutputResult.getColumnData() == null) || 
                     (handleOutputResult.getColumnData().isEmpty())) {
                 
-                ValidInfo validInfo = new ValidInfo(false, "Unexpected error, no column data for column: " + spec.getHeader());
-                return new GenerateExportResult(validInfo, null);
+                return new ValidInfo(false, "Unexpected error, no column data for column: " + spec.getHeader());
             }
             exportContent.addAll(handleOutputResult.getColumnData());
         }
+        return new ValidInfo(true, "");
+    }
+    
+    private void writeExportFile(ExportEntitySource source, OutputStream outputStream) {
         
-        // create excel workbook
-        Workbook wb = new XSSFWorkbook();
-        CreationHelper createHelper = wb.getCreationHelper();
-        Sheet sheet = wb.createSheet("export");
-        Drawing drawing = sheet.createDrawingPatriarch();
+        SXSSFWorkbook wb = new SXSSFWorkbook(EXPORT_ROW_WINDOW_SIZE);
+        wb.setCompressTempFiles(true);
+        try {
+            CreationHelper createHelper = wb.getCreationHelper();
+            Sheet sheet = wb.createSheet("export");
+            Drawing drawing = sheet.createDrawingPatriarch();
+            
+            final int[] rowIndex = {0};
+            final int[] numColumns = {-1};
+            final String[] errorMessage = {null};
+            
+            source.forEachChunk(EXPORT_CHUNK_SIZE, (chunk) -> {
+                
+                List<ExportColumnData> exportContent = new ArrayList<>();
+                ValidInfo validInfo = generateExportColumnData(chunk, exportContent);
+                if (!validInfo.isValid()) {
+                    errorMessage[0] = validInfo.getValidString();
+                    return false;
+                }
+                
+                // create header row content from first chunk
+                if (numColumns[0] == -1) {
+                    numColumns[0] = exportContent.size();
+                    writeExportHeaderRow(sheet, drawing, createHelper, exportContent);
+                    rowIndex[0] = 1;
+                } else if (numColumns[0] != exportContent.size()) {
+                    errorMessage[0] = "Unexpected error, number of export columns changed from " 
+                            + numColumns[0] + " to " + exportContent.size();
+                    return false;
+                }
+                
+                // create data row content, one row at a time
+                for (int chunkRow = 0; chunkRow < chunk.size(); chunkRow++) {
+                    Row dataRow = sheet.createRow(rowIndex[0]);
+                    int colIndex = 0;
+                    for (ExportColumnData columnData : exportContent) {
+                        List<String> columnValues = columnData.getColumnValues();
+                        if (chunkRow < columnValues.size()) {
+                            Cell dataCell = dataRow.createCell(colIndex);
+                            dataCell.setCellValue(columnValues.get(chunkRow));
+                        }
+                        colIndex = colIndex + 1;
+                    }
+                    rowIndex[0] = rowIndex[0] + 1;
+                }
+                
+                return true;
+            });
+            
+            if (errorMessage[0] != null) {
+                LOGGER.error("writeExportFile() " + errorMessage[0]);
+                throw new IllegalStateException(errorMessage[0]);
+            }
+            
+            wb.write(outputStream);
+        } catch (IOException ex) {
+            LOGGER.error("writeExportFile() " + ex);
+            throw new UncheckedIOException(ex);
+        } finally {
+            wb.dispose();
+        }
+    }
+    
+    private void writeExportHeaderRow(
+            Sheet sheet, 
+            Drawing drawing, 
+            CreationHelper createHelper, 
+            List<ExportColumnData> exportContent) {
         
-        // create header row content
-        int rowIndex = 0;
         int colIndex = 0;
-        Row headerRow = sheet.createRow(rowIndex);
+        Row headerRow = sheet.createRow(0);
         for (ExportColumnData columnData : exportContent) {
             
             Cell headerCell = headerRow.createCell(colIndex);
@@ -548,49 +684,6 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
             
             colIndex = colIndex + 1;
         }
-        
-        // create data row content, one column at a time
-        colIndex = 0;
-        for (ExportColumnData columnData : exportContent) {
-            rowIndex = 1;
-            for (String columnValue : columnData.getColumnValues()) {
-                Row dataRow = sheet.getRow(rowIndex);
-                if (dataRow == null) {
-                    dataRow = sheet.createRow(rowIndex);
-                }
-                Cell dataCell = dataRow.createCell(colIndex);
-                dataCell.setCellValue(columnValue);
-                rowIndex = rowIndex + 1;
-            }
-            colIndex = colIndex + 1;
-        }
-        
-        // create byte array containing excel binary file data
-        byte[] exportFile = null;
-        try (ByteArrayOutputStream outStream = new ByteArrayOutputStream()) {
-            wb.write(outStream);
-            exportFile = outStream.toByteArray();
-        } catch (IOException ex) {
-            LOGGER.error("generateExportFile() " + ex);
-        }
-        
-        // create streamed content from byte array
-        StreamedContent content = null;
-        if (exportFile != null) {
-            InputStream inStream = new ByteArrayInputStream(exportFile);
-            
-            DefaultStreamedContent.Builder builder = DefaultStreamedContent.builder();
-            builder.stream(() -> inStream); 
-            builder.contentType("xlsx"); 
-            builder.name(getExportFilename() + ".xlsx");
-            content = builder.build(); 
-        } else {
-            isValid = false;
-            validString = "Unexpected error creating Excel file content";
-        }
-        
-        ValidInfo validInfo = new ValidInfo(isValid, validString);
-        return new GenerateExportResult(validInfo, content);
     }
 
     private FieldValueMapResult getFieldValueMap(EntityType entity) {
@@ -629,20 +722,11 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
         
         List<String> sheetNames = new ArrayList<>();
         
-        InputStream inputStream;
-        XSSFWorkbook workbook;
-        try {
-            inputStream = f.getInputStream();
-            workbook = new XSSFWorkbook(inputStream);
+        try (InputStream inputStream = f.getInputStream();
+                XlsxSheetReader reader = new XlsxSheetReader(inputStream)) {
+            sheetNames = reader.getSheetNames();
         } catch (IOException e) {
             LOGGER.info("error opening excel file: " + e);
-            return sheetNames;
-        }
-        
-        int numSheets = workbook.getNumberOfSheets();
-        for (int i = 0 ; i < numSheets ; i++) {
-            String sheetName = workbook.getSheetName(i);
-            sheetNames.add(sheetName);
         }
         
         return sheetNames;
@@ -679,32 +763,6 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
             int rowNumberFirstData,
             int rowNumberLastData) {
 
-        InputStream inputStream;
-        XSSFWorkbook workbook;
-        try {
-            inputStream = f.getInputStream();
-            workbook = new XSSFWorkbook(inputStream);
-        } catch (IOException e) {
-            validInput = false;
-            validationMessage = "Unable to open file " + f.getFileName();
-            summaryMessage
-                    = "Press 'Cancel' to terminate the import process and fix "
-                    + "problems with spreadsheet file."
-                    + " No new items will be created.";
-            return false;
-        }
-
-        XSSFSheet sheet = workbook.getSheet(sheetName);
-        if (sheet == null) {
-            validInput = false;
-            validationMessage = "Unable to open specified sheet " + sheetName;
-            summaryMessage
-                    = "Press 'Cancel' to terminate the import process and fix "
-                    + "problems with spreadsheet file."
-                    + " No new items will be created.";
-            return false;
-        }
-
         // validate specified row numbers, change user specified 1-based values to 0-based values for api, and set default values if not specified
         boolean validOptions = true;
         String optionMessage = "";
@@ -734,7 +792,8 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
         }
         
         if (rowNumberLastData == -1) {
-            rowNumberLastData = sheet.getLastRowNum();
+            // read to the end of the sheet
+            rowNumberLastData = Integer.MAX_VALUE;
         } else if ((rowNumberLastData < 2) || 
                     ((rowNumberHeader != -1) && (rowNumberLastData <= rowNumberHeader)) || 
                     ((rowNumberFirstData != -1) && (rowNumberFirstData > rowNumberLastData))) {
@@ -755,61 +814,164 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
             return false;
         }
         
-        parseSheet(sheet, rowNumberHeader, rowNumberFirstData, rowNumberLastData);
+        try (InputStream inputStream = f.getInputStream();
+                XlsxSheetReader reader = new XlsxSheetReader(inputStream)) {
+            
+            if (!parseSheet(reader, sheetName, rowNumberHeader, rowNumberFirstData, rowNumberLastData)) {
+                validInput = false;
+                validationMessage = "Unable to open specified sheet " + sheetName;
+                summaryMessage
+                        = "Press 'Cancel' to terminate the import process and fix "
+                        + "problems with spreadsheet file."
+                        + " No new items will be created.";
+                return false;
+            }
+            
+        } catch (IOException e) {
+            LOGGER.info("error reading excel file: " + e);
+            validInput = false;
+            validationMessage = "Unable to open file " + f.getFileName();
+            summaryMessage
+                    = "Press 'Cancel' to terminate the import process and fix "
+                    + "problems with spreadsheet file."
+                    + " No new items will be created.";
+            return false;
+        }
+        
         return true;
     }
     
-    protected void parseSheet(
-            XSSFSheet sheet,
+    /**
+     * Streams the specified sheet twice.  The first pass parses the header row
+     * and lets input handlers collect reference values from every data row, so
+     * they can be resolved in bulk before the second pass parses each data
+     * row.  Parse progress is available through getParsedRowCount() and
+     * getInvalidRowCount() while the sheet is read.
+     *
+     * @return false if the workbook does not contain the sheet
+     */
+    protected boolean parseSheet(
+            XlsxSheetReader reader,
+            String sheetName,
             int rowNumberHeader,
             int rowNumberFirstData,
-            int rowNumberLastData) {
+            int rowNumberLastData) throws IOException {
 
-        int entityNum = 0;
-        int invalidCount = 0;
+        parsedRowCount = 0;
+        invalidRowCount = 0;
+        
+        // reference lookups are cached for the duration of this import only
+        refObjectCache = new RefObjectCache();
         
         // pre-import hook for helper subclass
         ValidInfo preImportValidInfo = preImport();
         
-        // parse / validate header row - initializes helper data structures based on actual columns
-        Row headerRow = sheet.getRow(rowNumberHeader);
-        ValidInfo headerValidInfo = parseHeader(headerRow);
-        if (!headerValidInfo.isValid()) {
+        final boolean[] headerParsed = {false};
+        final boolean[] parseAborted = {false};
+        
+        boolean sheetFound = reader.readSheet(sheetName, (rowNumber, rowValueMap, lastCellNum) -> {
+            
+            if (rowNumber < rowNumberHeader) {
+                return true;
+            }
+            
+            if (!headerParsed[0]) {
+                headerParsed[0] = true;
+                
+                // parse / validate header row - initializes helper data structures based on actual columns
+                int headerColumns = (rowNumber == rowNumberHeader) ? lastCellNum : 0;
+                Map<Integer, String> headerValueMap = (rowNumber == rowNumberHeader) ? rowValueMap : new HashMap<>();
+                ValidInfo headerValidInfo = parseHeader(headerValueMap, headerColumns);
+                if (!headerValidInfo.isValid()) {
+                    validInput = false;
+                    validationMessage = headerValidInfo.getValidString();
+                    summaryMessage
+                            = "Press 'Cancel' to terminate the import process and fix "
+                            + "problems with import spreadsheet."
+                            + " No action will be taken.";
+                    parseAborted[0] = true;
+                    return false;
+                }
+                
+                if (rowNumber == rowNumberHeader) {
+                    return true;
+                }
+            }
+            
+            if (rowNumber > rowNumberLastData) {
+                return false;
+            }
+            if (rowNumber < rowNumberFirstData) {
+                return true;
+            }
+            
+            collectReferenceValues(rowValueMap);
+            return true;
+        });
+        
+        if (!sheetFound) {
+            return false;
+        }
+        
+        if (parseAborted[0]) {
+            return true;
+        }
+        
+        if (!headerParsed[0]) {
             validInput = false;
-            validationMessage = headerValidInfo.getValidString();
+            validationMessage = "Header row not found in sheet " + sheetName;
             summaryMessage
                     = "Press 'Cancel' to terminate the import process and fix "
                     + "problems with import spreadsheet."
                     + " No action will be taken.";
-            return;
+            return true;
         }
+        
+        // resolve collected references with bulk queries
+        for (InputHandler handler : getHandlersForCurrentMode()) {
+            handler.prefetchReferences();
+        }
+        
+        reader.readSheet(sheetName, (rowNumber, rowValueMap, lastCellNum) -> {
             
-        // parse spreadsheet data rows
-        for (int rowNumber = rowNumberFirstData ; rowNumber <= rowNumberLastData ; rowNumber ++) {
-            Row row = sheet.getRow(rowNumber);
-            if (row != null) {
-                ValidInfo rowValidInfo = null;
-                try {
-                    rowValidInfo = parseRow(row);
-                } catch (CdbException ex) {
+            if (rowNumber > rowNumberLastData) {
+                return false;
+            }
+            if ((rowNumber <= rowNumberHeader) || (rowNumber < rowNumberFirstData)) {
+                return true;
+            }
+            
+            // parse spreadsheet data row
+            ValidInfo rowValidInfo = null;
+            try {
+                rowValidInfo = parseRow(rowValueMap);
+            } catch (CdbException ex) {
+                validInput = false;
+                validationMessage = "Unexpected exception parsing spreadsheet row: "
+                        + rowNumber + " message: "
+                        + ex.getMessage();
+                summaryMessage
+                        = " Press 'Cancel' to terminate the import process."
+                        + " No new items will be created.";
+                parseAborted[0] = true;
+                return false;
+            }
+            parsedRowCount = parsedRowCount + 1;
+            if (rowValidInfo != null) {
+                if (!rowValidInfo.isValid()) {
                     validInput = false;
-                    validationMessage = "Unexpected exception parsing spreadsheet row: "
-                            + rowNumber + " message: "
-                            + ex.getMessage();
-                    summaryMessage
-                            = " Press 'Cancel' to terminate the import process."
-                            + " No new items will be created.";
-                    return;
-                }
-                if (rowValidInfo != null) {
-                    if (!rowValidInfo.isValid()) {
-                        validInput = false;
-                        invalidCount = invalidCount + 1;
-                    }
+                    invalidRowCount = invalidRowCount + 1;
                 }
             }
+            
+            return true;
+        });
+        
+        if (parseAborted[0]) {
+            return true;
         }
         
+        int invalidCount = invalidRowCount;
         int itemCount = rows.size();        
         if (itemCount == 0) {
             // nothing to import, this will disable the "next" button
@@ -875,6 +1037,16 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
                     + " process and fix problems with spreadsheet." +
                     " No action will be taken.";
         }
+        
+        return true;
+    }
+    
+    public int getParsedRowCount() {
+        return parsedRowCount;
+    }
+    
+    public int getInvalidRowCount() {
+        return invalidRowCount;
     }
     
     /**
@@ -890,18 +1062,15 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
      * @param row
      * @return 
      */
-    private ValidInfo parseHeader(Row row) {
+    private ValidInfo parseHeader(Map<Integer, String> rowValueMap, int actualColumns) {
         
         boolean isValid = true;
         String validMessage = "";
         
-        // get number of actual columns and read header row 
-        // into map (columnIndex -> cellValue)
-        int actualColumns = row.getLastCellNum();
+        // read header row into map (columnIndex -> cellValue)
         Map<Integer, String> headerValueMap = new HashMap<>();
         for (int colIndex = 0 ; colIndex < actualColumns ; ++colIndex) {
-            Cell cell = row.getCell(colIndex);
-            String cellValue = parseStringCell(cell);
+            String cellValue = parseStringValue(rowValueMap.get(colIndex));
             headerValueMap.put(colIndex, cellValue);
         }
         
@@ -941,7 +1110,28 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
                 h -> h.isUsedForMode(mode)).collect(Collectors.toList());
     }
     
-    private ValidInfo parseRow(Row row) throws CdbException {
+    /**
+     * Passes values of a data row to the input handlers so reference values
+     * can be collected for bulk lookup.
+     */
+    private void collectReferenceValues(Map<Integer, String> rowValueMap) {
+        
+        Map<Integer, String> cellValueMap = new HashMap<>();
+        for (InputColumnModel col : inputColumnMap.values()) {
+            int colIndex = col.getColumnIndex();
+            cellValueMap.put(colIndex, parseStringValue(rowValueMap.get(colIndex)));
+        }
+        
+        if (isBlankRow(cellValueMap) || isCommentRow(cellValueMap)) {
+            return;
+        }
+        
+        for (InputHandler handler : getHandlersForCurrentMode()) {
+            handler.collectReferenceValues(cellValueMap);
+        }
+    }
+    
+    private ValidInfo parseRow(Map<Integer, String> rowValueMap) throws CdbException {
 
         boolean isValid = true;
         String validString = "";
@@ -951,8 +1141,7 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
         Map<Integer, String> cellValueMap = new HashMap<>();
         for (InputColumnModel col : inputColumnMap.values()) {
             colIndex = col.getColumnIndex();
-            Cell cell = row.getCell(colIndex);
-            String cellValue = parseStringCell(cell);
+            String cellValue = parseStringValue(rowValueMap.get(colIndex));
             cellValueMap.put(colIndex, cellValue);
             
             // check that value is present for required columns
@@ -991,7 +1180,7 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
         // invoke each input handler to populate row dictionary (String key -> object)
         Map<String, Object> rowDict = new HashMap<>();
         for (InputHandler handler : getHandlersForCurrentMode()) {
-            ValidInfo validInfo = handler.handleInput(row, cellValueMap, rowDict);
+            ValidInfo validInfo = handler.handleInput(cellValueMap, rowDict);
             if (!validInfo.isValid()) {
                 validString = appendToString(validString, validInfo.getValidString());
                 isValid = false;
@@ -1364,15 +1553,29 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
         return new ValidInfo(true, "");
     }
     
+    /**
+     * Records progress of bulk writes performed during import.
+     */
+    protected void importBatchWritten(int writtenCount, int totalCount) {
+        importWrittenCount = writtenCount;
+        LOGGER.debug("Import wrote " + writtenCount + " of " + totalCount + " instances");
+    }
+    
+    public int getImportWrittenCount() {
+        return importWrittenCount;
+    }
+    
     public ImportInfo importData() {
 
         EntityControllerType controller = this.getEntityController();
         
         String message = "";
         String modeString = "";
+        importWrittenCount = 0;
+        long startTime = System.currentTimeMillis();
         try {
             if (getImportMode() == ImportMode.CREATE) {
-                controller.createList(rows);
+                controller.createList(rows, false, importBatchListener);
                 modeString = "created";
                 ValidInfo result = postCreate();
                 message = appendToString(message, result.getValidString());
@@ -1392,6 +1595,10 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
         
         if (getImportMode() != ImportMode.COMPARE) {
             message = "Operation succeeded, " + modeString + " " + rows.size() + " instances";
+            double seconds = (System.currentTimeMillis() - startTime) / 1000.0;
+            if (importWrittenCount > 0 && seconds > 0) {
+                message += String.format(" in %.1f seconds (%.0f instances/second)", seconds, importWrittenCount / seconds);
+            }
         } else {
             message = "Comparison complete.";
         }
@@ -1559,7 +1766,7 @@ public abstract class ImportHelperBase<EntityType extends CdbEntity, EntityContr
         }
         EntityControllerType controller = this.getEntityController();
         if (!updateEntities.isEmpty()) {
-            controller.updateList(updateEntities);
+            controller.updateList(updateEntities, importBatchListener);
         }
     }
     
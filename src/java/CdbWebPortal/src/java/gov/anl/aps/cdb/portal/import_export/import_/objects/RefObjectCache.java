@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.import_export.import_.objects;
+
+import gov.anl.aps.cdb.portal.controllers.CdbEntityController;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reference lookup cache for a single import run. Holds one RefObjectManager
+ * per (entity type, domain filter) pair, so handlers of the same run share
+ * resolved objects while concurrent imports never see each other's state.
+ * A new cache is created for each spreadsheet that is parsed, which keeps
+ * cached objects from outliving the import they were loaded for.
+ */
+public class RefObjectCache {
+
+    private final Map<String, RefObjectManager> objectManagerMap = new ConcurrentHashMap<>();
+
+    public RefObjectManager getObjectManager(CdbEntityController controller, String domainNameFilter) {
+        String key = controller.getEntityTypeName() + "|" + domainNameFilter;
+        return objectManagerMap.computeIfAbsent(key, k -> new RefObjectManager(controller, domainNameFilter));
+    }
+
+}
@@ -7,88 +7,109 @@ package gov.anl.aps.cdb.portal.import_export.import_.objects;
 import gov.anl.aps.cdb.common.exceptions.CdbException;
 import gov.anl.aps.cdb.portal.controllers.CdbEntityController;
 import gov.anl.aps.cdb.portal.model.db.entities.CdbEntity;
+import gov.anl.aps.cdb.portal.model.db.entities.Item;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
  *
  * @author craig
  */
 public class RefObjectManager {
-    
+
+    private static final Logger LOGGER = LogManager.getLogger(RefObjectManager.class.getName());
+
+    // maximum number of values bound to a single IN (...) prefetch query
+    private static final int PREFETCH_BATCH_SIZE = 500;
+
     private CdbEntityController controller;
     private String domainNameFilter = null;
-    private Map<Object, CdbEntity> objectIdMap = new HashMap<>();
-    
+    private Map<Object, CdbEntity> objectIdMap = new ConcurrentHashMap<>();
+    private Map<String, CdbEntity> objectNameMap = new ConcurrentHashMap<>();
+    private Set<Integer> missingIdSet = ConcurrentHashMap.newKeySet();
+    private Set<String> missingNameSet = ConcurrentHashMap.newKeySet();
+
     public RefObjectManager(
-            CdbEntityController controller, 
+            CdbEntityController controller,
             String domainNameFilter) {
-        
+
         this.controller = controller;
         this.domainNameFilter = domainNameFilter;
     }
 
     public CdbEntity getObjectWithId(String idString) throws CdbException {
-        
+
         CdbEntity objValue = null;
         try {
             int id = Integer.valueOf(idString.trim());
-            if (objectIdMap.containsKey(id)) {
-                objValue = objectIdMap.get(id);
-            } else {
+            if (missingIdSet.contains(id)) {
+                return null;
+            }
+            objValue = objectIdMap.get(id);
+            if (objValue == null) {
                 objValue = controller.findById(id);
-                if (objValue != null) {
-                    if (objValue.getIsItemDeleted()) {
-                        objValue = null;
-                        throw new CdbException("Item with id " + id + " is deleted");
-                    }
-                    objectIdMap.put(objValue.getId(), objValue);
+                if (objValue == null) {
+                    missingIdSet.add(id);
+                    return null;
                 }
+                objValue = getCacheObject(objValue);
+            }
+            if (objValue.getIsItemDeleted()) {
+                throw new CdbException("Item with id " + id + " is deleted");
             }
         } catch (NumberFormatException ex) {
             throw new CdbException("Invalid number format id: " + idString);
         }
-        
+
         return objValue;
     }
-    
+
     public CdbEntity getCacheObject(CdbEntity entity) {
         CdbEntity result = null;
         if (entity != null) {
             // check cache for object so different references use same instance
-            int id = (Integer) entity.getId();
-
-            if (objectIdMap.containsKey(id)) {
-                result = objectIdMap.get(id);
-            } else {
-                // add this instance to cache
-                objectIdMap.put(id, entity);
-                result = entity;
-            }
+            CdbEntity cached = objectIdMap.putIfAbsent(entity.getId(), entity);
+            result = (cached != null) ? cached : entity;
         }
         return result;
     }
-    
+
     public CdbEntity getObjectWithName(String nameString) throws CdbException {
-        
-        CdbEntity objValue = null;
-                
-        objValue = controller.findUniqueByName(nameString, domainNameFilter);
-        if (objValue != null) {
-            if (objValue.getIsItemDeleted()) {
-                objValue = null;
-                throw new CdbException("Item with name " + nameString + " is deleted");
+
+        if (missingNameSet.contains(nameString)) {
+            return null;
+        }
+
+        CdbEntity objValue = objectNameMap.get(nameString);
+        if (objValue == null) {
+            objValue = controller.findUniqueByName(nameString, domainNameFilter);
+            if (objValue == null) {
+                missingNameSet.add(nameString);
+                return null;
             }
-            return getCacheObject(objValue);
+            objValue = getCacheObject(objValue);
+            objectNameMap.put(nameString, objValue);
+        }
+
+        if (objValue.getIsItemDeleted()) {
+            throw new CdbException("Item with name " + nameString + " is deleted");
         }
-        
+
         return objValue;
     }
 
     public CdbEntity getObjectWithAttributes(Map<String,String> attributeMap) throws CdbException {
-        
+
         CdbEntity objValue = null;
-                
+
         objValue = controller.findUniqueWithAttributes(attributeMap);
         if (objValue != null) {
             if (objValue.getIsItemDeleted()) {
@@ -97,14 +118,14 @@ public class RefObjectManager {
             }
             return getCacheObject(objValue);
         }
-        
+
         return objValue;
     }
 
     public CdbEntity getObjectWithPath(String pathString) throws CdbException {
-        
+
         CdbEntity objValue = null;
-                
+
         objValue = controller.findUniqueByPath(pathString);
         if (objValue != null) {
             if (objValue.getIsItemDeleted()) {
@@ -113,8 +134,100 @@ public class RefObjectManager {
             }
             return getCacheObject(objValue);
         }
-        
+
         return objValue;
     }
-    
+
+    /**
+     * Loads objects for the specified id strings with IN (...) queries so that
+     * later calls to getObjectWithId() are answered from the cache.  Invalid
+     * id strings are ignored here and reported by getObjectWithId().
+     */
+    public void prefetchIds(Collection<String> idStrings) {
+
+        Set<Integer> idSet = new LinkedHashSet<>();
+        for (String idString : idStrings) {
+            try {
+                int id = Integer.valueOf(idString.trim());
+                if (!objectIdMap.containsKey(id) && !missingIdSet.contains(id)) {
+                    idSet.add(id);
+                }
+            } catch (NumberFormatException ex) {
+                // reported when the cell is parsed
+            }
+        }
+
+        for (List<Integer> batch : partition(new ArrayList<>(idSet))) {
+            List<CdbEntity> entities = controller.findByIdList(batch);
+            for (CdbEntity entity : entities) {
+                getCacheObject(entity);
+            }
+            for (Integer id : batch) {
+                if (!objectIdMap.containsKey(id)) {
+                    missingIdSet.add(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads objects for the specified names with IN (...) queries so that
+     * later calls to getObjectWithName() are answered from the cache.  Only
+     * names that resolve to exactly one object with identical spelling are
+     * cached; ambiguous names are left for getObjectWithName() to report.
+     * Does nothing if the controller does not support lookup by name list.
+     */
+    public void prefetchNames(Collection<String> names) {
+
+        Set<String> nameSet = new LinkedHashSet<>();
+        for (String name : names) {
+            if (!name.isEmpty()
+                    && !objectNameMap.containsKey(name)
+                    && !missingNameSet.contains(name)) {
+                nameSet.add(name);
+            }
+        }
+
+        for (List<String> batch : partition(new ArrayList<>(nameSet))) {
+            List<CdbEntity> entities;
+            try {
+                entities = controller.findByNameList(batch, domainNameFilter);
+            } catch (CdbException ex) {
+                LOGGER.debug("Name prefetch not available for "
+                        + controller.getEntityTypeName() + ": " + ex.getMessage());
+                return;
+            }
+
+            // group by lower case name since database collation may ignore case
+            Map<String, List<CdbEntity>> entityNameMap = new HashMap<>();
+            for (CdbEntity entity : entities) {
+                if (!(entity instanceof Item)) {
+                    return;
+                }
+                String name = ((Item) entity).getName();
+                if (name != null) {
+                    entityNameMap.computeIfAbsent(name.toLowerCase(), k -> new ArrayList<>()).add(entity);
+                }
+            }
+
+            for (String name : batch) {
+                List<CdbEntity> matches = entityNameMap.get(name.toLowerCase());
+                if (matches == null) {
+                    missingNameSet.add(name);
+                } else if (matches.size() == 1
+                        && name.equals(((Item) matches.get(0)).getName())) {
+                    objectNameMap.put(name, getCacheObject(matches.get(0)));
+                }
+            }
+        }
+    }
+
+    private static <V> List<List<V>> partition(List<V> values) {
+        List<List<V>> batches = new ArrayList<>();
+        for (int i = 0; i < values.size(); i += PREFETCH_BATCH_SIZE) {
+            batches.add(values.subList(i, Math.min(i + PREFETCH_BATCH_SIZE, values.size())));
+        }
+        return batches;
+    }
+
 }
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.import_export.import_.objects;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.parsers.ParserConfigurationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Reads xlsx sheets row by row using the POI event model. The workbook is
+ * never loaded into memory; only the shared strings table and the values of
+ * the current row are held while the sheet XML is streamed.
+ *
+ * Cell values are returned as the text of the raw cell value, matching
+ * what Cell.setCellType(CellType.STRING) produced with the user model.
+ */
+public class XlsxSheetReader implements AutoCloseable {
+
+    private static final Logger LOGGER = LogManager.getLogger(XlsxSheetReader.class.getName());
+
+    /**
+     * Receives sheet rows in order. Rows without any cells in the file are
+     * not reported.
+     */
+    public interface RowHandler {
+
+        /**
+         * @param rowNumber 0-based row number
+         * @param cellValueMap map of 0-based column index to cell text
+         * @param lastCellNum 1 + index of last column with a value
+         * @return false to stop reading the sheet
+         */
+        public boolean handleRow(int rowNumber, Map<Integer, String> cellValueMap, int lastCellNum);
+    }
+
+    private final File file;
+    private final OPCPackage xlsxPackage;
+    private final XSSFReader xssfReader;
+
+    public XlsxSheetReader(InputStream inputStream) throws IOException {
+        // OPCPackage.open(InputStream) buffers every zip entry in memory,
+        // opening from file lets the sheet parts be streamed.
+        file = File.createTempFile("cdbImport", ".xlsx");
+        try {
+            Files.copy(inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            xlsxPackage = OPCPackage.open(file, PackageAccess.READ);
+            xssfReader = new XSSFReader(xlsxPackage);
+        } catch (IOException | OpenXML4JException | RuntimeException ex) {
+            deleteFile();
+            throw new IOException("Unable to open xlsx file: " + ex.getMessage(), ex);
+        }
+    }
+
+    public List<String> getSheetNames() throws IOException {
+        List<String> sheetNames = new ArrayList<>();
+        XSSFReader.SheetIterator iterator = getSheetIterator();
+        while (iterator.hasNext()) {
+            try (InputStream stream = iterator.next()) {
+                sheetNames.add(iterator.getSheetName());
+            }
+        }
+        return sheetNames;
+    }
+
+    /**
+     * Streams rows of specified sheet to the row handler.
+     *
+     * @return false if workbook does not contain the sheet
+     */
+    public boolean readSheet(String sheetName, RowHandler rowHandler) throws IOException {
+        XSSFReader.SheetIterator iterator = getSheetIterator();
+        while (iterator.hasNext()) {
+            try (InputStream stream = iterator.next()) {
+                if (iterator.getSheetName().equals(sheetName)) {
+                    parseSheet(stream, rowHandler);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private XSSFReader.SheetIterator getSheetIterator() throws IOException {
+        try {
+            return (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+        } catch (OpenXML4JException ex) {
+            throw new IOException("Unable to read sheets: " + ex.getMessage(), ex);
+        }
+    }
+
+    private void parseSheet(InputStream sheetStream, RowHandler rowHandler) throws IOException {
+        try {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(xlsxPackage);
+            StylesTable styles = xssfReader.getStylesTable();
+            RowCollector rowCollector = new RowCollector(rowHandler);
+            XSSFSheetXMLHandler sheetHandler = new XSSFSheetXMLHandler(
+                    styles, null, strings, rowCollector, new RawValueFormatter(), false);
+
+            XMLReader parser = SAXHelper.newXMLReader();
+            parser.setContentHandler(sheetHandler);
+            parser.parse(new InputSource(sheetStream));
+        } catch (StopReadingException ex) {
+            // row handler requested to stop
+        } catch (SAXException | ParserConfigurationException | OpenXML4JException ex) {
+            throw new IOException("Unable to parse sheet: " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        xlsxPackage.revert();
+        deleteFile();
+    }
+
+    private void deleteFile() {
+        if (!file.delete()) {
+            LOGGER.warn("Unable to delete temporary import file " + file.getPath());
+        }
+    }
+
+    /**
+     * Formats numeric values the same way the user model converts numeric
+     * cells to string, independent of the cell number format.
+     */
+    private static class RawValueFormatter extends DataFormatter {
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            return NumberToTextConverter.toText(value);
+        }
+    }
+
+    private static class StopReadingException extends RuntimeException {
+    }
+
+    private static class RowCollector implements SheetContentsHandler {
+
+        private final RowHandler rowHandler;
+        private Map<Integer, String> cellValueMap;
+        private int lastCellNum;
+
+        public RowCollector(RowHandler rowHandler) {
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cellValueMap = new HashMap<>();
+            lastCellNum = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!rowHandler.handleRow(rowNum, cellValueMap, lastCellNum)) {
+                throw new StopReadingException();
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (cellReference == null || formattedValue == null) {
+                return;
+            }
+            int colIndex = new CellReference(cellReference).getCol();
+            cellValueMap.put(colIndex, formattedValue);
+            lastCellNum = Math.max(lastCellNum, colIndex + 1);
+        }
+
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName) {
+        }
+    }
+
+}
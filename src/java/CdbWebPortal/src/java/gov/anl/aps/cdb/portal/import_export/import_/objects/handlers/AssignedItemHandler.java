@@ -20,7 +20,6 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.apache.poi.ss.usermodel.Row;
 
 /**
  *
@@ -40,7 +39,6 @@ public class AssignedItemHandler extends SingleColumnInputHandler {
 
     @Override
     public ValidInfo handleInput(
-            Row row,
             Map<Integer, String> cellValueMap,
             Map<String, Object> rowMap) {
 
@@ -72,7 +70,7 @@ public class AssignedItemHandler extends SingleColumnInputHandler {
                     validString = "Exception parsing attribute map for column: " + getColumnName();
                 }
 
-                RefObjectManager mgr = RefInputHandler.getObjectManager(
+                RefObjectManager mgr = getRefObjectCache().getObjectManager(
                         ItemDomainCatalogController.getInstance(), null);
                 CdbEntity entity = null;
                 try {
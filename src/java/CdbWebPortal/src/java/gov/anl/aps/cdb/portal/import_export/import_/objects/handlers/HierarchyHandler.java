@@ -6,7 +6,6 @@ package gov.anl.aps.cdb.portal.import_export.import_.objects.handlers;
 
 import gov.anl.aps.cdb.portal.import_export.import_.objects.ValidInfo;
 import java.util.Map;
-import org.apache.poi.ss.usermodel.Row;
 
 /**
  * Supports the definition of a hierarchy using the indent levels in a range of
@@ -45,7 +44,6 @@ public class HierarchyHandler extends InputHandler {
 
     @Override
     public ValidInfo handleInput(
-            Row row,
             Map<Integer, String> cellValueMap,
             Map<String, Object> rowMap) {
 
@@ -5,11 +5,11 @@
 package gov.anl.aps.cdb.portal.import_export.import_.objects.handlers;
 
 import gov.anl.aps.cdb.portal.import_export.import_.objects.ImportMode;
+import gov.anl.aps.cdb.portal.import_export.import_.objects.RefObjectCache;
 import gov.anl.aps.cdb.portal.import_export.import_.objects.ValidInfo;
 import gov.anl.aps.cdb.portal.import_export.import_.objects.specs.ColumnSpec;
 import gov.anl.aps.cdb.portal.model.db.entities.CdbEntity;
 import java.util.Map;
-import org.apache.poi.ss.usermodel.Row;
 
 /**
  *
@@ -20,6 +20,7 @@ public abstract class InputHandler {
     private ColumnSpec columnSpec;
     private int firstColumnIndex = -1;
     private int lastColumnIndex = -1;
+    private RefObjectCache refObjectCache = null;
     
     public InputHandler() {
     }
@@ -53,8 +54,34 @@ public abstract class InputHandler {
         this.lastColumnIndex = lastIndex;
     }
 
+    /**
+     * Sets the reference lookup cache shared by handlers of an import run.
+     */
+    public void setRefObjectCache(RefObjectCache refObjectCache) {
+        this.refObjectCache = refObjectCache;
+    }
+
+    public RefObjectCache getRefObjectCache() {
+        if (refObjectCache == null) {
+            refObjectCache = new RefObjectCache();
+        }
+        return refObjectCache;
+    }
+
+    /**
+     * Called for each data row before any row is parsed, allows handler to
+     * collect values that can be resolved in bulk by prefetchReferences().
+     */
+    public void collectReferenceValues(Map<Integer, String> cellValueMap) {
+    }
+
+    /**
+     * Called once after collectReferenceValues() has seen every data row.
+     */
+    public void prefetchReferences() {
+    }
+
     public abstract ValidInfo handleInput(
-            Row row,
             Map<Integer, String> cellValueMap,
             Map<String, Object> rowMap);
 
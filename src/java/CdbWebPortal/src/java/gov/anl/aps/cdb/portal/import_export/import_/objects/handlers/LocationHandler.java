@@ -13,7 +13,6 @@ import gov.anl.aps.cdb.portal.model.db.entities.CdbEntity;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemDomainLocation;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemDomainMachineDesign;
 import java.util.Map;
-import org.apache.poi.ss.usermodel.Row;
 
 /**
  *
@@ -32,7 +31,6 @@ public class LocationHandler extends SingleColumnInputHandler {
 
     @Override
     public ValidInfo handleInput(
-            Row row,
             Map<Integer, String> cellValueMap,
             Map<String, Object> rowMap) {
 
@@ -54,7 +52,7 @@ public class LocationHandler extends SingleColumnInputHandler {
                     // lookup by name
                     
                     if (parsedValue.length() > 1) {
-                        RefObjectManager mgr = RefInputHandler.getObjectManager(controller, null);
+                        RefObjectManager mgr = getRefObjectCache().getObjectManager(controller, null);
                         CdbEntity entity = null;
                         String name = parsedValue.substring(1);
                         try {
@@ -13,9 +13,11 @@ import gov.anl.aps.cdb.portal.import_export.import_.objects.RefObjectManager;
 import gov.anl.aps.cdb.portal.model.db.entities.CdbEntity;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,7 +36,8 @@ public class RefInputHandler extends SimpleInputHandler {
     private boolean singleValue = true;
     private boolean allowPaths = false;
     
-    private static Map<String, RefObjectManager> objectManagerMap = new HashMap<>();
+    private Set<String> prefetchIdSet = new HashSet<>();
+    private Set<String> prefetchNameSet = new HashSet<>();
     
     public RefInputHandler(
             int columnIndex,
@@ -110,16 +113,51 @@ public class RefInputHandler extends SimpleInputHandler {
     }
     
     protected RefObjectManager getObjectManager() {
-        return getObjectManager(controller, domainNameFilter);
+        return getRefObjectCache().getObjectManager(controller, domainNameFilter);
     }
-    
-    public static RefObjectManager getObjectManager(CdbEntityController controller, String domainNameFilter) {
-        String entityTypeName = controller.getEntityTypeName();
-        if (!objectManagerMap.containsKey(entityTypeName)) {
-            // add a new RefObjectManager instance for entity type if not present in map
-            objectManagerMap.put(entityTypeName, new RefObjectManager(controller, domainNameFilter));
+
+    @Override
+    public void collectReferenceValues(Map<Integer, String> cellValueMap) {
+        
+        String strValue = cellValueMap.get(getColumnIndex());
+        if (strValue == null || strValue.isEmpty() || strValue.charAt(0) == '{') {
+            // attribute map lookups are resolved individually
+            return;
+        }
+        
+        if (strValue.charAt(0) == '#') {
+            String nameString = strValue.substring(1);
+            if (idOnly || nameString.isEmpty()) {
+                return;
+            }
+            if (singleValue) {
+                if (!(allowPaths && nameString.charAt(0) == '/')) {
+                    prefetchNameSet.add(nameString.trim());
+                }
+            } else {
+                for (String nameToken : nameString.split(SEPARATOR)) {
+                    prefetchNameSet.add(nameToken.trim());
+                }
+            }
+            
+        } else if (singleValue) {
+            prefetchIdSet.add(strValue);
+        } else {
+            prefetchIdSet.addAll(Arrays.asList(strValue.split(SEPARATOR)));
+        }
+    }
+
+    @Override
+    public void prefetchReferences() {
+        RefObjectManager mgr = getObjectManager();
+        if (!prefetchIdSet.isEmpty()) {
+            mgr.prefetchIds(prefetchIdSet);
+        }
+        if (!prefetchNameSet.isEmpty()) {
+            mgr.prefetchNames(prefetchNameSet);
         }
-        return objectManagerMap.get(controller.getEntityTypeName());
+        prefetchIdSet.clear();
+        prefetchNameSet.clear();
     }
 
     @Override
@@ -12,7 +12,6 @@ import java.lang.reflect.Method;
 import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.poi.ss.usermodel.Row;
 
 /**
  *
@@ -50,7 +49,6 @@ public abstract class SimpleInputHandler extends SingleColumnInputHandler {
 
     @Override
     public ValidInfo handleInput(
-            Row row,
             Map<Integer, String> cellValueMap,
             Map<String, Object> rowMap) {
 
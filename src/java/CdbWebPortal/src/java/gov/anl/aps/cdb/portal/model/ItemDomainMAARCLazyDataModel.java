@@ -7,7 +7,6 @@ package gov.anl.aps.cdb.portal.model;
 import gov.anl.aps.cdb.portal.model.db.beans.ItemDomainMAARCFacade;
 import gov.anl.aps.cdb.portal.model.db.beans.builder.ItemDomainMaarcQueryBuilder;
 import gov.anl.aps.cdb.portal.model.db.entities.Domain;
-import java.util.ArrayList;
 import java.util.Map;
 import org.primefaces.model.SortOrder;
 
@@ -21,11 +20,6 @@ public class ItemDomainMAARCLazyDataModel extends ItemLazyDataModel<ItemDomainMA
         super(facade, itemDomain);
     }
 
-    @Override
-    protected void initalizeItemList() {
-        updateItemList(new ArrayList<>());
-    }
-
     @Override
     protected ItemDomainMaarcQueryBuilder getQueryBuilder(Map filterMap, String sortField, SortOrder sortOrder) {
         return new ItemDomainMaarcQueryBuilder(itemDomain, filterMap, sortField, sortOrder); 
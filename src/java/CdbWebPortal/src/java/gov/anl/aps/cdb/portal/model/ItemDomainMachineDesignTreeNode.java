@@ -4,6 +4,7 @@
  */
 package gov.anl.aps.cdb.portal.model;
 
+import gov.anl.aps.cdb.common.constants.CdbProperty;
 import gov.anl.aps.cdb.common.exceptions.CdbException;
 import gov.anl.aps.cdb.portal.constants.ItemDomainName;
 import gov.anl.aps.cdb.portal.model.db.beans.ItemDomainMachineDesignFacade;
@@ -15,12 +16,18 @@ import gov.anl.aps.cdb.portal.model.db.entities.ItemConnector;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemDomainCableDesign;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemDomainMachineDesign;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemElement;
+import gov.anl.aps.cdb.portal.model.db.utilities.ItemHierarchyLoader;
+import gov.anl.aps.cdb.portal.utilities.ConfigurationUtility;
 import gov.anl.aps.cdb.portal.utilities.SessionUtility;
 import gov.anl.aps.cdb.portal.view.objects.MachineDesignConnectorListObject;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.primefaces.model.DefaultTreeNode;
 import org.primefaces.model.TreeNode;
 
@@ -32,6 +39,12 @@ public class ItemDomainMachineDesignTreeNode extends DefaultTreeNode {
 
     private final static Integer MAXIMUM_EXPANDED_NODES = 250;
 
+    // levels loaded per query when nodes are expanded one at a time; the
+    // second level lets child nodes determine whether they are leaves
+    private final static int EXPANDED_NODE_LOAD_DEPTH = 2;
+
+    private final static int DEFAULT_MAXIMUM_FILTER_NODES = 5000;
+
     private String nameFilter = "";
     private Domain domain;
     private ItemDomainMachineDesignFacade designFacade;
@@ -72,6 +85,8 @@ public class ItemDomainMachineDesignTreeNode extends DefaultTreeNode {
     }
 
     private void addTopLevelChildren(List<ItemDomainMachineDesign> topNodes) {
+        config.getHierarchyLoader().load(topNodes, true, getHierarchyLoadDepth());
+
         for (ItemDomainMachineDesign item : topNodes) {
             ItemElement element = createTopLevelMockItemElement(item);
             createChildNode(element);
@@ -192,6 +207,10 @@ public class ItemDomainMachineDesignTreeNode extends DefaultTreeNode {
                         return;
                     }
 
+                    if (!childrenLoaded) {
+                        containedItem = getHierarchyItem(containedItem);
+                    }
+
                     ItemDomainMachineDesign idm = null;
                     if (containedItem instanceof ItemDomainMachineDesign) {
                         idm = (ItemDomainMachineDesign) containedItem;
@@ -204,6 +223,7 @@ public class ItemDomainMachineDesignTreeNode extends DefaultTreeNode {
                         for (ItemElement itemElement : itemElementList) {
                             createChildNode(itemElement);
                         }
+                        loadChildHierarchies(itemElementList);
                     }
                     if (loadCables && !cablesLoaded) {
                         cablesLoaded = true;
@@ -234,6 +254,33 @@ public class ItemDomainMachineDesignTreeNode extends DefaultTreeNode {
         }
     }
 
+    private int getHierarchyLoadDepth() {
+        if (config.loadAllChildren) {
+            return ItemHierarchyLoader.getConfiguredMaxDepth();
+        }
+        return EXPANDED_NODE_LOAD_DEPTH;
+    }
+
+    private Item getHierarchyItem(Item item) {
+        ItemHierarchyLoader loader = config.getHierarchyLoader();
+        if (!loader.isLoaded(item)) {
+            loader.load(Collections.singletonList(item), true, getHierarchyLoadDepth());
+        }
+        return loader.getLoadedItem(item);
+    }
+
+    private void loadChildHierarchies(List<ItemElement> itemElementList) {
+        // child nodes fetch their children as soon as they are displayed
+        List<Item> childItemList = new ArrayList<>();
+        for (ItemElement itemElement : itemElementList) {
+            Item childItem = itemElement.getContainedItem();
+            if (childItem != null) {
+                childItemList.add(childItem);
+            }
+        }
+        config.getHierarchyLoader().load(childItemList, true, getHierarchyLoadDepth());
+    }
+
     @Override
     public ItemDomainMachineDesignTreeNode getParent() {
         return (ItemDomainMachineDesignTreeNode) super.getParent();
@@ -357,85 +404,118 @@ public class ItemDomainMachineDesignTreeNode extends DefaultTreeNode {
         if (rawFilterResults != null) {
             getChildren().clear();
 
-            int relevantResults = 0;
             filterResults = new ArrayList<>();
-            // Passed as array to force pass by reference. 
-            Integer[] displayedNodes = new Integer[1];
-            displayedNodes[0] = 0;
+            Map<Integer, ItemDomainMachineDesign> resultMap = new HashMap<>();
             for (ItemDomainMachineDesign item : rawFilterResults) {
-                ItemDomainMachineDesignTreeNode createTreeFromFilter = createTreeFromFilter(item, true, displayedNodes);
-                if (createTreeFromFilter != null) {
-                    relevantResults++;
+                resultMap.put(item.getId(), item);
+            }
+
+            // ancestors of all results are found with one query so only the
+            // branches leading to results are loaded
+            Set<Integer> branchIdSet = designFacade.findAncestorIdSet(resultMap.keySet());
+            loadBranches(branchIdSet);
+
+            Set<Integer> displayedResultIdSet = new HashSet<>();
+            int displayedNodes = 0;
+            for (ItemDomainMachineDesign topItem : topLevelItems) {
+                if (!topItem.isFilterMachineNode()) {
+                    continue;
+                }
+                ItemElement element = createTopLevelMockItemElement(topItem);
+                displayedNodes += addFilterBranch(this, element, resultMap, branchIdSet, displayedResultIdSet);
+            }
+
+            for (ItemDomainMachineDesign item : rawFilterResults) {
+                if (displayedResultIdSet.contains(item.getId())) {
                     filterResults.add(item);
                 }
             }
 
-            if (displayedNodes[0] > 600) {
+            if (displayedNodes > getMaximumFilterNodes()) {
                 clearFilterResults();
                 SessionUtility.addErrorMessage("Too many results", "Too many results to display. Please provide a more specific search criteria.");
             } else {
-                SessionUtility.addInfoMessage("Done", "Showing " + relevantResults + " relevant results.");
+                SessionUtility.addInfoMessage("Done", "Showing " + filterResults.size() + " relevant results.");
             }
         }
     }
 
-    private ItemDomainMachineDesignTreeNode createTreeFromFilter(ItemDomainMachineDesign item, boolean searchResultNode, Integer[] displayedNodes) {
-        if (item == null) {
-            return null;
+    /**
+     * Adds node for the element if it leads to a filter result.
+     *
+     * @return number of nodes added
+     */
+    private int addFilterBranch(ItemDomainMachineDesignTreeNode parentNode, ItemElement element,
+            Map<Integer, ItemDomainMachineDesign> resultMap, Set<Integer> branchIdSet, Set<Integer> displayedResultIdSet) {
+        Item item = element.getContainedItem();
+        if (!(item instanceof ItemDomainMachineDesign)) {
+            return 0;
+        }
+        boolean isResult = resultMap.containsKey(item.getId());
+        boolean isBranch = branchIdSet.contains(item.getId());
+        if (!isResult && !isBranch) {
+            return 0;
         }
-        ItemDomainMachineDesign parentMachineDesign = item.getParentMachineDesign();
-        ItemDomainMachineDesignTreeNode parentNode = createTreeFromFilter(parentMachineDesign, false, displayedNodes);
 
-        if (parentMachineDesign != null && parentNode == null) {
-            // The top level item is not included in results
-            return null;
+        // result nodes can be expanded to all of their children
+        ItemDomainMachineDesignTreeNode node = parentNode.createChildNode(element, !isResult);
+        if (isResult) {
+            displayedResultIdSet.add(item.getId());
         }
 
-        ItemElement childElement = null;
-        ItemDomainMachineDesignTreeNode childNode = null;
-        if (parentNode == null) {
-            if (itemIncludedInSearch(item)) {
-                parentNode = this;
-                childElement = createTopLevelMockItemElement(item);
-            } else {
-                return null;
-            }
-        } else {
-            childElement = item.getParentMachineElement();
+        int displayedNodes = 1;
+        if (isBranch) {
+            // children of results are all shown
+            displayedNodes += expandFilterBranch(node, item, isResult, resultMap, branchIdSet, displayedResultIdSet);
         }
+        return displayedNodes;
+    }
 
-        List<ItemDomainMachineDesignTreeNode> children = parentNode.getMachineChildren();
-        for (ItemDomainMachineDesignTreeNode node : children) {
-            ItemElement element = node.getElement();
+    private int expandFilterBranch(ItemDomainMachineDesignTreeNode node, Item item, boolean showAllChildren,
+            Map<Integer, ItemDomainMachineDesign> resultMap, Set<Integer> branchIdSet, Set<Integer> displayedResultIdSet) {
+        node.setExpanded(true);
+        int displayedNodes = 0;
 
-            if (element.equals(childElement)) {
-                childNode = node;
-                if (childNode.isExpanded() == false) {
-                    displayedNodes[0]++;
-                    childNode.setExpanded(true);
-                }
-                break;
+        if (!showAllChildren) {
+            // only children leading to results are shown
+            for (ItemElement childElement : config.getHierarchyLoader().getItemElementDisplayList(item)) {
+                displayedNodes += addFilterBranch(node, childElement, resultMap, branchIdSet, displayedResultIdSet);
             }
+            return displayedNodes;
         }
 
-        if (childNode == null) {
-            displayedNodes[0]++;
-            childNode = parentNode.createChildNode(childElement, !searchResultNode);
-            if (searchResultNode == false) {
-                childNode.setExpanded(true);
+        for (ItemDomainMachineDesignTreeNode childNode : node.getMachineChildren()) {
+            displayedNodes++;
+            Item childItem = childNode.getElement().getContainedItem();
+            if (!(childItem instanceof ItemDomainMachineDesign)) {
+                continue;
+            }
+            boolean isChildResult = resultMap.containsKey(childItem.getId());
+            if (isChildResult) {
+                displayedResultIdSet.add(childItem.getId());
+            }
+            if (branchIdSet.contains(childItem.getId())) {
+                displayedNodes += expandFilterBranch(childNode, childItem, true, resultMap, branchIdSet, displayedResultIdSet);
             }
         }
+        return displayedNodes;
+    }
 
-        return childNode;
+    /**
+     * Loads element lists of the specified items and their children with a
+     * single query.
+     */
+    public void loadBranches(Collection<Integer> itemIdList) {
+        config.getHierarchyLoader().loadById(itemIdList, true, EXPANDED_NODE_LOAD_DEPTH);
     }
 
-    private boolean itemIncludedInSearch(ItemDomainMachineDesign item) {
-        for (ItemDomainMachineDesign topItem : topLevelItems) {
-            if (topItem.equals(item)) {
-                return topItem.isFilterMachineNode();
-            }
+    private static int getMaximumFilterNodes() {
+        Integer maximumFilterNodes = ConfigurationUtility.getPortalPropertyAsInteger(
+                CdbProperty.MACHINE_DESIGN_MAX_FILTER_NODES_PROPERTY_NAME);
+        if (maximumFilterNodes == null) {
+            return DEFAULT_MAXIMUM_FILTER_NODES;
         }
-        return false;
+        return maximumFilterNodes;
     }
 
     public String getNameFilter() {
@@ -529,10 +609,15 @@ public class ItemDomainMachineDesignTreeNode extends DefaultTreeNode {
         private boolean loadAllChildren = false;
         private boolean showCables = false;
         private boolean showConnectorsOnly = false;
+        private final ItemHierarchyLoader hierarchyLoader = new ItemHierarchyLoader();
 
         public MachineTreeConfiguration() {
         }
 
+        public ItemHierarchyLoader getHierarchyLoader() {
+            return hierarchyLoader;
+        }
+
         public boolean isLoadAllChildren() {
             return loadAllChildren;
         }
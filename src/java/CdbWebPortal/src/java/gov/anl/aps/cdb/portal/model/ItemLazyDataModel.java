@@ -4,10 +4,15 @@
  */
 package gov.anl.aps.cdb.portal.model;
 
+import gov.anl.aps.cdb.portal.controllers.LoginController;
+import gov.anl.aps.cdb.portal.import_export.export.objects.ExportEntitySource;
+import gov.anl.aps.cdb.portal.import_export.export.objects.QueryExportEntitySource;
 import gov.anl.aps.cdb.portal.model.db.beans.ItemFacadeBase;
 import gov.anl.aps.cdb.portal.model.db.beans.builder.ItemQueryBuilder;
 import gov.anl.aps.cdb.portal.model.db.entities.Domain;
+import gov.anl.aps.cdb.portal.model.db.entities.EntityInfo;
 import gov.anl.aps.cdb.portal.model.db.entities.Item;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,19 +39,17 @@ public abstract class ItemLazyDataModel<Facade extends ItemFacadeBase, QueryBuil
     Map<Object, Object> lastFilterMap = null;
     Map<Object, Integer> lastSortMap = null;
 
+    QueryBuilder lastQueryBuilder = null;
+
+    // Position of currently loaded page, used for keyset pagination.
+    int pageFirst = -1;
+    int pageSize = 0;
+    Integer pageLastItemId = null;
+
     public ItemLazyDataModel(Facade facade, Domain itemDomain) {
         this.facade = facade;
         this.itemDomain = itemDomain;
-        initalizeItemList();
-    }
-
-    protected void initalizeItemList() {
-        updateItemList(facade.findByDomain(itemDomain.getName()));
-    }
-
-    protected void updateItemList(List<Item> itemList) {
-        this.itemList = itemList;
-        setRowCount(itemList.size());
+        this.itemList = new ArrayList<>();
     }
 
     @Override
@@ -61,14 +64,70 @@ public abstract class ItemLazyDataModel<Facade extends ItemFacadeBase, QueryBuil
             sortOrder = sortMeta.getOrder();
         }
 
-        if (needToReloadLastQuery(sortOrderMap, filterBy)) {
-            QueryBuilder itemQueryBuilder = getQueryBuilder(filterBy, sortField, sortOrder);
+        if (needToReloadLastQuery(sortOrderMap, filterBy) || lastQueryBuilder == null) {
+            lastQueryBuilder = getQueryBuilder(filterBy, sortField, sortOrder);
 
-            List<Item> results = facade.findByDataTableFilterQueryBuilder(itemQueryBuilder);
-            updateItemList(results);
+            int rowCount = facade.countByDataTableFilterQueryBuilder(lastQueryBuilder);
+            setRowCount(rowCount);
+            resetPagePosition();
         }
 
-        return paginate(first, pageSize);
+        return loadPage(first, pageSize);
+    }
+
+    /**
+     * Loads a single page of the filtered result from the database. When the
+     * next page of a result ordered by id is requested, the page is fetched
+     * with a keyset condition instead of an offset.
+     */
+    private List<Item> loadPage(int first, int pageSize) {
+        List<Item> page;
+
+        boolean nextPage = pageLastItemId != null && first == pageFirst + this.pageSize;
+        if (nextPage && lastQueryBuilder.isSortedById()) {
+            page = facade.findByDataTableFilterQueryBuilderAfterId(lastQueryBuilder, pageLastItemId, pageSize);
+        } else {
+            page = facade.findByDataTableFilterQueryBuilder(lastQueryBuilder, first, pageSize);
+        }
+
+        prefetchEntityWriteable(page);
+
+        itemList = page;
+        pageFirst = first;
+        this.pageSize = pageSize;
+        if (page.isEmpty()) {
+            pageLastItemId = null;
+        } else {
+            pageLastItemId = page.get(page.size() - 1).getId();
+        }
+
+        return itemList;
+    }
+
+    /**
+     * Resolves write permissions of the page with one query, the rows check
+     * them one by one while rendering.
+     */
+    private void prefetchEntityWriteable(List<Item> page) {
+        LoginController loginController = LoginController.getInstance();
+        if (loginController == null) {
+            return;
+        }
+
+        List<Integer> entityInfoIdList = new ArrayList<>();
+        for (Item item : page) {
+            EntityInfo entityInfo = item.getEntityInfo();
+            if (entityInfo != null) {
+                entityInfoIdList.add(entityInfo.getId());
+            }
+        }
+        loginController.prefetchEntityWriteable(entityInfoIdList);
+    }
+
+    private void resetPagePosition() {
+        pageFirst = -1;
+        pageSize = 0;
+        pageLastItemId = null;
     }
 
     private boolean needToReloadLastQuery(Map sortOrderMap, Map filterBy) {
@@ -134,27 +193,17 @@ public abstract class ItemLazyDataModel<Facade extends ItemFacadeBase, QueryBuil
         }        
     }
 
-    private List paginate(int first, int pageSize) {
-        int size = itemList.size();
-
-        int last = first + pageSize;
-        if (size < last) {
-            last = size;
-        }
-
-        return itemList.subList(first, last);
-    }
-
     protected abstract QueryBuilder getQueryBuilder(Map filterMap, String sortField, SortOrder sortOrder);
 
     /**
-     * This defeats the purpose of a "lazy" data model, but we need to access
-     * the filtered list of items for the export feature. We might want to
-     * replace with some sort of iterator/cursor at some point, but for now this
-     * is the most straightforward approach...
+     * Export source that pages the current filter and sort result from the
+     * database instead of loading it all at once.
      */
-    public List<Item> getFilteredEntities() {
-        return itemList;
+    public ExportEntitySource getExportEntitySource() {
+        if (lastQueryBuilder == null) {
+            lastQueryBuilder = getQueryBuilder(new HashMap(), null, null);
+        }
+        return new QueryExportEntitySource(facade, lastQueryBuilder);
     }
 
     @Override
@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.model.db.beans;
+
+/**
+ * Receives progress of bulk writes performed by CdbEntityFacade.
+ */
+public interface BatchWriteListener {
+
+    /**
+     * Called each time a chunk of entities has been flushed to the database.
+     *
+     * @param writtenCount number of entities written so far
+     * @param totalCount total number of entities in the bulk write
+     */
+    public void batchWritten(int writtenCount, int totalCount);
+
+}
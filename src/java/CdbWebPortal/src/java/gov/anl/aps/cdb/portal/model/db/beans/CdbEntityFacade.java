@@ -4,9 +4,13 @@
  */
 package gov.anl.aps.cdb.portal.model.db.beans;
 
+import gov.anl.aps.cdb.common.constants.CdbProperty;
 import gov.anl.aps.cdb.common.exceptions.CdbException;
+import gov.anl.aps.cdb.portal.utilities.ConfigurationUtility;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 
 /**
@@ -15,10 +19,17 @@ import javax.persistence.EntityManager;
  */
 public abstract class CdbEntityFacade<T> {
 
+    private static final int DEFAULT_BULK_WRITE_FLUSH_SIZE = 100;
+
     private Class<T> entityClass;
+    
+    private SharedCacheStatistics sharedCacheStatistics;
 
     public CdbEntityFacade(Class<T> entityClass) {
         this.entityClass = entityClass;
+        if (SharedCacheStatistics.isCacheable(entityClass)) {
+            sharedCacheStatistics = SharedCacheStatistics.getInstance(entityClass); 
+        }
     }
 
     protected abstract EntityManager getEntityManager();
@@ -28,9 +39,32 @@ public abstract class CdbEntityFacade<T> {
     }
 
     public void create(List<T> entities) {
+        create(entities, null);
+    }
+
+    /**
+     * Persist entities, flushing every bulk write flush size entities so that
+     * inserts are sent in JDBC batches while the list is processed.
+     *
+     * The persistence context is not cleared between chunks since entities
+     * created later in the list may reference ones created earlier.
+     *
+     * @param entities entities to create
+     * @param listener optional progress listener
+     */
+    public void create(List<T> entities, BatchWriteListener listener) {
+        int flushSize = getBulkWriteFlushSize();
+        int count = 0;
         for (T entity : entities) {
             create(entity);
+            count++;
+            if (count % flushSize == 0 && count < entities.size()) {
+                getEntityManager().flush();
+                notifyBatchWritten(listener, count, entities.size());
+            }
         }
+        getEntityManager().flush();
+        notifyBatchWritten(listener, count, entities.size());
     }
 
     public T edit(T entity) {
@@ -38,8 +72,49 @@ public abstract class CdbEntityFacade<T> {
     }
 
     public void edit(List<T> entities) {
+        edit(entities, null);
+    }
+
+    /**
+     * Merge entities in chunks of bulk write flush size. Each chunk is
+     * flushed as JDBC batch and its merged entities are detached afterwards
+     * to keep the persistence context bounded. Other entities managed in
+     * the caller's transaction stay managed.
+     *
+     * @param entities entities to update
+     * @param listener optional progress listener
+     */
+    public void edit(List<T> entities, BatchWriteListener listener) {
+        int flushSize = getBulkWriteFlushSize();
+        List<T> chunk = new ArrayList<>();
+        int count = 0;
         for (T entity : entities) {
-            edit(entity);
+            chunk.add(edit(entity));
+            count++;
+            if (count % flushSize == 0 && count < entities.size()) {
+                getEntityManager().flush();
+                for (T merged : chunk) {
+                    getEntityManager().detach(merged);
+                }
+                chunk.clear();
+                notifyBatchWritten(listener, count, entities.size());
+            }
+        }
+        getEntityManager().flush();
+        notifyBatchWritten(listener, count, entities.size());
+    }
+
+    private static int getBulkWriteFlushSize() {
+        Integer flushSize = ConfigurationUtility.getPortalPropertyAsInteger(CdbProperty.BULK_WRITE_FLUSH_SIZE_PROPERTY_NAME);
+        if (flushSize == null || flushSize < 1) {
+            return DEFAULT_BULK_WRITE_FLUSH_SIZE;
+        }
+        return flushSize;
+    }
+
+    private static void notifyBatchWritten(BatchWriteListener listener, int writtenCount, int totalCount) {
+        if (listener != null) {
+            listener.batchWritten(writtenCount, totalCount);
         }
     }
 
@@ -57,9 +132,17 @@ public abstract class CdbEntityFacade<T> {
     }
 
     public T find(Object id) {
+        if (sharedCacheStatistics != null && id != null) {
+            Cache cache = getEntityManager().getEntityManagerFactory().getCache();
+            if (cache.contains(entityClass, id)) {
+                sharedCacheStatistics.recordHit();
+            } else {
+                sharedCacheStatistics.recordMiss();
+            }
+        }
         return getEntityManager().find(entityClass, id);
     }
-
+    
     public List<T> findAll() {
         javax.persistence.criteria.CriteriaQuery cq = getEntityManager().getCriteriaBuilder().createQuery();
         cq.select(cq.from(entityClass));
@@ -83,9 +166,31 @@ public abstract class CdbEntityFacade<T> {
         return ((Long) q.getSingleResult()).intValue();
     }
     
+    /**
+     * Find entities with any of the specified primary keys.
+     */
+    public List<T> findByIdList(List<Integer> idList) {
+        if (idList == null || idList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        javax.persistence.criteria.CriteriaQuery<T> cq = getEntityManager().getCriteriaBuilder().createQuery(entityClass);
+        javax.persistence.criteria.Root<T> rt = cq.from(entityClass);
+        cq.select(rt).where(rt.get("id").in(idList));
+        return getEntityManager().createQuery(cq).getResultList();
+    }
+
     public T findUniqueByName(String name, String domainName) throws CdbException {
         throw new CdbException("findUniqueByName() operation not implemented by facade");
     }
+
+    /**
+     * Find entities with any of the specified names, used to resolve many
+     * names with a single query. Names are matched by the database collation,
+     * so the result may include several entities for one name.
+     */
+    public List<T> findByNameList(List<String> nameList, String domainName) throws CdbException {
+        throw new CdbException("findByNameList() operation not implemented by facade");
+    }
     
     public T findUniqueWithAttributes(Map<String,String> attributeMap) throws CdbException {
         throw new CdbException("findUniqueWithAttributes() operation not implemented by facade");
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.model.db.beans;
+
+import gov.anl.aps.cdb.common.exceptions.CdbException;
+import gov.anl.aps.cdb.portal.model.db.entities.CdbEntity;
+import gov.anl.aps.cdb.portal.model.db.entities.EntityChange;
+import gov.anl.aps.cdb.portal.utilities.SessionUtility;
+import java.util.Date;
+import java.util.List;
+import javax.annotation.Resource;
+import javax.ejb.SessionContext;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+
+@Stateless
+public class EntityChangeFacade extends CdbEntityFacade<EntityChange> {
+
+    @PersistenceContext(unitName = "CdbWebPortalPU")
+    private EntityManager em;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    @Override
+    protected EntityManager getEntityManager() {
+        return em;
+    }
+
+    public EntityChangeFacade() {
+        super(EntityChange.class);
+    }
+
+    /**
+     * Performs the write in one transaction. The facade writes and the
+     * recording of the changes done by it join the transaction, so the feed
+     * has an entry for each committed change and none for rolled back ones.
+     */
+    public <R> R writeRecordingChanges(EntityChangeWrite<R> write) throws CdbException {
+        try {
+            return write.execute();
+        } catch (CdbException ex) {
+            sessionContext.setRollbackOnly();
+            throw ex;
+        }
+    }
+
+    /**
+     * Records changes of the entities in the transaction of the write that
+     * made them. No lock is taken, so concurrent writes are not serialized;
+     * the changes get their sequence numbers after commit.
+     *
+     * @param entities entities written in the current transaction
+     */
+    @TransactionAttribute(TransactionAttributeType.MANDATORY)
+    public void recordChanges(String entityTypeName, List<? extends CdbEntity> entities,
+            String changeType, Date changedOnDateTime, Integer userId) {
+        // assigns the ids of entities created in the transaction
+        em.flush();
+        for (CdbEntity entity : entities) {
+            if (entity != null && entity.getId() instanceof Integer) {
+                em.persist(new EntityChange(entityTypeName, (Integer) entity.getId(),
+                        changeType, changedOnDateTime, userId));
+            }
+        }
+        em.flush();
+    }
+
+    /**
+     * Assigns sequence numbers to committed changes that have none yet, in
+     * id order.
+     *
+     * The lookup is a consistent read, so it neither sees nor waits for
+     * changes of open transactions; they are numbered once committed. The
+     * counter row is only locked by this short transaction, which makes
+     * sequence numbers become visible in increasing order. Numbers taken for
+     * changes numbered concurrently by another node are left unused.
+     *
+     * @param limit maximum number of changes
+     * @return number of changes without sequence number found
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int assignSequenceNumbers(int limit) {
+        List<Long> idList = em.createNamedQuery("EntityChange.findIdWithoutSequenceNumber", Long.class)
+                .setMaxResults(limit)
+                .getResultList();
+        if (idList.isEmpty()) {
+            return 0;
+        }
+        em.createNativeQuery("INSERT INTO entity_change_sequence (id, last_sequence_number) VALUES (1, ?) "
+                + "ON DUPLICATE KEY UPDATE last_sequence_number = last_sequence_number + VALUES(last_sequence_number)")
+                .setParameter(1, idList.size())
+                .executeUpdate();
+        Number lastSequenceNumber = (Number) em.createNativeQuery(
+                "SELECT last_sequence_number FROM entity_change_sequence WHERE id = 1")
+                .getSingleResult();
+        long sequenceNumber = lastSequenceNumber.longValue() - idList.size();
+        Query query = em.createNativeQuery(
+                "UPDATE entity_change SET sequence_number = ? WHERE id = ? AND sequence_number IS NULL");
+        for (Long id : idList) {
+            sequenceNumber++;
+            query.setParameter(1, sequenceNumber)
+                    .setParameter(2, id)
+                    .executeUpdate();
+        }
+        return idList.size();
+    }
+
+    /**
+     * @param entityTypeName only changes of this entity type, or null for all
+     * @return at most limit changes with sequence numbers greater than
+     * afterSequenceNumber, in sequence order
+     */
+    public List<EntityChange> findAfterSequenceNumber(long afterSequenceNumber, String entityTypeName, int limit) {
+        TypedQuery<EntityChange> query;
+        if (entityTypeName == null) {
+            query = em.createNamedQuery("EntityChange.findAfterSequenceNumber", EntityChange.class);
+        } else {
+            query = em.createNamedQuery("EntityChange.findAfterSequenceNumberByEntityTypeName", EntityChange.class)
+                    .setParameter("entityTypeName", entityTypeName);
+        }
+        return query.setParameter("afterSequenceNumber", afterSequenceNumber)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * @return sequence number of the latest change, or 0 if there are none
+     */
+    public long findLastSequenceNumber() {
+        Long lastSequenceNumber = em.createNamedQuery("EntityChange.findLastSequenceNumber", Long.class).getSingleResult();
+        return lastSequenceNumber != null ? lastSequenceNumber : 0;
+    }
+
+    /**
+     * @return ids of the entities with changes of the type recorded at or
+     * after the date time
+     */
+    public List<Integer> findEntityIdListChangedSince(String entityTypeName, String changeType, Date dateTime) {
+        return em.createNamedQuery("EntityChange.findEntityIdByEntityTypeNameAndChangeTypeSince", Integer.class)
+                .setParameter("entityTypeName", entityTypeName)
+                .setParameter("changeType", changeType)
+                .setParameter("dateTime", dateTime)
+                .getResultList();
+    }
+
+    /**
+     * @return date time of the latest change of the type, or null if there
+     * are none
+     */
+    public Date findLastChangedOnDateTime(String entityTypeName, String changeType) {
+        return em.createNamedQuery("EntityChange.findLastChangedOnDateTimeByEntityTypeNameAndChangeType", Date.class)
+                .setParameter("entityTypeName", entityTypeName)
+                .setParameter("changeType", changeType)
+                .getSingleResult();
+    }
+
+    /**
+     * @return date time of the oldest change still kept, or null if there
+     * are none
+     */
+    public Date findFirstChangedOnDateTime() {
+        return em.createNamedQuery("EntityChange.findFirstChangedOnDateTime", Date.class).getSingleResult();
+    }
+
+    public int deleteChangedBefore(Date dateTime) {
+        return em.createNamedQuery("EntityChange.deleteChangedBefore")
+                .setParameter("dateTime", dateTime)
+                .executeUpdate();
+    }
+
+    public static EntityChangeFacade getInstance() {
+        return (EntityChangeFacade) SessionUtility.findFacade(EntityChangeFacade.class.getSimpleName());
+    }
+
+}
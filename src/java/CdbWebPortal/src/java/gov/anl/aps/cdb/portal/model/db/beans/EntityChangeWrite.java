@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.model.db.beans;
+
+import gov.anl.aps.cdb.common.exceptions.CdbException;
+
+/**
+ * Write performed by EntityChangeFacade together with recording the changes
+ * it made.
+ *
+ * @param <R> result of the write
+ */
+public interface EntityChangeWrite<R> {
+
+    /**
+     * Writes entities through their facades and records the changes with
+     * EntityChangeFeed.recordChanges().
+     */
+    public R execute() throws CdbException;
+
+}
@@ -5,6 +5,8 @@
 package gov.anl.aps.cdb.portal.model.db.beans;
 
 import gov.anl.aps.cdb.portal.model.db.entities.EntityInfo;
+import gov.anl.aps.cdb.portal.utilities.SessionUtility;
+import java.util.List;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -27,5 +29,27 @@ public class EntityInfoFacade extends CdbEntityFacade<EntityInfo> {
     public EntityInfoFacade() {
         super(EntityInfo.class);
     }
+
+    /**
+     * Returns ids of the specified entity infos that are writeable by the
+     * user, either as owner or as member of a writeable owner group.
+     */
+    public List<Integer> findWriteableIdList(List<Integer> entityInfoIdList, Integer userId, List<Integer> userGroupIdList) {
+        if (userGroupIdList.isEmpty()) {
+            return (List<Integer>) em.createNamedQuery("EntityInfo.findIdListWriteableByOwner")
+                    .setParameter("idList", entityInfoIdList)
+                    .setParameter("userId", userId)
+                    .getResultList();
+        }
+        return (List<Integer>) em.createNamedQuery("EntityInfo.findIdListWriteableByUser")
+                .setParameter("idList", entityInfoIdList)
+                .setParameter("userId", userId)
+                .setParameter("userGroupIdList", userGroupIdList)
+                .getResultList();
+    }
+
+    public static EntityInfoFacade getInstance() {
+        return (EntityInfoFacade) SessionUtility.findFacade(EntityInfoFacade.class.getSimpleName());
+    }
     
 }
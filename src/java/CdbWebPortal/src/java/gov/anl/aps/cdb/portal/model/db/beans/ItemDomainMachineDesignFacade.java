@@ -10,7 +10,12 @@ import gov.anl.aps.cdb.portal.constants.ItemDomainName;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemDomainMachineDesign;
 import gov.anl.aps.cdb.portal.model.db.entities.ListTbl;
 import gov.anl.aps.cdb.portal.utilities.SessionUtility;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.ejb.Stateless;
 
 /**
@@ -69,6 +74,84 @@ public class ItemDomainMachineDesignFacade extends ItemFacadeBase<ItemDomainMach
     public List<ItemDomainMachineDesign> findByName(String name) {
         return findByDomainAndName(getDomainName(), name);
     }  
+
+    /**
+     * Assigned item names used to load the machine design search index. Each
+     * row contains [item id, search attribute key, assigned item name].
+     */
+    public List<Object[]> findSearchIndexAssignedItemNameRows() {
+        List<Object[]> result = new ArrayList<>();
+        List<Object[]> rows = (List<Object[]>) em.createQuery(
+                "SELECT i.id, ai.name "
+                + "FROM Item i JOIN i.fullItemElementList fiel JOIN fiel.containedItem2 ai "
+                + "WHERE i.domain.name = :domainName "
+                + "AND fiel.name IS NULL AND fiel.derivedFromItemElement IS NULL")
+                .setParameter("domainName", getDomainName())
+                .getResultList();
+        for (Object[] row : rows) {
+            result.add(new Object[]{row[0], ItemDomainMachineDesign.ASSIGNED_ITEM_NAME_SEARCH_KEY, row[1]});
+        }
+        return result;
+    }
+
+    /**
+     * Machine designs whose assigned item name contains the search string.
+     * Assigned items may be renamed without updating the machine design
+     * search index, so searches check the names directly as well.
+     */
+    public List<Integer> findIdListByAssignedItemNameContaining(String searchString) {
+        return (List<Integer>) em.createQuery(
+                "SELECT i.id "
+                + "FROM Item i JOIN i.fullItemElementList fiel JOIN fiel.containedItem2 ai "
+                + "WHERE i.domain.name = :domainName "
+                + "AND fiel.name IS NULL AND fiel.derivedFromItemElement IS NULL "
+                + "AND LOCATE(:searchString, ai.name) > 0")
+                .setParameter("domainName", getDomainName())
+                .setParameter("searchString", searchString)
+                .getResultList();
+    }
+
+    /**
+     * Selects the parent machine designs of the items and of all their
+     * machine design ancestors, one level of the hierarchy at a time.
+     *
+     * @return rows of item id, parent item id, parent name and parent
+     * alternate name, ordered by item and membership element
+     */
+    public List<Object[]> findParentMachineDesignAttributeList(Collection<Integer> itemIdList) {
+        List<Object[]> parentRowList = new ArrayList<>();
+        Set<Integer> visitedItemIdSet = new HashSet<>(itemIdList);
+        List<Integer> levelItemIdList = new ArrayList<>(visitedItemIdSet);
+        while (!levelItemIdList.isEmpty()) {
+            List<Integer> nextLevelItemIdList = new ArrayList<>();
+            for (int i = 0; i < levelItemIdList.size(); i += IN_QUERY_BATCH_SIZE) {
+                List<Integer> batch = levelItemIdList.subList(i, Math.min(i + IN_QUERY_BATCH_SIZE, levelItemIdList.size()));
+                List<Object[]> rows = em.createQuery(
+                        "SELECT c1.id, ie.id, p.id, p.name, p.itemIdentifier1 "
+                        + "FROM ItemElement ie JOIN ie.parentItem p JOIN ie.containedItem1 c1 "
+                        + "WHERE c1.id IN :idList AND p.domain.name = :domainName")
+                        .setParameter("idList", batch)
+                        .setParameter("domainName", getDomainName())
+                        .getResultList();
+                for (Object[] row : rows) {
+                    parentRowList.add(row);
+                    Integer parentId = (Integer) row[2];
+                    if (visitedItemIdSet.add(parentId)) {
+                        nextLevelItemIdList.add(parentId);
+                    }
+                }
+            }
+            levelItemIdList = nextLevelItemIdList;
+        }
+
+        parentRowList.sort(Comparator.comparing((Object[] row) -> (Integer) row[0])
+                .thenComparing(row -> (Integer) row[1]));
+        List<Object[]> result = new ArrayList<>();
+        for (Object[] row : parentRowList) {
+            result.add(new Object[]{row[0], row[2], row[3], row[4]});
+        }
+        return result;
+    }
     
     /**
      * Finds unique template item by name, excludes deleted items. 
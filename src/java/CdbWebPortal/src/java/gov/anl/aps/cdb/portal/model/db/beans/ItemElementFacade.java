@@ -4,12 +4,31 @@
  */
 package gov.anl.aps.cdb.portal.model.db.beans;
 
+import gov.anl.aps.cdb.portal.model.db.entities.Item;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemElement;
 import gov.anl.aps.cdb.portal.utilities.SessionUtility;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
 
 /**
  *
@@ -18,6 +37,11 @@ import javax.persistence.PersistenceContext;
 @Stateless
 public class ItemElementFacade extends CdbEntityFacade<ItemElement> {
 
+    // maximum number of ids bound to a single IN (...) query
+    private static final int LOAD_BATCH_SIZE = 1000;
+    // maximum number of elements compared by a single uniqueness query
+    private static final int UNIQUENESS_QUERY_BATCH_SIZE = 200;
+
     @PersistenceContext(unitName = "CdbWebPortalPU")
     private EntityManager em;
 
@@ -40,6 +64,267 @@ public class ItemElementFacade extends CdbEntityFacade<ItemElement> {
         return null;
     }
     
+    /**
+     * Loads the elements of the specified items and of all items contained in
+     * them, down to the specified depth, with one query per level and batch
+     * of items. Elements are loaded within one persistence context so each
+     * item is represented by a single instance.
+     *
+     * @param rootItemIdList items whose hierarchies are loaded
+     * @param maxDepth number of levels of items whose elements are loaded
+     * @param followAssignedItems also descend into contained_item_id2, used
+     * for items assigned to machine design
+     * @return all elements of the expanded items, ordered by parent item and
+     * sort order
+     */
+    public List<ItemElement> findHierarchyElementList(Collection<Integer> rootItemIdList, int maxDepth, boolean followAssignedItems) {
+        if (rootItemIdList == null || rootItemIdList.isEmpty() || maxDepth < 1) {
+            return new ArrayList<>();
+        }
+
+        Set<Integer> visitedItemIdSet = new HashSet<>(rootItemIdList);
+        List<Integer> levelItemIdList = new ArrayList<>(visitedItemIdSet);
+        List<Object[]> elementRowList = new ArrayList<>();
+        for (int depth = 0; depth < maxDepth && !levelItemIdList.isEmpty(); depth++) {
+            List<Integer> nextLevelItemIdList = new ArrayList<>();
+            for (int i = 0; i < levelItemIdList.size(); i += LOAD_BATCH_SIZE) {
+                List<Integer> batch = levelItemIdList.subList(i, Math.min(i + LOAD_BATCH_SIZE, levelItemIdList.size()));
+                List<Object[]> rows = em.createQuery(
+                        "SELECT ie.id, p.id, ie.sortOrder, c1.id, c2.id FROM ItemElement ie "
+                        + "JOIN ie.parentItem p LEFT JOIN ie.containedItem1 c1 LEFT JOIN ie.containedItem2 c2 "
+                        + "WHERE p.id IN :idList")
+                        .setParameter("idList", batch)
+                        .getResultList();
+                for (Object[] row : rows) {
+                    elementRowList.add(row);
+                    addUnvisitedItemId((Integer) row[3], visitedItemIdSet, nextLevelItemIdList);
+                    if (followAssignedItems) {
+                        addUnvisitedItemId((Integer) row[4], visitedItemIdSet, nextLevelItemIdList);
+                    }
+                }
+            }
+            levelItemIdList = nextLevelItemIdList;
+        }
+
+        // order by parent item, sort order and id; sort order may be null
+        elementRowList.sort(Comparator
+                .comparing((Object[] row) -> (Integer) row[1])
+                .thenComparing(row -> (Float) row[2], Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(row -> (Integer) row[0]));
+        List<Integer> elementIdList = new ArrayList<>(elementRowList.size());
+        for (Object[] row : elementRowList) {
+            elementIdList.add((Integer) row[0]);
+        }
+        return findByIdListFetchItems(elementIdList);
+    }
+
+    /**
+     * Loads the membership elements of the specified item and of all items
+     * containing it, up to the specified depth, with one query per level and
+     * batch of items.
+     *
+     * @param itemId item whose ancestors are loaded
+     * @param maxDepth number of levels of items whose memberships are loaded
+     * @return elements referencing the item or any of its ancestors as
+     * contained item
+     */
+    public List<ItemElement> findAncestorMembershipElementList(Integer itemId, int maxDepth) {
+        if (itemId == null || maxDepth < 1) {
+            return new ArrayList<>();
+        }
+
+        Set<Integer> visitedItemIdSet = new HashSet<>();
+        visitedItemIdSet.add(itemId);
+        List<Integer> levelItemIdList = new ArrayList<>(visitedItemIdSet);
+        Set<Integer> elementIdSet = new LinkedHashSet<>();
+        for (int depth = 0; depth < maxDepth && !levelItemIdList.isEmpty(); depth++) {
+            List<Integer> nextLevelItemIdList = new ArrayList<>();
+            for (int i = 0; i < levelItemIdList.size(); i += LOAD_BATCH_SIZE) {
+                List<Integer> batch = levelItemIdList.subList(i, Math.min(i + LOAD_BATCH_SIZE, levelItemIdList.size()));
+                List<Object[]> rows = em.createQuery(
+                        "SELECT ie.id, p.id FROM ItemElement ie JOIN ie.parentItem p "
+                        + "LEFT JOIN ie.containedItem1 c1 LEFT JOIN ie.containedItem2 c2 "
+                        + "WHERE c1.id IN :idList OR c2.id IN :idList")
+                        .setParameter("idList", batch)
+                        .getResultList();
+                for (Object[] row : rows) {
+                    elementIdSet.add((Integer) row[0]);
+                    if (depth + 1 < maxDepth) {
+                        addUnvisitedItemId((Integer) row[1], visitedItemIdSet, nextLevelItemIdList);
+                    }
+                }
+            }
+            levelItemIdList = nextLevelItemIdList;
+        }
+        return findByIdListFetchItems(new ArrayList<>(elementIdSet));
+    }
+
+    private static void addUnvisitedItemId(Integer itemId, Set<Integer> visitedItemIdSet, List<Integer> itemIdList) {
+        if (itemId != null && visitedItemIdSet.add(itemId)) {
+            itemIdList.add(itemId);
+        }
+    }
+
+    private List<ItemElement> findByIdListFetchItems(List<Integer> elementIdList) {
+        Map<Integer, ItemElement> elementMap = new HashMap<>();
+        for (int i = 0; i < elementIdList.size(); i += LOAD_BATCH_SIZE) {
+            List<Integer> batch = elementIdList.subList(i, Math.min(i + LOAD_BATCH_SIZE, elementIdList.size()));
+            List<ItemElement> elementList = em.createNamedQuery("ItemElement.findByIdListFetchItems")
+                    .setParameter("idList", batch)
+                    .setHint("eclipselink.batch.type", "IN")
+                    .setHint("eclipselink.batch", "ie.derivedFromItemElement")
+                    .getResultList();
+            for (ItemElement element : elementList) {
+                elementMap.put(element.getId(), element);
+            }
+        }
+
+        // keep order of the requested ids
+        List<ItemElement> result = new ArrayList<>(elementIdList.size());
+        for (Integer elementId : elementIdList) {
+            ItemElement element = elementMap.get(elementId);
+            if (element != null) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compares the unique attributes of elements of stored parent items with
+     * stored elements in one query per chunk, the same way as the
+     * check_item_element() database function does.
+     *
+     * @param itemElements elements to be written
+     * @return indexes of elements whose attributes match another stored
+     * element
+     */
+    public Set<Integer> findNonuniqueItemElementIndexSet(List<ItemElement> itemElements) {
+        Set<Integer> result = new HashSet<>();
+        for (int start = 0; start < itemElements.size(); start += UNIQUENESS_QUERY_BATCH_SIZE) {
+            int end = Math.min(start + UNIQUENESS_QUERY_BATCH_SIZE, itemElements.size());
+
+            StringBuilder sql = new StringBuilder();
+            List<Object> parameterList = new ArrayList<>();
+            for (int index = start; index < end; index++) {
+                ItemElement itemElement = itemElements.get(index);
+                Item parentItem = itemElement.getParentItem();
+                ItemElement derivedFromElement = itemElement.getDerivedFromItemElement();
+                if (parentItem == null || parentItem.getId() == null
+                        || (derivedFromElement != null && derivedFromElement.getId() == null)) {
+                    // cannot match a stored element
+                    continue;
+                }
+                if (sql.length() > 0) {
+                    sql.append(" UNION ALL ");
+                }
+                int position = parameterList.size();
+                sql.append("(SELECT ?").append(position + 1)
+                        .append(" FROM item_element ie WHERE ie.parent_item_id = ?").append(position + 2)
+                        .append(" AND IFNULL(ie.name, '') = ?").append(position + 3)
+                        .append(" AND IFNULL(ie.derived_from_item_element_id, -1) = ?").append(position + 4)
+                        .append(" AND ie.id != ?").append(position + 5)
+                        .append(" LIMIT 1)");
+
+                parameterList.add(index);
+                parameterList.add(parentItem.getId());
+                parameterList.add(Objects.toString(itemElement.getStoredName(), ""));
+                parameterList.add(derivedFromElement != null ? derivedFromElement.getId() : -1);
+                parameterList.add(itemElement.getId() != null ? itemElement.getId() : -1);
+            }
+            if (parameterList.isEmpty()) {
+                continue;
+            }
+
+            Query query = em.createNativeQuery(sql.toString());
+            for (int position = 1; position <= parameterList.size(); position++) {
+                query.setParameter(position, parameterList.get(position - 1));
+            }
+            for (Object index : query.getResultList()) {
+                result.add(((Number) index).intValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds elements repeated within the list, comparing names with the
+     * collation of the item_element name column like the
+     * check_item_element() database function does.
+     *
+     * @param itemElements elements to be written
+     * @return indexes of elements whose attributes match an element earlier
+     * in the list
+     */
+    public Set<Integer> findRepeatedItemElementIndexSet(List<ItemElement> itemElements) {
+        Set<Integer> result = new HashSet<>();
+        Map<Object, Integer> newEntityKeyMap = new IdentityHashMap<>();
+        Connection connection = em.unwrap(Connection.class);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TEMPORARY TABLE IF EXISTS item_element_repeat_check, item_element_repeat_first");
+            statement.execute("CREATE TEMPORARY TABLE item_element_repeat_check"
+                    + " (element_index INT NOT NULL, parent_item_key INT NOT NULL, derived_from_item_element_key INT NOT NULL)"
+                    + " SELECT name FROM item_element LIMIT 0");
+            try {
+                String insertSql = "INSERT INTO item_element_repeat_check"
+                        + " (element_index, parent_item_key, name, derived_from_item_element_key)"
+                        + " VALUES (?, ?, ?, ?)";
+                try (PreparedStatement insertStatement = connection.prepareStatement(insertSql)) {
+                    int rowCount = 0;
+                    for (int index = 0; index < itemElements.size(); index++) {
+                        ItemElement itemElement = itemElements.get(index);
+                        Item parentItem = itemElement.getParentItem();
+                        if (parentItem == null) {
+                            continue;
+                        }
+                        ItemElement derivedFromElement = itemElement.getDerivedFromItemElement();
+                        insertStatement.setInt(1, index);
+                        insertStatement.setInt(2, getEntityKey(parentItem, parentItem.getId(), newEntityKeyMap));
+                        insertStatement.setString(3, Objects.toString(itemElement.getStoredName(), ""));
+                        insertStatement.setInt(4, derivedFromElement == null ? -1
+                                : getEntityKey(derivedFromElement, derivedFromElement.getId(), newEntityKeyMap));
+                        insertStatement.addBatch();
+                        if (++rowCount % UNIQUENESS_QUERY_BATCH_SIZE == 0) {
+                            insertStatement.executeBatch();
+                        }
+                    }
+                    insertStatement.executeBatch();
+                }
+
+                statement.execute("CREATE TEMPORARY TABLE item_element_repeat_first"
+                        + " SELECT MIN(element_index) AS element_index, parent_item_key, name, derived_from_item_element_key"
+                        + " FROM item_element_repeat_check"
+                        + " GROUP BY parent_item_key, name, derived_from_item_element_key"
+                        + " HAVING COUNT(*) > 1");
+                try (ResultSet resultSet = statement.executeQuery("SELECT c.element_index"
+                        + " FROM item_element_repeat_check c JOIN item_element_repeat_first f"
+                        + " ON c.parent_item_key = f.parent_item_key AND c.name = f.name"
+                        + " AND c.derived_from_item_element_key = f.derived_from_item_element_key"
+                        + " WHERE c.element_index > f.element_index")) {
+                    while (resultSet.next()) {
+                        result.add(resultSet.getInt(1));
+                    }
+                }
+            } finally {
+                statement.execute("DROP TEMPORARY TABLE IF EXISTS item_element_repeat_check, item_element_repeat_first");
+            }
+        } catch (SQLException ex) {
+            throw new PersistenceException(ex);
+        }
+        return result;
+    }
+
+    /**
+     * @return id of a stored entity or a distinct negative number for each
+     * new entity
+     */
+    private static int getEntityKey(Object entity, Integer id, Map<Object, Integer> newEntityKeyMap) {
+        if (id != null) {
+            return id;
+        }
+        return newEntityKeyMap.computeIfAbsent(entity, e -> -2 - newEntityKeyMap.size());
+    }
+
     public static ItemElementFacade getInstance() {
         return (ItemElementFacade) SessionUtility.findFacade(ItemElementFacade.class.getSimpleName()); 
     }
@@ -17,14 +17,30 @@ import gov.anl.aps.cdb.portal.model.db.entities.ItemType;
 import gov.anl.aps.cdb.portal.model.db.entities.ListTbl;
 import gov.anl.aps.cdb.portal.model.db.entities.UserGroup;
 import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
+import gov.anl.aps.cdb.portal.utilities.ItemSearchIndex;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
 import javax.persistence.Query;
-import javax.persistence.StoredProcedureQuery;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
  *
@@ -32,9 +48,18 @@ import javax.persistence.StoredProcedureQuery;
  */
 public abstract class ItemFacadeBase<ItemDomainEntity extends Item> extends CdbEntityFacade<ItemDomainEntity> {
 
+    private static final Logger logger = LogManager.getLogger(ItemFacadeBase.class.getName());
+
     @PersistenceContext(unitName = "CdbWebPortalPU")
     protected EntityManager em;
 
+    // maximum number of values bound to a single IN (...) query
+    protected static final int IN_QUERY_BATCH_SIZE = 1000;
+    // maximum number of items compared by a single uniqueness query
+    private static final int UNIQUENESS_QUERY_BATCH_SIZE = 200;
+    // maximum number of values matched by a single union query
+    private static final int VALUE_MATCH_QUERY_BATCH_SIZE = 200;
+
     List<ItemDomainEntity> itemsToAdd;   
 
     /**
@@ -69,6 +94,10 @@ public abstract class ItemFacadeBase<ItemDomainEntity extends Item> extends CdbE
             em.clear();
             throw ex;
         }
+
+        for (ItemDomainEntity newItem : itemsToAdd) {
+            ItemSearchIndex.indexItem(newItem);
+        }
     }
 
     @Override
@@ -85,7 +114,20 @@ public abstract class ItemFacadeBase<ItemDomainEntity extends Item> extends CdbE
             throw ex;
         }
 
-        return super.edit(item);
+        ItemDomainEntity updatedItem = super.edit(item);
+
+        for (ItemDomainEntity newItem : itemsToAdd) {
+            ItemSearchIndex.indexItem(newItem);
+        }
+        ItemSearchIndex.indexItem(updatedItem);
+
+        return updatedItem;
+    }
+
+    @Override
+    public void remove(ItemDomainEntity item) {
+        super.remove(item);
+        ItemSearchIndex.unindexItem(item);
     }
 
     private void populateItemsToAdd(ItemDomainEntity item) {
@@ -116,6 +158,215 @@ public abstract class ItemFacadeBase<ItemDomainEntity extends Item> extends CdbE
         }
     }
 
+    /**
+     * @param items items to be created or updated
+     * @return the items followed by new items they contain, which are
+     * persisted along with them
+     */
+    public List<Item> findItemsToWrite(List<ItemDomainEntity> items) {
+        Set<Item> itemSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Item> itemList = new ArrayList<>();
+        for (ItemDomainEntity item : items) {
+            if (itemSet.add(item)) {
+                itemList.add(item);
+            }
+        }
+        for (ItemDomainEntity item : items) {
+            itemsToAdd = new ArrayList<>();
+            populateItemsToAdd(item);
+            for (ItemDomainEntity newItem : itemsToAdd) {
+                if (itemSet.add(newItem)) {
+                    itemList.add(newItem);
+                }
+            }
+        }
+        return itemList;
+    }
+
+    /**
+     * Compares the unique attributes of all items with stored items in one
+     * query per chunk, using the prefix of the item_u1 index. Attributes are
+     * compared the same way as by the check_item() database function.
+     *
+     * @param items items to be written
+     * @return indexes of items whose attributes match another stored item
+     */
+    public Set<Integer> findNonuniqueItemIndexSet(List<? extends Item> items) {
+        Set<Integer> result = new HashSet<>();
+        for (int start = 0; start < items.size(); start += UNIQUENESS_QUERY_BATCH_SIZE) {
+            int end = Math.min(start + UNIQUENESS_QUERY_BATCH_SIZE, items.size());
+
+            StringBuilder sql = new StringBuilder();
+            List<Object> parameterList = new ArrayList<>();
+            for (int index = start; index < end; index++) {
+                Item item = items.get(index);
+                Item derivedFromItem = item.getDerivedFromItem();
+                if (item.getDomain() == null || item.getName() == null
+                        || (derivedFromItem != null && derivedFromItem.getId() == null)) {
+                    // cannot match a stored item
+                    continue;
+                }
+                if (sql.length() > 0) {
+                    sql.append(" UNION ALL ");
+                }
+                int position = parameterList.size();
+                sql.append("(SELECT ?").append(position + 1)
+                        .append(" FROM item i WHERE i.domain_id = ?").append(position + 2)
+                        .append(" AND i.name = ?").append(position + 3)
+                        .append(" AND IFNULL(i.item_identifier1, '') = ?").append(position + 4)
+                        .append(" AND IFNULL(i.item_identifier2, '') = ?").append(position + 5)
+                        .append(" AND IFNULL(i.derived_from_item_id, -1) = ?").append(position + 6)
+                        .append(" AND i.id != ?").append(position + 7)
+                        .append(" LIMIT 1)");
+
+                parameterList.add(index);
+                parameterList.add(item.getDomain().getId());
+                parameterList.add(item.getName());
+                parameterList.add(Objects.toString(item.getItemIdentifier1(), ""));
+                parameterList.add(Objects.toString(item.getItemIdentifier2(), ""));
+                parameterList.add(derivedFromItem != null ? derivedFromItem.getId() : -1);
+                parameterList.add(item.getId() != null ? item.getId() : -1);
+            }
+            if (parameterList.isEmpty()) {
+                continue;
+            }
+
+            Query query = em.createNativeQuery(sql.toString());
+            for (int position = 1; position <= parameterList.size(); position++) {
+                query.setParameter(position, parameterList.get(position - 1));
+            }
+            for (Object index : query.getResultList()) {
+                result.add(((Number) index).intValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds items repeated within the list. The unique attributes are copied
+     * to a temporary table with the name and identifier columns of the item
+     * table and grouped there, so that they are compared with the collation
+     * of those columns, like the check_item() database function compares a
+     * written row with the rows written before it.
+     *
+     * @param items items to be written
+     * @return indexes of items whose attributes match an item earlier in the
+     * list
+     */
+    public Set<Integer> findRepeatedItemIndexSet(List<? extends Item> items) {
+        Set<Integer> result = new HashSet<>();
+        Map<Item, Integer> newItemKeyMap = new IdentityHashMap<>();
+        Connection connection = em.unwrap(Connection.class);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TEMPORARY TABLE IF EXISTS item_repeat_check, item_repeat_first");
+            statement.execute("CREATE TEMPORARY TABLE item_repeat_check"
+                    + " (item_index INT NOT NULL, domain_id INT NOT NULL, derived_from_item_key INT NOT NULL)"
+                    + " SELECT name, item_identifier1, item_identifier2 FROM item LIMIT 0");
+            try {
+                String insertSql = "INSERT INTO item_repeat_check"
+                        + " (item_index, domain_id, name, item_identifier1, item_identifier2, derived_from_item_key)"
+                        + " VALUES (?, ?, ?, ?, ?, ?)";
+                try (PreparedStatement insertStatement = connection.prepareStatement(insertSql)) {
+                    int rowCount = 0;
+                    for (int index = 0; index < items.size(); index++) {
+                        Item item = items.get(index);
+                        if (item.getDomain() == null || item.getName() == null) {
+                            // null never equals anything
+                            continue;
+                        }
+                        insertStatement.setInt(1, index);
+                        insertStatement.setInt(2, item.getDomain().getId());
+                        insertStatement.setString(3, item.getName());
+                        insertStatement.setString(4, Objects.toString(item.getItemIdentifier1(), ""));
+                        insertStatement.setString(5, Objects.toString(item.getItemIdentifier2(), ""));
+                        insertStatement.setInt(6, getItemKey(item.getDerivedFromItem(), newItemKeyMap));
+                        insertStatement.addBatch();
+                        if (++rowCount % UNIQUENESS_QUERY_BATCH_SIZE == 0) {
+                            insertStatement.executeBatch();
+                        }
+                    }
+                    insertStatement.executeBatch();
+                }
+
+                statement.execute("CREATE TEMPORARY TABLE item_repeat_first"
+                        + " SELECT MIN(item_index) AS item_index, domain_id, name, item_identifier1, item_identifier2, derived_from_item_key"
+                        + " FROM item_repeat_check"
+                        + " GROUP BY domain_id, name, item_identifier1, item_identifier2, derived_from_item_key"
+                        + " HAVING COUNT(*) > 1");
+                try (ResultSet resultSet = statement.executeQuery("SELECT c.item_index"
+                        + " FROM item_repeat_check c JOIN item_repeat_first f"
+                        + " ON c.domain_id = f.domain_id AND c.name = f.name"
+                        + " AND c.item_identifier1 = f.item_identifier1 AND c.item_identifier2 = f.item_identifier2"
+                        + " AND c.derived_from_item_key = f.derived_from_item_key"
+                        + " WHERE c.item_index > f.item_index")) {
+                    while (resultSet.next()) {
+                        result.add(resultSet.getInt(1));
+                    }
+                }
+            } finally {
+                statement.execute("DROP TEMPORARY TABLE IF EXISTS item_repeat_check, item_repeat_first");
+            }
+        } catch (SQLException ex) {
+            throw new PersistenceException(ex);
+        }
+        return result;
+    }
+
+    /**
+     * @return id of a stored item, -1 for no item, or a distinct negative
+     * number for each new item
+     */
+    private static int getItemKey(Item item, Map<Item, Integer> newItemKeyMap) {
+        if (item == null) {
+            return -1;
+        }
+        if (item.getId() != null) {
+            return item.getId();
+        }
+        return newItemKeyMap.computeIfAbsent(item, i -> -2 - newItemKeyMap.size());
+    }
+
+    /**
+     * Creates items that have been validated as a set. The per row checks of
+     * the item triggers are skipped for the duration of the write.
+     */
+    public void createValidated(List<ItemDomainEntity> items, BatchWriteListener listener) {
+        setItemChecksSkipped(true);
+        try {
+            create(items, listener);
+        } finally {
+            setItemChecksSkipped(false);
+        }
+    }
+
+    /**
+     * Updates items that have been validated as a set. The per row checks of
+     * the item triggers are skipped for the duration of the write.
+     */
+    public void editValidated(List<ItemDomainEntity> items, BatchWriteListener listener) {
+        setItemChecksSkipped(true);
+        try {
+            edit(items, listener);
+        } finally {
+            setItemChecksSkipped(false);
+        }
+    }
+
+    private void setItemChecksSkipped(boolean skipped) {
+        // The variable belongs to the connection of the current transaction.
+        // It is reset on the same JDBC connection even after a failed flush so
+        // that the pooled connection never keeps it.
+        Connection connection = em.unwrap(Connection.class);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET @cdb_skip_item_checks = " + (skipped ? "1" : "NULL"));
+        } catch (SQLException ex) {
+            if (skipped) {
+                throw new PersistenceException(ex);
+            }
+            logger.error("Could not reset item checks: " + ex);
+        }
+    }
+
     public List<ItemDomainEntity> findByDomainNameAndExcludeEntityType(String domainName, String entityTypeName) {
         try {
             return (List<ItemDomainEntity>) em.createNamedQuery("Item.findByDomainNameAndExcludeEntityType")
@@ -128,11 +379,25 @@ public abstract class ItemFacadeBase<ItemDomainEntity extends Item> extends CdbE
         return null;
     }
 
+    /**
+     * Queries of the same shape share one normalized query string, so
+     * EclipseLink reuses the parsed query from its JPQL parse cache and only
+     * binds new parameter values.
+     */
+    private Query createDataTableFilterQuery(String queryString, List<Object> parameterList) {
+        String queryShapeKey = ItemQueryBuilder.getQueryShapeKey(queryString);
+        Query query = em.createQuery(queryShapeKey);
+        for (int i = 0; i < parameterList.size(); i++) {
+            query.setParameter(i + 1, parameterList.get(i));
+        }
+        return query;
+    }
+
     public List<ItemDomainEntity> findByDataTableFilterQueryBuilder(ItemQueryBuilder queryBuilder) {
         String fullQuery = queryBuilder.getQueryForItems(); 
         
         try {
-            return (List<ItemDomainEntity>) em.createQuery(fullQuery).getResultList();
+            return (List<ItemDomainEntity>) createDataTableFilterQuery(fullQuery, queryBuilder.getQueryParameters()).getResultList();
         } catch (NoResultException ex) {
         }
 
@@ -140,6 +405,96 @@ public abstract class ItemFacadeBase<ItemDomainEntity extends Item> extends CdbE
 
     }   
 
+    /**
+     * Fetch a single page of the data table filter query result.
+     *
+     * @param queryBuilder query builder of the data table filters and sort
+     * @param firstResult position of first result in the full result
+     * @param maxResults page size
+     * @return page of results
+     */
+    public List<ItemDomainEntity> findByDataTableFilterQueryBuilder(ItemQueryBuilder queryBuilder, int firstResult, int maxResults) {
+        String fullQuery = queryBuilder.getQueryForItems();
+
+        return (List<ItemDomainEntity>) createDataTableFilterQuery(fullQuery, queryBuilder.getQueryParameters())
+                .setFirstResult(firstResult)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    /**
+     * Fetch a page of the data table filter query result following the last
+     * item of a previous page. The query builder must order results by id.
+     *
+     * @param queryBuilder query builder of the data table filters
+     * @param lastItemId id of last item of the previous page
+     * @param maxResults page size
+     * @return page of results
+     */
+    public List<ItemDomainEntity> findByDataTableFilterQueryBuilderAfterId(ItemQueryBuilder queryBuilder, Integer lastItemId, int maxResults) {
+        String fullQuery = queryBuilder.getQueryForItemsAfterId();
+
+        return (List<ItemDomainEntity>) createDataTableFilterQuery(fullQuery, queryBuilder.getQueryParametersAfterId(lastItemId))
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    public int countByDataTableFilterQueryBuilder(ItemQueryBuilder queryBuilder) {
+        String countQuery = queryBuilder.getCountQueryForItems();
+
+        return ((Long) createDataTableFilterQuery(countQuery, queryBuilder.getQueryParameters()).getSingleResult()).intValue();
+    }
+
+    /**
+     * Column projection used to load the item search index of a domain. Each
+     * row contains [id, name, itemIdentifier1, itemIdentifier2, derived from
+     * name, qrId, description, created by, last modified by, owned by].
+     */
+    public List<Object[]> findSearchIndexRowsByDomain(String domainName) {
+        return (List<Object[]>) em.createQuery(
+                "SELECT i.id, i.name, i.itemIdentifier1, i.itemIdentifier2, dfi.name, i.qrId, fiel.description, "
+                + "cu.username, lmu.username, ou.username "
+                + "FROM Item i JOIN i.fullItemElementList fiel LEFT JOIN i.derivedFromItem dfi "
+                + "LEFT JOIN fiel.entityInfo ei LEFT JOIN ei.createdByUser cu "
+                + "LEFT JOIN ei.lastModifiedByUser lmu LEFT JOIN ei.ownerUser ou "
+                + "WHERE i.domain.name = :domainName "
+                + "AND fiel.name IS NULL AND fiel.derivedFromItemElement IS NULL")
+                .setParameter("domainName", domainName)
+                .getResultList();
+    }
+
+    /**
+     * Staleness stamp of the item search index of a domain: [number of
+     * items, latest modification time], counted over the same rows as
+     * findSearchIndexRowsByDomain().
+     */
+    public Object[] findSearchIndexStampByDomain(String domainName) {
+        return (Object[]) em.createQuery(
+                "SELECT COUNT(i), MAX(ei.lastModifiedOnDateTime) "
+                + "FROM Item i JOIN i.fullItemElementList fiel LEFT JOIN fiel.entityInfo ei "
+                + "WHERE i.domain.name = :domainName "
+                + "AND fiel.name IS NULL AND fiel.derivedFromItemElement IS NULL")
+                .setParameter("domainName", domainName)
+                .getSingleResult();
+    }
+
+    /**
+     * Core metadata projection used to load the item search index of a
+     * domain. Each row contains [item id, metadata key, metadata value].
+     */
+    public List<Object[]> findSearchIndexCoreMetadataRowsByDomain(String domainName, String propertyTypeName) {
+        return (List<Object[]>) em.createQuery(
+                "SELECT i.id, pm.metadataKey, pm.metadataValue "
+                + "FROM Item i JOIN i.fullItemElementList fiel JOIN fiel.propertyValueList pvl "
+                + "JOIN pvl.propertyMetadataList pm "
+                + "WHERE i.domain.name = :domainName "
+                + "AND fiel.name IS NULL AND fiel.derivedFromItemElement IS NULL "
+                + "AND pvl.propertyType.name = :propertyTypeName")
+                .setParameter("domainName", domainName)
+                .setParameter("propertyTypeName", propertyTypeName)
+                .getResultList();
+    }
+
     public List<ItemDomainEntity> findByDomainAndEntityType(String domainName, String entityTypeName) {
         try {
             return (List<ItemDomainEntity>) em.createNamedQuery("Item.findByDomainNameAndEntityType")
@@ -200,6 +555,139 @@ public abstract class ItemFacadeBase<ItemDomainEntity extends Item> extends CdbE
         return null;
     }
 
+    /**
+     * @return ids of items of the domain, in the order of findByDomain()
+     */
+    public List<Integer> findIdListByDomain(String domainName) {
+        return em.createQuery("SELECT i.id FROM Item i WHERE i.domain.name = :domainName ORDER BY i.name ASC, i.id ASC", Integer.class)
+                .setParameter("domainName", domainName)
+                .getResultList();
+    }
+
+    /**
+     * @return row of the latest last modified date time of the items of the
+     * domain, or null if there are none, and the number of items
+     */
+    public Object[] findDomainVersionAttributes(String domainName) {
+        return em.createQuery("SELECT MAX(ei.lastModifiedOnDateTime), COUNT(i) "
+                + "FROM Item i JOIN i.fullItemElementList fiel JOIN fiel.entityInfo ei "
+                + "WHERE i.domain.name = :domainName "
+                + "AND fiel.name IS NULL AND fiel.derivedFromItemElement IS NULL", Object[].class)
+                .setParameter("domainName", domainName)
+                .getSingleResult();
+    }
+
+    /**
+     * @return items of the domain last modified at or after the date time,
+     * in the order of findByDomain()
+     */
+    public List<ItemDomainEntity> findByDomainModifiedSince(String domainName, Date dateTime) {
+        return (List<ItemDomainEntity>) em.createQuery("SELECT i FROM Item i JOIN i.fullItemElementList fiel JOIN fiel.entityInfo ei "
+                + "WHERE i.domain.name = :domainName "
+                + "AND fiel.name IS NULL AND fiel.derivedFromItemElement IS NULL "
+                + "AND ei.lastModifiedOnDateTime >= :dateTime ORDER BY i.name ASC")
+                .setParameter("domainName", domainName)
+                .setParameter("dateTime", dateTime)
+                .getResultList();
+    }
+
+    /**
+     * Selects the attributes of concise item representations without
+     * loading the items.
+     *
+     * @return rows of id, name, item identifier 1 and 2, and QR id, followed
+     * by id and name of the derived from item if requested
+     */
+    public List<Object[]> findConciseAttributeList(List<Integer> itemIdList, boolean includeDerivedFromItem) {
+        if (itemIdList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String queryString;
+        if (includeDerivedFromItem) {
+            queryString = "SELECT i.id, i.name, i.itemIdentifier1, i.itemIdentifier2, i.qrId, dfi.id, dfi.name "
+                    + "FROM Item i LEFT JOIN i.derivedFromItem dfi WHERE i.id IN :idList";
+        } else {
+            queryString = "SELECT i.id, i.name, i.itemIdentifier1, i.itemIdentifier2, i.qrId "
+                    + "FROM Item i WHERE i.id IN :idList";
+        }
+        return em.createQuery(queryString, Object[].class)
+                .setParameter("idList", itemIdList)
+                .getResultList();
+    }
+
+    /**
+     * @return ids of projects by item id
+     */
+    public Map<Integer, List<Integer>> findItemProjectIdMap(List<Integer> itemIdList) {
+        return findRelatedIdMap(itemIdList, "itemProjectList");
+    }
+
+    /**
+     * @return ids of item types by item id
+     */
+    public Map<Integer, List<Integer>> findItemTypeIdMap(List<Integer> itemIdList) {
+        return findRelatedIdMap(itemIdList, "itemTypeList");
+    }
+
+    /**
+     * @return ids of item categories by item id
+     */
+    public Map<Integer, List<Integer>> findItemCategoryIdMap(List<Integer> itemIdList) {
+        return findRelatedIdMap(itemIdList, "itemCategoryList");
+    }
+
+    private Map<Integer, List<Integer>> findRelatedIdMap(List<Integer> itemIdList, String listAttributeName) {
+        Map<Integer, List<Integer>> relatedIdMap = new HashMap<>();
+        if (itemIdList.isEmpty()) {
+            return relatedIdMap;
+        }
+        List<Object[]> rows = em.createQuery("SELECT i.id, r.id FROM Item i JOIN i." + listAttributeName + " r "
+                + "WHERE i.id IN :idList", Object[].class)
+                .setParameter("idList", itemIdList)
+                .getResultList();
+        for (Object[] row : rows) {
+            relatedIdMap.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add((Integer) row[1]);
+        }
+        return relatedIdMap;
+    }
+
+    /**
+     * Selects properties of the items whose property type has the specified
+     * handler.
+     *
+     * @return rows of item id, property value id and value, ordered by item
+     */
+    public List<Object[]> findPropertyValueAttributeList(List<Integer> itemIdList, String handlerName) {
+        if (itemIdList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return em.createQuery("SELECT ie.parentItem.id, pv.id, pv.value "
+                + "FROM ItemElement ie JOIN ie.propertyValueList pv "
+                + "WHERE ie.parentItem.id IN :idList "
+                + "AND ie.name IS NULL AND ie.derivedFromItemElement IS NULL "
+                + "AND pv.propertyType.propertyTypeHandler.name = :handlerName "
+                + "ORDER BY ie.parentItem.id, pv.id", Object[].class)
+                .setParameter("idList", itemIdList)
+                .setParameter("handlerName", handlerName)
+                .getResultList();
+    }
+
+    /**
+     * @return ids of the property values that have the metadata value
+     */
+    public Set<Integer> findPropertyValueIdSetWithMetadata(Collection<Integer> propertyValueIdList, String metadataKey, String metadataValue) {
+        if (propertyValueIdList.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(em.createQuery("SELECT pm.propertyValue.id FROM PropertyMetadata pm "
+                + "WHERE pm.propertyValue.id IN :idList "
+                + "AND pm.metadataKey = :metadataKey AND pm.metadataValue = :metadataValue", Integer.class)
+                .setParameter("idList", propertyValueIdList)
+                .setParameter("metadataKey", metadataKey)
+                .setParameter("metadataValue", metadataValue)
+                .getResultList());
+    }
+
     public List<ItemDomainEntity> findByDomainAndProject(String domainName, String projectName) {
         try {
             return (List<ItemDomainEntity>) em.createNamedQuery("Item.findByDomainNameAndProject")
@@ -303,17 +791,109 @@ public abstract class ItemFacadeBase<ItemDomainEntity extends Item> extends CdbE
         return findByDomainAndProject(domainName, projectName, "Item.findByDomainNameAndProjectOrderByDerivedFromItem");
     }
 
-    public List<ItemDomainEntity> findItemsWithPermissionsOfDomain(Integer userId, Integer domainId) {
-        try {
-            StoredProcedureQuery query = em.createNamedStoredProcedureQuery("item.itemWithWritePermissionsForUser");
-            query.setParameter("user_id", userId);
-            query.setParameter("domain_id", domainId);
-            List<ItemDomainEntity> itemList = query.getResultList();
+    /**
+     * Finds all items containing any of the specified items, directly or
+     * through other items, using the item_ancestor table that is maintained
+     * by triggers on item_element.
+     */
+    public Set<Integer> findAncestorIdSet(Collection<Integer> itemIdList) {
+        Set<Integer> result = new HashSet<>();
+        List<Integer> idList = new ArrayList<>(new HashSet<>(itemIdList));
+        for (int i = 0; i < idList.size(); i += IN_QUERY_BATCH_SIZE) {
+            List<Integer> batch = idList.subList(i, Math.min(i + IN_QUERY_BATCH_SIZE, idList.size()));
+
+            StringBuilder parameters = new StringBuilder();
+            for (int position = 1; position <= batch.size(); position++) {
+                if (position > 1) {
+                    parameters.append(", ");
+                }
+                parameters.append("?").append(position);
+            }
 
-            return itemList;
-        } catch (NoResultException ex) {
+            Query query = em.createNativeQuery(
+                    "SELECT DISTINCT ancestor_item_id FROM item_ancestor "
+                    + "WHERE descendant_item_id IN (" + parameters + ")");
+            for (int position = 1; position <= batch.size(); position++) {
+                query.setParameter(position, batch.get(position - 1));
+            }
+            for (Object ancestorId : query.getResultList()) {
+                result.add(((Number) ancestorId).intValue());
+            }
         }
-        return null;
+        return result;
+    }
+
+    /**
+     * Matches each name with the items of the domain that have it. Names are
+     * compared by the database, like in a lookup of the single name.
+     *
+     * @return item ids by name, for the names of any items
+     */
+    public Map<String, List<Integer>> findIdListByDomainAndNames(String domainName, Collection<String> nameList) {
+        return findIdListByDomainAndColumnValues(domainName, "name", nameList);
+    }
+
+    /**
+     * Matches each value with the items of the domain that have it as item
+     * identifier 1.
+     *
+     * @return item ids by value, for the values of any items
+     */
+    public Map<String, List<Integer>> findIdListByDomainAndItemIdentifier1s(String domainName, Collection<String> valueList) {
+        return findIdListByDomainAndColumnValues(domainName, "item_identifier1", valueList);
+    }
+
+    private Map<String, List<Integer>> findIdListByDomainAndColumnValues(String domainName, String columnName, Collection<String> valueList) {
+        Map<String, List<Integer>> result = new HashMap<>();
+        List<String> distinctValueList = new ArrayList<>(new HashSet<>(valueList));
+        for (int start = 0; start < distinctValueList.size(); start += VALUE_MATCH_QUERY_BATCH_SIZE) {
+            int end = Math.min(start + VALUE_MATCH_QUERY_BATCH_SIZE, distinctValueList.size());
+
+            // one select per value, so that each item row is returned with
+            // the value it matched under the collation of the column
+            StringBuilder sql = new StringBuilder();
+            for (int index = start; index < end; index++) {
+                if (index > start) {
+                    sql.append(" UNION ALL ");
+                }
+                int position = 2 * (index - start);
+                sql.append("SELECT ").append(index).append(", i.id FROM item i")
+                        .append(" INNER JOIN domain d ON d.id = i.domain_id")
+                        .append(" WHERE d.name = ?").append(position + 1)
+                        .append(" AND i.").append(columnName).append(" = ?").append(position + 2);
+            }
+
+            Query query = em.createNativeQuery(sql.toString());
+            for (int index = start; index < end; index++) {
+                int position = 2 * (index - start);
+                query.setParameter(position + 1, domainName);
+                query.setParameter(position + 2, distinctValueList.get(index));
+            }
+            for (Object row : query.getResultList()) {
+                Object[] columns = (Object[]) row;
+                String value = distinctValueList.get(((Number) columns[0]).intValue());
+                result.computeIfAbsent(value, v -> new ArrayList<>()).add(((Number) columns[1]).intValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds items of domain writeable by the user, either as owner or as
+     * member of one of the specified groups when the item is group writeable.
+     */
+    public List<ItemDomainEntity> findItemsWithPermissionsOfDomain(Integer userId, List<Integer> userGroupIdList, Integer domainId) {
+        if (userGroupIdList == null || userGroupIdList.isEmpty()) {
+            return (List<ItemDomainEntity>) em.createNamedQuery("Item.findByDomainIdWriteableByOwner")
+                    .setParameter("domainId", domainId)
+                    .setParameter("userId", userId)
+                    .getResultList();
+        }
+        return (List<ItemDomainEntity>) em.createNamedQuery("Item.findByDomainIdWriteableByUser")
+                .setParameter("domainId", domainId)
+                .setParameter("userId", userId)
+                .setParameter("userGroupIdList", userGroupIdList)
+                .getResultList();
     }
 
     public List<ItemDomainEntity> findByName(String name) {
@@ -356,6 +936,26 @@ public abstract class ItemFacadeBase<ItemDomainEntity extends Item> extends CdbE
         }
     }
 
+    @Override
+    public List<ItemDomainEntity> findByNameList(List<String> nameList, String filterDomainName) throws CdbException {
+
+        if (nameList == null || nameList.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String domainName = getDomainName();
+
+        if ((domainName == null) || domainName.isEmpty()) {
+            throw new CdbException("findByNameList() not implemented by facade");
+        }
+
+        return (List<ItemDomainEntity>) em.createNamedQuery("Item.findByDomainNameAndNameListExcludeEntityType")
+                .setParameter("domainName", domainName)
+                .setParameter("nameList", nameList)
+                .setParameter("excludeEntityTypeName", EntityTypeName.deleted.getValue())
+                .getResultList();
+    }
+
     public List<ItemDomainEntity> findByDomainAndName(String domainName, String name) {
         try {
             return (List<ItemDomainEntity>) em.createNamedQuery("Item.findByDomainNameAndName")
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.model.db.beans;
+
+import gov.anl.aps.cdb.common.constants.CdbProperty;
+import gov.anl.aps.cdb.portal.utilities.ConfigurationUtility;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.persistence.config.SessionCustomizer;
+import org.eclipse.persistence.descriptors.ClassDescriptor;
+import org.eclipse.persistence.descriptors.DescriptorEvent;
+import org.eclipse.persistence.descriptors.DescriptorEventAdapter;
+import org.eclipse.persistence.descriptors.invalidation.TimeToLiveCacheInvalidationPolicy;
+import org.eclipse.persistence.mappings.DatabaseMapping;
+import org.eclipse.persistence.sessions.Session;
+
+/**
+ * Applies configured size and time to live to the shared cache of every
+ * entity marked as cacheable, and counts objects loaded from the database
+ * for those entities.
+ *
+ * Inverse collections of cached entities (e.g. the items of an item
+ * category) change when the owning side is written, which does not update
+ * the cached entity. Those collections are kept out of the shared cache
+ * and loaded for each persistence context instead.
+ *
+ * Registered in persistence.xml as eclipselink.session.customizer.
+ */
+public class SharedCacheCustomizer implements SessionCustomizer {
+
+    private static final Logger logger = LogManager.getLogger(SharedCacheCustomizer.class.getName());
+
+    private static final int DEFAULT_CACHE_SIZE = 500;
+    private static final int DEFAULT_CACHE_TTL_IN_SECONDS = 600;
+
+    @Override
+    public void customize(Session session) throws Exception {
+        Integer defaultSize = getCacheProperty(CdbProperty.SHARED_CACHE_SIZE_PROPERTY_NAME, DEFAULT_CACHE_SIZE);
+        Integer defaultTtl = getCacheProperty(CdbProperty.SHARED_CACHE_TTL_PROPERTY_NAME, DEFAULT_CACHE_TTL_IN_SECONDS);
+
+        for (ClassDescriptor descriptor : session.getDescriptors().values()) {
+            Class entityClass = descriptor.getJavaClass();
+            if (!SharedCacheStatistics.isCacheable(entityClass)) {
+                continue;
+            }
+
+            String entityName = entityClass.getSimpleName();
+            int size = getCacheProperty(CdbProperty.SHARED_CACHE_SIZE_PROPERTY_NAME + "." + entityName, defaultSize);
+            int ttl = getCacheProperty(CdbProperty.SHARED_CACHE_TTL_PROPERTY_NAME + "." + entityName, defaultTtl);
+
+            descriptor.setIdentityMapSize(size);
+            if (ttl > 0) {
+                descriptor.setCacheInvalidationPolicy(new TimeToLiveCacheInvalidationPolicy(ttl * 1000L));
+            }
+
+            for (DatabaseMapping mapping : descriptor.getMappings()) {
+                if (isInverseCollectionMapping(mapping)) {
+                    mapping.setIsCacheable(false);
+                    logger.debug("Not caching " + entityName + "." + mapping.getAttributeName());
+                }
+            }
+
+            final SharedCacheStatistics statistics = SharedCacheStatistics.getInstance(entityClass);
+            descriptor.getEventManager().addListener(new DescriptorEventAdapter() {
+                @Override
+                public void postBuild(DescriptorEvent event) {
+                    statistics.recordLoad();
+                }
+            });
+
+            logger.debug("Shared cache for " + entityName + ": size " + size + ", ttl " + ttl + "s");
+        }
+    }
+
+    /**
+     * @return true for collections whose contents are owned by the target
+     * entities: one to many mappings and many to many mappings on the
+     * mapped by side
+     */
+    private static boolean isInverseCollectionMapping(DatabaseMapping mapping) {
+        return mapping.isOneToManyMapping()
+                || (mapping.isManyToManyMapping() && mapping.isReadOnly());
+    }
+
+    private static int getCacheProperty(String propertyName, int defaultValue) {
+        Integer value = ConfigurationUtility.getPortalPropertyAsInteger(propertyName);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value;
+    }
+
+}
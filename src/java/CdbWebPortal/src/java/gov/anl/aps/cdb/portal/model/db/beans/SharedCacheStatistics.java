@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.model.db.beans;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.persistence.Cacheable;
+
+/**
+ * Hit/miss counters for entities kept in the shared (second level) cache.
+ *
+ * Hits and misses are recorded for lookups by primary key through the entity
+ * facades. Loads count every object of a cached entity type that had to be
+ * built from database rows, including ones loaded through relationships.
+ */
+public class SharedCacheStatistics {
+
+    private static final Map<String, SharedCacheStatistics> statisticsMap = new ConcurrentHashMap<>();
+
+    private final String entityName;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+
+    private SharedCacheStatistics(String entityName) {
+        this.entityName = entityName;
+    }
+
+    public static boolean isCacheable(Class entityClass) {
+        Cacheable cacheable = (Cacheable) entityClass.getAnnotation(Cacheable.class);
+        return cacheable != null && cacheable.value();
+    }
+
+    public static SharedCacheStatistics getInstance(Class entityClass) {
+        String entityName = entityClass.getSimpleName();
+        return statisticsMap.computeIfAbsent(entityName, SharedCacheStatistics::new);
+    }
+
+    public static List<SharedCacheStatistics> getAllStatistics() {
+        List<SharedCacheStatistics> result = new ArrayList<>(statisticsMap.values());
+        result.sort((s1, s2) -> s1.getEntityName().compareTo(s2.getEntityName()));
+        return result;
+    }
+
+    public void recordHit() {
+        hitCount.increment();
+    }
+
+    public void recordMiss() {
+        missCount.increment();
+    }
+
+    public void recordLoad() {
+        loadCount.increment();
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    public double getHitRatio() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        if (total == 0) {
+            return 0;
+        }
+        return (double) hits / total;
+    }
+
+}
@@ -7,6 +7,7 @@ package gov.anl.aps.cdb.portal.model.db.beans;
 import gov.anl.aps.cdb.common.exceptions.CdbException;
 import gov.anl.aps.cdb.portal.model.db.entities.UserGroup;
 import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
+import gov.anl.aps.cdb.portal.utilities.EntityPermissionCache;
 import gov.anl.aps.cdb.portal.utilities.SessionUtility;
 import java.util.List;
 import javax.ejb.Stateless;
@@ -32,6 +33,20 @@ public class UserInfoFacade extends CdbEntityFacade<UserInfo> {
     public UserInfoFacade() {
         super(UserInfo.class);
     }
+
+    @Override
+    public UserInfo edit(UserInfo entity) {
+        UserInfo result = super.edit(entity);
+        // group memberships may have changed, caches are invalidated on commit
+        EntityPermissionCache.invalidateAll();
+        return result;
+    }
+
+    @Override
+    public void remove(UserInfo entity) {
+        super.remove(entity);
+        EntityPermissionCache.invalidateAll();
+    }
     
     public UserInfo findByUsername(String username) {
         try {
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.model.db.beans;
+
+import gov.anl.aps.cdb.portal.model.db.entities.UserSessionToken;
+import gov.anl.aps.cdb.portal.utilities.SessionUtility;
+import java.util.Date;
+import java.util.List;
+import javax.ejb.Stateless;
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.PersistenceContext;
+
+@Stateless
+public class UserSessionTokenFacade extends CdbEntityFacade<UserSessionToken> {
+
+    @PersistenceContext(unitName = "CdbWebPortalPU")
+    private EntityManager em;
+
+    @Override
+    protected EntityManager getEntityManager() {
+        return em;
+    }
+
+    public UserSessionTokenFacade() {
+        super(UserSessionToken.class);
+    }
+
+    public UserSessionToken findByTokenHash(String tokenHash) {
+        try {
+            return (UserSessionToken) em.createNamedQuery("UserSessionToken.findByTokenHash")
+                    .setParameter("tokenHash", tokenHash)
+                    .getSingleResult();
+        } catch (NoResultException ex) {
+        }
+        return null;
+    }
+
+    /**
+     * @return sessions of the user, newest first
+     */
+    public List<UserSessionToken> findByUserId(Integer userId) {
+        return (List<UserSessionToken>) em.createNamedQuery("UserSessionToken.findByUserOrderByCreatedOnDesc")
+                .setParameter("userId", userId)
+                .getResultList();
+    }
+
+    public int deleteByTokenHash(String tokenHash) {
+        return em.createNamedQuery("UserSessionToken.deleteByTokenHash")
+                .setParameter("tokenHash", tokenHash)
+                .executeUpdate();
+    }
+
+    public int deleteExpired(Date currentDateTime) {
+        return em.createNamedQuery("UserSessionToken.deleteExpired")
+                .setParameter("currentDateTime", currentDateTime)
+                .executeUpdate();
+    }
+
+    public static UserSessionTokenFacade getInstance() {
+        return (UserSessionTokenFacade) SessionUtility.findFacade(UserSessionTokenFacade.class.getSimpleName());
+    }
+
+}
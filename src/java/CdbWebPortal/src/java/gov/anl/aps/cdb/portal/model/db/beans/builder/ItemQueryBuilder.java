@@ -8,6 +8,7 @@ import gov.anl.aps.cdb.portal.model.db.entities.Domain;
 import gov.anl.aps.cdb.portal.model.db.entities.Item;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemCategory;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemProject;
+import gov.anl.aps.cdb.portal.model.db.entities.ItemPropertyIndex;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemType;
 import gov.anl.aps.cdb.portal.model.db.entities.UserGroup;
 import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
@@ -30,6 +31,8 @@ public abstract class ItemQueryBuilder {
     private static final Logger logger = LogManager.getLogger(ItemQueryBuilder.class.getName());
 
     private static final String QUERY_STRING_START = "SELECT DISTINCT(i) FROM Item i ";
+    private static final String COUNT_QUERY_STRING_START = "SELECT COUNT(DISTINCT i) FROM Item i ";
+    private static final String ID_SORT_FIELD = "i.id";
     private static final CharSequence[] ESCAPE_QUERY_CHARACTERS = {"'"};
     private static final String ITEM_ELEMENTS_LIST_JOIN_NAME = "fiel";
     private static final String ITEM_PROJECT_LIST_JOIN_NAME = "ipl";
@@ -37,6 +40,7 @@ public abstract class ItemQueryBuilder {
     private static final String ITEM_CATEGORY_LIST_JOIN_NAME = "icl"; 
     private static final String ITEM_TYPE_LIST_JOIN_NAME = "itl"; 
     private static final String CORE_METADATA_PROPERTY_JOIN_NAME = "cmp";
+    private static final String PROPERTY_INDEX_LIST = "i.itemPropertyIndexList";
 
     protected static final String QUERY_LIKE = "LIKE";
     protected static final String QUERY_EQUALS = "=";
@@ -49,8 +53,8 @@ public abstract class ItemQueryBuilder {
     boolean include_etl = false;
     boolean include_icl = false;
     boolean include_itl = false;     
-    private Set<String> pvlNames = null;
-    private Set<String> coreMetadataNames = null; 
+    // property values and core metadata are filtered through item_property_index
+    private Set<String> propertyIndexNames = null;
 
     private Set<String> firstIERNames = null;
     private Set<String> secondIERNames = null; 
@@ -65,6 +69,9 @@ public abstract class ItemQueryBuilder {
     private String wherePart;
     private String sortPart;
     private String joinPart;
+    private List<Object> parameterList;
+    private boolean queryPrepared = false;
+    private boolean sortedById = false;
     
     public ItemQueryBuilder(Domain domain, Map filterMap, String sortField, SortOrder sortOrder) {
         this.domain = domain;
@@ -72,8 +79,7 @@ public abstract class ItemQueryBuilder {
         this.sortField = sortField;
         this.sortOrder = sortOrder;
 
-        this.pvlNames = new HashSet<>();
-        this.coreMetadataNames = new HashSet<>(); 
+        this.propertyIndexNames = new HashSet<>();
         this.firstIERNames = new HashSet<>(); 
         this.secondIERNames = new HashSet<>(); 
         
@@ -81,14 +87,109 @@ public abstract class ItemQueryBuilder {
     }
 
     public String getQueryForItems() {
+        prepareQuery();
+
+        String fullQuery = QUERY_STRING_START + joinPart + wherePart + sortPart;
+
+        return fullQuery;
+    }
+
+    /**
+     * Filter values are bound as positional parameters, so the generated
+     * query only depends on which columns are filtered and sorted. The
+     * normalized query string identifies the shape of the query, so the
+     * persistence provider can reuse the parsed query for different filter
+     * values.
+     *
+     * @param query query generated by this builder
+     * @return normalized query shape key
+     */
+    public static String getQueryShapeKey(String query) {
+        return query.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Values of positional parameters of the item and count queries.
+     *
+     * @return parameter values, parameter ?n is at index n-1
+     */
+    public List<Object> getQueryParameters() {
+        prepareQuery();
+
+        return new ArrayList<>(parameterList);
+    }
+
+    /**
+     * Values of positional parameters of the keyset pagination query.
+     *
+     * @param lastItemId id of last item on previous page
+     * @return parameter values, parameter ?n is at index n-1
+     */
+    public List<Object> getQueryParametersAfterId(Integer lastItemId) {
+        List<Object> parameters = getQueryParameters();
+        parameters.add(lastItemId);
+
+        return parameters;
+    }
+
+    /**
+     * Generates query for the next page of a keyset paginated result. Only
+     * applicable when results are ordered by item id.
+     *
+     * Parameters are provided by getQueryParametersAfterId().
+     *
+     * @return query for items following the last item of previous page
+     */
+    public String getQueryForItemsAfterId() {
+        prepareQuery();
+
+        if (!sortedById) {
+            throw new IllegalStateException("Keyset pagination requires results ordered by item id.");
+        }
+
+        String fullQuery = QUERY_STRING_START + joinPart + wherePart
+                + "AND " + ID_SORT_FIELD + " > ?" + (parameterList.size() + 1) + " " + sortPart;
+
+        return fullQuery;
+    }
+
+    /**
+     * Generates query for the number of items matched by the filters.
+     *
+     * @return count query
+     */
+    public String getCountQueryForItems() {
+        prepareQuery();
+
+        String countQuery = COUNT_QUERY_STRING_START + joinPart + wherePart;
+
+        return countQuery;
+    }
+
+    /**
+     * Results are ordered by item id when no other sort is requested, which
+     * allows keyset pagination of the result.
+     */
+    public boolean isSortedById() {
+        prepareQuery();
+        return sortedById;
+    }
+
+    /**
+     * Generation of where and sort strings updates the join information and
+     * sort field, so it should only happen once per builder.
+     */
+    private void prepareQuery() {
+        if (queryPrepared) {
+            return;
+        }
+
         generateWhereString();
         generateSortString();
 
         generateJoinString();
 
-        String fullQuery = QUERY_STRING_START + joinPart + wherePart + sortPart;
-
-        return fullQuery;
+        queryPrepared = true;
     }
 
     /**
@@ -118,8 +219,8 @@ public abstract class ItemQueryBuilder {
             joinPart += " JOIN i.itemTypeList " + ITEM_TYPE_LIST_JOIN_NAME; 
         }
 
-        for (String pvlName : pvlNames) {
-            joinPart += " JOIN fiel.propertyValueList " + pvlName;
+        for (String propertyIndexName : propertyIndexNames) {
+            joinPart += " JOIN " + PROPERTY_INDEX_LIST + " " + propertyIndexName;
         }
 
         for (String ierName : firstIERNames) {
@@ -129,17 +230,14 @@ public abstract class ItemQueryBuilder {
         for (String ierName : secondIERNames) {
             joinPart += " JOIN fiel.itemElementRelationshipList1 " + ierName;
         }
-        
-        for (String cmName : coreMetadataNames) {
-            joinPart += " JOIN " + CORE_METADATA_PROPERTY_JOIN_NAME + ".propertyMetadataList " + cmName;
-        }
-        
+
         return joinPart;
 
     }
 
     private void generateWhereString() {
         wherePart = "";
+        parameterList = new ArrayList<>();
         appendWhere("=", "i.domain.id", domain.getId());
 
         for (Object key : filterMap.keySet()) {
@@ -155,10 +253,10 @@ public abstract class ItemQueryBuilder {
 
                 if (keyString.startsWith(PROPERTY_FIELD_START)) {
                     addPropertyWhereByTypeId(keyString, valueString);
-                    return;
+                    continue;
                 } else if (keyString.startsWith(METADATA_FIELD_START)) {
                     addCoreMetadataWhere(keyString, valueString);
-                    return;
+                    continue;
                 }
 
                 QueryTranslator qt = QueryTranslator.getQueryTranslatorByValue(keyString);
@@ -181,22 +279,21 @@ public abstract class ItemQueryBuilder {
             return null; 
         }    
         
-        preparePropertyQuery(CORE_METADATA_PROPERTY_JOIN_NAME, "name", coreMetadataPropertyName);
-                
         String metadataKey = key.split("-")[1];
         
-        String filter_key = "cmp"+metadataKey; 
-        coreMetadataNames.add(filter_key);
-        String keyMatchQuery = filter_key + ".metadataKey"; 
-        appendWhere("=", keyMatchQuery, metadataKey);
+        String filter_key = CORE_METADATA_PROPERTY_JOIN_NAME + metadataKey; 
+        preparePropertyIndexQuery(filter_key, "name", coreMetadataPropertyName, metadataKey);
 
         return filter_key; 
     }
     
     private void addCoreMetadataWhere(String key, String value) {
         String filter_key = prepareCoreMetadataQuery(key);                
+        if (filter_key == null) {
+            return;
+        }
         
-        String filterMatchQuery = filter_key + ".metadataValue";
+        String filterMatchQuery = filter_key + ".value";
         appendWhere(QUERY_LIKE, filterMatchQuery, value);
     }
     
@@ -278,12 +375,32 @@ public abstract class ItemQueryBuilder {
     }
     
     private void preparePropertyQuery(String key, String byAttribute, String propertyTypeByValue) {
-        if (pvlNames.contains(key) == false) {
+        preparePropertyIndexQuery(key, byAttribute, propertyTypeByValue,
+                ItemPropertyIndex.PROPERTY_VALUE_METADATA_KEY);
+    }
+
+    /**
+     * Joins the indexed values of one property type and metadata key. The
+     * index only holds properties of item self elements, so the item element
+     * list does not need to be joined.
+     *
+     * @param key entity reference in query, value is available as key.value
+     * @param byAttribute id/name of property type attribute
+     * @param propertyTypeByValue property type id or name
+     * @param metadataKey metadata key or empty for the property value itself
+     */
+    private void preparePropertyIndexQuery(String key, String byAttribute, String propertyTypeByValue, String metadataKey) {
+        if (propertyIndexNames.contains(key) == false) {
             String queryName = key + ".propertyType." + byAttribute;
-            appendWhere("=", queryName, propertyTypeByValue);
+            Object propertyTypeParameter = propertyTypeByValue;
+            if (byAttribute.equals("id")) {
+                // Bound parameters need to match the attribute type.
+                propertyTypeParameter = Integer.valueOf(propertyTypeByValue);
+            }
+            appendWhere("=", queryName, propertyTypeParameter);
+            appendWhere("=", key + ".metadataKey", metadataKey);
 
-            pvlNames.add(key);
-            includeFiel();
+            propertyIndexNames.add(key);
         }
     }
     
@@ -382,9 +499,11 @@ public abstract class ItemQueryBuilder {
                 sortField = preparePropertyQuery(sortField, "id");
                 fullSortField = sortField + ".value";
             } else if (sortField.startsWith(METADATA_FIELD_START)) {
-                sortField = prepareCoreMetadataQuery(sortField); 
-                fullSortField = sortField + ".metadataValue"; 
-            }else {
+                String metadataSortKey = prepareCoreMetadataQuery(sortField);
+                if (metadataSortKey != null) {
+                    fullSortField = metadataSortKey + ".value";
+                }
+            } else {
                 QueryTranslator qt = QueryTranslator.getQueryTranslatorByValue(sortField);
                 if (qt != null) {
                     fullSortField = qt.getQueryNameField();
@@ -404,8 +523,15 @@ public abstract class ItemQueryBuilder {
                 } else {
                     sortPart += "DESC";
                 }
+                // Stable order is required for paging through results.
+                sortPart += ", " + ID_SORT_FIELD + " ASC";
             }
         }
+
+        if (sortPart.isEmpty()) {
+            sortPart = " ORDER BY " + ID_SORT_FIELD + " ASC";
+            sortedById = true;
+        }
     }
 
     /**
@@ -536,21 +662,19 @@ public abstract class ItemQueryBuilder {
             wherePart += "AND ";
         }
 
-        String value = "NULL";
-        if (object != null) {
-            value = object.toString();
+        if (object == null) {
+            wherePart += key + " " + comparator + " NULL ";
+            return;
         }
 
-        if (object != null && object instanceof String) {
-            if (comparator.equalsIgnoreCase(QUERY_LIKE)) {
-                value = ((String)value).replace('*', '%'); 
-                value = "%" + value + "%";
-            }
-
-            value = "'" + escapeCharacters(value) + "'";
+        Object value = object;
+        if (object instanceof String && comparator.equalsIgnoreCase(QUERY_LIKE)) {
+            String likeValue = ((String) object).replace('*', '%');
+            value = "%" + likeValue + "%";
         }
 
-        wherePart += key + " " + comparator + " " + value + " ";
+        parameterList.add(value);
+        wherePart += key + " " + comparator + " ?" + parameterList.size() + " ";
     }
 
     private static String escapeCharacters(String queryParameter) {
@@ -5,8 +5,7 @@
 package gov.anl.aps.cdb.portal.model.db.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import gov.anl.aps.cdb.portal.model.jsf.handlers.PropertyTypeHandlerFactory;
-import gov.anl.aps.cdb.portal.model.jsf.handlers.PropertyTypeHandlerInterface;
+import gov.anl.aps.cdb.portal.model.db.utilities.PropertyValueUtility;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -78,28 +77,37 @@ public abstract class CdbDomainEntity extends CdbEntity {
         PropertyValueInformation propertyValueInfo = propertyValueCacheMap.get(propertyTypeId);
         if (propertyValueInfo == null) {
             propertyValueInfo = new PropertyValueInformation(); 
-            PropertyTypeHandlerInterface propertyHandler = null;
-            List<PropertyValue> propertyValueList = getPropertyValueList();
-            for (PropertyValue propertyValue : propertyValueList) {
-                if (propertyValue.getPropertyType().getId().equals(propertyTypeId)) {
-                    propertyHandler = PropertyTypeHandlerFactory.getHandler(propertyValue);
-
-                    propertyHandler.setDisplayValue(propertyValue);
-                    propertyHandler.setTargetValue(propertyValue);
-                    propertyHandler.setInfoActionCommand(propertyValue);
-               
-                    String value = propertyValue.getDisplayValue();
-                    if (value != null && !value.isEmpty()) {
-                        propertyValueInfo.appendFilterValue(value);
-                    }
-                    propertyValueInfo.addPropertyValueObject(propertyValue);
+            List<PropertyValue> typePropertyValueList = getPropertyValueList(propertyTypeId);
+            PropertyValueUtility.configurePropertyValueDisplay(typePropertyValueList);
+            for (PropertyValue propertyValue : typePropertyValueList) {
+                String value = propertyValue.getDisplayValue();
+                if (value != null && !value.isEmpty()) {
+                    propertyValueInfo.appendFilterValue(value);
                 }
+                propertyValueInfo.addPropertyValueObject(propertyValue);
             }
             propertyValueCacheMap.put(propertyTypeId, propertyValueInfo);
         }
         return propertyValueInfo;
     }
 
+    public boolean isPropertyValueInformationLoaded(Integer propertyTypeId) {
+        return propertyValueCacheMap.containsKey(propertyTypeId);
+    }
+
+    public List<PropertyValue> getPropertyValueList(Integer propertyTypeId) {
+        List<PropertyValue> typePropertyValueList = new ArrayList<>();
+        List<PropertyValue> propertyValueList = getPropertyValueList();
+        if (propertyValueList != null) {
+            for (PropertyValue propertyValue : propertyValueList) {
+                if (propertyValue.getPropertyType().getId().equals(propertyTypeId)) {
+                    typePropertyValueList.add(propertyValue);
+                }
+            }
+        }
+        return typePropertyValueList;
+    }
+
     public String getPropertyValueByIndex(Integer index) {
         Integer propertyTypeId = propertyTypeIdIndexMap.get(index);
         if (propertyTypeId != null) {
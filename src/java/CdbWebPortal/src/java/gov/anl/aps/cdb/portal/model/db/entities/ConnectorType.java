@@ -7,6 +7,7 @@ package gov.anl.aps.cdb.portal.model.db.entities;
 import java.io.Serializable;
 import java.util.List;
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -25,6 +26,7 @@ import javax.xml.bind.annotation.XmlTransient;
  * @author djarosz
  */
 @Entity
+@Cacheable
 @Table(name = "connector_type")
 @XmlRootElement
 @NamedQueries({
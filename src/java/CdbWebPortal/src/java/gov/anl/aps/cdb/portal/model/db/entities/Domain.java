@@ -9,6 +9,7 @@ import gov.anl.aps.cdb.portal.constants.PortalStyles;
 import java.io.Serializable;
 import java.util.List;
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -33,6 +34,7 @@ import javax.xml.bind.annotation.XmlTransient;
  * @author djarosz
  */
 @Entity
+@Cacheable
 @Table(name = "domain")
 @XmlRootElement
 @NamedQueries({
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.model.db.entities;
+
+import java.io.Serializable;
+import java.util.Date;
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Entry of the entity change feed. Ids are assigned when changes are
+ * recorded, in no particular commit order. Sequence numbers are assigned
+ * once changes are committed, in increasing order, and serve as cursors of
+ * the feed.
+ */
+@Entity
+@Table(name = "entity_change")
+@XmlRootElement
+@NamedQueries({
+    @NamedQuery(name = "EntityChange.findAfterSequenceNumber", query = "SELECT e FROM EntityChange e WHERE e.sequenceNumber > :afterSequenceNumber ORDER BY e.sequenceNumber ASC"),
+    @NamedQuery(name = "EntityChange.findAfterSequenceNumberByEntityTypeName", query = "SELECT e FROM EntityChange e WHERE e.sequenceNumber > :afterSequenceNumber AND e.entityTypeName = :entityTypeName ORDER BY e.sequenceNumber ASC"),
+    @NamedQuery(name = "EntityChange.findLastSequenceNumber", query = "SELECT MAX(e.sequenceNumber) FROM EntityChange e"),
+    @NamedQuery(name = "EntityChange.findIdWithoutSequenceNumber", query = "SELECT e.id FROM EntityChange e WHERE e.sequenceNumber IS NULL ORDER BY e.id ASC"),
+    @NamedQuery(name = "EntityChange.findEntityIdByEntityTypeNameAndChangeTypeSince", query = "SELECT e.entityId FROM EntityChange e WHERE e.entityTypeName = :entityTypeName AND e.changeType = :changeType AND e.changedOnDateTime >= :dateTime ORDER BY e.id ASC"),
+    @NamedQuery(name = "EntityChange.findLastChangedOnDateTimeByEntityTypeNameAndChangeType", query = "SELECT MAX(e.changedOnDateTime) FROM EntityChange e WHERE e.entityTypeName = :entityTypeName AND e.changeType = :changeType"),
+    @NamedQuery(name = "EntityChange.findFirstChangedOnDateTime", query = "SELECT MIN(e.changedOnDateTime) FROM EntityChange e"),
+    @NamedQuery(name = "EntityChange.deleteChangedBefore", query = "DELETE FROM EntityChange e WHERE e.changedOnDateTime < :dateTime")})
+public class EntityChange extends CdbEntity implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Basic(optional = false)
+    private Long id;
+    @Column(name = "sequence_number")
+    private Long sequenceNumber;
+    @Basic(optional = false)
+    @NotNull
+    @Size(min = 1, max = 64)
+    @Column(name = "entity_type_name")
+    private String entityTypeName;
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "entity_id")
+    private Integer entityId;
+    @Basic(optional = false)
+    @NotNull
+    @Size(min = 1, max = 16)
+    @Column(name = "change_type")
+    private String changeType;
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "changed_on_date_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date changedOnDateTime;
+    @Column(name = "changed_by_user_id")
+    private Integer changedByUserId;
+
+    public EntityChange() {
+    }
+
+    public EntityChange(String entityTypeName, Integer entityId, String changeType, Date changedOnDateTime, Integer changedByUserId) {
+        this.entityTypeName = entityTypeName;
+        this.entityId = entityId;
+        this.changeType = changeType;
+        this.changedOnDateTime = changedOnDateTime;
+        this.changedByUserId = changedByUserId;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public void setSequenceNumber(Long sequenceNumber) {
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    public String getEntityTypeName() {
+        return entityTypeName;
+    }
+
+    public void setEntityTypeName(String entityTypeName) {
+        this.entityTypeName = entityTypeName;
+    }
+
+    public Integer getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Integer entityId) {
+        this.entityId = entityId;
+    }
+
+    public String getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(String changeType) {
+        this.changeType = changeType;
+    }
+
+    public Date getChangedOnDateTime() {
+        return changedOnDateTime;
+    }
+
+    public void setChangedOnDateTime(Date changedOnDateTime) {
+        this.changedOnDateTime = changedOnDateTime;
+    }
+
+    public Integer getChangedByUserId() {
+        return changedByUserId;
+    }
+
+    public void setChangedByUserId(Integer changedByUserId) {
+        this.changedByUserId = changedByUserId;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        hash += (id != null ? id.hashCode() : 0);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof EntityChange)) {
+            return false;
+        }
+        EntityChange other = (EntityChange) object;
+        if ((this.id == null && other.id != null) || (this.id != null && !this.id.equals(other.id))) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "gov.anl.aps.cdb.portal.model.db.entities.EntityChange[ id=" + id + " ]";
+    }
+
+}
@@ -6,6 +6,7 @@ package gov.anl.aps.cdb.portal.model.db.entities;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import gov.anl.aps.cdb.portal.utilities.EntityPermissionCache;
 import java.io.Serializable;
 import java.util.Date;
 import javax.persistence.Basic;
@@ -21,9 +22,14 @@ import javax.persistence.ManyToOne;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.OneToOne;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
+import javax.persistence.Transient;
 import javax.validation.constraints.NotNull;
 import javax.xml.bind.annotation.XmlRootElement;
 
@@ -40,7 +46,9 @@ import javax.xml.bind.annotation.XmlRootElement;
     @NamedQuery(name = "EntityInfo.findByIsGroupWriteable", query = "SELECT e FROM EntityInfo e WHERE e.isGroupWriteable = :isGroupWriteable"),
     @NamedQuery(name = "EntityInfo.findByCreatedOnDateTime", query = "SELECT e FROM EntityInfo e WHERE e.createdOnDateTime = :createdOnDateTime"),
     @NamedQuery(name = "EntityInfo.findByLastModifiedOnDateTime", query = "SELECT e FROM EntityInfo e WHERE e.lastModifiedOnDateTime = :lastModifiedOnDateTime"),
-    @NamedQuery(name = "EntityInfo.findByObsoletedOnDateTime", query = "SELECT e FROM EntityInfo e WHERE e.obsoletedOnDateTime = :obsoletedOnDateTime")})
+    @NamedQuery(name = "EntityInfo.findByObsoletedOnDateTime", query = "SELECT e FROM EntityInfo e WHERE e.obsoletedOnDateTime = :obsoletedOnDateTime"),
+    @NamedQuery(name = "EntityInfo.findIdListWriteableByOwner", query = "SELECT e.id FROM EntityInfo e WHERE e.id IN :idList AND e.ownerUser.id = :userId"),
+    @NamedQuery(name = "EntityInfo.findIdListWriteableByUser", query = "SELECT e.id FROM EntityInfo e LEFT JOIN e.ownerUser ou LEFT JOIN e.ownerUserGroup oug WHERE e.id IN :idList AND (ou.id = :userId OR (e.isGroupWriteable = TRUE AND oug.id IN :userGroupIdList))")})
 @JsonIgnoreProperties(value = {
     "itemElement",
     "list",
@@ -97,6 +105,9 @@ public class EntityInfo implements Serializable {
     private UserInfo obsoletedByUser;
     @OneToOne(cascade = CascadeType.ALL, mappedBy = "entityInfo", fetch = FetchType.LAZY)
     private ListTbl list;
+    
+    @Transient
+    private transient String permissionSnapshot;
 
     public EntityInfo() {
     }
@@ -278,6 +289,34 @@ public class EntityInfo implements Serializable {
         return null; 
     }
 
+    @PostLoad
+    @PostPersist
+    private void storePermissionSnapshot() {
+        permissionSnapshot = getPermissionSnapshot();
+    }
+
+    @PostUpdate
+    private void checkPermissionChange() {
+        // cached write permissions depend on owner user, owner group and group
+        // writeable flag; they are invalidated when the update commits
+        String currentSnapshot = getPermissionSnapshot();
+        if (!currentSnapshot.equals(permissionSnapshot)) {
+            permissionSnapshot = currentSnapshot;
+            EntityPermissionCache.invalidateAll();
+        }
+    }
+
+    @PostRemove
+    private void invalidatePermissions() {
+        EntityPermissionCache.invalidateAll();
+    }
+
+    private String getPermissionSnapshot() {
+        return (ownerUser != null ? ownerUser.getId() : null) + "|"
+                + (ownerUserGroup != null ? ownerUserGroup.getId() : null) + "|"
+                + isGroupWriteable;
+    }
+
     @Override
     public int hashCode() {
         int hash = 0;
@@ -47,12 +47,8 @@ import javax.persistence.Inheritance;
 import javax.persistence.InheritanceType;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
-import javax.persistence.NamedStoredProcedureQueries;
-import javax.persistence.NamedStoredProcedureQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OrderBy;
-import javax.persistence.ParameterMode;
-import javax.persistence.StoredProcedureParameter;
 import javax.persistence.Table;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Size;
@@ -84,6 +80,8 @@ import org.primefaces.model.TreeNode;
             query = "SELECT i FROM Item i WHERE i.domain.name = :domainName AND i.name = :name"),
     @NamedQuery(name = "Item.findByDomainNameAndNameExcludeEntityType",
             query = "SELECT i FROM Item i WHERE i.domain.name = :domainName AND i.name = :name AND (i.id not in (SELECT DISTINCT(i.id) FROM Item i JOIN i.entityTypeList etl WHERE i.domain.name = :domainName and etl.name = :excludeEntityTypeName))"),
+    @NamedQuery(name = "Item.findByDomainNameAndNameListExcludeEntityType",
+            query = "SELECT i FROM Item i WHERE i.domain.name = :domainName AND i.name IN :nameList AND (i.id not in (SELECT DISTINCT(i.id) FROM Item i JOIN i.entityTypeList etl WHERE i.domain.name = :domainName and etl.name = :excludeEntityTypeName))"),
     @NamedQuery(name = "Item.findByDomainNameAndEntityTypeAndNameExcludeEntityType",
             query = "SELECT DISTINCT(i) FROM Item i WHERE i.name = :name AND i.domain.name = :domainName AND (i.id in (SELECT DISTINCT(i.id) FROM Item i JOIN i.entityTypeList etl WHERE i.domain.name = :domainName and etl.name = :entityTypeName)) AND (i.id not in (SELECT DISTINCT(i.id) FROM Item i JOIN i.entityTypeList etl WHERE i.domain.name = :domainName and etl.name = :excludeEntityTypeName))"),
     @NamedQuery(name = "Item.findByItemIdentifier1",
@@ -188,26 +186,19 @@ import org.primefaces.model.TreeNode;
             + "AND fiel.derivedFromItemElement is NULL "
             + "AND (fiel.entityInfo.ownerUser.id = :ownerUserId "
             + "OR ieList = :list)"
-            + "AND i.domain.name = :domainName")
+            + "AND i.domain.name = :domainName"),
+    @NamedQuery(name = "Item.findByDomainIdWriteableByOwner",
+            query = "SELECT i FROM Item i JOIN i.fullItemElementList fiel JOIN fiel.entityInfo ei "
+            + "WHERE i.domain.id = :domainId "
+            + "AND fiel.name IS NULL AND fiel.derivedFromItemElement IS NULL "
+            + "AND ei.ownerUser.id = :userId"),
+    @NamedQuery(name = "Item.findByDomainIdWriteableByUser",
+            query = "SELECT i FROM Item i JOIN i.fullItemElementList fiel JOIN fiel.entityInfo ei "
+            + "LEFT JOIN ei.ownerUser ou LEFT JOIN ei.ownerUserGroup oug "
+            + "WHERE i.domain.id = :domainId "
+            + "AND fiel.name IS NULL AND fiel.derivedFromItemElement IS NULL "
+            + "AND (ou.id = :userId OR (ei.isGroupWriteable = TRUE AND oug.id IN :userGroupIdList))")
 })
-@NamedStoredProcedureQueries({
-    @NamedStoredProcedureQuery(
-            name = "item.itemWithWritePermissionsForUser",
-            procedureName = "items_with_write_permission_for_user",
-            resultClasses = Item.class,
-            parameters = {
-                @StoredProcedureParameter(
-                        name = "user_id",
-                        mode = ParameterMode.IN,
-                        type = Integer.class
-                ),
-                @StoredProcedureParameter(
-                        name = "domain_id",
-                        mode = ParameterMode.IN,
-                        type = Integer.class
-                )
-            }
-    ),})
 
 @JsonIgnoreProperties(value = {
     // Transient
@@ -339,6 +330,9 @@ public class Item extends CdbDomainEntity implements Serializable {
     private List<ItemElementHistory> historyMemberList;
     @OneToMany(mappedBy = "containedItem2")
     private List<ItemElementHistory> historyMemberList2;
+    // only used by list queries, see ItemQueryBuilder
+    @OneToMany(mappedBy = "item")
+    private List<ItemPropertyIndex> itemPropertyIndexList;
 
     // Item element representing self 
     private transient ItemElement selfItemElement = null;
@@ -1419,6 +1413,14 @@ public class Item extends CdbDomainEntity implements Serializable {
         return null;
     }
 
+    /**
+     * Adds domain specific searchable attributes of this item to the search
+     * index attribute map. Common item attributes are indexed by the search
+     * index itself.
+     */
+    public void collectSearchIndexAttributes(Map<String, String> attributeMap) {
+    }
+
     @Override
     public SearchResult search(Pattern searchPattern) {
         SearchResult searchResult;
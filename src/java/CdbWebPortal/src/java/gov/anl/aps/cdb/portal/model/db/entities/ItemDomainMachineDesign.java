@@ -39,6 +39,8 @@ import org.apache.logging.log4j.Logger;
 @DiscriminatorValue(value = ItemDomainName.MACHINE_DESIGN_ID + "")
 public class ItemDomainMachineDesign extends LocatableStatusItem {
 
+    public static final String ASSIGNED_ITEM_NAME_SEARCH_KEY = "Assigned Item Name";
+
     private static final Logger LOGGER = LogManager.getLogger(ItemDomainMachineDesign.class.getName());
     public final static String MD_INTERNAL_STATUS_PROPERTY_TYPE = "Machine Design Status";
 
@@ -356,12 +358,20 @@ public class ItemDomainMachineDesign extends LocatableStatusItem {
         Item assignedItem = getAssignedItem();
         if (assignedItem != null) {
             String assignedItemName = assignedItem.getName();
-            result.doesValueContainPattern("Assigned Item Name", assignedItemName, searchPattern);
+            result.doesValueContainPattern(ASSIGNED_ITEM_NAME_SEARCH_KEY, assignedItemName, searchPattern);
         }
 
         return result;
     }
 
+    @Override
+    public void collectSearchIndexAttributes(Map<String, String> attributeMap) {
+        Item assignedItem = getAssignedItem();
+        if (assignedItem != null) {
+            attributeMap.put(ASSIGNED_ITEM_NAME_SEARCH_KEY, assignedItem.getName());
+        }
+    }
+
     @Override
     public String getStatusPropertyTypeName() {
         return MD_INTERNAL_STATUS_PROPERTY_TYPE;
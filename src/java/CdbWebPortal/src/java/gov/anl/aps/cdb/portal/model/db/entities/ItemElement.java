@@ -56,7 +56,13 @@ import org.primefaces.model.TreeNode;
     @NamedQuery(name = "ItemElement.findByDescription",
             query = "SELECT i FROM ItemElement i WHERE i.description = :description"),
     @NamedQuery(name = "ItemElement.findBySortOrder",
-            query = "SELECT i FROM ItemElement i WHERE i.sortOrder = :sortOrder"),})
+            query = "SELECT i FROM ItemElement i WHERE i.sortOrder = :sortOrder"),
+    @NamedQuery(name = "ItemElement.findByIdListFetchItems",
+            query = "SELECT DISTINCT ie FROM ItemElement ie "
+                    + "JOIN FETCH ie.parentItem "
+                    + "LEFT JOIN FETCH ie.containedItem1 "
+                    + "LEFT JOIN FETCH ie.containedItem2 "
+                    + "WHERE ie.id IN :idList"),})
 @JsonIgnoreProperties(value = {
     "itemCanHaveInventoryItem",
     "catalogDisplayString",
@@ -89,7 +95,8 @@ import org.primefaces.model.TreeNode;
     "parentItem",
     "containedItem",
     "containedItem2",
-    "markedForDeletion"
+    "markedForDeletion",
+    "storedName"
 })
 public class ItemElement extends CdbDomainEntity implements Serializable {
 
@@ -271,6 +278,15 @@ public class ItemElement extends CdbDomainEntity implements Serializable {
         this.name = name;
     }
 
+    /**
+     * @return value of the name column, without the name of the derived from
+     * element used when it is empty
+     */
+    @XmlTransient
+    public String getStoredName() {
+        return name;
+    }
+
     public Boolean getIsRequired() {
         return isRequired;
     }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.model.db.entities;
+
+import java.io.Serializable;
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+/**
+ * Indexed copy of a property value or property metadata value assigned to the
+ * self element of an item. Rows are maintained by database triggers on
+ * property value, property metadata and item element property changes, and
+ * are only used for filtering and sorting item lists.
+ *
+ * Property values are stored with an empty metadata key.
+ */
+@Entity
+@Table(name = "item_property_index")
+public class ItemPropertyIndex implements Serializable {
+
+    public static final String PROPERTY_VALUE_METADATA_KEY = "";
+
+    private static final long serialVersionUID = 1L;
+    @Id
+    @Basic(optional = false)
+    private Integer id;
+    @JoinColumn(name = "item_id", referencedColumnName = "id")
+    @ManyToOne(optional = false)
+    private Item item;
+    @JoinColumn(name = "property_type_id", referencedColumnName = "id")
+    @ManyToOne(optional = false)
+    private PropertyType propertyType;
+    @Column(name = "property_value_id")
+    private Integer propertyValueId;
+    @Column(name = "metadata_key")
+    private String metadataKey;
+    private String value;
+
+    public ItemPropertyIndex() {
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Item getItem() {
+        return item;
+    }
+
+    public PropertyType getPropertyType() {
+        return propertyType;
+    }
+
+    public Integer getPropertyValueId() {
+        return propertyValueId;
+    }
+
+    public String getMetadataKey() {
+        return metadataKey;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        hash += (id != null ? id.hashCode() : 0);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof ItemPropertyIndex)) {
+            return false;
+        }
+        ItemPropertyIndex other = (ItemPropertyIndex) object;
+        if ((this.id == null && other.id != null) || (this.id != null && !this.id.equals(other.id))) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "gov.anl.aps.cdb.portal.model.db.entities.ItemPropertyIndex[ id=" + id + " ]";
+    }
+
+}
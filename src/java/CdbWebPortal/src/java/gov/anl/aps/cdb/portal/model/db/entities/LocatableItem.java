@@ -31,6 +31,8 @@ public abstract class LocatableItem extends Item {
 
     // Needed to determine whenever location was removed in edit process. 
     private transient Boolean originalLocationLoaded = false;
+    // Location relationship modified by the pending save
+    private transient boolean locationChanged = false;
     
     public void resetLocationVariables() {
         locationTree = null;
@@ -92,6 +94,15 @@ public abstract class LocatableItem extends Item {
         this.locationMenuModel = locationMenuModel;
     }
 
+    @JsonIgnore
+    public boolean isLocationChanged() {
+        return locationChanged;
+    }
+
+    public void setLocationChanged(boolean locationChanged) {
+        this.locationChanged = locationChanged;
+    }
+
     @JsonIgnore
     public Boolean getOriginalLocationLoaded() {
         return originalLocationLoaded;
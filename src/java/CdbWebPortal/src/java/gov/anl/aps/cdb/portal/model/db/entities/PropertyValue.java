@@ -162,6 +162,7 @@ public class PropertyValue extends PropertyValueBase implements Serializable {
 
     public void setValue(String value) {
         this.booleanValue = null;
+        this.handlerInfoSet = false;
         this.value = value;
     }
 
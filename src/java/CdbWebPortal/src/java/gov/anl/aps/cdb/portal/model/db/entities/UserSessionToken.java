@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.model.db.entities;
+
+import java.io.Serializable;
+import java.util.Date;
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Persisted REST API session. Only a hash of the token is stored.
+ */
+@Entity
+@Table(name = "user_session_token")
+@XmlRootElement
+@NamedQueries({
+    @NamedQuery(name = "UserSessionToken.findByTokenHash", query = "SELECT u FROM UserSessionToken u WHERE u.tokenHash = :tokenHash"),
+    @NamedQuery(name = "UserSessionToken.findByUserOrderByCreatedOnDesc", query = "SELECT u FROM UserSessionToken u WHERE u.user.id = :userId ORDER BY u.createdOnDateTime DESC, u.id DESC"),
+    @NamedQuery(name = "UserSessionToken.deleteByTokenHash", query = "DELETE FROM UserSessionToken u WHERE u.tokenHash = :tokenHash"),
+    @NamedQuery(name = "UserSessionToken.deleteExpired", query = "DELETE FROM UserSessionToken u WHERE u.expirationDateTime <= :currentDateTime")})
+public class UserSessionToken extends CdbEntity implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Basic(optional = false)
+    private Integer id;
+    @Basic(optional = false)
+    @NotNull
+    @Size(min = 64, max = 64)
+    @Column(name = "token_hash")
+    private String tokenHash;
+    @JoinColumn(name = "user_id", referencedColumnName = "id")
+    @ManyToOne(optional = false)
+    private UserInfo user;
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "created_on_date_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdOnDateTime;
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "expiration_date_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date expirationDateTime;
+
+    public UserSessionToken() {
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public UserInfo getUser() {
+        return user;
+    }
+
+    public void setUser(UserInfo user) {
+        this.user = user;
+    }
+
+    public Date getCreatedOnDateTime() {
+        return createdOnDateTime;
+    }
+
+    public void setCreatedOnDateTime(Date createdOnDateTime) {
+        this.createdOnDateTime = createdOnDateTime;
+    }
+
+    public Date getExpirationDateTime() {
+        return expirationDateTime;
+    }
+
+    public void setExpirationDateTime(Date expirationDateTime) {
+        this.expirationDateTime = expirationDateTime;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        hash += (id != null ? id.hashCode() : 0);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof UserSessionToken)) {
+            return false;
+        }
+        UserSessionToken other = (UserSessionToken) object;
+        if ((this.id == null && other.id != null) || (this.id != null && !this.id.equals(other.id))) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "gov.anl.aps.cdb.portal.model.db.entities.UserSessionToken[ id=" + id + " ]";
+    }
+
+}
@@ -129,8 +129,10 @@ public class ItemElementUtility {
 
     public static List<ItemHierarchyCache> generateItemHierarchyCacheList(List<Item> itemList) {
         List<ItemHierarchyCache> itemHierarchyCaches = new ArrayList<>();
+        ItemHierarchyLoader loader = new ItemHierarchyLoader();
+        loader.load(itemList, false, ItemHierarchyLoader.getConfiguredMaxDepth());
         for (Item item : itemList) {
-            ItemHierarchyCache ihc = new ItemHierarchyCache(item);
+            ItemHierarchyCache ihc = new ItemHierarchyCache(item, loader);
             itemHierarchyCaches.add(ihc);
         }
 
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.model.db.utilities;
+
+import gov.anl.aps.cdb.common.constants.CdbProperty;
+import gov.anl.aps.cdb.portal.model.db.beans.ItemElementFacade;
+import gov.anl.aps.cdb.portal.model.db.entities.Item;
+import gov.anl.aps.cdb.portal.model.db.entities.ItemElement;
+import gov.anl.aps.cdb.portal.utilities.ConfigurationUtility;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads item hierarchies level by level, with one IN (...) query per level
+ * instead of one query per item.
+ *
+ * Element lists of the loaded items are assembled in memory and assigned to
+ * the loaded item instances, so the usual entity getters can be used to walk
+ * the hierarchy. Items beyond the depth limit load their elements on demand.
+ */
+public class ItemHierarchyLoader {
+
+    private static final int DEFAULT_MAX_DEPTH = 50;
+
+    private static Integer configuredMaxDepth = null;
+
+    // items with loaded element lists
+    private final Map<Integer, Item> loadedItemMap = new HashMap<>();
+    // items with loaded membership lists
+    private final Map<Integer, Item> loadedMemberItemMap = new HashMap<>();
+
+    public ItemHierarchyLoader() {
+    }
+
+    /**
+     * @return number of levels loaded up front, one query per level, as
+     * configured by cdb.portal.hierarchy.maxDepth
+     */
+    public static int getConfiguredMaxDepth() {
+        if (configuredMaxDepth == null) {
+            Integer maxDepth = ConfigurationUtility.getPortalPropertyAsInteger(
+                    CdbProperty.HIERARCHY_MAX_DEPTH_PROPERTY_NAME);
+            configuredMaxDepth = (maxDepth != null && maxDepth > 0) ? maxDepth : DEFAULT_MAX_DEPTH;
+        }
+        return configuredMaxDepth;
+    }
+
+    public static ItemHierarchyLoader loadHierarchy(Item rootItem) {
+        ItemHierarchyLoader loader = new ItemHierarchyLoader();
+        loader.load(Collections.singletonList(rootItem), false, getConfiguredMaxDepth());
+        return loader;
+    }
+
+    public static ItemHierarchyLoader loadAncestors(Item item) {
+        ItemHierarchyLoader loader = new ItemHierarchyLoader();
+        loader.loadMemberships(item, getConfiguredMaxDepth());
+        return loader;
+    }
+
+    /**
+     * Loads elements of the specified items and their contained items. Items
+     * that have already been loaded are skipped.
+     *
+     * @param items root items of the hierarchies
+     * @param followAssignedItems also load items assigned to machine design
+     * @param maxDepth number of levels of items whose elements are loaded
+     */
+    public void load(Collection<? extends Item> items, boolean followAssignedItems, int maxDepth) {
+        List<Integer> itemIdList = new ArrayList<>();
+        for (Item item : items) {
+            if (item != null) {
+                itemIdList.add(item.getId());
+            }
+        }
+        loadById(itemIdList, followAssignedItems, maxDepth);
+    }
+
+    /**
+     * Same as load() for items identified by id.
+     */
+    public void loadById(Collection<Integer> itemIdList, boolean followAssignedItems, int maxDepth) {
+        Set<Integer> rootIdSet = new LinkedHashSet<>();
+        for (Integer itemId : itemIdList) {
+            if (itemId != null && !loadedItemMap.containsKey(itemId)) {
+                rootIdSet.add(itemId);
+            }
+        }
+        if (rootIdSet.isEmpty()) {
+            return;
+        }
+
+        List<ItemElement> elementList = ItemElementFacade.getInstance()
+                .findHierarchyElementList(rootIdSet, maxDepth, followAssignedItems);
+
+        // elements are ordered by parent item and sort order
+        Map<Integer, Item> parentItemMap = new LinkedHashMap<>();
+        Map<Integer, List<ItemElement>> elementListMap = new HashMap<>();
+        for (ItemElement element : elementList) {
+            Item parentItem = element.getParentItem();
+            parentItemMap.putIfAbsent(parentItem.getId(), parentItem);
+            elementListMap.computeIfAbsent(parentItem.getId(), id -> new ArrayList<>()).add(element);
+        }
+
+        for (Item parentItem : parentItemMap.values()) {
+            if (loadedItemMap.containsKey(parentItem.getId())) {
+                continue;
+            }
+            parentItem.setFullItemElementList(elementListMap.get(parentItem.getId()));
+            parentItem.resetItemElementVars();
+            loadedItemMap.put(parentItem.getId(), parentItem);
+        }
+    }
+
+    /**
+     * Loads memberships of the specified item and of all items containing it.
+     */
+    public void loadMemberships(Item item, int maxDepth) {
+        if (item == null || item.getId() == null || loadedMemberItemMap.containsKey(item.getId())) {
+            return;
+        }
+
+        List<ItemElement> elementList = ItemElementFacade.getInstance()
+                .findAncestorMembershipElementList(item.getId(), maxDepth);
+
+        Map<Integer, Item> itemMap = new HashMap<>();
+        Map<Integer, List<ItemElement>> memberListMap = new HashMap<>();
+        Map<Integer, List<ItemElement>> memberList2Map = new HashMap<>();
+        for (ItemElement element : elementList) {
+            Item parentItem = element.getParentItem();
+            itemMap.putIfAbsent(parentItem.getId(), parentItem);
+            Item containedItem1 = element.getContainedItem();
+            if (containedItem1 != null) {
+                itemMap.putIfAbsent(containedItem1.getId(), containedItem1);
+                memberListMap.computeIfAbsent(containedItem1.getId(), id -> new ArrayList<>()).add(element);
+            }
+            Item containedItem2 = element.getContainedItem2();
+            if (containedItem2 != null) {
+                itemMap.putIfAbsent(containedItem2.getId(), containedItem2);
+                memberList2Map.computeIfAbsent(containedItem2.getId(), id -> new ArrayList<>()).add(element);
+            }
+        }
+
+        // walk up the same number of levels as the query did to find the
+        // items whose memberships are complete
+        Set<Integer> queriedIdSet = new HashSet<>();
+        Set<Integer> levelIdSet = Collections.singleton(item.getId());
+        for (int depth = 0; depth < maxDepth && !levelIdSet.isEmpty(); depth++) {
+            Set<Integer> nextLevelIdSet = new HashSet<>();
+            for (Integer itemId : levelIdSet) {
+                if (!queriedIdSet.add(itemId)) {
+                    continue;
+                }
+                for (ItemElement element : memberListMap.getOrDefault(itemId, Collections.emptyList())) {
+                    nextLevelIdSet.add(element.getParentItem().getId());
+                }
+                for (ItemElement element : memberList2Map.getOrDefault(itemId, Collections.emptyList())) {
+                    nextLevelIdSet.add(element.getParentItem().getId());
+                }
+            }
+            levelIdSet = nextLevelIdSet;
+        }
+
+        for (Integer itemId : queriedIdSet) {
+            Item queriedItem = itemMap.get(itemId);
+            if (queriedItem == null || loadedMemberItemMap.containsKey(itemId)) {
+                continue;
+            }
+            queriedItem.setItemElementMemberList(memberListMap.getOrDefault(itemId, new ArrayList<>()));
+            queriedItem.setItemElementMemberList2(memberList2Map.getOrDefault(itemId, new ArrayList<>()));
+            loadedMemberItemMap.put(itemId, queriedItem);
+        }
+    }
+
+    public boolean isLoaded(Item item) {
+        return item != null && item.getId() != null && loadedItemMap.containsKey(item.getId());
+    }
+
+    /**
+     * @return loaded instance of the item, or the item itself if it has not
+     * been loaded
+     */
+    public <ItemType extends Item> ItemType getLoadedItem(ItemType item) {
+        if (item == null || item.getId() == null) {
+            return item;
+        }
+        Item loadedItem = loadedItemMap.get(item.getId());
+        if (loadedItem == null) {
+            loadedItem = loadedMemberItemMap.get(item.getId());
+        }
+        if (item.getClass().isInstance(loadedItem)) {
+            return (ItemType) loadedItem;
+        }
+        return item;
+    }
+
+    public List<ItemElement> getItemElementDisplayList(Item item) {
+        return getLoadedItem(item).getItemElementDisplayList();
+    }
+
+}
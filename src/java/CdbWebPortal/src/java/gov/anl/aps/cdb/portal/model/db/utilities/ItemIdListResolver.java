@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.model.db.utilities;
+
+import gov.anl.aps.cdb.portal.model.db.beans.ItemDomainMachineDesignFacade;
+import gov.anl.aps.cdb.portal.model.db.beans.ItemFacadeBase;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves lists of item names to item ids for the IdList REST endpoints.
+ *
+ * Candidates for all names are selected with a few union queries. The
+ * database matches each name with the items that have it, under the
+ * collation of the name column, so the result is the same as looking up each
+ * name on its own.
+ */
+public class ItemIdListResolver {
+
+    // no item with the name
+    public static final int NO_MATCHING_ITEM_ID = 0;
+    // more than one item with the name
+    public static final int MULTIPLE_MATCHING_ITEMS_ID = -1;
+
+    private ItemIdListResolver() {
+    }
+
+    /**
+     * @return for each name the id of the only item of the facade domain
+     * with the name, 0 if there is none or the name is blank, and -1 if
+     * there are several
+     */
+    public static List<Integer> resolveIdList(ItemFacadeBase<?> itemFacade, List<String> nameList) {
+        Map<String, List<Integer>> nameIdListMap = itemFacade.findIdListByDomainAndNames(
+                itemFacade.getDomainName(), getNonblankNameSet(nameList));
+        return matchIdList(nameList, nameIdListMap);
+    }
+
+    /**
+     * @param nameIdListMap ids of the items matched by each name
+     */
+    public static List<Integer> matchIdList(List<String> nameList, Map<String, List<Integer>> nameIdListMap) {
+        List<Integer> idList = new ArrayList<>(nameList.size());
+        for (String name : nameList) {
+            List<Integer> matchingIdList = null;
+            if (!isBlank(name)) {
+                matchingIdList = nameIdListMap.get(name);
+            }
+            idList.add(getResultId(matchingIdList));
+        }
+        return idList;
+    }
+
+    /**
+     * Resolves machine design names within a container, such as a rack, of
+     * the hierarchy under the named top level machine design. Items are
+     * found by name, or by alternate name when no item has the name.
+     *
+     * @return for each pair of item and container name the id of the only
+     * matching item, 0 if there is none or a name is blank, and -1 if there
+     * are several
+     */
+    public static List<Integer> resolveMachineDesignIdList(ItemDomainMachineDesignFacade facade,
+            String rootName, List<String> itemNames, List<String> containerNames) {
+        Set<String> itemNameSet = new LinkedHashSet<>();
+        for (int index = 0; index < itemNames.size(); index++) {
+            if (!isBlank(itemNames.get(index)) && !isBlank(containerNames.get(index))) {
+                itemNameSet.add(itemNames.get(index));
+            }
+        }
+
+        String domainName = facade.getDomainName();
+        Map<String, List<Integer>> nameIdListMap = facade.findIdListByDomainAndNames(domainName, itemNameSet);
+
+        Set<String> unmatchedNameSet = new LinkedHashSet<>();
+        for (String itemName : itemNameSet) {
+            if (!nameIdListMap.containsKey(itemName)) {
+                unmatchedNameSet.add(itemName);
+            }
+        }
+        Map<String, List<Integer>> alternateNameIdListMap = new HashMap<>();
+        if (!unmatchedNameSet.isEmpty()) {
+            alternateNameIdListMap = facade.findIdListByDomainAndItemIdentifier1s(domainName, unmatchedNameSet);
+        }
+
+        Set<Integer> candidateIdSet = new HashSet<>();
+        for (List<Integer> candidateIdList : nameIdListMap.values()) {
+            candidateIdSet.addAll(candidateIdList);
+        }
+        for (List<Integer> candidateIdList : alternateNameIdListMap.values()) {
+            candidateIdSet.addAll(candidateIdList);
+        }
+        List<Object[]> parentRowList = facade.findParentMachineDesignAttributeList(candidateIdSet);
+
+        return matchHierarchyIdList(rootName, itemNames, containerNames,
+                nameIdListMap, alternateNameIdListMap, parentRowList);
+    }
+
+    /**
+     * @param nameIdListMap ids of the items matched by each name
+     * @param alternateNameIdListMap ids of the items whose alternate name
+     * matched each name, used for names no item has
+     * @param parentRowList rows of item id, parent item id, parent name and
+     * parent alternate name; the first row of an item is its parent
+     */
+    public static List<Integer> matchHierarchyIdList(String rootName, List<String> itemNames, List<String> containerNames,
+            Map<String, List<Integer>> nameIdListMap, Map<String, List<Integer>> alternateNameIdListMap,
+            List<Object[]> parentRowList) {
+        Map<Integer, Integer> parentIdMap = new HashMap<>();
+        Map<Integer, String> parentNameMap = new HashMap<>();
+        Map<Integer, String> parentAlternateNameMap = new HashMap<>();
+        for (Object[] parentRow : parentRowList) {
+            Integer parentId = (Integer) parentRow[1];
+            parentIdMap.putIfAbsent((Integer) parentRow[0], parentId);
+            parentNameMap.put(parentId, (String) parentRow[2]);
+            parentAlternateNameMap.put(parentId, parentRow[3] != null ? (String) parentRow[3] : "");
+        }
+
+        List<Integer> idList = new ArrayList<>(itemNames.size());
+        for (int index = 0; index < itemNames.size(); index++) {
+            String itemName = itemNames.get(index);
+            String containerName = containerNames.get(index);
+            if (isBlank(itemName) || isBlank(containerName)) {
+                idList.add(NO_MATCHING_ITEM_ID);
+                continue;
+            }
+
+            List<Integer> candidateIdList = nameIdListMap.get(itemName);
+            if (candidateIdList == null) {
+                candidateIdList = alternateNameIdListMap.get(itemName);
+            }
+
+            List<Integer> matchingIdList = new ArrayList<>();
+            if (candidateIdList != null) {
+                for (Integer candidateId : candidateIdList) {
+                    if (isInHierarchy(candidateId, rootName, containerName,
+                            parentIdMap, parentNameMap, parentAlternateNameMap)) {
+                        matchingIdList.add(candidateId);
+                    }
+                }
+            }
+            idList.add(getResultId(matchingIdList));
+        }
+        return idList;
+    }
+
+    /**
+     * Walks up to the top level parent of the item, which must have the root
+     * name, while looking for a parent with the container name or alternate
+     * name.
+     */
+    private static boolean isInHierarchy(Integer itemId, String rootName, String containerName,
+            Map<Integer, Integer> parentIdMap, Map<Integer, String> parentNameMap,
+            Map<Integer, String> parentAlternateNameMap) {
+        boolean foundContainer = false;
+        Set<Integer> visitedIdSet = new HashSet<>();
+        Integer parentId = parentIdMap.get(itemId);
+        while (parentId != null && visitedIdSet.add(parentId)) {
+            String parentName = parentNameMap.get(parentId);
+            if (containerName.equals(parentName) || containerName.equals(parentAlternateNameMap.get(parentId))) {
+                foundContainer = true;
+            }
+
+            Integer grandparentId = parentIdMap.get(parentId);
+            if (grandparentId == null) {
+                return foundContainer && rootName.equals(parentName);
+            }
+            parentId = grandparentId;
+        }
+        return false;
+    }
+
+    private static Set<String> getNonblankNameSet(List<String> nameList) {
+        Set<String> nameSet = new LinkedHashSet<>();
+        for (String name : nameList) {
+            if (!isBlank(name)) {
+                nameSet.add(name);
+            }
+        }
+        return nameSet;
+    }
+
+    private static int getResultId(List<Integer> matchingIdList) {
+        if (matchingIdList == null || matchingIdList.isEmpty()) {
+            return NO_MATCHING_ITEM_ID;
+        } else if (matchingIdList.size() > 1) {
+            return MULTIPLE_MATCHING_ITEMS_ID;
+        }
+        return matchingIdList.get(0);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.model.db.utilities;
+
+import gov.anl.aps.cdb.common.exceptions.InvalidObjectState;
+import gov.anl.aps.cdb.common.exceptions.ObjectAlreadyExists;
+import gov.anl.aps.cdb.portal.model.db.beans.ItemElementFacade;
+import gov.anl.aps.cdb.portal.model.db.beans.ItemFacadeBase;
+import gov.anl.aps.cdb.portal.model.db.entities.Domain;
+import gov.anl.aps.cdb.portal.model.db.entities.Item;
+import gov.anl.aps.cdb.portal.model.db.entities.ItemElement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Validates the unique attributes of the items of a bulk write as a set.
+ *
+ * Performs the checks of the check_item() and check_item_element() database
+ * functions with one query per chunk of items instead of one lookup per
+ * written row. Items repeated within the set, which the triggers reject when
+ * the later row is written, are found by the database as well, so that all
+ * strings are compared with the collation of the item columns.
+ */
+public class ItemUniquenessValidator {
+
+    public static final String IDENTIFIER1_NOT_ALLOWED_MESSAGE = "Item_identifier1 cannot be specified for item of this domain";
+    public static final String IDENTIFIER2_NOT_ALLOWED_MESSAGE = "Item_identifier2 cannot be specified for item of this domain";
+    public static final String NONUNIQUE_ITEM_ELEMENT_MESSAGE = "Item element is not unque, please update: name, parent item, or derived from item element attribute.";
+
+    private ItemUniquenessValidator() {
+    }
+
+    /**
+     * @return error reported by is_item_attributes_valid() for identifiers
+     * the domain of the item does not have, or null
+     */
+    public static String getInvalidAttributesMessage(Item item) {
+        Domain domain = item.getDomain();
+        String errorMessage = null;
+        if (getIdentifier1Label(domain) == null && !isEmpty(item.getItemIdentifier1())) {
+            errorMessage = IDENTIFIER1_NOT_ALLOWED_MESSAGE;
+        }
+        if (getIdentifier2Label(domain) == null && !isEmpty(item.getItemIdentifier2())) {
+            errorMessage = IDENTIFIER2_NOT_ALLOWED_MESSAGE;
+        }
+        return errorMessage;
+    }
+
+    /**
+     * @throws InvalidObjectState for the first item with identifiers its
+     * domain does not have
+     */
+    public static void checkItemAttributes(List<? extends Item> items) throws InvalidObjectState {
+        for (Item item : items) {
+            String errorMessage = getInvalidAttributesMessage(item);
+            if (errorMessage != null) {
+                throw new InvalidObjectState("Item " + item + ": " + errorMessage);
+            }
+        }
+    }
+
+    /**
+     * @param items items to be written
+     * @param itemFacade facade used to compare the items with stored items
+     * @return indexes, in ascending order, of items matching a stored item or
+     * an item earlier in the list
+     */
+    public static List<Integer> findNonuniqueItemIndexList(List<? extends Item> items, ItemFacadeBase<?> itemFacade) {
+        Set<Integer> indexSet = new TreeSet<>(itemFacade.findRepeatedItemIndexSet(items));
+        indexSet.addAll(itemFacade.findNonuniqueItemIndexSet(items));
+        return new ArrayList<>(indexSet);
+    }
+
+    /**
+     * @return elements of the items, in order
+     */
+    public static List<ItemElement> getItemElementList(List<? extends Item> items) {
+        List<ItemElement> elementList = new ArrayList<>();
+        for (Item item : items) {
+            List<ItemElement> fullElementList = item.getFullItemElementList();
+            if (fullElementList != null) {
+                elementList.addAll(fullElementList);
+            }
+        }
+        return elementList;
+    }
+
+    /**
+     * @throws ObjectAlreadyExists for the first element of the items that
+     * matches a stored element or an element earlier in the list
+     */
+    public static void checkItemElements(List<? extends Item> items, ItemElementFacade itemElementFacade) throws ObjectAlreadyExists {
+        List<ItemElement> elementList = getItemElementList(items);
+        Set<Integer> indexSet = new TreeSet<>(itemElementFacade.findRepeatedItemElementIndexSet(elementList));
+        indexSet.addAll(itemElementFacade.findNonuniqueItemElementIndexSet(elementList));
+        if (!indexSet.isEmpty()) {
+            ItemElement itemElement = elementList.get(indexSet.iterator().next());
+            throw new ObjectAlreadyExists("Item " + itemElement.getParentItem() + ": " + NONUNIQUE_ITEM_ELEMENT_MESSAGE);
+        }
+    }
+
+    private static String getIdentifier1Label(Domain domain) {
+        return domain != null ? domain.getItemIdentifier1Label() : null;
+    }
+
+    private static String getIdentifier2Label(Domain domain) {
+        return domain != null ? domain.getItemIdentifier2Label() : null;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+}
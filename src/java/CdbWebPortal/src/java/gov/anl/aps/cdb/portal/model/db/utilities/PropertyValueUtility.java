@@ -15,7 +15,9 @@ import gov.anl.aps.cdb.portal.model.jsf.handlers.PropertyTypeHandlerInterface;
 import gov.anl.aps.cdb.portal.utilities.GalleryUtility;
 import gov.anl.aps.cdb.portal.utilities.SearchResult;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -113,6 +115,49 @@ public class PropertyValueUtility {
         return PropertyTypeHandlerFactory.getHandler(propertyValue);
     }
 
+    /**
+     * Configure display of property values that have not been configured
+     * yet, resolving values of each handler with a single call.
+     *
+     * @param propertyValues property values of any types
+     */
+    public static void configurePropertyValueDisplay(Collection<PropertyValue> propertyValues) {
+        if (propertyValues == null) {
+            return;
+        }
+        List<PropertyValue> unconfiguredList = new ArrayList<>();
+        for (PropertyValue propertyValue : propertyValues) {
+            if (propertyValue != null && !propertyValue.isHandlerInfoSet()) {
+                unconfiguredList.add(propertyValue);
+            }
+        }
+        if (unconfiguredList.isEmpty()) {
+            return;
+        }
+
+        Map<PropertyTypeHandlerInterface, List<PropertyValue>> handlerValueMap
+                = PropertyTypeHandlerFactory.groupByHandler(unconfiguredList);
+        for (Map.Entry<PropertyTypeHandlerInterface, List<PropertyValue>> entry : handlerValueMap.entrySet()) {
+            PropertyTypeHandlerInterface propertyTypeHandler = entry.getKey();
+            List<PropertyValue> handlerValueList = entry.getValue();
+            propertyTypeHandler.setDisplayValues(handlerValueList);
+            propertyTypeHandler.setTargetValues(handlerValueList);
+            for (PropertyValue propertyValue : handlerValueList) {
+                propertyTypeHandler.setInfoActionCommand(propertyValue);
+                PropertyType propertyType = propertyValue.getPropertyType();
+                DisplayType displayType = propertyTypeHandler.getValueDisplayType();
+                if (displayType == null) {
+                    displayType = DisplayType.FREE_FORM_TEXT;
+                    if (propertyType.hasAllowedPropertyValues()) {
+                        displayType = DisplayType.SELECTED_TEXT;
+                    }
+                }
+                propertyType.setDisplayType(displayType);
+                propertyValue.setHandlerInfoSet(true);
+            }
+        }
+    }
+
     public static DisplayType configurePropertyValueDisplay(PropertyValue propertyValue) {
         PropertyTypeHandlerInterface propertyTypeHandler = PropertyTypeHandlerFactory.getHandler(propertyValue);
         propertyTypeHandler.setDisplayValue(propertyValue);
@@ -9,7 +9,7 @@ import gov.anl.aps.cdb.common.utilities.FileUtility;
 import gov.anl.aps.cdb.portal.model.db.beans.PropertyTypeHandlerFacade;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyType;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyTypeHandler;
-import gov.anl.aps.cdb.portal.utilities.GalleryUtility;
+import gov.anl.aps.cdb.portal.utilities.PreviewGenerationService;
 import gov.anl.aps.cdb.portal.utilities.SessionUtility;
 import gov.anl.aps.cdb.portal.utilities.StorageUtility;
 import java.io.File;
@@ -19,7 +19,6 @@ import java.io.Serializable;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
 import javax.enterprise.context.SessionScoped;
 import javax.inject.Named;
@@ -73,7 +72,12 @@ public class PropertyValueDocumentUploadBean implements Serializable {
         }
     }
 
-    public static void uploadDocument(PropertyValue propertyValue, String filename, InputStream input) throws IOException {
+    /**
+     * Stores the uploaded document and its previews.
+     *
+     * @return SHA-256 digest of the uploaded file
+     */
+    public static byte[] uploadDocument(PropertyValue propertyValue, String filename, InputStream input) throws IOException {
         Path uploadDirPath;
         String uploadedExtension = FileUtility.getFileExtension(filename);
         uploadDirPath = Paths.get(StorageUtility.getFileSystemPropertyValueDocumentsDirectory());
@@ -86,13 +90,14 @@ public class PropertyValueDocumentUploadBean implements Serializable {
         
         String originalExtension = "." + uploadedExtension;
         File originalFile = File.createTempFile("document.", originalExtension, uploadDir);
-        Files.copy(input, originalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        byte[] contentDigest = StorageUtility.storeFile(input, originalFile.toPath());
         logger.debug("Saved file: " + originalFile.toPath());
 
-        GalleryUtility.storeImagePreviews(originalFile, uploadedExtension);
+        PreviewGenerationService.getInstance().generatePreviews(originalFile, uploadedExtension);
 
         propertyValue.setValue(originalFile.getName());
 
+        return contentDigest;
     }
 
     public void handleSingleFileUpload(FileUploadEvent event) {
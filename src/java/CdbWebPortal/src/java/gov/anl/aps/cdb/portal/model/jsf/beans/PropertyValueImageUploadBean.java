@@ -15,7 +15,7 @@ import gov.anl.aps.cdb.portal.model.db.beans.PropertyTypeFacade;
 import gov.anl.aps.cdb.portal.model.db.beans.PropertyTypeHandlerFacade;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyType;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyTypeHandler;
-import gov.anl.aps.cdb.portal.utilities.GalleryUtility;
+import gov.anl.aps.cdb.portal.utilities.PreviewGenerationService;
 import gov.anl.aps.cdb.portal.utilities.SessionUtility;
 import gov.anl.aps.cdb.portal.utilities.StorageUtility;
 import java.io.File;
@@ -25,7 +25,6 @@ import java.io.Serializable;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import javax.enterprise.context.SessionScoped;
@@ -82,7 +81,12 @@ public class PropertyValueImageUploadBean implements Serializable {
 
     }
 
-    public static void uploadImage(PropertyValue propertyValue, String fileName, InputStream input) throws IOException {
+    /**
+     * Stores the uploaded image and its previews.
+     *
+     * @return SHA-256 digest of the uploaded file
+     */
+    public static byte[] uploadImage(PropertyValue propertyValue, String fileName, InputStream input) throws IOException {
         Path uploadDirPath;
         String uploadedExtension = FileUtility.getFileExtension(fileName);
 
@@ -101,11 +105,13 @@ public class PropertyValueImageUploadBean implements Serializable {
         }
         File originalFile = File.createTempFile(CdbPropertyValue.IMAGE_PREFIX, originalExtension, uploadDir);
         String baseName = originalFile.getName().replace(CdbPropertyValue.ORIGINAL_IMAGE_EXTENSION, "");
-        Files.copy(input, originalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        byte[] contentDigest = StorageUtility.storeFile(input, originalFile.toPath());
         logger.debug("Saved file: " + originalFile.toPath());
-        GalleryUtility.storeImagePreviews(originalFile);
+        PreviewGenerationService.getInstance().generatePreviews(originalFile, null);
         propertyValue.setValue(baseName);
         logger.debug("Uploaded file name: " + fileName);        
+
+        return contentDigest;
     }
     
     public static PropertyType getImagePropertyType(PropertyTypeHandlerFacade pthf) {
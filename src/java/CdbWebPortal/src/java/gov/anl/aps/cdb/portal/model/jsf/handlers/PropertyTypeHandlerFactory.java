@@ -7,7 +7,12 @@ package gov.anl.aps.cdb.portal.model.jsf.handlers;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyTypeHandler;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyValue;
 import gov.anl.aps.cdb.portal.plugins.CdbPluginManager; 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Property type handler factory.
@@ -59,4 +64,20 @@ public class PropertyTypeHandlerFactory {
         }
         return getHandler(propertyTypeHandlerName);
     }
+
+    /**
+     * Group property values by their handler, keeping the order of values.
+     *
+     * @param propertyValues property values of any types
+     * @return property values of each handler
+     */
+    public static Map<PropertyTypeHandlerInterface, List<PropertyValue>> groupByHandler(Collection<PropertyValue> propertyValues) {
+        // handlers are shared instances
+        Map<PropertyTypeHandlerInterface, List<PropertyValue>> handlerValueMap = new LinkedHashMap<>();
+        for (PropertyValue propertyValue : propertyValues) {
+            PropertyTypeHandlerInterface handler = getHandler(propertyValue);
+            handlerValueMap.computeIfAbsent(handler, h -> new ArrayList<>()).add(propertyValue);
+        }
+        return handlerValueMap;
+    }
 }
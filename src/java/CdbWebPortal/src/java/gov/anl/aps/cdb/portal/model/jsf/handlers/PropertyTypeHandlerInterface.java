@@ -119,6 +119,31 @@ public interface PropertyTypeHandlerInterface {
      */
     public abstract void setTargetValue(PropertyValueHistory propertyValueHistory);
 
+    /**
+     * Update display values of several property values at once.
+     *
+     * Handlers that fetch display values from an external system should
+     * override this method to look up all values with a single request.
+     *
+     * @param propertyValueList property values using this handler
+     */
+    public default void setDisplayValues(List<PropertyValue> propertyValueList) {
+        for (PropertyValue propertyValue : propertyValueList) {
+            setDisplayValue(propertyValue);
+        }
+    }
+
+    /**
+     * Same as setDisplayValues() for target values.
+     *
+     * @param propertyValueList property values using this handler
+     */
+    public default void setTargetValues(List<PropertyValue> propertyValueList) {
+        for (PropertyValue propertyValue : propertyValueList) {
+            setTargetValue(propertyValue);
+        }
+    }
+
     /**
      * Allows for specifying a custom edit fragment that is placed on the value
      * section while editing a property value.
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.utilities;
+
+import javax.ejb.Asynchronous;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+
+/**
+ * Numbers committed changes of the entity change feed and checks its
+ * subscribers on container managed threads: right after this node commits
+ * changes, and every two seconds for changes committed by other nodes.
+ * Runs are one at a time.
+ */
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class EntityChangeDispatcher {
+
+    public static EntityChangeDispatcher getInstance() {
+        return (EntityChangeDispatcher) SessionUtility.findFacade(EntityChangeDispatcher.class.getSimpleName());
+    }
+
+    @Asynchronous
+    public void dispatchChanges() {
+        EntityChangeFeed feed = EntityChangeFeed.getInstance();
+        feed.assignSequenceNumbers();
+        feed.dispatchChanges();
+    }
+
+    @Schedule(second = "*/2", minute = "*", hour = "*", persistent = false)
+    public void dispatchChangesPeriodically() {
+        EntityChangeFeed feed = EntityChangeFeed.getInstance();
+        feed.assignSequenceNumbers();
+        feed.dispatchChanges();
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.utilities;
+
+import gov.anl.aps.cdb.portal.constants.EntityChangeType;
+import gov.anl.aps.cdb.portal.model.db.beans.EntityChangeFacade;
+import gov.anl.aps.cdb.portal.model.db.entities.CdbEntity;
+import gov.anl.aps.cdb.portal.model.db.entities.EntityChange;
+import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Records entity changes made through the controller utilities and serves
+ * them to consumers in the order they were committed.
+ *
+ * Changes are recorded in the transaction of the write that made them, so a
+ * committed change is never missing from the feed. Recording does not
+ * serialize writes; instead EntityChangeDispatcher numbers the changes once
+ * they are committed, and consumers only see numbered changes, which makes
+ * any sequence number a consumer has seen a safe cursor. Numbering and the
+ * checks of subscribers waiting for changes run when this node commits
+ * changes and periodically for changes committed by other nodes.
+ */
+public class EntityChangeFeed {
+
+    private static final Logger LOGGER = LogManager.getLogger(EntityChangeFeed.class.getName());
+
+    public static final String ITEM_ENTITY_TYPE_NAME = "item";
+    public static final String ITEM_LOCATION_ENTITY_TYPE_NAME = "itemLocation";
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String TRANSACTION_SYNCHRONIZATION_REGISTRY_LOOKUP = "java:comp/TransactionSynchronizationRegistry";
+    private static final String DISPATCH_RESOURCE_KEY = EntityChangeFeed.class.getName() + ".dispatch";
+
+    private static final EntityChangeFeed instance = new EntityChangeFeed();
+
+    private final Set<EntityChangeSubscriber> subscriberSet = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean(false);
+
+    private EntityChangeFeed() {
+    }
+
+    public static EntityChangeFeed getInstance() {
+        return instance;
+    }
+
+    /**
+     * Records changes of the entities in the current transaction, which
+     * must be the one writing them. Failures roll back the write.
+     */
+    public void recordChanges(String entityTypeName, List<? extends CdbEntity> entities,
+            EntityChangeType changeType, UserInfo userInfo) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        Integer userId = userInfo != null ? userInfo.getId() : null;
+        getChangeFacade().recordChanges(entityTypeName, entities, changeType.getValue(), new Date(), userId);
+        dispatchChangesAfterCommit();
+    }
+
+    /**
+     * @param afterSequenceNumber cursor, sequence number of the last change
+     * seen by the consumer
+     * @param entityTypeName only changes of this entity type, or null for all
+     * @param limit maximum number of changes
+     * @return changes after the cursor, in sequence order
+     */
+    public List<EntityChange> findChanges(long afterSequenceNumber, String entityTypeName, int limit) {
+        limit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return getChangeFacade().findAfterSequenceNumber(afterSequenceNumber, entityTypeName, limit);
+    }
+
+    /**
+     * @return sequence number of the latest change, the cursor of a consumer
+     * that only needs changes from now on
+     */
+    public long getLastSequenceNumber() {
+        return getChangeFacade().findLastSequenceNumber();
+    }
+
+    /**
+     * Numbers committed changes, in short transactions of their own. Called
+     * by EntityChangeDispatcher before checking subscribers.
+     */
+    public void assignSequenceNumbers() {
+        try {
+            int count;
+            do {
+                count = getChangeFacade().assignSequenceNumbers(MAX_PAGE_SIZE);
+            } while (count == MAX_PAGE_SIZE);
+        } catch (RuntimeException ex) {
+            // left for the next run
+            LOGGER.error("Could not assign change sequence numbers: " + ex);
+        }
+    }
+
+    /**
+     * Adds the subscriber and checks it for changes that are already there.
+     */
+    public void subscribe(EntityChangeSubscriber subscriber) {
+        subscriberSet.add(subscriber);
+        checkSubscriber(subscriber);
+    }
+
+    /**
+     * Checks all subscribers for new changes. Called by
+     * EntityChangeDispatcher.
+     */
+    public void dispatchChanges() {
+        dispatchRequested.set(false);
+        for (EntityChangeSubscriber subscriber : subscriberSet) {
+            checkSubscriber(subscriber);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberSet.size();
+    }
+
+    private void checkSubscriber(EntityChangeSubscriber subscriber) {
+        boolean active;
+        try {
+            active = subscriber.checkForChanges(this);
+        } catch (RuntimeException ex) {
+            LOGGER.error("Could not deliver changes to subscriber: " + ex);
+            active = false;
+        }
+        if (!active) {
+            subscriberSet.remove(subscriber);
+        }
+    }
+
+    /**
+     * Numbers the changes and wakes the subscribers once the current
+     * transaction commits. Requests made while one is pending are combined.
+     */
+    private void dispatchChangesAfterCommit() {
+        TransactionSynchronizationRegistry registry = getTransactionSynchronizationRegistry();
+        if (registry == null || registry.getResource(DISPATCH_RESOURCE_KEY) != null) {
+            return;
+        }
+        registry.putResource(DISPATCH_RESOURCE_KEY, Boolean.TRUE);
+        EntityChangeDispatcher dispatcher = EntityChangeDispatcher.getInstance();
+        if (dispatcher == null) {
+            return;
+        }
+        registry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED && dispatchRequested.compareAndSet(false, true)) {
+                    dispatcher.dispatchChanges();
+                }
+            }
+        });
+    }
+
+    private static TransactionSynchronizationRegistry getTransactionSynchronizationRegistry() {
+        try {
+            return (TransactionSynchronizationRegistry) new InitialContext().lookup(TRANSACTION_SYNCHRONIZATION_REGISTRY_LOOKUP);
+        } catch (NamingException ex) {
+            return null;
+        }
+    }
+
+    private EntityChangeFacade getChangeFacade() {
+        return EntityChangeFacade.getInstance();
+    }
+
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.utilities;
+
+/**
+ * Consumer waiting for changes of the entity change feed, such as a long
+ * poll or an event stream. Subscribers do not hold a thread while waiting;
+ * they are checked by the feed whenever changes may have been committed.
+ */
+public interface EntityChangeSubscriber {
+
+    /**
+     * Delivers the changes after the cursor of the subscriber, if there are
+     * any. May be called concurrently.
+     *
+     * @return false once the subscriber is done and can be removed from the
+     * feed
+     */
+    public boolean checkForChanges(EntityChangeFeed feed);
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.utilities;
+
+import gov.anl.aps.cdb.common.constants.CdbProperty;
+import gov.anl.aps.cdb.portal.model.db.beans.EntityChangeFacade;
+import java.util.Date;
+import javax.annotation.PostConstruct;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Removes entity change feed entries older than the retention time every
+ * night.
+ */
+@Singleton
+@Startup
+public class EntityChangeSweeper {
+
+    private static final Logger LOGGER = LogManager.getLogger(EntityChangeSweeper.class.getName());
+
+    private static final int DEFAULT_RETENTION_IN_DAYS = 30;
+    private static final long DAY_IN_MILLIS = 24 * 60 * 60 * 1000L;
+
+    @EJB
+    private EntityChangeFacade entityChangeFacade;
+
+    private int retentionDays;
+
+    @PostConstruct
+    public void init() {
+        Integer retention = ConfigurationUtility.getPortalPropertyAsInteger(
+                CdbProperty.CHANGE_FEED_RETENTION_DAYS_PROPERTY_NAME);
+        retentionDays = (retention != null) ? retention : DEFAULT_RETENTION_IN_DAYS;
+        if (retentionDays <= 0) {
+            LOGGER.info("Entity change feed entries are kept indefinitely.");
+        }
+    }
+
+    @Schedule(hour = "3", persistent = false)
+    public void sweep() {
+        if (retentionDays <= 0) {
+            return;
+        }
+        Date cutoff = new Date(System.currentTimeMillis() - retentionDays * DAY_IN_MILLIS);
+        int removed = entityChangeFacade.deleteChangedBefore(cutoff);
+        if (removed > 0) {
+            LOGGER.debug("Removed " + removed + " entity change feed entries.");
+        }
+    }
+
+}
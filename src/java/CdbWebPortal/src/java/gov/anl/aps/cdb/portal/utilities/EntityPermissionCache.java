@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.utilities;
+
+import gov.anl.aps.cdb.portal.model.db.beans.EntityInfoFacade;
+import gov.anl.aps.cdb.portal.model.db.beans.UserInfoFacade;
+import gov.anl.aps.cdb.portal.model.db.entities.EntityInfo;
+import gov.anl.aps.cdb.portal.model.db.entities.UserGroup;
+import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Write permissions of a single user, kept for the user session.
+ *
+ * Answers are cached per entity info id together with the group memberships
+ * of the user. Any change of owner user, owner group or group writeable flag
+ * of an entity info, or of a user, made through this portal invalidates the
+ * caches of all its sessions once the change commits; group memberships are
+ * then reloaded from the database. Changes made elsewhere, e.g. by the web
+ * service or another portal node, are picked up when cached answers expire.
+ */
+public class EntityPermissionCache implements Serializable {
+
+    // maximum number of ids bound to a single IN (...) query
+    private static final int PREFETCH_BATCH_SIZE = 1000;
+
+    private static final long EXPIRATION_INTERVAL_IN_MILLIS = 60 * 1000;
+
+    private static final String TRANSACTION_SYNCHRONIZATION_REGISTRY_LOOKUP = "java:comp/TransactionSynchronizationRegistry";
+    private static final String INVALIDATE_RESOURCE_KEY = EntityPermissionCache.class.getName() + ".invalidate";
+
+    private static final AtomicLong permissionVersion = new AtomicLong();
+
+    private final Integer userId;
+    private volatile Set<Integer> userGroupIdSet;
+    private final Map<Integer, Boolean> writeableMap = new ConcurrentHashMap<>();
+    private volatile long version;
+    private volatile long loadedTime;
+
+    public EntityPermissionCache(UserInfo userInfo) {
+        userId = userInfo.getId();
+        userGroupIdSet = createUserGroupIdSet(userInfo);
+        version = permissionVersion.get();
+        loadedTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Called when ownership or group permissions of any entity, or group
+     * memberships of any user change. Caches are invalidated once the
+     * current transaction commits, so they are not reloaded with the old
+     * data in the meantime. Without a transaction they are invalidated
+     * immediately.
+     */
+    public static void invalidateAll() {
+        TransactionSynchronizationRegistry registry = getTransactionSynchronizationRegistry();
+        if (registry == null || registry.getTransactionKey() == null) {
+            permissionVersion.incrementAndGet();
+            return;
+        }
+        if (registry.getResource(INVALIDATE_RESOURCE_KEY) != null) {
+            return;
+        }
+        registry.putResource(INVALIDATE_RESOURCE_KEY, Boolean.TRUE);
+        registry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    permissionVersion.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    private static TransactionSynchronizationRegistry getTransactionSynchronizationRegistry() {
+        try {
+            return (TransactionSynchronizationRegistry) new InitialContext().lookup(TRANSACTION_SYNCHRONIZATION_REGISTRY_LOOKUP);
+        } catch (NamingException ex) {
+            return null;
+        }
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public List<Integer> getUserGroupIdList() {
+        checkVersion();
+        return new ArrayList<>(userGroupIdSet);
+    }
+
+    public boolean isEntityWriteable(EntityInfo entityInfo) {
+        if (entityInfo == null) {
+            return false;
+        }
+
+        Integer entityInfoId = entityInfo.getId();
+        if (entityInfoId == null) {
+            // not persisted yet
+            return isWriteable(entityInfo);
+        }
+
+        checkVersion();
+        return writeableMap.computeIfAbsent(entityInfoId, id -> isWriteable(entityInfo));
+    }
+
+    /**
+     * Resolves permissions for the specified entity infos with one query per
+     * batch of ids, so later calls to isEntityWriteable() for them are
+     * answered from the cache.
+     */
+    public void prefetch(Collection<Integer> entityInfoIds) {
+        checkVersion();
+
+        Set<Integer> missingIdSet = new LinkedHashSet<>();
+        for (Integer entityInfoId : entityInfoIds) {
+            if (entityInfoId != null && !writeableMap.containsKey(entityInfoId)) {
+                missingIdSet.add(entityInfoId);
+            }
+        }
+        if (missingIdSet.isEmpty()) {
+            return;
+        }
+
+        EntityInfoFacade facade = EntityInfoFacade.getInstance();
+        List<Integer> groupIdList = new ArrayList<>(userGroupIdSet);
+        List<Integer> missingIdList = new ArrayList<>(missingIdSet);
+        for (int i = 0; i < missingIdList.size(); i += PREFETCH_BATCH_SIZE) {
+            List<Integer> batch = missingIdList.subList(i, Math.min(i + PREFETCH_BATCH_SIZE, missingIdList.size()));
+            Set<Integer> writeableIdSet = new HashSet<>(facade.findWriteableIdList(batch, userId, groupIdList));
+            for (Integer entityInfoId : batch) {
+                writeableMap.put(entityInfoId, writeableIdSet.contains(entityInfoId));
+            }
+        }
+    }
+
+    private void checkVersion() {
+        long currentVersion = permissionVersion.get();
+        long now = System.currentTimeMillis();
+        if (version != currentVersion || now - loadedTime >= EXPIRATION_INTERVAL_IN_MILLIS) {
+            UserInfo userInfo = UserInfoFacade.getInstance().findById(userId);
+            if (userInfo != null) {
+                userGroupIdSet = createUserGroupIdSet(userInfo);
+            }
+            writeableMap.clear();
+            version = currentVersion;
+            loadedTime = now;
+        }
+    }
+
+    private static Set<Integer> createUserGroupIdSet(UserInfo userInfo) {
+        Set<Integer> groupIdSet = new HashSet<>();
+        List<UserGroup> userGroupList = userInfo.getUserGroupList();
+        if (userGroupList != null) {
+            for (UserGroup userGroup : userGroupList) {
+                groupIdSet.add(userGroup.getId());
+            }
+        }
+        return Collections.unmodifiableSet(groupIdSet);
+    }
+
+    private boolean isWriteable(EntityInfo entityInfo) {
+        // same rules as AuthorizationUtility.isEntityWriteableByUser()
+        UserInfo ownerUser = entityInfo.getOwnerUser();
+        if (ownerUser != null && ownerUser.getId().equals(userId)) {
+            return true;
+        }
+
+        Boolean isGroupWriteable = entityInfo.getIsGroupWriteable();
+        if (isGroupWriteable == null || !isGroupWriteable) {
+            return false;
+        }
+
+        UserGroup ownerUserGroup = entityInfo.getOwnerUserGroup();
+        return ownerUserGroup != null && userGroupIdSet.contains(ownerUserGroup.getId());
+    }
+
+}
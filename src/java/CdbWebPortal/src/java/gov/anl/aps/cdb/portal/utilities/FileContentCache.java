@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of small, frequently requested files such as gallery
+ * thumbnails.
+ *
+ * Entries remember size and modification time of the file they were read
+ * from and are read again once the file on disk changes.
+ */
+public class FileContentCache {
+
+    private final Map<String, Entry> entryMap;
+    private final long maxFileSize;
+
+    public FileContentCache(int maxSize, long maxFileSize) {
+        this.maxFileSize = maxFileSize;
+        this.entryMap = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param file existing file
+     * @param length size of the file
+     * @param lastModified modification time of the file
+     * @return content of the file, or null if the file is too large to be
+     * cached
+     */
+    public byte[] getContent(File file, long length, long lastModified) throws IOException {
+        if (length > maxFileSize) {
+            return null;
+        }
+
+        String key = file.getPath();
+        Entry entry;
+        synchronized (entryMap) {
+            entry = entryMap.get(key);
+        }
+        if (entry != null && entry.length == length && entry.lastModified == lastModified) {
+            return entry.content;
+        }
+
+        byte[] content = Files.readAllBytes(file.toPath());
+        if (content.length != length) {
+            // file replaced while reading
+            return content;
+        }
+        synchronized (entryMap) {
+            entryMap.put(key, new Entry(content, length, lastModified));
+        }
+        return content;
+    }
+
+    public int size() {
+        synchronized (entryMap) {
+            return entryMap.size();
+        }
+    }
+
+    private static class Entry {
+
+        private final byte[] content;
+        private final long length;
+        private final long lastModified;
+
+        Entry(byte[] content, long length, long lastModified) {
+            this.content = content;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+    }
+
+}
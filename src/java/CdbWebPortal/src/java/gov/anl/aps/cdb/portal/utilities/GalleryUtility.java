@@ -28,11 +28,16 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import javax.faces.context.FacesContext;
 import javax.imageio.ImageIO;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.rendering.PDFRenderer;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
@@ -56,6 +61,8 @@ public class GalleryUtility {
     protected static String XLS_EXCEL_FORMAT = "xls";
     protected static String XLSX_EXCEL_FORMAT = "xlsx";
 
+    private static final String PREVIEW_TEMP_EXTENSION = ".tmp";
+
     public static String getImageFormat(String fileName) {
         if (fileName.endsWith(CdbPropertyValue.ORIGINAL_IMAGE_EXTENSION)) {
             fileName = fileName.replace(CdbPropertyValue.ORIGINAL_IMAGE_EXTENSION, "");
@@ -111,25 +118,23 @@ public class GalleryUtility {
             logger.debug("Cannot generate preview for: " + originalName + " Invalid Extension: " + imageFormat);
             return;
         }
+        // Previews are generated from the stored file, without reading all of
+        // it into memory.
+        String basePath = originalFile.getParentFile().getAbsolutePath();
         try {
-            byte[] originalData;
-
             // Generate Preview to scale for pdf images.
             if (imageFormat.equalsIgnoreCase("pdf")) {
-                byte[] pdfBytes = Files.readAllBytes(originalFile.toPath());
-                imageFormat = "png";
-                originalData = createPNGFromPDF(pdfBytes);
+                byte[] originalData = createPNGFromPDF(originalFile);
 
                 if (originalData == null) {
                     return;
                 }
+                storePreviewsFromViewableData(originalData, "png", basePath, originalName);
             } else {
-                originalData = Files.readAllBytes(originalFile.toPath());
+                BufferedImage image = ImageUtility.readImage(originalFile, imageFormat);
+                storePreviewsFromImage(image, imageFormat, basePath, originalName, null, originalFile);
             }
-
-            String basePath = originalFile.getParentFile().getAbsolutePath();
-            storePreviewsFromViewableData(originalData, imageFormat, basePath, originalName);
-        } catch (IOException ex) {
+        } catch (IOException | ImageProcessingFailed ex) {
             logger.error(ex);
             // Check allows this class to run as a utility without server running. 
             if (!utilMode) {
@@ -143,30 +148,8 @@ public class GalleryUtility {
 
     public static void storePreviewsFromViewableData(byte[] data, String imageFormat, String basePath, String fileName) {
         try {
-            byte[] thumbData = ImageUtility.resizeImage(data, StorageUtility.THUMBNAIL_IMAGE_SIZE, imageFormat);
-
-            String thumbnailName = fileName + CdbPropertyValue.THUMBNAIL_IMAGE_EXTENSION;
-            String thumbFilePath = basePath + "/" + thumbnailName;
-            //String thumbFileName = originalFile.getAbsolutePath().replace(originalName, originalName + CdbPropertyValue.THUMBNAIL_IMAGE_EXTENSION);
-            thumbFilePath = thumbFilePath.replace(CdbPropertyValue.ORIGINAL_IMAGE_EXTENSION, "");
-            Path thumbPath = Paths.get(thumbFilePath);
-            Files.write(thumbPath, thumbData);
-            logger.debug("Saved File: " + thumbFilePath);
-
-            byte[] scaledData;
-            if (ImageUtility.verifyImageSizeBigger(data, StorageUtility.SCALED_IMAGE_SIZE)) {
-                scaledData = ImageUtility.resizeImage(data, StorageUtility.SCALED_IMAGE_SIZE, imageFormat);
-            } else {
-                scaledData = data;
-            }
-
-            String scaledFileName = fileName + CdbPropertyValue.SCALED_IMAGE_EXTENSION;
-            String scaledFilePath = basePath + "/" + scaledFileName;
-            scaledFilePath = scaledFilePath.replace(CdbPropertyValue.ORIGINAL_IMAGE_EXTENSION, "");
-            Path scaledPath = Paths.get(scaledFilePath);
-            Files.write(scaledPath, scaledData);
-            logger.debug("Saved File: " + scaledFilePath);
-
+            BufferedImage image = ImageUtility.readImage(data, imageFormat);
+            storePreviewsFromImage(image, imageFormat, basePath, fileName, data, null);
         } catch (IOException | ImageProcessingFailed ex) {
             logger.error(ex);
             // Check allows this class to run as a utility without server running. 
@@ -179,15 +162,79 @@ public class GalleryUtility {
         }
     }
 
+    /**
+     * Stores thumbnail and scaled previews of an image that has been decoded
+     * once. An image that is not bigger than the scaled size is stored as is,
+     * from either originalData or originalFile.
+     */
+    private static void storePreviewsFromImage(BufferedImage image, String imageFormat, String basePath, String fileName, 
+            byte[] originalData, File originalFile) throws IOException, ImageProcessingFailed {
+        byte[] thumbData = ImageUtility.resizeImage(image, StorageUtility.THUMBNAIL_IMAGE_SIZE, imageFormat);
+
+        String thumbnailName = fileName + CdbPropertyValue.THUMBNAIL_IMAGE_EXTENSION;
+        String thumbFilePath = basePath + "/" + thumbnailName;
+        thumbFilePath = thumbFilePath.replace(CdbPropertyValue.ORIGINAL_IMAGE_EXTENSION, "");
+        writePreviewFile(Paths.get(thumbFilePath), thumbData, null);
+        logger.debug("Saved File: " + thumbFilePath);
+
+        String scaledFileName = fileName + CdbPropertyValue.SCALED_IMAGE_EXTENSION;
+        String scaledFilePath = basePath + "/" + scaledFileName;
+        scaledFilePath = scaledFilePath.replace(CdbPropertyValue.ORIGINAL_IMAGE_EXTENSION, "");
+        Path scaledPath = Paths.get(scaledFilePath);
+        if (ImageUtility.verifyImageSizeBigger(image, StorageUtility.SCALED_IMAGE_SIZE)) {
+            byte[] scaledData = ImageUtility.resizeImage(image, StorageUtility.SCALED_IMAGE_SIZE, imageFormat);
+            writePreviewFile(scaledPath, scaledData, null);
+        } else {
+            writePreviewFile(scaledPath, originalData, originalFile);
+        }
+        logger.debug("Saved File: " + scaledFilePath);
+    }
+
+    /**
+     * Previews are written next to their final location and then moved in
+     * place, so a partially written preview is never served.
+     */
+    private static void writePreviewFile(Path previewPath, byte[] data, File sourceFile) throws IOException {
+        Path tempPath = previewPath.resolveSibling(previewPath.getFileName() + PREVIEW_TEMP_EXTENSION);
+        try {
+            if (data != null) {
+                Files.write(tempPath, data);
+            } else {
+                Files.copy(sourceFile.toPath(), tempPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(tempPath, previewPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
     public static byte[] createPNGFromPDF(byte[] pdfBytes) {
+        try (PDDocument pdfDocument = PDDocument.load(pdfBytes)) {
+            return createPNGFromPDF(pdfDocument);
+        } catch (IOException ex) {
+            logger.error(ex);
+            return null;
+        }
+    }
+
+    /**
+     * Renders the first page of a pdf file. Document data is buffered in
+     * temporary files rather than in memory.
+     */
+    public static byte[] createPNGFromPDF(File pdfFile) {
+        try (PDDocument pdfDocument = PDDocument.load(pdfFile, MemoryUsageSetting.setupTempFileOnly())) {
+            return createPNGFromPDF(pdfDocument);
+        } catch (IOException ex) {
+            logger.error(ex);
+            return null;
+        }
+    }
+
+    private static byte[] createPNGFromPDF(PDDocument pdfDocument) {
         byte[] originalData;
         try {
-            BufferedImage image = null;
-            try (PDDocument pdfDocument = PDDocument.load(pdfBytes)) {
-                PDFRenderer renderer = new PDFRenderer(pdfDocument);
-                image = renderer.renderImage(0);
-                pdfDocument.close();
-            }
+            PDFRenderer renderer = new PDFRenderer(pdfDocument);
+            BufferedImage image = renderer.renderImage(0);
 
             try (ByteArrayOutputStream imageBaos = new ByteArrayOutputStream()) {
                 ImageIO.write(image, "PNG", imageBaos);
@@ -382,10 +429,15 @@ public class GalleryUtility {
         FilenameFilter originalFilter = new FilenameFilter() {
             @Override
             public boolean accept(File dir, String name) {
-                return !(name.endsWith(CdbPropertyValue.SCALED_IMAGE_EXTENSION) || name.endsWith(CdbPropertyValue.THUMBNAIL_IMAGE_EXTENSION));
+                return !(name.endsWith(CdbPropertyValue.SCALED_IMAGE_EXTENSION) 
+                        || name.endsWith(CdbPropertyValue.THUMBNAIL_IMAGE_EXTENSION)
+                        || name.endsWith(PREVIEW_TEMP_EXTENSION));
             }
         };
 
+        // Previews of all files are generated in parallel on every processor.
+        List<File> originalFileList = new ArrayList<>();
+
         logger.debug("Generating Previews for images.");
         logger.debug("Using directory: " + imageUploadDirPath.toString());
 
@@ -395,9 +447,7 @@ public class GalleryUtility {
         if (originalImageFiles == null) {
             logger.debug("Could not find or open image directory: " + imageUploadDirPath.toString());
         } else {
-            for (File originalFile : originalImageFiles) {
-                storeImagePreviews(originalFile);
-            }
+            originalFileList.addAll(Arrays.asList(originalImageFiles));
         }
 
         logger.debug("Generating Previews for documents.");
@@ -409,9 +459,16 @@ public class GalleryUtility {
         if (originalDocumentFiles == null) {
             logger.debug("Could not find or open document directory: " + documentUploadDirPath.toString());
         } else {
-            for (File originalFile : originalDocumentFiles) {
-                storeImagePreviews(originalFile);
-            }
+            originalFileList.addAll(Arrays.asList(originalDocumentFiles));
+        }
+
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        PreviewGenerator previewGenerator = new PreviewGenerator(threadCount, threadCount * 2);
+        try {
+            int processed = previewGenerator.regenerate(originalFileList);
+            logger.info("Generated previews for " + processed + " files using " + threadCount + " threads.");
+        } finally {
+            previewGenerator.shutdown();
         }
     }
 
@@ -0,0 +1,712 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.utilities;
+
+import gov.anl.aps.cdb.common.constants.CdbProperty;
+import gov.anl.aps.cdb.portal.model.db.entities.EntityInfo;
+import gov.anl.aps.cdb.portal.model.db.entities.Item;
+import gov.anl.aps.cdb.portal.model.db.entities.PropertyValue;
+import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
+import gov.anl.aps.cdb.portal.view.objects.ItemMetadataFieldInfo;
+import gov.anl.aps.cdb.portal.view.objects.ItemMetadataPropertyInfo;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * In-process inverted index of item search attributes for a single item
+ * domain.
+ *
+ * Attribute values are broken into lower case trigrams so that the substring
+ * semantics of Item.search() are preserved. A search intersects the posting
+ * lists of the query trigrams and only verifies the resulting candidates,
+ * which keeps the cost of a search proportional to the number of matches
+ * rather than the number of items in the domain.
+ *
+ * The index is loaded from a column projection on first use and kept up to
+ * date by the item facades once their transaction commits; updates committed
+ * while the index is reloaded are applied to the reloaded contents. Domains
+ * add their own searchable attributes, see
+ * Item.collectSearchIndexAttributes(). Items written outside of the portal
+ * (e.g. by the web service) are picked up by a staleness check before
+ * searches, which compares the item count and latest modification time of
+ * the domain with the index, and by the reload after the configured refresh
+ * interval.
+ */
+public class ItemSearchIndex {
+
+    private static final Logger logger = LogManager.getLogger(ItemSearchIndex.class.getName());
+
+    public static final String NAME_KEY = "name";
+    public static final String ITEM_IDENTIFIER1_KEY = "item identifier 1";
+    public static final String ITEM_IDENTIFIER2_KEY = "item identifier 2";
+    public static final String DERIVED_FROM_NAME_KEY = "derived from name";
+    public static final String QR_ID_KEY = "QrId";
+    public static final String CREATED_BY_KEY = "created by";
+    public static final String LAST_MODIFIED_BY_KEY = "last modified by";
+    public static final String OWNED_BY_KEY = "owned by";
+    public static final String DESCRIPTION_KEY = "description";
+
+    private static final String TRANSACTION_SYNCHRONIZATION_REGISTRY_LOOKUP = "java:comp/TransactionSynchronizationRegistry";
+
+    private static final int NGRAM_SIZE = 3;
+    private static final int DEFAULT_REFRESH_INTERVAL_IN_MINUTES = 60;
+    private static final long STALENESS_CHECK_INTERVAL_IN_MILLIS = 10 * 1000;
+    private static final int CORE_METADATA_WEIGHT = 3;
+    private static final Map<String, Integer> FIELD_WEIGHT_MAP = new HashMap<>();
+
+    static {
+        FIELD_WEIGHT_MAP.put(NAME_KEY, 10);
+        FIELD_WEIGHT_MAP.put(ITEM_IDENTIFIER1_KEY, 6);
+        FIELD_WEIGHT_MAP.put(ITEM_IDENTIFIER2_KEY, 6);
+        FIELD_WEIGHT_MAP.put(QR_ID_KEY, 6);
+        FIELD_WEIGHT_MAP.put(DERIVED_FROM_NAME_KEY, 4);
+        FIELD_WEIGHT_MAP.put(DESCRIPTION_KEY, 2);
+        FIELD_WEIGHT_MAP.put(CREATED_BY_KEY, 1);
+        FIELD_WEIGHT_MAP.put(LAST_MODIFIED_BY_KEY, 1);
+        FIELD_WEIGHT_MAP.put(OWNED_BY_KEY, 1);
+    }
+
+    private static final Map<String, ItemSearchIndex> indexMap = new ConcurrentHashMap<>();
+
+    private final String domainName;
+    private final Map<Integer, IndexedItem> indexedItemMap = new HashMap<>();
+    private final Map<String, Set<Integer>> postingMap = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile long loadedTime = 0;
+    private volatile long checkedTime = 0;
+
+    // latest modification time seen by the index, guarded by lock
+    private Date lastModifiedOnDateTime = null;
+
+    // updates committed during a reload, by item id; a null value removes
+    // the item. Written under lock.
+    private volatile Map<Integer, IndexedItem> pendingUpdateMap = null;
+
+    private ItemSearchIndex(String domainName) {
+        this.domainName = domainName;
+    }
+
+    public static ItemSearchIndex getInstance(String domainName) {
+        return indexMap.computeIfAbsent(domainName, ItemSearchIndex::new);
+    }
+
+    /**
+     * Update index of the domain the item belongs to once the current
+     * transaction commits. Called by item facades whenever an item is created
+     * or updated.
+     */
+    public static void indexItem(Item item) {
+        runAfterCommit(item, () -> {
+            ItemSearchIndex index = getDomainIndex(item);
+            if (index != null) {
+                index.updateItem(item);
+            }
+        });
+    }
+
+    /**
+     * Remove item from the index of the domain it belongs to once the
+     * current transaction commits. Called by item facades whenever an item is
+     * removed.
+     */
+    public static void unindexItem(Item item) {
+        Integer itemId = item.getId();
+        runAfterCommit(item, () -> {
+            ItemSearchIndex index = getDomainIndex(item);
+            if (index != null) {
+                index.removeItem(itemId);
+            }
+        });
+    }
+
+    /**
+     * Rolled back writes never reach the index. Without a transaction, e.g.
+     * outside of the application server, the update is applied immediately.
+     */
+    private static void runAfterCommit(Item item, Runnable update) {
+        TransactionSynchronizationRegistry registry = getTransactionSynchronizationRegistry();
+        if (registry == null || registry.getTransactionKey() == null) {
+            applyUpdate(item, update);
+            return;
+        }
+        registry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    applyUpdate(item, update);
+                }
+            }
+        });
+    }
+
+    private static void applyUpdate(Item item, Runnable update) {
+        try {
+            update.run();
+        } catch (RuntimeException ex) {
+            // the index can no longer be trusted for this domain
+            logger.warn("Could not update search index for item " + item.getId() + " (Error: " + ex.toString() + ")");
+            ItemSearchIndex index = getDomainIndex(item);
+            if (index != null) {
+                index.invalidate();
+            }
+        }
+    }
+
+    private static TransactionSynchronizationRegistry getTransactionSynchronizationRegistry() {
+        try {
+            return (TransactionSynchronizationRegistry) new InitialContext().lookup(TRANSACTION_SYNCHRONIZATION_REGISTRY_LOOKUP);
+        } catch (NamingException ex) {
+            return null;
+        }
+    }
+
+    private static ItemSearchIndex getDomainIndex(Item item) {
+        if (item == null || item.getDomain() == null) {
+            return null;
+        }
+        return indexMap.get(item.getDomain().getName());
+    }
+
+    public String getDomainName() {
+        return domainName;
+    }
+
+    public int getIndexedItemCount() {
+        lock.readLock().lock();
+        try {
+            return indexedItemMap.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoadRequired() {
+        if (loadedTime == 0) {
+            return true;
+        }
+
+        Integer refreshInterval = ConfigurationUtility.getPortalPropertyAsInteger(CdbProperty.SEARCH_INDEX_REFRESH_INTERVAL_PROPERTY_NAME);
+        if (refreshInterval == null) {
+            refreshInterval = DEFAULT_REFRESH_INTERVAL_IN_MINUTES;
+        }
+        if (refreshInterval <= 0) {
+            return false;
+        }
+        return System.currentTimeMillis() - loadedTime > refreshInterval * 60000L;
+    }
+
+    public void invalidate() {
+        loadedTime = 0;
+    }
+
+    /**
+     * @return true if the index is loaded and was not compared with the
+     * database for STALENESS_CHECK_INTERVAL_IN_MILLIS
+     */
+    public boolean isStalenessCheckRequired() {
+        return loadedTime != 0 && System.currentTimeMillis() - checkedTime >= STALENESS_CHECK_INTERVAL_IN_MILLIS;
+    }
+
+    /**
+     * Invalidates the index if items of the domain were written outside of
+     * the portal, i.e. the database has a different number of items or a
+     * later modification than the index has seen.
+     *
+     * @param itemCount number of items of the domain in the database
+     * @param lastModifiedOnDateTime latest modification time of the items of
+     * the domain in the database, may be null
+     */
+    public void checkStaleness(long itemCount, Date lastModifiedOnDateTime) {
+        checkedTime = System.currentTimeMillis();
+        boolean stale;
+        lock.readLock().lock();
+        try {
+            stale = itemCount != indexedItemMap.size()
+                    || (lastModifiedOnDateTime != null
+                    && (this.lastModifiedOnDateTime == null || lastModifiedOnDateTime.after(this.lastModifiedOnDateTime)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (stale) {
+            logger.debug("Search index for domain " + domainName + " is stale.");
+            invalidate();
+        }
+    }
+
+    /**
+     * Starts collecting updates committed while the index is reloaded. Must
+     * be called before the rows passed to load() are read, and followed by
+     * load() or abortLoad().
+     */
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            pendingUpdateMap = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void abortLoad() {
+        lock.writeLock().lock();
+        try {
+            pendingUpdateMap = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace index contents.
+     *
+     * @param itemRows rows of [id, name, itemIdentifier1, itemIdentifier2,
+     * derived from name, qrId, description, created by, last modified by,
+     * owned by]
+     * @param coreMetadataRows rows of [item id, metadata key, metadata value]
+     * @param coreMetadataInfo core metadata description used to label
+     * metadata fields, may be null
+     * @param attributeRows domain specific attributes as rows of [item id,
+     * attribute key, attribute value], may be null
+     * @param lastModifiedOnDateTime latest modification time of the items of
+     * the domain, read before the rows; may be null
+     */
+    public void load(List<Object[]> itemRows, List<Object[]> coreMetadataRows, ItemMetadataPropertyInfo coreMetadataInfo,
+            List<Object[]> attributeRows, Date lastModifiedOnDateTime) {
+        Map<Integer, IndexedItem> loadedItemMap = new HashMap<>();
+        for (Object[] row : itemRows) {
+            Integer id = (Integer) row[0];
+            IndexedItem indexedItem = new IndexedItem(id);
+            indexedItem.setItemAttributes(
+                    (String) row[1], (String) row[2], (String) row[3], (String) row[4],
+                    (Integer) row[5], (String) row[6],
+                    (String) row[7], (String) row[8], (String) row[9]);
+            loadedItemMap.put(id, indexedItem);
+        }
+
+        if (coreMetadataRows != null && coreMetadataInfo != null) {
+            for (Object[] row : coreMetadataRows) {
+                IndexedItem indexedItem = loadedItemMap.get((Integer) row[0]);
+                if (indexedItem != null) {
+                    indexedItem.addCoreMetadataAttribute(coreMetadataInfo, (String) row[1], (String) row[2]);
+                }
+            }
+        }
+
+        if (attributeRows != null) {
+            for (Object[] row : attributeRows) {
+                IndexedItem indexedItem = loadedItemMap.get((Integer) row[0]);
+                if (indexedItem != null) {
+                    indexedItem.addAttribute((String) row[1], (String) row[2]);
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            indexedItemMap.clear();
+            postingMap.clear();
+            for (IndexedItem indexedItem : loadedItemMap.values()) {
+                addToIndex(indexedItem);
+            }
+            if (pendingUpdateMap != null) {
+                for (Map.Entry<Integer, IndexedItem> pendingUpdate : pendingUpdateMap.entrySet()) {
+                    removeFromIndex(pendingUpdate.getKey());
+                    if (pendingUpdate.getValue() != null) {
+                        addToIndex(pendingUpdate.getValue());
+                    }
+                }
+                pendingUpdateMap = null;
+            }
+            recordModification(lastModifiedOnDateTime);
+            loadedTime = System.currentTimeMillis();
+            checkedTime = loadedTime;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.debug("Loaded search index for domain " + domainName + " with " + loadedItemMap.size()
+                + " items and " + postingMap.size() + " terms.");
+    }
+
+    public void updateItem(Item item) {
+        if (item.getId() == null || (loadedTime == 0 && pendingUpdateMap == null)) {
+            // Will be picked up when the index is loaded.
+            return;
+        }
+
+        IndexedItem indexedItem = createIndexedItem(item);
+        Date itemLastModifiedOnDateTime = null;
+        if (item.getEntityInfo() != null) {
+            itemLastModifiedOnDateTime = item.getEntityInfo().getLastModifiedOnDateTime();
+        }
+        lock.writeLock().lock();
+        try {
+            if (pendingUpdateMap != null) {
+                pendingUpdateMap.put(item.getId(), indexedItem);
+            }
+            removeFromIndex(item.getId());
+            addToIndex(indexedItem);
+            recordModification(itemLastModifiedOnDateTime);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeItem(Integer itemId) {
+        if (itemId == null || (loadedTime == 0 && pendingUpdateMap == null)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pendingUpdateMap != null) {
+                pendingUpdateMap.put(itemId, null);
+            }
+            removeFromIndex(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void recordModification(Date modifiedOnDateTime) {
+        if (modifiedOnDateTime != null
+                && (lastModifiedOnDateTime == null || modifiedOnDateTime.after(lastModifiedOnDateTime))) {
+            lastModifiedOnDateTime = modifiedOnDateTime;
+        }
+    }
+
+    /**
+     * Search index for a given string.
+     *
+     * @param searchString search string
+     * @param caseInsensitive use case insensitive search
+     * @return hits ordered by descending score
+     */
+    public List<Hit> search(String searchString, boolean caseInsensitive) {
+        List<Hit> hitList = new ArrayList<>();
+        if (searchString == null || searchString.isEmpty()) {
+            return hitList;
+        }
+
+        Pattern searchPattern;
+        if (caseInsensitive) {
+            searchPattern = Pattern.compile(Pattern.quote(searchString), Pattern.CASE_INSENSITIVE);
+        } else {
+            searchPattern = Pattern.compile(Pattern.quote(searchString));
+        }
+        String lowerCaseSearchString = searchString.toLowerCase();
+
+        lock.readLock().lock();
+        try {
+            for (IndexedItem indexedItem : findCandidates(lowerCaseSearchString)) {
+                Hit hit = indexedItem.match(searchPattern, lowerCaseSearchString);
+                if (hit != null) {
+                    hitList.add(hit);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hitList.sort((h1, h2) -> {
+            int result = Integer.compare(h2.getScore(), h1.getScore());
+            if (result == 0) {
+                result = h1.getTitle().compareToIgnoreCase(h2.getTitle());
+            }
+            return result;
+        });
+        return hitList;
+    }
+
+    private Iterable<IndexedItem> findCandidates(String lowerCaseSearchString) {
+        if (lowerCaseSearchString.length() < NGRAM_SIZE) {
+            return findShortCandidates(lowerCaseSearchString);
+        }
+
+        List<Set<Integer>> postingList = new ArrayList<>();
+        for (String term : createTerms(lowerCaseSearchString)) {
+            Set<Integer> postings = postingMap.get(term);
+            if (postings == null) {
+                return Collections.emptyList();
+            }
+            postingList.add(postings);
+        }
+        postingList.sort((p1, p2) -> Integer.compare(p1.size(), p2.size()));
+
+        List<IndexedItem> candidateList = new ArrayList<>();
+        for (Integer id : postingList.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < postingList.size(); i++) {
+                if (!postingList.get(i).contains(id)) {
+                    inAll = false;
+                    break;
+                }
+            }
+            if (inAll) {
+                candidateList.add(indexedItemMap.get(id));
+            }
+        }
+        return candidateList;
+    }
+
+    /**
+     * Every value containing a string shorter than a trigram has a term
+     * containing it: one of its trigrams, or the whole value if it is
+     * shorter than a trigram. Candidates are found by scanning the terms
+     * instead of every indexed item.
+     */
+    private Iterable<IndexedItem> findShortCandidates(String lowerCaseSearchString) {
+        Set<Integer> candidateIdSet = new HashSet<>();
+        for (Map.Entry<String, Set<Integer>> posting : postingMap.entrySet()) {
+            if (posting.getKey().contains(lowerCaseSearchString)) {
+                candidateIdSet.addAll(posting.getValue());
+            }
+        }
+        List<IndexedItem> candidateList = new ArrayList<>(candidateIdSet.size());
+        for (Integer id : candidateIdSet) {
+            candidateList.add(indexedItemMap.get(id));
+        }
+        return candidateList;
+    }
+
+    private void addToIndex(IndexedItem indexedItem) {
+        indexedItemMap.put(indexedItem.getId(), indexedItem);
+        for (String term : indexedItem.getTerms()) {
+            postingMap.computeIfAbsent(term, k -> new HashSet<>()).add(indexedItem.getId());
+        }
+    }
+
+    private void removeFromIndex(Integer itemId) {
+        IndexedItem indexedItem = indexedItemMap.remove(itemId);
+        if (indexedItem == null) {
+            return;
+        }
+        for (String term : indexedItem.getTerms()) {
+            Set<Integer> postings = postingMap.get(term);
+            if (postings != null) {
+                postings.remove(itemId);
+                if (postings.isEmpty()) {
+                    postingMap.remove(term);
+                }
+            }
+        }
+    }
+
+    private static Set<String> createTerms(String lowerCaseValue) {
+        Set<String> termSet = new HashSet<>();
+        if (lowerCaseValue.length() < NGRAM_SIZE) {
+            termSet.add(lowerCaseValue);
+        } else {
+            for (int i = 0; i <= lowerCaseValue.length() - NGRAM_SIZE; i++) {
+                termSet.add(lowerCaseValue.substring(i, i + NGRAM_SIZE));
+            }
+        }
+        return termSet;
+    }
+
+    private static String getUsername(UserInfo userInfo) {
+        if (userInfo != null) {
+            return userInfo.getUsername();
+        }
+        return null;
+    }
+
+    private static IndexedItem createIndexedItem(Item item) {
+        IndexedItem indexedItem = new IndexedItem(item.getId());
+
+        String derivedFromName = null;
+        if (item.getDerivedFromItem() != null) {
+            derivedFromName = item.getDerivedFromItem().getName();
+        }
+
+        String createdBy = null;
+        String lastModifiedBy = null;
+        String ownedBy = null;
+        EntityInfo entityInfo = item.getEntityInfo();
+        if (entityInfo != null) {
+            createdBy = getUsername(entityInfo.getCreatedByUser());
+            lastModifiedBy = getUsername(entityInfo.getLastModifiedByUser());
+            ownedBy = getUsername(entityInfo.getOwnerUser());
+        }
+
+        indexedItem.setItemAttributes(item.getName(), item.getItemIdentifier1(), item.getItemIdentifier2(),
+                derivedFromName, item.getQrId(), item.getDescription(),
+                createdBy, lastModifiedBy, ownedBy);
+
+        try {
+            ItemMetadataPropertyInfo coreMetadataInfo = item.getCoreMetadataPropertyInfo();
+            if (coreMetadataInfo != null) {
+                PropertyValue coreMetadataValue = item.getCoreMetadataPropertyValue();
+                if (coreMetadataValue != null) {
+                    for (ItemMetadataFieldInfo field : coreMetadataInfo.getFields()) {
+                        String value = coreMetadataValue.getPropertyMetadataValueForKey(field.getKey());
+                        indexedItem.addCoreMetadataAttribute(coreMetadataInfo, field.getKey(), value);
+                    }
+                }
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Could not index core metadata for item " + item.getId() + " (Error: " + ex.toString() + ")");
+        }
+
+        Map<String, String> attributeMap = new LinkedHashMap<>();
+        item.collectSearchIndexAttributes(attributeMap);
+        for (Map.Entry<String, String> attribute : attributeMap.entrySet()) {
+            indexedItem.addAttribute(attribute.getKey(), attribute.getValue());
+        }
+
+        return indexedItem;
+    }
+
+    /**
+     * Search attributes of a single item.
+     */
+    private static class IndexedItem {
+
+        private final Integer id;
+        private String title;
+        private final Map<String, String> attributeMap = new LinkedHashMap<>();
+        private Set<String> termSet = new HashSet<>();
+
+        IndexedItem(Integer id) {
+            this.id = id;
+        }
+
+        Integer getId() {
+            return id;
+        }
+
+        Set<String> getTerms() {
+            return termSet;
+        }
+
+        void setItemAttributes(String name, String itemIdentifier1, String itemIdentifier2,
+                String derivedFromName, Integer qrId, String description,
+                String createdBy, String lastModifiedBy, String ownedBy) {
+
+            // Mirrors display title generated by Item.search()
+            if (name != null) {
+                title = name;
+            } else if (derivedFromName != null) {
+                title = "Derived from: " + derivedFromName;
+                if (qrId != null) {
+                    title += " (QRID: " + Item.formatQrIdDisplay(qrId) + ")";
+                }
+            } else {
+                title = "Item";
+            }
+
+            addAttribute(NAME_KEY, name);
+            addAttribute(ITEM_IDENTIFIER1_KEY, itemIdentifier1);
+            addAttribute(ITEM_IDENTIFIER2_KEY, itemIdentifier2);
+            addAttribute(DERIVED_FROM_NAME_KEY, derivedFromName);
+            if (qrId != null) {
+                String qrIdDisplay = Item.formatQrIdDisplay(qrId);
+                addAttribute(QR_ID_KEY, qrIdDisplay + " " + qrId + " " + qrIdDisplay.replace(" ", ""));
+            }
+            addAttribute(CREATED_BY_KEY, createdBy);
+            addAttribute(LAST_MODIFIED_BY_KEY, lastModifiedBy);
+            addAttribute(OWNED_BY_KEY, ownedBy);
+            addAttribute(DESCRIPTION_KEY, description);
+        }
+
+        void addCoreMetadataAttribute(ItemMetadataPropertyInfo coreMetadataInfo, String key, String value) {
+            ItemMetadataFieldInfo field = coreMetadataInfo.getField(key);
+            if (field != null) {
+                addAttribute(field.getLabel(), value);
+            }
+        }
+
+        void addAttribute(String key, String value) {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            attributeMap.put(key, value);
+            termSet.addAll(createTerms(value.toLowerCase()));
+        }
+
+        Hit match(Pattern searchPattern, String lowerCaseSearchString) {
+            Hit hit = null;
+            for (Map.Entry<String, String> entry : attributeMap.entrySet()) {
+                String key = entry.getKey();
+                String value = entry.getValue();
+                if (!searchPattern.matcher(value).find()) {
+                    continue;
+                }
+                if (hit == null) {
+                    hit = new Hit(id, title);
+                }
+
+                int weight = FIELD_WEIGHT_MAP.getOrDefault(key, CORE_METADATA_WEIGHT);
+                String lowerCaseValue = value.toLowerCase();
+                if (lowerCaseValue.equals(lowerCaseSearchString)) {
+                    weight *= 3;
+                } else if (lowerCaseValue.startsWith(lowerCaseSearchString)) {
+                    weight *= 2;
+                }
+                hit.addAttributeMatch(key, value, weight);
+            }
+            return hit;
+        }
+    }
+
+    /**
+     * Single ranked search index match.
+     */
+    public static class Hit {
+
+        private final Integer id;
+        private final String title;
+        private int score = 0;
+        private final Map<String, String> attributeMatchMap = new LinkedHashMap<>();
+
+        Hit(Integer id, String title) {
+            this.id = id;
+            this.title = title;
+        }
+
+        void addAttributeMatch(String key, String value, int weight) {
+            attributeMatchMap.put(key, value);
+            score += weight;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public Map<String, String> getAttributeMatchMap() {
+            return attributeMatchMap;
+        }
+    }
+
+}
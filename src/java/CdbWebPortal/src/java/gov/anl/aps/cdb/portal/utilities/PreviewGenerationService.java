@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.utilities;
+
+import java.io.File;
+import javax.ejb.Asynchronous;
+import javax.ejb.Stateless;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Generates gallery previews of uploaded images and documents on container
+ * managed threads, so uploads return before the previews are stored. Until
+ * then, the gallery shows the default preview for the file type.
+ */
+@Stateless
+public class PreviewGenerationService {
+
+    private static final Logger LOGGER = LogManager.getLogger(PreviewGenerationService.class.getName());
+
+    public static PreviewGenerationService getInstance() {
+        return (PreviewGenerationService) SessionUtility.findFacade(PreviewGenerationService.class.getSimpleName());
+    }
+
+    /**
+     * Stores previews of an uploaded file.
+     *
+     * @param originalFile stored upload
+     * @param imageFormat format of the file, or null to use its extension
+     */
+    @Asynchronous
+    public void generatePreviews(File originalFile, String imageFormat) {
+        try {
+            GalleryUtility.storeImagePreviews(originalFile, imageFormat);
+        } catch (RuntimeException ex) {
+            LOGGER.error("Could not generate previews for " + originalFile.getName() + ": " + ex);
+        }
+    }
+
+}
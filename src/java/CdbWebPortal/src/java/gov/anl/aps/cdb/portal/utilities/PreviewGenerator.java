@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.utilities;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Regenerates gallery previews of stored files with a fixed number of worker
+ * threads, used by the GalleryUtility command line tool. Uploads in the
+ * portal use PreviewGenerationService instead.
+ *
+ * Jobs are queued for the worker threads. When the queue is full, the
+ * submitting thread generates the previews itself, which limits the memory
+ * used by pending jobs. Callers must shut the generator down when done.
+ */
+public class PreviewGenerator {
+
+    private static final Logger logger = LogManager.getLogger(PreviewGenerator.class.getName());
+
+    private static final long IDLE_THREAD_TIMEOUT_IN_SECONDS = 60;
+
+    private final ThreadPoolExecutor executor;
+
+    public PreviewGenerator(int threadCount, int queueSize) {
+        ThreadFactory threadFactory = new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "cdb-preview-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+
+        executor = new ThreadPoolExecutor(threadCount, threadCount,
+                IDLE_THREAD_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues preview generation for a stored file.
+     *
+     * @param originalFile stored upload
+     * @param imageFormat format of the file, or null to use its extension
+     * @return completion of the job
+     */
+    public Future<?> submit(File originalFile, String imageFormat) {
+        return executor.submit(() -> {
+            try {
+                GalleryUtility.storeImagePreviews(originalFile, imageFormat);
+            } catch (RuntimeException ex) {
+                logger.error("Could not generate previews for " + originalFile.getName() + ": " + ex);
+            }
+        });
+    }
+
+    /**
+     * Regenerates previews of all files using every worker thread and waits
+     * until all of them are done.
+     *
+     * @param originalFiles stored uploads
+     * @return number of files processed
+     */
+    public int regenerate(Collection<File> originalFiles) throws InterruptedException {
+        List<Future<?>> futureList = new ArrayList<>(originalFiles.size());
+        for (File originalFile : originalFiles) {
+            futureList.add(submit(originalFile, null));
+        }
+
+        int processed = 0;
+        for (Future<?> future : futureList) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                logger.error(ex);
+            }
+            processed++;
+            if (processed % 100 == 0) {
+                logger.info("Generated previews for " + processed + " of " + futureList.size() + " files.");
+            }
+        }
+        return processed;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+}
@@ -7,6 +7,13 @@ package gov.anl.aps.cdb.portal.utilities;
 import gov.anl.aps.cdb.common.constants.CdbProperty;
 import gov.anl.aps.cdb.common.constants.CdbPropertyValue;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /**
  * Utility class for manipulating file system storage.
@@ -22,6 +29,8 @@ public class StorageUtility {
     private static final String LogAttachmentsDirectory = "/log/attachments";
     private static final String MAARCPreviewsDirectory = "/propertyValue/maarc";
 
+    private static final int STORE_FILE_BUFFER_SIZE = 64 * 1024;
+
     public static String getFullFilePath(String rootPath, String fileName) {
         if (fileName != null) {
             return rootPath + "/" + fileName;
@@ -29,6 +38,40 @@ public class StorageUtility {
         return null;
     }
 
+    /**
+     * Writes the stream to the file through a fixed size buffer, so uploads
+     * of any size use the same amount of memory. A partially written file is
+     * removed on failure.
+     *
+     * @param input content to store
+     * @param filePath destination, replaced if it exists
+     * @return SHA-256 digest of the stored content
+     * @throws IOException
+     */
+    public static byte[] storeFile(InputStream input, Path filePath) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // SHA-256 is required to be supported by every Java platform.
+            throw new IllegalStateException(ex);
+        }
+
+        byte[] buffer = new byte[STORE_FILE_BUFFER_SIZE];
+        try (OutputStream output = Files.newOutputStream(filePath)) {
+            int count;
+            while ((count = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, count);
+                output.write(buffer, 0, count);
+            }
+        } catch (IOException ex) {
+            Files.deleteIfExists(filePath);
+            throw ex;
+        }
+
+        return digest.digest();
+    }
+
     //
     // Log attachments
     //
@@ -6,6 +6,7 @@ package gov.anl.aps.cdb.portal.view.objects;
 
 import gov.anl.aps.cdb.portal.model.db.entities.Item;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemElement;
+import gov.anl.aps.cdb.portal.model.db.utilities.ItemHierarchyLoader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,16 +19,20 @@ public class ItemHierarchyCache {
     List<ItemHierarchyCache> childrenItem = null; 
 
     public ItemHierarchyCache(Item parentItem) {
+        this(parentItem, ItemHierarchyLoader.loadHierarchy(parentItem));
+    }
+
+    public ItemHierarchyCache(Item parentItem, ItemHierarchyLoader loader) {
         // TODO add infinite ref prevention
         this.parentItem = parentItem; 
         
-        List<ItemElement> itemElementDisplayList = parentItem.getItemElementDisplayList();
+        List<ItemElement> itemElementDisplayList = loader.getItemElementDisplayList(parentItem);
         List<ItemHierarchyCache> itemHierarchyCaches = new ArrayList<>(); 
         if (itemElementDisplayList.size() > 0) {
             for (ItemElement itemElement : itemElementDisplayList) {
                 Item containedItem = itemElement.getContainedItem();
                 if (containedItem != null) {
-                    ItemHierarchyCache itemHierarchyCache = new ItemHierarchyCache(containedItem); 
+                    ItemHierarchyCache itemHierarchyCache = new ItemHierarchyCache(containedItem, loader); 
                     itemHierarchyCaches.add(itemHierarchyCache); 
                 }
             }
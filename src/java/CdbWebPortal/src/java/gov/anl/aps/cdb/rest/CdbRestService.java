@@ -51,6 +51,7 @@ public class CdbRestService extends Application {
         resources.add(gov.anl.aps.cdb.rest.routes.CableDesignItemRoute.class);
         resources.add(gov.anl.aps.cdb.rest.routes.DomainRoute.class);
         resources.add(gov.anl.aps.cdb.rest.routes.DownloadRoute.class);
+        resources.add(gov.anl.aps.cdb.rest.routes.EntityChangeRoute.class);
         resources.add(gov.anl.aps.cdb.rest.routes.ItemRoute.class);
         resources.add(gov.anl.aps.cdb.rest.routes.LocationItemRoute.class);
         resources.add(gov.anl.aps.cdb.rest.routes.LogRoute.class);
@@ -58,6 +59,7 @@ public class CdbRestService extends Application {
         resources.add(gov.anl.aps.cdb.rest.routes.PropertyTypeRoute.class);
         resources.add(gov.anl.aps.cdb.rest.routes.PropertyValueRoute.class);
         resources.add(gov.anl.aps.cdb.rest.routes.SourceRoute.class);
+        resources.add(gov.anl.aps.cdb.rest.routes.SystemRoute.class);
         resources.add(gov.anl.aps.cdb.rest.routes.TestRoute.class);
         resources.add(gov.anl.aps.cdb.rest.routes.UsersRoute.class);
         return resources;
@@ -17,6 +17,7 @@ public class User implements Principal {
     private UserInfo user;
     private Date expirationDate;
     private String token; 
+    private volatile long verifiedTime; 
     
     private User() {
         updateExpiration();
@@ -30,6 +31,13 @@ public class User implements Principal {
         return user; 
     }
     
+    public static User createFromUserInfo(UserInfo userInfo, String token, Date expirationDate) {
+        User user = createFromUserInfo(userInfo, token);
+        user.expirationDate = expirationDate;
+        
+        return user; 
+    }
+    
     public String getRole() {        
         //TODO implement; 
         
@@ -57,4 +65,15 @@ public class User implements Principal {
     public String getToken() {
         return token;
     }
+
+    /**
+     * Time the token was last confirmed against the persistent session store.
+     */
+    public long getVerifiedTime() {
+        return verifiedTime;
+    }
+
+    public void setVerifiedTime(long verifiedTime) {
+        this.verifiedTime = verifiedTime;
+    }
 }
\ No newline at end of file
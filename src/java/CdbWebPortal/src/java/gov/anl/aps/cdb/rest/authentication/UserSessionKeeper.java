@@ -4,75 +4,300 @@
  */
 package gov.anl.aps.cdb.rest.authentication;
 
+import gov.anl.aps.cdb.common.constants.CdbProperty;
+import gov.anl.aps.cdb.portal.model.db.beans.UserSessionTokenFacade;
 import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
+import gov.anl.aps.cdb.portal.model.db.entities.UserSessionToken;
+import gov.anl.aps.cdb.portal.utilities.ConfigurationUtility;
+import gov.anl.aps.cdb.rest.entities.UserSessionStatistics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
+ * Keeps REST API session tokens.
+ *
+ * Tokens are held in concurrent maps so the authentication filter never
+ * blocks on other requests. Expired tokens are removed by
+ * UserSessionSweeper, and the oldest tokens of a user are revoked once the
+ * configured number of tokens per user is exceeded. When token persistence
+ * is enabled, a hash of each token is also stored in the database so
+ * sessions survive redeploys and are shared by portal nodes.
  *
  * @author djarosz
  */
 public class UserSessionKeeper {
-    
-    public static final String AUTH_TOKEN_KEY = "token";     
-    
-    private static UserSessionKeeper instance = null; 
-    
-    HashMap<String, User> userTokenMap;
-    
-    public int ctr; 
-    
+
+    private static final Logger LOGGER = LogManager.getLogger(UserSessionKeeper.class.getName());
+
+    public static final String AUTH_TOKEN_KEY = "token";
+
+    private static final int DEFAULT_MAX_TOKENS_PER_USER = 20;
+
+    // persisted tokens are checked again after this time to notice logouts on other nodes
+    private static final long PERSISTED_TOKEN_VERIFY_INTERVAL = 60 * 1000;
+
+    private static final UserSessionKeeper instance = new UserSessionKeeper();
+
+    private final Map<String, User> userTokenMap = new ConcurrentHashMap<>();
+
+    // tokens of each user in order of issue, only modified within compute()
+    private final Map<Integer, Deque<String>> userTokenQueueMap = new ConcurrentHashMap<>();
+
+    private final LongAdder issuedCount = new LongAdder();
+    private final LongAdder revokedCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+
+    private final int maxTokensPerUser;
+    private final boolean persistTokens;
+
+    private final AtomicInteger ctr = new AtomicInteger();
+
     private UserSessionKeeper() {
-        ctr = 0; 
-        userTokenMap = new HashMap<>(); 
+        Integer maxTokens = ConfigurationUtility.getPortalPropertyAsInteger(
+                CdbProperty.REST_SESSION_MAX_TOKENS_PER_USER_PROPERTY_NAME);
+        maxTokensPerUser = (maxTokens != null) ? maxTokens : DEFAULT_MAX_TOKENS_PER_USER;
+        persistTokens = Boolean.parseBoolean(ConfigurationUtility.getPortalProperty(
+                CdbProperty.REST_SESSION_PERSIST_TOKENS_PROPERTY_NAME, "false"));
     }
-    
-    public static synchronized UserSessionKeeper getInstance() {
-        if (instance == null) {
-            instance = new UserSessionKeeper(); 
-        }
-        return instance;   
+
+    public static UserSessionKeeper getInstance() {
+        return instance;
     }
-    
+
     public String getToken(UserInfo user) {
         String token = UUID.randomUUID().toString();
-        User sessionUser = User.createFromUserInfo(user, token);                
-        
-        userTokenMap.put(token, sessionUser);                        
-        
-        return token; 
+        User sessionUser = User.createFromUserInfo(user, token);
+
+        if (persistTokens) {
+            persistToken(sessionUser);
+        }
+
+        addToken(sessionUser, true);
+        issuedCount.increment();
+
+        return token;
     }
-    
+
     public boolean revokeToken(String token) {
-        User remove = userTokenMap.remove(token);
-        return remove != null; 
+        boolean revoked = removeToken(token) != null;
+
+        if (persistTokens) {
+            try {
+                revoked = (getTokenFacade().deleteByTokenHash(hashToken(token)) > 0) || revoked;
+            } catch (RuntimeException ex) {
+                LOGGER.error("Unable to remove persisted session token: " + ex.getMessage());
+            }
+        }
+
+        if (revoked) {
+            revokedCount.increment();
+        }
+        return revoked;
     }
-    
+
     public User getUserForToken(String token) {
         return userTokenMap.get(token);
     }
-    
+
     public boolean validateToken(String token) {
+        long currentTime = System.currentTimeMillis();
+
         User user = userTokenMap.get(token);
-        if (user != null) {
-            long expirationDate = user.getExpirationDate();
-            Date currentDate = new Date();
-            long currentTime = currentDate.getTime();
-            
-            if (currentTime < expirationDate) {
-                return true; 
-            } else {
-                userTokenMap.remove(token); 
+        if (user == null) {
+            if (!persistTokens) {
+                return false;
+            }
+            // token may have been issued by another node or before a redeploy
+            user = loadPersistedToken(token, currentTime);
+            if (user == null) {
+                return false;
+            }
+            addToken(user, false);
+        }
+
+        if (currentTime >= user.getExpirationDate()) {
+            if (removeToken(token) != null) {
+                expiredCount.increment();
+            }
+            return false;
+        }
+
+        if (persistTokens && currentTime - user.getVerifiedTime() > PERSISTED_TOKEN_VERIFY_INTERVAL) {
+            try {
+                if (getTokenFacade().findByTokenHash(hashToken(token)) == null) {
+                    // revoked on another node
+                    removeToken(token);
+                    return false;
+                }
+                user.setVerifiedTime(currentTime);
+            } catch (RuntimeException ex) {
+                LOGGER.warn("Unable to verify persisted session token: " + ex.getMessage());
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes all expired tokens.
+     *
+     * @return number of tokens removed from memory
+     */
+    public int removeExpiredTokens() {
+        long currentTime = System.currentTimeMillis();
+        int removed = 0;
+
+        for (User user : userTokenMap.values()) {
+            if (currentTime >= user.getExpirationDate()) {
+                if (removeToken(user.getToken()) != null) {
+                    removed++;
+                }
+            }
+        }
+        expiredCount.add(removed);
+
+        if (persistTokens) {
+            try {
+                getTokenFacade().deleteExpired(new Date(currentTime));
+            } catch (RuntimeException ex) {
+                LOGGER.error("Unable to remove expired persisted session tokens: " + ex.getMessage());
             }
         }
-        return false;         
+
+        return removed;
+    }
+
+    public UserSessionStatistics getStatistics() {
+        UserSessionStatistics statistics = new UserSessionStatistics();
+        statistics.setActiveSessionCount(userTokenMap.size());
+        statistics.setActiveUserCount(userTokenQueueMap.size());
+        statistics.setIssuedCount(issuedCount.sum());
+        statistics.setRevokedCount(revokedCount.sum());
+        statistics.setExpiredCount(expiredCount.sum());
+        statistics.setEvictedCount(evictedCount.sum());
+        statistics.setMaxTokensPerUser(maxTokensPerUser);
+        statistics.setPersistent(persistTokens);
+        return statistics;
     }
-    
+
     public String getNext() {
-        ctr = ctr + 1;
-        return "Next one is: " + ctr;
+        return "Next one is: " + ctr.incrementAndGet();
+    }
+
+    private void addToken(User sessionUser, boolean enforceLimit) {
+        String token = sessionUser.getToken();
+        Integer userId = sessionUser.getUser().getId();
+        List<String> evictedTokens = new ArrayList<>();
+
+        userTokenMap.put(token, sessionUser);
+        userTokenQueueMap.compute(userId, (id, tokenQueue) -> {
+            if (tokenQueue == null) {
+                tokenQueue = new ArrayDeque<>();
+            }
+            tokenQueue.addLast(token);
+            if (enforceLimit && maxTokensPerUser > 0) {
+                while (tokenQueue.size() > maxTokensPerUser) {
+                    evictedTokens.add(tokenQueue.pollFirst());
+                }
+            }
+            return tokenQueue;
+        });
+
+        for (String evictedToken : evictedTokens) {
+            userTokenMap.remove(evictedToken);
+            evictedCount.increment();
+        }
+
+        if (enforceLimit && persistTokens && maxTokensPerUser > 0) {
+            evictPersistedTokens(userId);
+        }
     }
-    
-    
+
+    private User removeToken(String token) {
+        User removed = userTokenMap.remove(token);
+        if (removed != null) {
+            userTokenQueueMap.computeIfPresent(removed.getUser().getId(), (id, tokenQueue) -> {
+                tokenQueue.remove(token);
+                return tokenQueue.isEmpty() ? null : tokenQueue;
+            });
+        }
+        return removed;
+    }
+
+    private void persistToken(User sessionUser) {
+        UserSessionToken sessionToken = new UserSessionToken();
+        sessionToken.setTokenHash(hashToken(sessionUser.getToken()));
+        sessionToken.setUser(sessionUser.getUser());
+        sessionToken.setCreatedOnDateTime(new Date());
+        sessionToken.setExpirationDateTime(new Date(sessionUser.getExpirationDate()));
+        try {
+            getTokenFacade().create(sessionToken);
+            sessionUser.setVerifiedTime(System.currentTimeMillis());
+        } catch (RuntimeException ex) {
+            // session remains valid on this node only
+            LOGGER.error("Unable to persist session token: " + ex.getMessage());
+        }
+    }
+
+    private User loadPersistedToken(String token, long currentTime) {
+        try {
+            UserSessionToken sessionToken = getTokenFacade().findByTokenHash(hashToken(token));
+            if (sessionToken == null) {
+                return null;
+            }
+            User user = User.createFromUserInfo(
+                    sessionToken.getUser(), token, sessionToken.getExpirationDateTime());
+            user.setVerifiedTime(currentTime);
+            return user;
+        } catch (RuntimeException ex) {
+            LOGGER.error("Unable to load persisted session token: " + ex.getMessage());
+        }
+        return null;
+    }
+
+    private void evictPersistedTokens(Integer userId) {
+        try {
+            UserSessionTokenFacade facade = getTokenFacade();
+            List<UserSessionToken> sessionTokens = facade.findByUserId(userId);
+            for (int i = maxTokensPerUser; i < sessionTokens.size(); i++) {
+                facade.remove(sessionTokens.get(i));
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.error("Unable to evict persisted session tokens: " + ex.getMessage());
+        }
+    }
+
+    private UserSessionTokenFacade getTokenFacade() {
+        return UserSessionTokenFacade.getInstance();
+    }
+
+    private static String hashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder result = new StringBuilder();
+            for (byte b : hash) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            // SHA-256 is required to be supported by every Java platform.
+            throw new IllegalStateException(ex);
+        }
+    }
+
 }
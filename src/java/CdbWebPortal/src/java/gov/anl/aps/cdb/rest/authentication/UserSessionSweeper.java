@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.rest.authentication;
+
+import gov.anl.aps.cdb.common.constants.CdbProperty;
+import gov.anl.aps.cdb.portal.utilities.ConfigurationUtility;
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Periodically removes expired REST API session tokens.
+ */
+@Singleton
+@Startup
+public class UserSessionSweeper {
+
+    private static final Logger LOGGER = LogManager.getLogger(UserSessionSweeper.class.getName());
+
+    private static final int DEFAULT_SWEEP_INTERVAL_IN_MINUTES = 10;
+
+    @Resource
+    private TimerService timerService;
+
+    @PostConstruct
+    public void init() {
+        Integer sweepInterval = ConfigurationUtility.getPortalPropertyAsInteger(
+                CdbProperty.REST_SESSION_SWEEP_INTERVAL_PROPERTY_NAME);
+        if (sweepInterval == null) {
+            sweepInterval = DEFAULT_SWEEP_INTERVAL_IN_MINUTES;
+        }
+        if (sweepInterval <= 0) {
+            LOGGER.info("REST session sweeping is disabled.");
+            return;
+        }
+
+        // timers created by previous deployments are persistent
+        for (Object timer : timerService.getTimers()) {
+            ((Timer) timer).cancel();
+        }
+
+        long interval = sweepInterval * 60000L;
+        timerService.createTimer(interval, interval, UserSessionSweeper.class.getSimpleName());
+    }
+
+    @Timeout
+    public void sweep() {
+        int removed = UserSessionKeeper.getInstance().removeExpiredTokens();
+        if (removed > 0) {
+            LOGGER.debug("Removed " + removed + " expired REST session tokens.");
+        }
+    }
+
+}
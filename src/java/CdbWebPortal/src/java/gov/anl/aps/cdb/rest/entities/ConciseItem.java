@@ -4,12 +4,16 @@
  */
 package gov.anl.aps.cdb.rest.entities;
 
+import gov.anl.aps.cdb.portal.controllers.ItemController;
+import gov.anl.aps.cdb.portal.model.db.beans.ItemFacadeBase;
 import gov.anl.aps.cdb.portal.model.db.entities.Item;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemCategory;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemProject;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemType;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  *
@@ -38,6 +42,18 @@ public class ConciseItem {
         init(item, options);
     }
 
+    private ConciseItem(Object[] attributeRow) {
+        id = (Integer) attributeRow[0];
+        name = (String) attributeRow[1];
+        itemIdentifier1 = (String) attributeRow[2];
+        itemIdentifier2 = (String) attributeRow[3];
+        qrId = (Integer) attributeRow[4];
+        if (attributeRow.length > 5) {
+            derivedFromItemId = (Integer) attributeRow[5];
+            derivedFromItemName = (String) attributeRow[6];
+        }
+    }
+
     private void init(Item item, ConciseItemOptions options) {
         name = item.getName();
         id = item.getId();
@@ -142,4 +158,66 @@ public class ConciseItem {
         return basicItems;
     }
 
+    /**
+     * Creates concise items from projection queries instead of loaded items.
+     * Optional lists are selected with one query per list for all items.
+     *
+     * @param itemFacade facade of any item domain
+     * @param itemIdList ids of the items, at most a few thousand
+     * @param options attributes to include, may be null
+     * @return concise items in the order of the ids
+     */
+    public static List<ConciseItem> createList(ItemFacadeBase itemFacade, List<Integer> itemIdList, ConciseItemOptions options) {
+        if (options == null) {
+            options = new ConciseItemOptions();
+        }
+
+        List<Object[]> attributeRowList = itemFacade.findConciseAttributeList(itemIdList, options.isIncludeDerivedFromItemInfo());
+        Map<Integer, ConciseItem> conciseItemMap = new HashMap<>();
+        for (Object[] attributeRow : attributeRowList) {
+            ConciseItem conciseItem = new ConciseItem(attributeRow);
+            conciseItemMap.put(conciseItem.id, conciseItem);
+        }
+
+        Map<Integer, List<Integer>> itemCategoryIdMap = null;
+        Map<Integer, List<Integer>> itemTypeIdMap = null;
+        Map<Integer, List<Integer>> itemProjectIdMap = null;
+        Map<Integer, String> primaryImageMap = null;
+        if (options.isIncludeItemCategoryIdList()) {
+            itemCategoryIdMap = itemFacade.findItemCategoryIdMap(itemIdList);
+        }
+        if (options.isIncludeItemTypeIdList()) {
+            itemTypeIdMap = itemFacade.findItemTypeIdMap(itemIdList);
+        }
+        if (options.isIncludeItemProjectIdList()) {
+            itemProjectIdMap = itemFacade.findItemProjectIdMap(itemIdList);
+        }
+        if (options.isIncludePrimaryImageForItem()) {
+            primaryImageMap = ItemController.getPrimaryImageMap(itemFacade, itemIdList);
+        }
+
+        List<ConciseItem> conciseItemList = new ArrayList<>(conciseItemMap.size());
+        for (Integer itemId : itemIdList) {
+            ConciseItem conciseItem = conciseItemMap.get(itemId);
+            if (conciseItem == null) {
+                // removed since the ids were selected
+                continue;
+            }
+            if (itemCategoryIdMap != null) {
+                conciseItem.itemCategoryIdList = itemCategoryIdMap.getOrDefault(itemId, new ArrayList<>());
+            }
+            if (itemTypeIdMap != null) {
+                conciseItem.itemTypeIdList = itemTypeIdMap.getOrDefault(itemId, new ArrayList<>());
+            }
+            if (itemProjectIdMap != null) {
+                conciseItem.itemProjectIdList = itemProjectIdMap.getOrDefault(itemId, new ArrayList<>());
+            }
+            if (primaryImageMap != null) {
+                conciseItem.primaryImageForItem = primaryImageMap.get(itemId);
+            }
+            conciseItemList.add(conciseItem);
+        }
+        return conciseItemList;
+    }
+
 }
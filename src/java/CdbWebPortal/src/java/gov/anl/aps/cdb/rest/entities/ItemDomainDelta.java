@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.rest.entities;
+
+import gov.anl.aps.cdb.portal.model.db.entities.Item;
+import java.util.List;
+
+/**
+ * Items of a domain changed since a version, and ids of deleted items.
+ *
+ * The version is passed back as the since parameter of the next request.
+ * When the changes since the requested version are no longer known, the
+ * delta is complete: it has all items of the domain and replaces the copy
+ * of the client.
+ */
+public class ItemDomainDelta {
+
+    private long version;
+    private boolean complete;
+    private List<? extends Item> items;
+    private List<Integer> deletedItemIds;
+
+    public ItemDomainDelta() {
+    }
+
+    public ItemDomainDelta(long version, boolean complete, List<? extends Item> items, List<Integer> deletedItemIds) {
+        this.version = version;
+        this.complete = complete;
+        this.items = items;
+        this.deletedItemIds = deletedItemIds;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public List<? extends Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<? extends Item> items) {
+        this.items = items;
+    }
+
+    /**
+     * Deleted items may be of other domains, ids of items the client does
+     * not have are ignored.
+     */
+    public List<Integer> getDeletedItemIds() {
+        return deletedItemIds;
+    }
+
+    public void setDeletedItemIds(List<Integer> deletedItemIds) {
+        this.deletedItemIds = deletedItemIds;
+    }
+
+}
@@ -6,6 +6,7 @@ package gov.anl.aps.cdb.rest.entities;
 
 import gov.anl.aps.cdb.portal.model.db.entities.Item;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemElement;
+import gov.anl.aps.cdb.portal.model.db.utilities.ItemHierarchyLoader;
 import java.util.ArrayList;
 import java.util.List;
 import org.primefaces.model.TreeNode;
@@ -29,18 +30,28 @@ public class ItemHierarchy {
     }
     
     public ItemHierarchy(Item parentItem, boolean autocreateHierarchy) {
+        this(parentItem, autocreateHierarchy ? ItemHierarchyLoader.loadHierarchy(parentItem) : null);
+    }
+
+    /**
+     * Creates hierarchy of the item from elements loaded by the loader.
+     *
+     * @param parentItem root of the hierarchy
+     * @param loader loaded hierarchy, null to create a single node
+     */
+    public ItemHierarchy(Item parentItem, ItemHierarchyLoader loader) {
         this.item = parentItem;
         childItems = new ArrayList<>();
 
-        if (autocreateHierarchy) {
-            for (ItemElement element : parentItem.getItemElementDisplayList()) {
+        if (loader != null) {
+            for (ItemElement element : loader.getItemElementDisplayList(parentItem)) {
                 Item containedItem = element.getContainedItem();
                
                 ItemElement derivedFromItemElement = element.getDerivedFromItemElement();
                 
                 ItemHierarchy child = null; 
                 if (containedItem != null) {
-                    child = new ItemHierarchy(containedItem, true);
+                    child = new ItemHierarchy(containedItem, loader);
                 }
                 
                 if (derivedFromItemElement != null) {
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.rest.entities;
+
+/**
+ * Counters of REST API sessions kept by this portal node.
+ */
+public class UserSessionStatistics {
+
+    private int activeSessionCount;
+    private int activeUserCount;
+    private long issuedCount;
+    private long revokedCount;
+    private long expiredCount;
+    private long evictedCount;
+    private int maxTokensPerUser;
+    private boolean persistent;
+
+    public UserSessionStatistics() {
+    }
+
+    public int getActiveSessionCount() {
+        return activeSessionCount;
+    }
+
+    public void setActiveSessionCount(int activeSessionCount) {
+        this.activeSessionCount = activeSessionCount;
+    }
+
+    public int getActiveUserCount() {
+        return activeUserCount;
+    }
+
+    public void setActiveUserCount(int activeUserCount) {
+        this.activeUserCount = activeUserCount;
+    }
+
+    public long getIssuedCount() {
+        return issuedCount;
+    }
+
+    public void setIssuedCount(long issuedCount) {
+        this.issuedCount = issuedCount;
+    }
+
+    public long getRevokedCount() {
+        return revokedCount;
+    }
+
+    public void setRevokedCount(long revokedCount) {
+        this.revokedCount = revokedCount;
+    }
+
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+    public void setExpiredCount(long expiredCount) {
+        this.expiredCount = expiredCount;
+    }
+
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    public void setEvictedCount(long evictedCount) {
+        this.evictedCount = evictedCount;
+    }
+
+    public int getMaxTokensPerUser() {
+        return maxTokensPerUser;
+    }
+
+    public void setMaxTokensPerUser(int maxTokensPerUser) {
+        this.maxTokensPerUser = maxTokensPerUser;
+    }
+
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    public void setPersistent(boolean persistent) {
+        this.persistent = persistent;
+    }
+
+}
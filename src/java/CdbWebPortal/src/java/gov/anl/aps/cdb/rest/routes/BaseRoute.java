@@ -4,13 +4,27 @@
  */
 package gov.anl.aps.cdb.rest.routes;
 
+import gov.anl.aps.cdb.common.constants.CdbProperty;
+import gov.anl.aps.cdb.portal.constants.EntityChangeType;
 import gov.anl.aps.cdb.portal.controllers.LoginController;
+import gov.anl.aps.cdb.portal.model.db.beans.EntityChangeFacade;
+import gov.anl.aps.cdb.portal.model.db.beans.ItemFacadeBase;
 import gov.anl.aps.cdb.portal.model.db.beans.UserInfoFacade;
 import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
+import gov.anl.aps.cdb.portal.utilities.ConfigurationUtility;
+import gov.anl.aps.cdb.portal.utilities.EntityChangeFeed;
 import gov.anl.aps.cdb.rest.authentication.User;
+import gov.anl.aps.cdb.rest.entities.ItemDomainDelta;
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import javax.ejb.EJB;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.SecurityContext;
 
 
@@ -20,12 +34,30 @@ import javax.ws.rs.core.SecurityContext;
  */
 public abstract class BaseRoute {
     
+    // changes are looked up this long before the requested version by
+    // default, which covers transactions committed after the version was
+    // handed out and date times stored with second precision
+    private static final int DEFAULT_ITEM_DOMAIN_DELTA_OVERLAP_IN_SECONDS = 60;
+
+    protected static final String ITEM_DOMAIN_DELTA_DESCRIPTION = "Items modified up to "
+            + CdbProperty.ITEM_DOMAIN_DELTA_OVERLAP_PROPERTY_NAME + " seconds (default 60) before the since version"
+            + " are returned again, so writes committed after the previous delta was created are included."
+            + " Writes taking longer than that to commit can be missed."
+            + " Deleted item ids come from the change feed, which records deletions in the deleting transaction."
+            + " A complete delta with all items is returned when the feed no longer covers the since version.";
+    
     @Context
     SecurityContext securityContext;   
     
+    @Context
+    Request request; 
+    
     @EJB
     UserInfoFacade userFacade; 
     
+    @EJB
+    EntityChangeFacade entityChangeFacade; 
+    
     protected boolean isUserAdmin(UserInfo userInfo) {
         String username = userInfo.getUsername();
         return LoginController.isAdmin(username, userFacade);
@@ -50,4 +82,87 @@ public abstract class BaseRoute {
         return null;
     }
     
+    /**
+     * Lists all items of the domain, or responds 304 Not Modified to
+     * conditional requests when the domain did not change.
+     */
+    protected Response getItemDomainListResponse(ItemFacadeBase<?> facade, String domainName) {
+        Object[] versionAttributes = facade.findDomainVersionAttributes(domainName);
+        Date lastModified = getItemDomainLastModified(versionAttributes);
+        EntityTag entityTag = getItemDomainEntityTag(versionAttributes, lastModified);
+
+        ResponseBuilder builder = request.evaluatePreconditions(lastModified, entityTag);
+        if (builder == null) {
+            builder = Response.ok(facade.findByDomain(domainName));
+        }
+        return builder.tag(entityTag).lastModified(lastModified).build();
+    }
+
+    /**
+     * Lists items of the domain modified since the version, and items
+     * deleted since then, or responds 304 Not Modified to conditional
+     * requests when the domain did not change.
+     *
+     * @param since version of the previous delta, null for all items
+     */
+    protected Response getItemDomainDeltaResponse(ItemFacadeBase<?> facade, String domainName, Long since) {
+        long version = System.currentTimeMillis();
+        Object[] versionAttributes = facade.findDomainVersionAttributes(domainName);
+        Date lastModified = getItemDomainLastModified(versionAttributes);
+        EntityTag entityTag = getItemDomainEntityTag(versionAttributes, lastModified);
+
+        ResponseBuilder builder = request.evaluatePreconditions(lastModified, entityTag);
+        if (builder == null) {
+            builder = Response.ok(createItemDomainDelta(facade, domainName, since, version));
+        }
+        return builder.tag(entityTag).lastModified(lastModified).build();
+    }
+
+    private ItemDomainDelta createItemDomainDelta(ItemFacadeBase<?> facade, String domainName, Long since, long version) {
+        if (since != null) {
+            // deleted items are only known while their changes are kept;
+            // they are recorded in the transaction deleting the items, so
+            // the overlap covers them the same way as modified items
+            Date sinceDateTime = new Date(since - getItemDomainDeltaOverlap());
+            Date firstChangedOnDateTime = entityChangeFacade.findFirstChangedOnDateTime();
+            if (firstChangedOnDateTime != null && !sinceDateTime.before(firstChangedOnDateTime)) {
+                List<Integer> deletedItemIdList = entityChangeFacade.findEntityIdListChangedSince(
+                        EntityChangeFeed.ITEM_ENTITY_TYPE_NAME, EntityChangeType.deleted.getValue(), sinceDateTime);
+                return new ItemDomainDelta(version, false,
+                        facade.findByDomainModifiedSince(domainName, sinceDateTime), deletedItemIdList);
+            }
+        }
+        return new ItemDomainDelta(version, true, facade.findByDomain(domainName), new ArrayList<>());
+    }
+
+    private static long getItemDomainDeltaOverlap() {
+        Integer overlap = ConfigurationUtility.getPortalPropertyAsInteger(
+                CdbProperty.ITEM_DOMAIN_DELTA_OVERLAP_PROPERTY_NAME);
+        if (overlap == null || overlap < 1) {
+            overlap = DEFAULT_ITEM_DOMAIN_DELTA_OVERLAP_IN_SECONDS;
+        }
+        return overlap * 1000L;
+    }
+
+    /**
+     * Deleting items does not modify the remaining ones, so the latest item
+     * deletion counts as modification of the domain.
+     */
+    private Date getItemDomainLastModified(Object[] versionAttributes) {
+        long lastModified = 0;
+        if (versionAttributes[0] != null) {
+            lastModified = ((Date) versionAttributes[0]).getTime();
+        }
+        Date lastDeletedDateTime = entityChangeFacade.findLastChangedOnDateTime(
+                EntityChangeFeed.ITEM_ENTITY_TYPE_NAME, EntityChangeType.deleted.getValue());
+        if (lastDeletedDateTime != null) {
+            lastModified = Math.max(lastModified, lastDeletedDateTime.getTime());
+        }
+        return new Date(lastModified);
+    }
+
+    private EntityTag getItemDomainEntityTag(Object[] versionAttributes, Date lastModified) {
+        return new EntityTag(lastModified.getTime() + "-" + versionAttributes[1], true);
+    }
+    
 }
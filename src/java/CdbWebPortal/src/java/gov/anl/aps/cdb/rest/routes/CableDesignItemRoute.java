@@ -7,10 +7,17 @@ package gov.anl.aps.cdb.rest.routes;
 import gov.anl.aps.cdb.common.exceptions.ObjectNotFound;
 import gov.anl.aps.cdb.portal.model.db.beans.ItemDomainCableDesignFacade;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemDomainCableDesign;
+import gov.anl.aps.cdb.portal.model.db.utilities.ItemIdListResolver;
 import gov.anl.aps.cdb.rest.entities.ItemDomainCableDesignIdListRequest;
+import gov.anl.aps.cdb.rest.entities.ItemDomainDelta;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import java.util.ArrayList;
 import java.util.List;
 import javax.ejb.EJB;
 import javax.ws.rs.Consumes;
@@ -19,7 +26,9 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -39,9 +48,25 @@ public class CableDesignItemRoute extends BaseRoute {
     @GET
     @Path("/all")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<ItemDomainCableDesign> getCableDesignItemList() {
+    @Operation(summary = "Fetch all cable designs. Conditional requests are answered with 304 Not Modified while the domain does not change.",
+            responses = @ApiResponse(responseCode = "200",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = ItemDomainCableDesign.class)))))
+    public Response getCableDesignItemList() {
         LOGGER.debug("Fetching cable design list");
-        return facade.findAll();
+        return getItemDomainListResponse(facade, facade.getDomainName());
+    }
+    
+    @GET
+    @Path("/Delta")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Fetch cable designs modified since the version of a previous delta, and ids of deleted items.",
+            description = ITEM_DOMAIN_DELTA_DESCRIPTION,
+            responses = @ApiResponse(responseCode = "200",
+                    content = @Content(schema = @Schema(implementation = ItemDomainDelta.class))))
+    public Response getCableDesignItemDelta(
+            @Parameter(description = "Version of the previous delta, all items are returned if omitted.") @QueryParam("since") Long since) {
+        LOGGER.debug("Fetching cable design delta since: " + since);
+        return getItemDomainDeltaResponse(facade, facade.getDomainName(), since);
     }
     
     @GET
@@ -83,23 +108,6 @@ public class CableDesignItemRoute extends BaseRoute {
     public List<Integer> getCableDesignIdList(@RequestBody(required = true) ItemDomainCableDesignIdListRequest request) {
         List<String> nameList = request.getNameList();
         LOGGER.debug("Fetching list of cable design id's by name list size: " + nameList.size());
-        List<Integer> idList = new ArrayList<>(nameList.size());
-        for (String name : nameList) {
-            if ((name != null) && (!name.isBlank())) {
-                List<ItemDomainCableDesign> itemList = facade.findByName(name);
-                if (itemList == null || itemList.isEmpty()) {
-                    // use 0 to indicate that there is no item with specified name
-                    idList.add(0);
-                } else if (itemList.size() > 1) {
-                    // use -1 to indicate that there are multiple items with same name
-                    idList.add(-1);
-                } else {
-                    idList.add(itemList.get(0).getId());
-                }
-            } else {
-                idList.add(0);
-            }
-        }
-        return idList;
+        return ItemIdListResolver.resolveIdList(facade, nameList);
     }
 }
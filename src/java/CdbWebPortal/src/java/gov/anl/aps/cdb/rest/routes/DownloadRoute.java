@@ -4,51 +4,243 @@
  */
 package gov.anl.aps.cdb.rest.routes;
 
+import gov.anl.aps.cdb.common.constants.CdbProperty;
+import gov.anl.aps.cdb.common.constants.CdbPropertyValue;
+import gov.anl.aps.cdb.portal.utilities.ConfigurationUtility;
+import gov.anl.aps.cdb.portal.utilities.FileContentCache;
 import gov.anl.aps.cdb.portal.utilities.StorageUtility;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
+ * Serves stored images, documents and log attachments.
+ *
+ * Responses carry an ETag and Last-Modified header so clients can
+ * revalidate, single byte ranges are answered with partial content, and
+ * file content is streamed through a file channel. Responses are
+ * revalidated by clients on each use. Small previews are also kept in
+ * memory.
  *
  * @author djarosz
  */
 @Path("/Downloads")
 @Tag(name = "Downloads")
-public class DownloadRoute extends BaseRoute {   
-    
+public class DownloadRoute extends BaseRoute {
+
     private static final Logger LOGGER = LogManager.getLogger(DownloadRoute.class.getName());
-    
+
+    private static final String REVALIDATE_CACHE_CONTROL = "private, no-cache";
+
+    private static final int DEFAULT_PREVIEW_CACHE_SIZE = 500;
+    private static final long MAX_CACHED_PREVIEW_SIZE = 256 * 1024;
+
+    private static final Pattern RANGE_PATTERN = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+
+    private static FileContentCache previewCache = null;
+
     @GET
-    @Path("/PropertyValue/Image/{imageName}/{scaling}")       
-    public Response getImage(@PathParam("imageName") String imageName,@PathParam("scaling") String scaling) throws FileNotFoundException {  
+    @Path("/PropertyValue/Image/{imageName}/{scaling}")
+    public Response getImage(@PathParam("imageName") String imageName,
+            @PathParam("scaling") String scaling,
+            @HeaderParam("Range") String range,
+            @HeaderParam("If-Range") String ifRange) throws FileNotFoundException {
         LOGGER.debug("Fetching " + scaling + " image: " + imageName);
         String fullImageName = imageName+"."+scaling;
+        verifyFileName(fullImageName);
         String filePath = StorageUtility.getFileSystemPropertyValueImagePath(fullImageName);
-        
-        return getFileResponse("Image: " + fullImageName, imageName, filePath);
+
+        boolean preview = scaling.equals(CdbPropertyValue.THUMBNAIL_IMAGE_EXTENSION.substring(1))
+                || scaling.equals(CdbPropertyValue.SCALED_IMAGE_EXTENSION.substring(1));
+
+        return getFileResponse("Image: " + fullImageName, imageName, filePath, preview, range, ifRange);
     }
-    
-    private Response getFileResponse(String errorFileTypeColonName, String fileName, String storageFilePath) throws FileNotFoundException {
+
+    @GET
+    @Path("/PropertyValue/Document/{documentName}")
+    public Response getDocument(@PathParam("documentName") String documentName,
+            @HeaderParam("Range") String range,
+            @HeaderParam("If-Range") String ifRange) throws FileNotFoundException {
+        LOGGER.debug("Fetching document: " + documentName);
+        verifyFileName(documentName);
+        String filePath = StorageUtility.getFileSystemPropertyValueDocumentPath(documentName);
+
+        return getFileResponse("Document: " + documentName, documentName, filePath, false, range, ifRange);
+    }
+
+    @GET
+    @Path("/Log/Attachment/{attachmentName}")
+    public Response getLogAttachment(@PathParam("attachmentName") String attachmentName,
+            @HeaderParam("Range") String range,
+            @HeaderParam("If-Range") String ifRange) throws FileNotFoundException {
+        LOGGER.debug("Fetching log attachment: " + attachmentName);
+        verifyFileName(attachmentName);
+        String filePath = StorageUtility.getFileSystemLogAttachmentPath(attachmentName);
+
+        return getFileResponse("Log attachment: " + attachmentName, attachmentName, filePath, false, range, ifRange);
+    }
+
+    private Response getFileResponse(String errorFileTypeColonName, String fileName, String storageFilePath,
+            boolean preview, String range, String ifRange) throws FileNotFoundException {
         File file = new File(storageFilePath);
-        
-        if (file.exists()) {
-            ResponseBuilder response = Response.ok((Object) file);
-            response.header("Content-Disposition",
-                    "attachment; filename=" + fileName);
-            return response.build();
-        }        
-        
-        FileNotFoundException fileNotFoundException = new FileNotFoundException(errorFileTypeColonName + " requested was not found."); 
-        LOGGER.error(fileNotFoundException);
-        throw fileNotFoundException; 
-    }
-        
+
+        // a single stat per request; the file may disappear at any time
+        long length = file.length();
+        long lastModified = file.lastModified();
+        if (lastModified == 0 || !file.isFile()) {
+            FileNotFoundException fileNotFoundException = new FileNotFoundException(errorFileTypeColonName + " requested was not found.");
+            LOGGER.error(fileNotFoundException);
+            throw fileNotFoundException;
+        }
+
+        String entityVersion = Long.toHexString(length) + "-" + Long.toHexString(lastModified);
+        EntityTag entityTag = new EntityTag(entityVersion);
+        // HTTP dates have a resolution of one second
+        Date lastModifiedDate = new Date(lastModified / 1000 * 1000);
+
+        ResponseBuilder response = request.evaluatePreconditions(lastModifiedDate, entityTag);
+        if (response != null) {
+            // not modified or precondition failed
+            return response
+                    .tag(entityTag)
+                    .header(HttpHeaders.CACHE_CONTROL, REVALIDATE_CACHE_CONTROL)
+                    .build();
+        }
+
+        byte[] content = null;
+        if (preview) {
+            try {
+                content = getPreviewCache().getContent(file, length, lastModified);
+            } catch (IOException ex) {
+                LOGGER.error(ex);
+            }
+            if (content != null) {
+                length = content.length;
+            }
+        }
+
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        if (range != null && (ifRange == null || ifRange.equals(entityTag.toString()))) {
+            Matcher matcher = RANGE_PATTERN.matcher(range.trim());
+            // multiple ranges are answered with the full content
+            if (matcher.matches() && !(matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+                try {
+                    if (matcher.group(1).isEmpty()) {
+                        // suffix range of the last bytes
+                        start = Math.max(0, length - Long.parseLong(matcher.group(2)));
+                    } else {
+                        start = Long.parseLong(matcher.group(1));
+                        if (!matcher.group(2).isEmpty()) {
+                            end = Math.min(end, Long.parseLong(matcher.group(2)));
+                        }
+                    }
+                } catch (NumberFormatException ex) {
+                    start = length;
+                }
+                if (start >= length || start > end) {
+                    return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header("Content-Range", "bytes */" + length)
+                            .build();
+                }
+                partial = true;
+            }
+        }
+        long contentLength = end - start + 1;
+
+        Object entity;
+        if (content != null) {
+            entity = partial ? Arrays.copyOfRange(content, (int) start, (int) end + 1) : content;
+        } else {
+            entity = createFileStream(file, start, contentLength);
+        }
+
+        if (partial) {
+            response = Response.status(Response.Status.PARTIAL_CONTENT)
+                    .entity(entity)
+                    .header("Content-Range", "bytes " + start + "-" + end + "/" + length);
+        } else {
+            response = Response.ok(entity);
+        }
+
+        return response
+                .type(getMediaType(fileName))
+                .tag(entityTag)
+                .lastModified(lastModifiedDate)
+                .header(HttpHeaders.CACHE_CONTROL, REVALIDATE_CACHE_CONTROL)
+                .header(HttpHeaders.CONTENT_LENGTH, contentLength)
+                .header("Accept-Ranges", "bytes")
+                .header("Content-Disposition", "attachment; filename=" + fileName)
+                .build();
+    }
+
+    private static StreamingOutput createFileStream(File file, long start, long length) {
+        return output -> {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(output);
+                long position = start;
+                long remaining = length;
+                while (remaining > 0) {
+                    long count = channel.transferTo(position, remaining, target);
+                    if (count <= 0) {
+                        // file truncated while sending
+                        break;
+                    }
+                    position += count;
+                    remaining -= count;
+                }
+            }
+        };
+    }
+
+    private static MediaType getMediaType(String fileName) {
+        String contentType = URLConnection.guessContentTypeFromName(fileName);
+        if (contentType == null) {
+            return MediaType.APPLICATION_OCTET_STREAM_TYPE;
+        }
+        return MediaType.valueOf(contentType);
+    }
+
+    private static void verifyFileName(String fileName) throws FileNotFoundException {
+        // stored files are never in subdirectories
+        if (fileName.contains("/") || fileName.contains("\\") || fileName.startsWith("..")) {
+            throw new FileNotFoundException("Invalid file name: " + fileName);
+        }
+    }
+
+    private static synchronized FileContentCache getPreviewCache() {
+        if (previewCache == null) {
+            Integer cacheSize = ConfigurationUtility.getPortalPropertyAsInteger(
+                    CdbProperty.DOWNLOAD_PREVIEW_CACHE_SIZE_PROPERTY_NAME);
+            if (cacheSize == null || cacheSize < 0) {
+                cacheSize = DEFAULT_PREVIEW_CACHE_SIZE;
+            }
+            previewCache = new FileContentCache(cacheSize, MAX_CACHED_PREVIEW_SIZE);
+        }
+        return previewCache;
+    }
+
 }
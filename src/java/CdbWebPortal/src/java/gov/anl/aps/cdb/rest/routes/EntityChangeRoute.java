@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.rest.routes;
+
+import gov.anl.aps.cdb.common.exceptions.InvalidArgument;
+import gov.anl.aps.cdb.portal.model.db.entities.EntityChange;
+import gov.anl.aps.cdb.portal.utilities.EntityChangeFeed;
+import gov.anl.aps.cdb.portal.utilities.EntityChangeSubscriber;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Feed of item, property value, relationship and item location changes.
+ *
+ * Each change gets an increasing sequence number shortly after it is
+ * committed. Consumers keep it as cursor and pass it back as the after
+ * parameter, or as Last-Event-ID when reconnecting to the event stream.
+ */
+@Path("/Changes")
+@Tag(name = "Changes")
+public class EntityChangeRoute extends BaseRoute {
+
+    private static final Logger LOGGER = LogManager.getLogger(EntityChangeRoute.class.getName());
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_WAIT_IN_SECONDS = 60;
+
+    // streams are closed after this time and reopened by clients
+    private static final long STREAM_DURATION = 5 * 60 * 1000;
+    private static final long STREAM_KEEP_ALIVE_INTERVAL = 15 * 1000;
+    private static final long STREAM_RECONNECT_DELAY = 1000;
+
+    private static final String CHANGE_EVENT_NAME = "entityChange";
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Fetch changes after the cursor, optionally waiting for new changes.",
+            responses = @ApiResponse(responseCode = "200",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = EntityChange.class)))))
+    public void getChanges(
+            @Parameter(description = "Sequence number of the last change received.") @QueryParam("after") @DefaultValue("0") long after,
+            @Parameter(description = "Maximum number of changes returned.") @QueryParam("limit") @DefaultValue("100") int limit,
+            @Parameter(description = "Only changes of entity type: item, itemLocation, propertyValue or itemElementRelationship.") @QueryParam("entityType") String entityType,
+            @Parameter(description = "Seconds to wait for changes when there are none yet.") @QueryParam("wait") @DefaultValue("0") int wait,
+            @Suspended AsyncResponse asyncResponse) throws InvalidArgument {
+        if (after < 0) {
+            throw new InvalidArgument("after must not be negative");
+        }
+        if (limit <= 0) {
+            limit = DEFAULT_PAGE_SIZE;
+        }
+        LOGGER.debug("Fetching changes after: " + after);
+
+        EntityChangeFeed feed = EntityChangeFeed.getInstance();
+        if (wait <= 0) {
+            asyncResponse.resume(createChangeListResponse(feed.findChanges(after, entityType, limit)));
+            return;
+        }
+        // the request thread is released while waiting
+        asyncResponse.setTimeoutHandler(response -> response.resume(
+                createChangeListResponse(Collections.emptyList())));
+        asyncResponse.setTimeout(Math.min(wait, MAX_WAIT_IN_SECONDS), TimeUnit.SECONDS);
+        feed.subscribe(new PollSubscriber(asyncResponse, after, entityType, limit));
+    }
+
+    @GET
+    @Path("/LastSequenceNumber")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Fetch the sequence number of the latest change, the cursor for receiving changes from now on.")
+    public Long getLastSequenceNumber() {
+        return EntityChangeFeed.getInstance().getLastSequenceNumber();
+    }
+
+    @GET
+    @Path("/Stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Operation(summary = "Stream changes after the cursor as server-sent events.")
+    public void streamChanges(
+            @Parameter(description = "Sequence number of the last change received, latest change if omitted.") @QueryParam("after") Long after,
+            @Parameter(description = "Only changes of entity type.") @QueryParam("entityType") String entityType,
+            @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId,
+            @Context SseEventSink eventSink,
+            @Context Sse sse) {
+        EntityChangeFeed feed = EntityChangeFeed.getInstance();
+        long cursor;
+        if (lastEventId != null && lastEventId.matches("\\d+")) {
+            cursor = Long.parseLong(lastEventId);
+        } else if (after != null) {
+            cursor = after;
+        } else {
+            cursor = feed.getLastSequenceNumber();
+        }
+        LOGGER.debug("Streaming changes after: " + cursor);
+
+        eventSink.send(sse.newEventBuilder()
+                .reconnectDelay(STREAM_RECONNECT_DELAY)
+                .comment("changes after " + cursor)
+                .build());
+        // the sink stays open after returning and is fed by the subscriber
+        feed.subscribe(new StreamSubscriber(eventSink, sse, cursor, entityType));
+    }
+
+    private static Response createChangeListResponse(List<EntityChange> changeList) {
+        return Response.ok(new GenericEntity<List<EntityChange>>(changeList) {
+        }).build();
+    }
+
+    /**
+     * Long poll resumed with the first changes after its cursor. Requests
+     * without changes are resumed by the timeout handler.
+     */
+    private static class PollSubscriber implements EntityChangeSubscriber {
+
+        private final AsyncResponse asyncResponse;
+        private final long cursor;
+        private final String entityType;
+        private final int limit;
+
+        PollSubscriber(AsyncResponse asyncResponse, long cursor, String entityType, int limit) {
+            this.asyncResponse = asyncResponse;
+            this.cursor = cursor;
+            this.entityType = entityType;
+            this.limit = limit;
+        }
+
+        @Override
+        public synchronized boolean checkForChanges(EntityChangeFeed feed) {
+            if (asyncResponse.isDone()) {
+                return false;
+            }
+            List<EntityChange> changeList;
+            try {
+                changeList = feed.findChanges(cursor, entityType, limit);
+            } catch (RuntimeException ex) {
+                asyncResponse.resume(ex);
+                return false;
+            }
+            if (changeList.isEmpty()) {
+                return true;
+            }
+            asyncResponse.resume(createChangeListResponse(changeList));
+            return false;
+        }
+    }
+
+    /**
+     * Event stream sending all changes after its cursor and keep alive
+     * comments while there are none. The stream is closed after
+     * STREAM_DURATION.
+     */
+    private static class StreamSubscriber implements EntityChangeSubscriber {
+
+        private final SseEventSink eventSink;
+        private final Sse sse;
+        private final String entityType;
+        private final long closeTime;
+        private long cursor;
+        private long keepAliveTime;
+
+        StreamSubscriber(SseEventSink eventSink, Sse sse, long cursor, String entityType) {
+            this.eventSink = eventSink;
+            this.sse = sse;
+            this.cursor = cursor;
+            this.entityType = entityType;
+            long now = System.currentTimeMillis();
+            closeTime = now + STREAM_DURATION;
+            keepAliveTime = now + STREAM_KEEP_ALIVE_INTERVAL;
+        }
+
+        @Override
+        public synchronized boolean checkForChanges(EntityChangeFeed feed) {
+            if (eventSink.isClosed()) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            if (now >= closeTime) {
+                eventSink.close();
+                return false;
+            }
+            try {
+                List<EntityChange> changeList;
+                do {
+                    changeList = feed.findChanges(cursor, entityType, EntityChangeFeed.MAX_PAGE_SIZE);
+                    for (EntityChange change : changeList) {
+                        send(sse.newEventBuilder()
+                                .id(String.valueOf(change.getSequenceNumber()))
+                                .name(CHANGE_EVENT_NAME)
+                                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                                .data(EntityChange.class, change)
+                                .build());
+                        cursor = change.getSequenceNumber();
+                        keepAliveTime = now + STREAM_KEEP_ALIVE_INTERVAL;
+                    }
+                } while (changeList.size() == EntityChangeFeed.MAX_PAGE_SIZE && !eventSink.isClosed());
+                if (now >= keepAliveTime) {
+                    send(sse.newEventBuilder().comment("").build());
+                    keepAliveTime = now + STREAM_KEEP_ALIVE_INTERVAL;
+                }
+            } catch (RuntimeException ex) {
+                LOGGER.debug("Change stream closed: " + ex.getMessage());
+                eventSink.close();
+                return false;
+            }
+            return !eventSink.isClosed();
+        }
+
+        private void send(OutboundSseEvent event) {
+            eventSink.send(event).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    // client disconnected
+                    LOGGER.debug("Change stream closed: " + ex.getMessage());
+                    eventSink.close();
+                }
+            });
+        }
+    }
+
+}
@@ -4,12 +4,16 @@
  */
 package gov.anl.aps.cdb.rest.routes;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import gov.anl.aps.cdb.common.exceptions.AuthorizationError;
 import gov.anl.aps.cdb.common.exceptions.CdbException;
 import gov.anl.aps.cdb.common.exceptions.DbError;
 import gov.anl.aps.cdb.common.exceptions.InvalidArgument;
 import gov.anl.aps.cdb.common.exceptions.InvalidRequest;
 import gov.anl.aps.cdb.common.exceptions.ObjectNotFound;
+import gov.anl.aps.cdb.common.utilities.MultipartInputStream;
 import gov.anl.aps.cdb.portal.constants.ItemDomainName;
 import gov.anl.aps.cdb.portal.controllers.utilities.IItemStatusControllerUtility;
 import gov.anl.aps.cdb.portal.controllers.utilities.ItemControllerUtility;
@@ -45,6 +49,7 @@ import gov.anl.aps.cdb.portal.model.db.entities.PropertyValue;
 import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
 import gov.anl.aps.cdb.portal.model.db.entities.PropertyMetadata;
 import gov.anl.aps.cdb.portal.model.db.entities.UserGroup;
+import gov.anl.aps.cdb.portal.model.db.utilities.ItemHierarchyLoader;
 import gov.anl.aps.cdb.portal.model.db.utilities.PropertyValueUtility;
 import gov.anl.aps.cdb.portal.model.jsf.beans.PropertyValueDocumentUploadBean;
 import gov.anl.aps.cdb.portal.model.jsf.beans.PropertyValueImageUploadBean;
@@ -55,6 +60,7 @@ import gov.anl.aps.cdb.rest.entities.ConciseItem;
 import gov.anl.aps.cdb.rest.entities.ConciseItemOptions;
 import gov.anl.aps.cdb.rest.entities.FileUploadObject;
 import gov.anl.aps.cdb.rest.entities.ItemDomainCatalogSearchResult;
+import gov.anl.aps.cdb.rest.entities.ItemDomainDelta;
 import gov.anl.aps.cdb.rest.entities.ItemHierarchy;
 import gov.anl.aps.cdb.rest.entities.ItemLocationInformation;
 import gov.anl.aps.cdb.rest.entities.ItemMembership;
@@ -65,11 +71,18 @@ import gov.anl.aps.cdb.rest.entities.SimpleLocationInformation;
 import gov.anl.aps.cdb.rest.entities.LogEntryEditInformation;
 import gov.anl.aps.cdb.rest.entities.NewLocationInformation;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.LinkedList;
@@ -77,12 +90,18 @@ import java.util.List;
 import javax.ejb.EJB;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -96,6 +115,13 @@ public class ItemRoute extends ItemBaseRoute {
 
     private static final Logger LOGGER = LogManager.getLogger(ItemRoute.class.getName());
 
+    private static final String DIGEST_HEADER = "Digest";
+
+    private static final int CONCISE_ITEM_CHUNK_SIZE = 1000;
+    // values are flushed once per chunk
+    private static final ObjectMapper CONCISE_ITEM_MAPPER = new ObjectMapper()
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
     @EJB
     ItemElementFacade itemElementFacade;
 
@@ -824,7 +850,29 @@ public class ItemRoute extends ItemBaseRoute {
     @SecurityRequirement(name = "cdbAuth")
     @Secured
     public PropertyValue uploadDocumentForItem(@PathParam("itemId") int itemId, @RequestBody(required = true) FileUploadObject documentUpload) throws AuthorizationError, DbError, IOException, ObjectNotFound, CdbException {
-        return uploadForItem(itemId, documentUpload, 1);
+        return uploadBase64ForItem(itemId, documentUpload, 1);
+    }
+
+    @POST
+    @Path("/uploadDocument/{itemId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Operation(summary = "Upload document for item as multipart form data. The first part with a file name is stored. Response includes a Digest header with the SHA-256 of the stored file.")
+    @SecurityRequirement(name = "cdbAuth")
+    @Secured
+    public Response uploadDocumentMultipartForItem(@PathParam("itemId") int itemId, @HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) throws AuthorizationError, DbError, IOException, ObjectNotFound, CdbException {
+        return uploadMultipartForItem(itemId, contentType, body, 1);
+    }
+
+    @POST
+    @Path("/uploadDocument/{itemId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+    @Operation(summary = "Upload document for item as raw binary content. Response includes a Digest header with the SHA-256 of the stored file.")
+    @SecurityRequirement(name = "cdbAuth")
+    @Secured
+    public Response uploadDocumentStreamForItem(@PathParam("itemId") int itemId, @QueryParam("fileName") String fileName, InputStream body) throws AuthorizationError, DbError, IOException, ObjectNotFound, CdbException {
+        return uploadStreamForItem(itemId, fileName, body, 1);
     }
 
     @POST
@@ -834,23 +882,84 @@ public class ItemRoute extends ItemBaseRoute {
     @SecurityRequirement(name = "cdbAuth")
     @Secured
     public PropertyValue uploadImageForItem(@PathParam("itemId") int itemId, @RequestBody(required = true) FileUploadObject imageUpload) throws AuthorizationError, DbError, IOException, ObjectNotFound, CdbException {
-        return uploadForItem(itemId, imageUpload, 0);
+        return uploadBase64ForItem(itemId, imageUpload, 0);
+    }
+
+    @POST
+    @Path("/uploadImage/{itemId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Operation(summary = "Upload image for item as multipart form data. The first part with a file name is stored. Response includes a Digest header with the SHA-256 of the stored file.")
+    @SecurityRequirement(name = "cdbAuth")
+    @Secured
+    public Response uploadImageMultipartForItem(@PathParam("itemId") int itemId, @HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) throws AuthorizationError, DbError, IOException, ObjectNotFound, CdbException {
+        return uploadMultipartForItem(itemId, contentType, body, 0);
+    }
+
+    @POST
+    @Path("/uploadImage/{itemId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+    @Operation(summary = "Upload image for item as raw binary content. Response includes a Digest header with the SHA-256 of the stored file.")
+    @SecurityRequirement(name = "cdbAuth")
+    @Secured
+    public Response uploadImageStreamForItem(@PathParam("itemId") int itemId, @QueryParam("fileName") String fileName, InputStream body) throws AuthorizationError, DbError, IOException, ObjectNotFound, CdbException {
+        return uploadStreamForItem(itemId, fileName, body, 0);
+    }
+
+    private PropertyValue uploadBase64ForItem(int itemId, FileUploadObject fileUpload, int mode) throws AuthorizationError, DbError, IOException, ObjectNotFound, CdbException {
+        // decode while storing rather than into a second copy of the file
+        byte[] base64Data = fileUpload.getBase64Binary().getBytes(StandardCharsets.ISO_8859_1);
+        InputStream stream = Base64.getDecoder().wrap(new ByteArrayInputStream(base64Data));
+
+        Response response = uploadForItem(itemId, fileUpload.getFileName(), stream, mode);
+        return (PropertyValue) response.getEntity();
+    }
+
+    private Response uploadMultipartForItem(int itemId, String contentType, InputStream body, int mode) throws AuthorizationError, DbError, IOException, ObjectNotFound, CdbException {
+        String boundary = MultipartInputStream.getBoundary(contentType);
+        if (boundary == null) {
+            InvalidArgument ex = new InvalidArgument("Multipart boundary was not specified.");
+            LOGGER.error(ex);
+            throw ex;
+        }
+
+        MultipartInputStream multipartStream = new MultipartInputStream(body, boundary);
+        if (!multipartStream.nextFilePart()) {
+            InvalidArgument ex = new InvalidArgument("Request does not include a file.");
+            LOGGER.error(ex);
+            throw ex;
+        }
+
+        return uploadForItem(itemId, multipartStream.getPartFileName(), multipartStream, mode);
+    }
+
+    private Response uploadStreamForItem(int itemId, String fileName, InputStream body, int mode) throws AuthorizationError, DbError, IOException, ObjectNotFound, CdbException {
+        if (fileName == null || fileName.isEmpty()) {
+            InvalidArgument ex = new InvalidArgument("File name must be specified.");
+            LOGGER.error(ex);
+            throw ex;
+        }
+
+        return uploadForItem(itemId, fileName, body, mode);
     }
 
     /**
-     * Generic item upload function
+     * Generic item upload function. The stream is copied to storage as it is
+     * read.
      *
      * @param itemId
-     * @param fileUpload
+     * @param fileName
+     * @param stream
      * @param mode- 0: image, 1: document
-     * @return
+     * @return response with the new property value and Digest header
      * @throws AuthorizationError
      * @throws DbError
      * @throws IOException
      * @throws ObjectNotFound
      * @throws CdbException
      */
-    private PropertyValue uploadForItem(@PathParam("itemId") int itemId, FileUploadObject fileUpload, int mode) throws AuthorizationError, DbError, IOException, ObjectNotFound, CdbException {
+    private Response uploadForItem(int itemId, String fileName, InputStream stream, int mode) throws AuthorizationError, DbError, IOException, ObjectNotFound, CdbException {
         String modeString = null;
         if (mode == 0) {
             modeString = "image";
@@ -868,10 +977,6 @@ public class ItemRoute extends ItemBaseRoute {
             throw ex;
         }
 
-        Base64.Decoder decoder = Base64.getDecoder();
-        byte[] decode = decoder.decode(fileUpload.getBase64Binary());
-        ByteArrayInputStream stream = new ByteArrayInputStream(decode);
-
         ItemControllerUtility itemControllerUtility = dbItem.getItemControllerUtility();
         PropertyType uploadPropertyType = null;
 
@@ -888,13 +993,13 @@ public class ItemRoute extends ItemBaseRoute {
         }
 
         PropertyValue pv = itemControllerUtility.preparePropertyTypeValueAdd(dbItem, uploadPropertyType, null, null, updatedByUser);
-        String fileName = fileUpload.getFileName();
 
+        byte[] contentDigest;
         try {
             if (mode == 0) {
-                PropertyValueImageUploadBean.uploadImage(pv, fileName, stream);
+                contentDigest = PropertyValueImageUploadBean.uploadImage(pv, fileName, stream);
             } else {
-                PropertyValueDocumentUploadBean.uploadDocument(pv, fileName, stream);
+                contentDigest = PropertyValueDocumentUploadBean.uploadDocument(pv, fileName, stream);
             }
         } catch (IOException ex) {
             LOGGER.error(ex);
@@ -907,7 +1012,8 @@ public class ItemRoute extends ItemBaseRoute {
         int lastIdx = pvList.size() - 1;
         pv = pvList.get(lastIdx);
 
-        return pv;
+        String digestHeader = "sha-256=" + Base64.getEncoder().encodeToString(contentDigest);
+        return Response.ok(pv).header(DIGEST_HEADER, digestHeader).build();
     }
 
     @GET
@@ -930,7 +1036,9 @@ public class ItemRoute extends ItemBaseRoute {
     public List<PropertyValue> getPropertiesForItem(@PathParam("itemId") int itemId) throws ObjectNotFound {
         LOGGER.debug("Fetching properties for item by id: " + itemId);
         Item itemById = getItemByIdBase(itemId);
-        return itemById.getPropertyValueList();
+        List<PropertyValue> propertyValueList = itemById.getPropertyValueList();
+        PropertyValueUtility.configurePropertyValueDisplay(propertyValueList);
+        return propertyValueList;
     }
     
     @GET
@@ -979,35 +1087,86 @@ public class ItemRoute extends ItemBaseRoute {
     @GET
     @Path("/ByDomain/{domainName}")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<Item> getItemsByDomain(@PathParam("domainName") String domainName) {
+    @Operation(summary = "Fetch all items of the domain. Conditional requests are answered with 304 Not Modified while the domain does not change.",
+            responses = @ApiResponse(responseCode = "200",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = Item.class)))))
+    public Response getItemsByDomain(@PathParam("domainName") String domainName) {
         LOGGER.debug("Fetch items for domain: " + domainName);
-        return itemFacade.findByDomain(domainName);
+        return getItemDomainListResponse(itemFacade, domainName);
+    }
+    
+    @GET
+    @Path("/ByDomain/{domainName}/Delta")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Fetch items of the domain modified since the version of a previous delta, and ids of deleted items.",
+            description = ITEM_DOMAIN_DELTA_DESCRIPTION,
+            responses = @ApiResponse(responseCode = "200",
+                    content = @Content(schema = @Schema(implementation = ItemDomainDelta.class))))
+    public Response getItemDeltaByDomain(@PathParam("domainName") String domainName,
+            @Parameter(description = "Version of the previous delta, all items are returned if omitted.") @QueryParam("since") Long since) {
+        LOGGER.debug("Fetch item delta for domain: " + domainName + " since: " + since);
+        return getItemDomainDeltaResponse(itemFacade, domainName, since);
     }
     
     @POST 
     @Path("/ByDomain/{domainName}/Concise")
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_JSON)
-    public List<ConciseItem> getConciseItemsByDomain(@PathParam("domainName") String domainName, ConciseItemOptions options) {
+    @Operation(responses = @ApiResponse(responseCode = "200",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ConciseItem.class)))))
+    public Response getConciseItemsByDomain(@PathParam("domainName") String domainName, ConciseItemOptions options) {
         LOGGER.debug("Fetch concise items for domain: " + domainName);
-        List<Item> itemList = itemFacade.findByDomain(domainName);
-        return ConciseItem.createList(itemList, options); 
+        List<Integer> itemIdList = itemFacade.findIdListByDomain(domainName);
+        return Response.ok(createConciseItemStream(itemIdList, options)).build();
+    }
+
+    /**
+     * Writes the concise items one chunk at a time, so neither the item
+     * entities nor the whole response are held in memory.
+     */
+    private StreamingOutput createConciseItemStream(List<Integer> itemIdList, ConciseItemOptions options) {
+        return output -> {
+            try (JsonGenerator generator = CONCISE_ITEM_MAPPER.getFactory().createGenerator(output)) {
+                generator.writeStartArray();
+                for (int start = 0; start < itemIdList.size(); start += CONCISE_ITEM_CHUNK_SIZE) {
+                    int end = Math.min(start + CONCISE_ITEM_CHUNK_SIZE, itemIdList.size());
+                    List<ConciseItem> conciseItemList = ConciseItem.createList(itemFacade, itemIdList.subList(start, end), options);
+                    for (ConciseItem conciseItem : conciseItemList) {
+                        CONCISE_ITEM_MAPPER.writeValue(generator, conciseItem);
+                    }
+                    generator.flush();
+                }
+                generator.writeEndArray();
+            }
+        };
     }
 
     @GET
     @Path("/Catalog")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<ItemDomainCatalog> getCatalogItems() {
-        return (List<ItemDomainCatalog>) (List<?>) getItemsByDomain(ItemDomainName.catalog.getValue());
+    @Operation(responses = @ApiResponse(responseCode = "200",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ItemDomainCatalog.class)))))
+    public Response getCatalogItems() {
+        return getItemsByDomain(ItemDomainName.catalog.getValue());
+    }
+    
+    @GET
+    @Path("/Catalog/Delta")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(description = ITEM_DOMAIN_DELTA_DESCRIPTION, responses = @ApiResponse(responseCode = "200",
+            content = @Content(schema = @Schema(implementation = ItemDomainDelta.class))))
+    public Response getCatalogItemDelta(@QueryParam("since") Long since) {
+        return getItemDeltaByDomain(ItemDomainName.catalog.getValue(), since);
     }
     
     @POST
     @Path("/Catalog/Concise")
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_JSON)
-    public List<ConciseItem> getConciseCatalogItems(ConciseItemOptions options) {
-        List<Item> catalogItems = getItemsByDomain(ItemDomainName.catalog.getValue());               
-        return ConciseItem.createList(catalogItems, options); 
+    @Operation(responses = @ApiResponse(responseCode = "200",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ConciseItem.class)))))
+    public Response getConciseCatalogItems(ConciseItemOptions options) {
+        return getConciseItemsByDomain(ItemDomainName.catalog.getValue(), options);
     }
 
     @GET
@@ -1026,18 +1185,29 @@ public class ItemRoute extends ItemBaseRoute {
     @GET
     @Path("/Inventory")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<ItemDomainInventory> getInventoryItems() {
-        return (List<ItemDomainInventory>) (List<?>) getItemsByDomain(ItemDomainName.inventory.getValue());
+    @Operation(responses = @ApiResponse(responseCode = "200",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ItemDomainInventory.class)))))
+    public Response getInventoryItems() {
+        return getItemsByDomain(ItemDomainName.inventory.getValue());
+    }
+    
+    @GET
+    @Path("/Inventory/Delta")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(responses = @ApiResponse(responseCode = "200",
+            content = @Content(schema = @Schema(implementation = ItemDomainDelta.class))))
+    public Response getInventoryItemDelta(@QueryParam("since") Long since) {
+        return getItemDeltaByDomain(ItemDomainName.inventory.getValue(), since);
     }
     
     @POST
     @Path("/Inventory/Concise")
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_JSON)
-    public List<ConciseItem> getConciseInventoryItems(ConciseItemOptions options) {
-        List<Item> inventoryItems = getItemsByDomain(ItemDomainName.inventory.getValue());        
-        
-        return ConciseItem.createList(inventoryItems, options); 
+    @Operation(responses = @ApiResponse(responseCode = "200",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ConciseItem.class)))))
+    public Response getConciseInventoryItems(ConciseItemOptions options) {
+        return getConciseItemsByDomain(ItemDomainName.inventory.getValue(), options);
     }
 
     @GET
@@ -1057,8 +1227,12 @@ public class ItemRoute extends ItemBaseRoute {
 
         List<ItemHierarchy> result = new ArrayList<>();
 
+        // load all location trees with one query
+        ItemHierarchyLoader loader = new ItemHierarchyLoader();
+        loader.load(locationsTopLevel, false, ItemHierarchyLoader.getConfiguredMaxDepth());
+
         for (ItemDomainLocation location : locationsTopLevel) {
-            ItemHierarchy locationHierarchy = new ItemHierarchy(location, true);
+            ItemHierarchy locationHierarchy = new ItemHierarchy(location, loader);
             result.add(locationHierarchy);
         }
 
@@ -1192,20 +1366,45 @@ public class ItemRoute extends ItemBaseRoute {
     @GET
     @Path("/Search/{searchText}")
     @Produces(MediaType.APPLICATION_JSON)
-    public ItemSearchResults getSearchResults(@PathParam("searchText") String searchText) throws ObjectNotFound, InvalidArgument {
+    @Operation(summary = "Search catalog, inventory and machine design items. Results of each domain are ranked and can be paged.")
+    public ItemSearchResults getSearchResults(
+            @PathParam("searchText") String searchText,
+            @Parameter(description = "Index of first result returned for each domain.") @QueryParam("first") @DefaultValue("0") int first,
+            @Parameter(description = "Maximum number of results returned for each domain.") @QueryParam("limit") Integer limit,
+            @Parameter(description = "Domains to search, all searchable domains when omitted.") @QueryParam("domain") List<String> domainNames) throws ObjectNotFound, InvalidArgument {
         LOGGER.debug("Performing an item search for search query: " + searchText);
 
-        ItemDomainCatalogControllerUtility catalogControllerUtility = new ItemDomainCatalogControllerUtility();
-        ItemDomainInventoryControllerUtility inventoryInstance = new ItemDomainInventoryControllerUtility();
-        ItemDomainMachineDesignControllerUtility mdInstance = new ItemDomainMachineDesignControllerUtility();
+        if (first < 0 || (limit != null && limit < 0)) {
+            throw new InvalidArgument("Invalid paging parameters specified.");
+        }
 
-        LinkedList<SearchResult> catalogResults = catalogControllerUtility.performEntitySearch(searchText, true);         
-        LinkedList<SearchResult> inventoryResults = inventoryInstance.performEntitySearch(searchText, true);        
-        LinkedList<SearchResult> mdResults = mdInstance.performEntitySearch(searchText, true);        
+        LinkedList<SearchResult> catalogResults = new LinkedList<>();
+        LinkedList<SearchResult> inventoryResults = new LinkedList<>();
+        LinkedList<SearchResult> mdResults = new LinkedList<>();
+
+        if (isDomainSearched(domainNames, ItemDomainName.catalog)) {
+            ItemDomainCatalogControllerUtility catalogControllerUtility = new ItemDomainCatalogControllerUtility();
+            catalogResults = catalogControllerUtility.performEntitySearch(searchText, true, first, limit);
+        }
+        if (isDomainSearched(domainNames, ItemDomainName.inventory)) {
+            ItemDomainInventoryControllerUtility inventoryInstance = new ItemDomainInventoryControllerUtility();
+            inventoryResults = inventoryInstance.performEntitySearch(searchText, true, first, limit);
+        }
+        if (isDomainSearched(domainNames, ItemDomainName.machineDesign)) {
+            ItemDomainMachineDesignControllerUtility mdInstance = new ItemDomainMachineDesignControllerUtility();
+            mdResults = mdInstance.performEntitySearch(searchText, true, first, limit);
+        }
 
         return new ItemSearchResults(catalogResults, inventoryResults, mdResults);
     }
 
+    private boolean isDomainSearched(List<String> domainNames, ItemDomainName domainName) {
+        if (domainNames == null || domainNames.isEmpty()) {
+            return true;
+        }
+        return domainNames.contains(domainName.getValue());
+    }
+
     @GET
     @Path("/DetailedCatalogSearch/{searchText}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -1219,7 +1418,7 @@ public class ItemRoute extends ItemBaseRoute {
 
         List<ItemDomainCatalogSearchResult> detailedSearchResults = new ArrayList<>();
         for (SearchResult result : catalogResults) {
-            ItemDomainCatalog item = (ItemDomainCatalog) catalogUtility.findById(result.getObjectId());
+            ItemDomainCatalog item = (ItemDomainCatalog) result.getCdbEntity();
 
             detailedSearchResults.add(new ItemDomainCatalogSearchResult(result, item));
         }
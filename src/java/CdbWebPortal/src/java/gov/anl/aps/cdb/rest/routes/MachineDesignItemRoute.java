@@ -17,12 +17,19 @@ import gov.anl.aps.cdb.portal.model.db.entities.ItemDomainMachineDesign;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemElement;
 import gov.anl.aps.cdb.portal.model.db.entities.ItemProject;
 import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
+import gov.anl.aps.cdb.portal.model.db.utilities.ItemIdListResolver;
 import gov.anl.aps.cdb.rest.authentication.Secured;
+import gov.anl.aps.cdb.rest.entities.ItemDomainDelta;
 import gov.anl.aps.cdb.rest.entities.ItemDomainMdSearchResult;
 import gov.anl.aps.cdb.rest.entities.ItemDomanMachineDesignIdListRequest;
 import gov.anl.aps.cdb.rest.entities.NewMachinePlaceholderOptions;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.time.Duration;
@@ -37,7 +44,9 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.primefaces.model.TreeNode;
@@ -58,9 +67,24 @@ public class MachineDesignItemRoute extends ItemBaseRoute {
     @GET
     @Path("/all")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<ItemDomainMachineDesign> getMachineDesignItemList() {
+    @Operation(summary = "Fetch all machine designs. Conditional requests are answered with 304 Not Modified while the domain does not change.",
+            responses = @ApiResponse(responseCode = "200",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = ItemDomainMachineDesign.class)))))
+    public Response getMachineDesignItemList() {
         LOGGER.debug("Fetching machine design list");
-        return facade.findAll();
+        return getItemDomainListResponse(facade, facade.getDomainName());
+    }
+    
+    @GET
+    @Path("/Delta")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Fetch machine designs modified since the version of a previous delta, and ids of deleted items.",
+            responses = @ApiResponse(responseCode = "200",
+                    content = @Content(schema = @Schema(implementation = ItemDomainDelta.class))))
+    public Response getMachineDesignItemDelta(
+            @Parameter(description = "Version of the previous delta, all items are returned if omitted.") @QueryParam("since") Long since) {
+        LOGGER.debug("Fetching machine design delta since: " + since);
+        return getItemDomainDeltaResponse(facade, facade.getDomainName(), since);
     }
 
     @GET
@@ -190,33 +214,8 @@ public class MachineDesignItemRoute extends ItemBaseRoute {
         LOGGER.debug("Fetching list of machine item id's by name list size: " 
                 + itemNames.size());
         
-        List<Integer> idList = new ArrayList<>(itemNames.size());
-        for (int listIndex = 0; listIndex < itemNames.size(); listIndex++) {
-            String itemName = itemNames.get(listIndex);
-            String containerItemName = rackNames.get(listIndex);
-            if (((itemName != null) && (!itemName.isBlank()))
-                    && ((containerItemName != null) && (!containerItemName.isBlank()))) {
-                
-                List<ItemDomainMachineDesign> mdItems = itemsWithContainerHierarchy(
-                        rootItemName, containerItemName, itemName);
-                switch (mdItems.size()) {
-                    case 1:
-                        // one matching item
-                        idList.add(mdItems.get(0).getId());
-                        break;
-                    case 0:
-                        // no matching items
-                        idList.add(0);
-                        break;
-                    default:
-                        // multiple matching items
-                        idList.add(-1);
-                        break;
-                }
-            } else {
-                idList.add(0);
-            }
-        }
+        List<Integer> idList = ItemIdListResolver.resolveMachineDesignIdList(
+                facade, rootItemName, itemNames, rackNames);
         
         Instant end = Instant.now();
         Duration elapsed = Duration.between(start, end);
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.rest.routes;
+
+import gov.anl.aps.cdb.portal.model.db.beans.SharedCacheStatistics;
+import gov.anl.aps.cdb.rest.authentication.UserSessionKeeper;
+import gov.anl.aps.cdb.rest.entities.UserSessionStatistics;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runtime statistics of the portal.
+ */
+@Path("/System")
+@Tag(name = "System")
+public class SystemRoute extends BaseRoute {
+
+    private static final Logger LOGGER = LogManager.getLogger(SystemRoute.class.getName());
+
+    @GET
+    @Path("/SharedCacheStatistics")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Hit, miss, load and eviction counters of cached reference entities.")
+    public List<SharedCacheStatistics> getSharedCacheStatistics() {
+        LOGGER.debug("Fetching shared cache statistics.");
+        return SharedCacheStatistics.getAllStatistics();
+    }
+
+    @GET
+    @Path("/SessionStatistics")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Counters of REST API sessions kept by this portal node.")
+    public UserSessionStatistics getSessionStatistics() {
+        LOGGER.debug("Fetching REST session statistics.");
+        return UserSessionKeeper.getInstance().getStatistics();
+    }
+
+}
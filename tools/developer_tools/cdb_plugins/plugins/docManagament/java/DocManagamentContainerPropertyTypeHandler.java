@@ -12,6 +12,9 @@ import gov.anl.aps.cdb.portal.model.jsf.handlers.AbstractPropertyTypeHandler;
 import gov.anl.aps.cdb.portal.plugins.support.docManagament.api.DocumentManagamentApi;
 import gov.anl.aps.cdb.portal.plugins.support.docManagament.objects.Container;
 import gov.anl.aps.cdb.portal.utilities.SessionUtility;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -66,6 +69,24 @@ public class DocManagamentContainerPropertyTypeHandler extends AbstractPropertyT
         propertyValueHistory.setTargetValue(DocManagerPlugin.generateContainerUrl(propertyValueHistory.getValue()));
     }
     
+    /**
+     * The document management service has no batch lookup; each distinct
+     * container id is requested once for the whole list.
+     */
+    @Override
+    public void setDisplayValues(List<PropertyValue> propertyValueList) {
+        Map<String, String> displayValueMap = new HashMap<>();
+        for (PropertyValue propertyValue : propertyValueList) {
+            String value = propertyValue.getValue();
+            String displayValue = displayValueMap.get(value);
+            if (displayValue == null) {
+                displayValue = getDisplayValue(value, true);
+                displayValueMap.put(value, displayValue);
+            }
+            propertyValue.setDisplayValue(displayValue);
+        }
+    }
+
     private String getDisplayValue(String value, Boolean showError) {
          if (value.equals("")) {
             return value;
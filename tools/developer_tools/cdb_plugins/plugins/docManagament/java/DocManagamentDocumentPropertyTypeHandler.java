@@ -12,6 +12,9 @@ import gov.anl.aps.cdb.portal.model.jsf.handlers.AbstractPropertyTypeHandler;
 import gov.anl.aps.cdb.portal.plugins.support.docManagament.api.DocumentManagamentApi;
 import gov.anl.aps.cdb.portal.plugins.support.docManagament.objects.Document;
 import gov.anl.aps.cdb.portal.utilities.SessionUtility;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -61,6 +64,24 @@ public class DocManagamentDocumentPropertyTypeHandler extends AbstractPropertyTy
         propertyValue.setDisplayValue(getDisplayValue(propertyValue.getValue(), true));
     }
 
+    /**
+     * The document management service has no batch lookup; each distinct
+     * document id is requested once for the whole list.
+     */
+    @Override
+    public void setDisplayValues(List<PropertyValue> propertyValueList) {
+        Map<String, String> displayValueMap = new HashMap<>();
+        for (PropertyValue propertyValue : propertyValueList) {
+            String value = propertyValue.getValue();
+            String displayValue = displayValueMap.get(value);
+            if (displayValue == null) {
+                displayValue = getDisplayValue(value, true);
+                displayValueMap.put(value, displayValue);
+            }
+            propertyValue.setDisplayValue(displayValue);
+        }
+    }
+
     private String getDisplayValue(String value, Boolean showError) {
         if (value.equals("")) {
             return value;
@@ -15,17 +15,11 @@ import gov.anl.aps.cdb.portal.plugins.support.docManagament.objects.Container;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import gov.anl.aps.cdb.common.exceptions.CommunicationError;
 import gov.anl.aps.cdb.portal.plugins.support.docManagament.objects.BasicContainer;
 import gov.anl.aps.cdb.portal.plugins.support.docManagament.objects.CollectionSearch;
 import gov.anl.aps.cdb.portal.plugins.support.docManagament.objects.CollectionSearchResult;
 import gov.anl.aps.cdb.portal.plugins.support.docManagament.objects.DocDetail;
 import gov.anl.aps.cdb.portal.plugins.support.docManagament.objects.Document;
-import java.io.DataOutputStream;
-import java.io.IOException;
-import java.net.ConnectException;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.logging.log4j.Level; 
@@ -48,6 +42,8 @@ public class DocumentManagamentApi extends CdbRestApi {
     
     protected static final String REST_GET_ICMS_DOCINFO = "/data/icms/docDetail";
     protected static final String REST_GET_PDMLINK_DOCINFO = "/data/pdmlink/docDetail";
+
+    private static final String JSON_CONTENT_TYPE = "application/json";
             
 
     private static final Logger logger = LogManager.getLogger(DocumentManagamentApi.class.getName());
@@ -129,7 +125,7 @@ public class DocumentManagamentApi extends CdbRestApi {
     public CollectionSearchResult searchCollections(String collectionId, String collectionLabel) throws CdbException {
         CollectionSearch collectionSearch = new CollectionSearch(collectionId, collectionLabel);
         String requestData = gson.toJson(collectionSearch);
-        String jsonString = invokePOSTRequest(REST_POST_SEARCH_COLLECTIONS, requestData);
+        String jsonString = invokePostRequest(REST_POST_SEARCH_COLLECTIONS, requestData, JSON_CONTENT_TYPE);
 
         CollectionSearchResult collectionsResult;
         // API inconsistency patch.         
@@ -160,42 +156,6 @@ public class DocumentManagamentApi extends CdbRestApi {
         return collections;
     }
 
-    private String invokePOSTRequest(String requestUrl, String data) throws CdbException {
-        String urlString = getFullRequestUrl(requestUrl);
-        HttpURLConnection connection = null;
-        try {
-            logger.debug("Invoking get request for URL: " + requestUrl);
-            URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
-            // Set Headers
-            connection.setDoOutput(true);
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Type", "application/json");
-            // Send data 
-            DataOutputStream dos = new DataOutputStream(connection.getOutputStream());
-            dos.writeBytes(data);
-            dos.flush();
-
-            checkHttpResponseForCdbException(connection);
-            logger.debug("Response message:\n" + connection.getResponseMessage());
-            return readHttpResponse(connection);
-        } catch (CdbException ex) {
-            throw ex;
-        } catch (ConnectException ex) {
-            String errorMsg = "Cannot connect to " + getServiceUrl();
-            logger.error(errorMsg);
-            throw new CommunicationError(errorMsg, ex);
-        } catch (IOException ex) {
-            CdbException cdbException = convertHttpErrorToCdbException(ex, connection);
-            logger.error(ex.getMessage());
-            throw cdbException;
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-        }
-    }
-
     public static void main(String[] args) {
 
         try {
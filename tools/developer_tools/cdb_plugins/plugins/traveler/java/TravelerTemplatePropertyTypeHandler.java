@@ -15,6 +15,12 @@ import gov.anl.aps.cdb.portal.model.jsf.handlers.AbstractPropertyTypeHandler;
 import gov.anl.aps.cdb.portal.utilities.SessionUtility;
 import gov.anl.aps.cdb.portal.plugins.support.traveler.api.TravelerApi;
 import gov.anl.aps.cdb.portal.plugins.support.traveler.objects.Form;
+import gov.anl.aps.cdb.portal.plugins.support.traveler.objects.Forms;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -63,6 +69,51 @@ public class TravelerTemplatePropertyTypeHandler extends AbstractPropertyTypeHan
         propertyValueHistory.setDisplayValue(getDisplayValue(propertyValueHistory.getValue(), false));
     }
 
+    /**
+     * Looks up the titles of all templates with a single request for the
+     * form list. Forms missing from the list are looked up one at a time.
+     */
+    @Override
+    public void setDisplayValues(List<PropertyValue> propertyValueList) {
+        Set<String> formIdSet = new HashSet<>();
+        for (PropertyValue propertyValue : propertyValueList) {
+            if (!propertyValue.getValue().equals("")) {
+                formIdSet.add(propertyValue.getValue());
+            }
+        }
+        if (formIdSet.size() <= 1) {
+            super.setDisplayValues(propertyValueList);
+            return;
+        }
+
+        Map<String, String> formTitleMap = new HashMap<>();
+        try {
+            Forms forms = travelerApi.getForms();
+            for (Form form : forms.getForms()) {
+                if (formIdSet.contains(form.getId())) {
+                    formTitleMap.put(form.getId(), form.getTitle());
+                }
+            }
+        } catch (CdbException ex) {
+            logger.error(ex);
+            SessionUtility.addErrorMessage("Error", ex.getMessage());
+            for (PropertyValue propertyValue : propertyValueList) {
+                propertyValue.setDisplayValue(propertyValue.getValue());
+            }
+            return;
+        }
+
+        for (PropertyValue propertyValue : propertyValueList) {
+            String value = propertyValue.getValue();
+            String title = formTitleMap.get(value);
+            if (title == null) {
+                title = getDisplayValue(value, true);
+                formTitleMap.put(value, title);
+            }
+            propertyValue.setDisplayValue(title);
+        }
+    }
+
     private String getDisplayValue(String value, Boolean showError) {
         if (value.equals("")) {
             return value;
@@ -0,0 +1,4 @@
+#!/bin/sh
+
+source ../../../../setup.sh
+python ../../cdb_plugins/update_plugin_generated_files.py
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.benchmark;
+
+import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
+import gov.anl.aps.cdb.portal.utilities.SessionUtility;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import javax.ejb.EJB;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.PersistenceContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Minimal stand-in for the application server. Facades and named beans are
+ * created on first lookup and their persistence context and EJB fields are
+ * injected, all of them share one resource local entity manager.
+ */
+public class BenchmarkContainer {
+
+    private static final Logger logger = LogManager.getLogger(BenchmarkContainer.class.getName());
+
+    private static final String PERSISTENCE_UNIT_NAME = "CdbWebPortalPU";
+    private static final String FACADE_PACKAGE = "gov.anl.aps.cdb.portal.model.db.beans.";
+    private static final String CONTROLLER_PACKAGE = "gov.anl.aps.cdb.portal.controllers.";
+
+    private static BenchmarkContainer instance = null;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+    private final Map<String, Object> facadeMap = new HashMap<>();
+    private final Map<String, Object> beanMap = new HashMap<>();
+
+    private BenchmarkContainer(String jdbcUrl, String username, String password) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("javax.persistence.jdbc.driver", "com.mysql.cj.jdbc.Driver");
+        properties.put("javax.persistence.jdbc.url", jdbcUrl);
+        properties.put("javax.persistence.jdbc.user", username);
+        properties.put("javax.persistence.jdbc.password", password);
+        entityManagerFactory = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME, properties);
+        entityManager = entityManagerFactory.createEntityManager();
+    }
+
+    public static synchronized BenchmarkContainer start(String jdbcUrl, String username, String password) {
+        if (instance != null) {
+            throw new IllegalStateException("Benchmark container is already running.");
+        }
+        instance = new BenchmarkContainer(jdbcUrl, username, password);
+        return instance;
+    }
+
+    public static synchronized BenchmarkContainer getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("Benchmark container is not running.");
+        }
+        return instance;
+    }
+
+    public static synchronized void stop() {
+        if (instance != null) {
+            instance.entityManager.close();
+            instance.entityManagerFactory.close();
+            instance = null;
+        }
+        SessionUtility.clearSession();
+    }
+
+    public EntityManager getEntityManager() {
+        return entityManager;
+    }
+
+    /**
+     * Detaches all entities, so that the next invocation loads them like a
+     * new request would.
+     */
+    public void clear() {
+        entityManager.clear();
+    }
+
+    /**
+     * Evicts the shared cache in addition to clearing the entity manager.
+     */
+    public void evictAll() {
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    public void login(String username) {
+        UserInfo user = entityManager
+                .createNamedQuery("UserInfo.findByUsername", UserInfo.class)
+                .setParameter("username", username)
+                .getSingleResult();
+        SessionUtility.setUser(user);
+    }
+
+    public synchronized Object findFacade(String facadeName) {
+        Object facade = facadeMap.get(facadeName);
+        if (facade == null) {
+            facade = createInstance(FACADE_PACKAGE + facadeName);
+            // registered before injection for facades that refer to each other
+            facadeMap.put(facadeName, facade);
+            inject(facade);
+        }
+        return facade;
+    }
+
+    public synchronized Object findBean(String beanName) {
+        Object bean = beanMap.get(beanName);
+        if (bean == null) {
+            String className = CONTROLLER_PACKAGE
+                    + Character.toUpperCase(beanName.charAt(0)) + beanName.substring(1);
+            bean = createInstance(className);
+            beanMap.put(beanName, bean);
+            inject(bean);
+            postConstruct(bean);
+        }
+        return bean;
+    }
+
+    private Object createInstance(String className) {
+        try {
+            return Class.forName(className).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot create " + className + ": " + ex, ex);
+        }
+    }
+
+    private void inject(Object object) {
+        for (Class<?> objectClass = object.getClass(); objectClass != Object.class; objectClass = objectClass.getSuperclass()) {
+            for (Field field : objectClass.getDeclaredFields()) {
+                Object value = null;
+                if (field.isAnnotationPresent(PersistenceContext.class)) {
+                    value = entityManager;
+                } else if (field.isAnnotationPresent(EJB.class)) {
+                    value = findFacade(field.getType().getSimpleName());
+                }
+                if (value != null) {
+                    try {
+                        field.setAccessible(true);
+                        field.set(object, value);
+                    } catch (IllegalAccessException ex) {
+                        throw new IllegalStateException("Cannot inject " + field + ": " + ex, ex);
+                    }
+                }
+            }
+        }
+    }
+
+    private void postConstruct(Object bean) {
+        for (Class<?> beanClass = bean.getClass(); beanClass != Object.class; beanClass = beanClass.getSuperclass()) {
+            for (Method method : beanClass.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(PostConstruct.class)) {
+                    try {
+                        method.setAccessible(true);
+                        method.invoke(bean);
+                    } catch (ReflectiveOperationException ex) {
+                        // settings and other session state are not needed
+                        logger.warn("Post construct of " + bean.getClass().getSimpleName() + " failed: " + ex);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.benchmark;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Embedded database created from the schema scripts in db/sql, in the same
+ * order as cdb_create_db.sh. Triggers are created after the dataset is
+ * loaded, which also rebuilds the item ancestor and property index tables.
+ */
+public class BenchmarkDatabase implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(BenchmarkDatabase.class.getName());
+
+    public static final String DB_NAME = "cdb_benchmark";
+    public static final String DB_USER = "root";
+    public static final String DB_PASSWORD = "";
+
+    // relative to the module directory, can be overridden for other layouts
+    private static final String SQL_DIRECTORY_PROPERTY = "cdb.benchmark.sqlDirectory";
+    private static final String DEFAULT_SQL_DIRECTORY = "../../../../db/sql";
+
+    private static final String JDBC_URL_OPTIONS = "?useSSL=false&rewriteBatchedStatements=true&serverTimezone=UTC";
+
+    private static final String[] SCHEMA_SCRIPTS = {
+        "create_cdb_tables.sql",
+        "create_views.sql",
+        "create_stored_procedures.sql"
+    };
+
+    private static final String[] STATIC_TABLES = {
+        "setting_type",
+        "domain",
+        "entity_type",
+        "allowed_entity_type_domain",
+        "relationship_type_handler",
+        "relationship_type"
+    };
+
+    private static final String TRIGGER_SCRIPT = "create_triggers.sql";
+
+    private final Path sqlDirectory;
+    private final DBConfiguration configuration;
+    private final DB db;
+
+    private BenchmarkDatabase(Path sqlDirectory) throws ManagedProcessException {
+        this.sqlDirectory = sqlDirectory;
+        configuration = DBConfigurationBuilder.newBuilder().setPort(0).build();
+        db = DB.newEmbeddedDB(configuration);
+    }
+
+    /**
+     * Starts the database server and creates the schema with the static
+     * tables populated.
+     */
+    public static BenchmarkDatabase start() throws ManagedProcessException, IOException {
+        Path sqlDirectory = Paths.get(System.getProperty(SQL_DIRECTORY_PROPERTY, DEFAULT_SQL_DIRECTORY));
+        if (!Files.isDirectory(sqlDirectory)) {
+            throw new IOException("SQL directory not found: " + sqlDirectory.toAbsolutePath()
+                    + ", set " + SQL_DIRECTORY_PROPERTY + ".");
+        }
+
+        BenchmarkDatabase database = new BenchmarkDatabase(sqlDirectory);
+        database.db.start();
+        database.db.run("CREATE DATABASE " + DB_NAME + " CHARACTER SET utf8", DB_USER, DB_PASSWORD);
+        for (String script : SCHEMA_SCRIPTS) {
+            database.runScript(sqlDirectory.resolve(script));
+        }
+        for (String table : STATIC_TABLES) {
+            database.runScript(sqlDirectory.resolve("static").resolve("populate_" + table + ".sql"));
+        }
+        return database;
+    }
+
+    /**
+     * Creates the triggers once the dataset is loaded.
+     */
+    public void createTriggers() throws ManagedProcessException, IOException {
+        runScript(sqlDirectory.resolve(TRIGGER_SCRIPT));
+    }
+
+    public String getJdbcUrl() {
+        return configuration.getURL(DB_NAME) + JDBC_URL_OPTIONS;
+    }
+
+    public Connection getConnection() throws SQLException {
+        return DriverManager.getConnection(getJdbcUrl(), DB_USER, DB_PASSWORD);
+    }
+
+    private void runScript(Path script) throws ManagedProcessException, IOException {
+        logger.debug("Running " + script);
+        String sql = new String(Files.readAllBytes(script), StandardCharsets.UTF_8);
+        db.run(sql, DB_USER, DB_PASSWORD, DB_NAME);
+    }
+
+    @Override
+    public void close() throws ManagedProcessException {
+        db.stop();
+    }
+
+}
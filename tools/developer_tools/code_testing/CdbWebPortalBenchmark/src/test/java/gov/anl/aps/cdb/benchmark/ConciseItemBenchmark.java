@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.benchmark;
+
+import gov.anl.aps.cdb.portal.model.db.beans.ItemDomainInventoryFacade;
+import gov.anl.aps.cdb.rest.entities.ConciseItem;
+import gov.anl.aps.cdb.rest.entities.ConciseItemOptions;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Concise inventory item list of the REST API for a page of ids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ConciseItemBenchmark {
+
+    @Param({"100", "1000"})
+    public int itemCount;
+
+    private ItemDomainInventoryFacade inventoryFacade;
+    private List<Integer> itemIdList;
+    private ConciseItemOptions options;
+
+    @Setup
+    public void setUp(PortalState portal) {
+        inventoryFacade = ItemDomainInventoryFacade.getInstance();
+        List<Integer> inventoryItemIdList = portal.getDataset().getInventoryItemIdList();
+        itemIdList = inventoryItemIdList.subList(0, Math.min(itemCount, inventoryItemIdList.size()));
+
+        options = new ConciseItemOptions();
+        options.setIncludeDerivedFromItemInfo(true);
+        options.setIncludeItemProjectIdList(true);
+        options.setIncludeItemTypeIdList(true);
+        options.setIncludeItemCategoryIdList(true);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearEntityManager(PortalState portal) {
+        portal.getContainer().clear();
+    }
+
+    @Benchmark
+    public List<ConciseItem> createConciseItemList() {
+        return ConciseItem.createList(inventoryFacade, itemIdList, options);
+    }
+
+}
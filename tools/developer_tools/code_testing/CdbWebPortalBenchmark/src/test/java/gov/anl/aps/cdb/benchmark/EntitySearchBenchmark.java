@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.benchmark;
+
+import gov.anl.aps.cdb.portal.controllers.utilities.ItemDomainCatalogControllerUtility;
+import gov.anl.aps.cdb.portal.utilities.ItemSearchIndex;
+import gov.anl.aps.cdb.portal.utilities.SearchResult;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Catalog search of the search page, with the search index loaded and
+ * after the index was invalidated by a change of another node.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EntitySearchBenchmark {
+
+    private static final int PAGE_SIZE = 25;
+
+    @Param({"valve", "MN-0001", "storage ring"})
+    public String searchString;
+
+    private ItemDomainCatalogControllerUtility controllerUtility;
+    private ItemSearchIndex searchIndex;
+
+    @Setup
+    public void setUp(PortalState portal) {
+        controllerUtility = new ItemDomainCatalogControllerUtility();
+        // loads the index
+        searchIndex = controllerUtility.getSearchIndex();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearEntityManager(PortalState portal) {
+        portal.getContainer().clear();
+    }
+
+    @Benchmark
+    public List<SearchResult> searchFirstPage() {
+        return controllerUtility.performEntitySearch(searchString, true, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<SearchResult> searchAllResults() {
+        return controllerUtility.performEntitySearch(searchString, true, 0, null);
+    }
+
+    @Benchmark
+    public List<SearchResult> searchFirstPageAfterInvalidate() {
+        searchIndex.invalidate();
+        return controllerUtility.performEntitySearch(searchString, true, 0, PAGE_SIZE);
+    }
+
+}
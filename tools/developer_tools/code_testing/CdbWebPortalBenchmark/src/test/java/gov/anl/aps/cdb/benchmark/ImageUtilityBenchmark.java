@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.benchmark;
+
+import gov.anl.aps.cdb.common.exceptions.ImageProcessingFailed;
+import gov.anl.aps.cdb.common.utilities.ImageUtility;
+import gov.anl.aps.cdb.portal.utilities.GalleryUtility;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Preview generation for an uploaded camera sized image. Does not need the
+ * database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ImageUtilityBenchmark {
+
+    private static final int IMAGE_WIDTH = 4000;
+    private static final int IMAGE_HEIGHT = 3000;
+    private static final int THUMBNAIL_SIZE = 32;
+    private static final String IMAGE_FORMAT = "jpg";
+    private static final String IMAGE_FILE_NAME = "benchmark.jpg";
+
+    private byte[] imageData;
+    private Path previewDirectory;
+
+    @Setup
+    public void setUp() throws IOException {
+        BufferedImage image = new BufferedImage(IMAGE_WIDTH, IMAGE_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.BLUE, IMAGE_WIDTH, IMAGE_HEIGHT, Color.ORANGE));
+        graphics.fillRect(0, 0, IMAGE_WIDTH, IMAGE_HEIGHT);
+        graphics.setColor(Color.WHITE);
+        for (int offset = 0; offset < IMAGE_WIDTH; offset += 50) {
+            graphics.drawLine(offset, 0, IMAGE_WIDTH - offset, IMAGE_HEIGHT);
+        }
+        graphics.dispose();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, IMAGE_FORMAT, outputStream);
+        imageData = outputStream.toByteArray();
+
+        previewDirectory = Files.createTempDirectory("cdb-benchmark-previews");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> pathStream = Files.walk(previewDirectory)) {
+            pathStream.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public byte[] resizeThumbnail() throws ImageProcessingFailed {
+        return ImageUtility.resizeImage(imageData, THUMBNAIL_SIZE);
+    }
+
+    /**
+     * Thumbnail and scaled previews from one decode of the image, as done
+     * for uploads.
+     */
+    @Benchmark
+    public void storePreviews() {
+        GalleryUtility.storePreviewsFromViewableData(imageData, IMAGE_FORMAT,
+                previewDirectory.toString(), IMAGE_FILE_NAME);
+    }
+
+}
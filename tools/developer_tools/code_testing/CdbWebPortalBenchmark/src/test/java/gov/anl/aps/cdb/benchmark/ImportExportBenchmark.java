@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.benchmark;
+
+import gov.anl.aps.cdb.portal.import_export.export.objects.GenerateExportResult;
+import gov.anl.aps.cdb.portal.import_export.export.objects.ListExportEntitySource;
+import gov.anl.aps.cdb.portal.import_export.import_.helpers.ImportHelperCatalog;
+import gov.anl.aps.cdb.portal.import_export.import_.objects.ImportMode;
+import gov.anl.aps.cdb.portal.import_export.import_.objects.InputColumnModel;
+import gov.anl.aps.cdb.portal.import_export.import_.objects.XlsxSheetReader;
+import gov.anl.aps.cdb.portal.model.db.beans.ItemDomainCatalogFacade;
+import gov.anl.aps.cdb.portal.model.db.entities.ItemDomainCatalog;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of a large catalog import spreadsheet and export of all catalog
+ * items. Each invocation takes seconds, so single invocations are timed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImportExportBenchmark {
+
+    private static final int IMPORT_ROW_COUNT = Integer.getInteger("cdb.benchmark.importRowCount", 50000);
+    private static final String SHEET_NAME = "Catalog";
+    private static final int WORKBOOK_ROW_WINDOW_SIZE = 100;
+    private static final String IMPORT_MODE = "create";
+    private static final String EXPORT_MODE = "export";
+
+    private byte[] importWorkbookData;
+    private List<ItemDomainCatalog> catalogItemList;
+
+    /**
+     * Exposes the sheet parsing of the import wizard without an uploaded
+     * file.
+     */
+    private static class CatalogImportHelper extends ImportHelperCatalog {
+
+        private boolean parse(byte[] workbookData) throws IOException {
+            reset();
+            try (XlsxSheetReader reader = new XlsxSheetReader(new ByteArrayInputStream(workbookData))) {
+                return parseSheet(reader, SHEET_NAME, 0, 1, Integer.MAX_VALUE);
+            }
+        }
+
+        private List<InputColumnModel> getImportColumns() {
+            return getTemplateColumns();
+        }
+    }
+
+    @Setup
+    public void setUp(PortalState portal) throws IOException {
+        SyntheticDataset dataset = portal.getDataset();
+        List<String> sourceNameList = dataset.getSourceNameList();
+        List<String> projectNameList = dataset.getProjectNameList();
+
+        CatalogImportHelper importHelper = new CatalogImportHelper();
+        importHelper.setImportMode(IMPORT_MODE);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        SXSSFWorkbook workbook = new SXSSFWorkbook(WORKBOOK_ROW_WINDOW_SIZE);
+        try {
+            Sheet sheet = workbook.createSheet(SHEET_NAME);
+            List<InputColumnModel> columnList = importHelper.getImportColumns();
+            Row headerRow = sheet.createRow(0);
+            for (InputColumnModel column : columnList) {
+                headerRow.createCell(column.getColumnIndex()).setCellValue(column.getName());
+            }
+
+            Map<String, String> valueMap = new HashMap<>();
+            for (int rowIndex = 1; rowIndex <= IMPORT_ROW_COUNT; rowIndex++) {
+                valueMap.put("Name", "Imported Item " + rowIndex);
+                valueMap.put("Model Number", String.format("IMP-%06d", rowIndex));
+                valueMap.put("Description", "Imported benchmark item " + rowIndex);
+                valueMap.put("Source", "#" + sourceNameList.get(rowIndex % sourceNameList.size()));
+                valueMap.put("Project", "#" + projectNameList.get(rowIndex % projectNameList.size()));
+                valueMap.put("Owner User", "#" + SyntheticDataset.USERNAME);
+                valueMap.put("Owner Group", "#" + SyntheticDataset.ADMIN_GROUP_NAME);
+
+                Row row = sheet.createRow(rowIndex);
+                for (InputColumnModel column : columnList) {
+                    String value = valueMap.get(column.getName());
+                    if (value != null && column.isUsedForMode(ImportMode.CREATE)) {
+                        row.createCell(column.getColumnIndex()).setCellValue(value);
+                    }
+                }
+            }
+            workbook.write(outputStream);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+        importWorkbookData = outputStream.toByteArray();
+
+        ItemDomainCatalogFacade catalogFacade = ItemDomainCatalogFacade.getInstance();
+        catalogItemList = catalogFacade.findByDomain(catalogFacade.getDomainName());
+    }
+
+    @Setup(Level.Iteration)
+    public void clearEntityManager(PortalState portal) {
+        portal.getContainer().clear();
+    }
+
+    @Benchmark
+    public int parseImportSheet() throws IOException {
+        CatalogImportHelper importHelper = new CatalogImportHelper();
+        importHelper.setImportMode(IMPORT_MODE);
+        if (!importHelper.parse(importWorkbookData)) {
+            throw new IllegalStateException("Sheet not found: " + SHEET_NAME);
+        }
+        return importHelper.getParsedRowCount();
+    }
+
+    @Benchmark
+    public void exportCatalogItems() {
+        ImportHelperCatalog exportHelper = new ImportHelperCatalog();
+        exportHelper.setExportMode(EXPORT_MODE);
+        exportHelper.setExportEntitySource(new ListExportEntitySource(catalogItemList));
+
+        GenerateExportResult result = exportHelper.generateExportFile();
+        if (!result.getValidInfo().isValid()) {
+            throw new IllegalStateException(result.getValidInfo().getValidString());
+        }
+        result.getContent().getWriter().accept(OutputStream.nullOutputStream());
+    }
+
+}
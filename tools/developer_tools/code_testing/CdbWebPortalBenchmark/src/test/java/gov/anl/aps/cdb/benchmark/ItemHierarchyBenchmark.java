@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.benchmark;
+
+import gov.anl.aps.cdb.portal.model.db.beans.ItemDomainMachineDesignFacade;
+import gov.anl.aps.cdb.portal.model.db.entities.ItemDomainMachineDesign;
+import gov.anl.aps.cdb.rest.entities.ItemHierarchy;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Machine design hierarchy of the REST API, loaded from a new persistence
+ * context like in a request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ItemHierarchyBenchmark {
+
+    private ItemDomainMachineDesignFacade machineDesignFacade;
+    private int rootItemId;
+
+    @Setup
+    public void setUp(PortalState portal) {
+        machineDesignFacade = ItemDomainMachineDesignFacade.getInstance();
+        rootItemId = portal.getDataset().getMachineDesignRootId();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearEntityManager(PortalState portal) {
+        portal.getContainer().clear();
+    }
+
+    @Benchmark
+    public ItemHierarchy loadMachineDesignHierarchy() {
+        ItemDomainMachineDesign rootItem = machineDesignFacade.findById(rootItemId);
+        return new ItemHierarchy(rootItem, true);
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.benchmark;
+
+import gov.anl.aps.cdb.portal.model.db.beans.builder.ItemDomainInventoryQueryBuilder;
+import gov.anl.aps.cdb.portal.model.db.beans.builder.ItemQueryBuilder;
+import gov.anl.aps.cdb.portal.model.db.entities.Domain;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.primefaces.model.SortOrder;
+
+/**
+ * Generation of the inventory list query for data table filters, done on
+ * every lazy load of the list. Does not need the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemQueryBuilderBenchmark {
+
+    @Param({"name", "attributes", "relationships"})
+    public String filterSet;
+
+    private Domain domain;
+    private Map<String, String> filterMap;
+
+    @Setup
+    public void setUp() {
+        domain = new Domain(SyntheticDataset.INVENTORY_DOMAIN_ID, "Inventory");
+
+        filterMap = new HashMap<>();
+        filterMap.put("name", "Unit");
+        if (!filterSet.equals("name")) {
+            filterMap.put("itemIdentifier1", "SN-0001");
+            filterMap.put("derivedFromItem.name", "Valve");
+            filterMap.put("ownerUser.username", SyntheticDataset.USERNAME);
+            filterMap.put("itemProjectString", "Project 1");
+        }
+        if (filterSet.equals("relationships")) {
+            filterMap.put("inventoryStatusValue", "Spare");
+            filterMap.put("locationString", "Building");
+            filterMap.put("propertyColumn1-1", "value");
+        }
+    }
+
+    @Benchmark
+    public void buildListQuery(Blackhole blackhole) {
+        ItemQueryBuilder queryBuilder = new ItemDomainInventoryQueryBuilder(domain, filterMap, "name", SortOrder.ASCENDING);
+        blackhole.consume(queryBuilder.getQueryForItems());
+        blackhole.consume(queryBuilder.getCountQueryForItems());
+        blackhole.consume(queryBuilder.getQueryParameters());
+    }
+
+}
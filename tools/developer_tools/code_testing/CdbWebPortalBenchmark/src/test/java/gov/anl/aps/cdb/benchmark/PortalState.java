@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.benchmark;
+
+import java.sql.Connection;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Database with the synthetic dataset and the container with the admin
+ * user logged in, shared by all benchmarks of a fork.
+ */
+@State(Scope.Benchmark)
+public class PortalState {
+
+    private BenchmarkDatabase database;
+    private SyntheticDataset dataset;
+    private BenchmarkContainer container;
+
+    @Setup
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.start();
+        try (Connection connection = database.getConnection()) {
+            dataset = SyntheticDataset.load(connection);
+        }
+        database.createTriggers();
+
+        container = BenchmarkContainer.start(database.getJdbcUrl(),
+                BenchmarkDatabase.DB_USER, BenchmarkDatabase.DB_PASSWORD);
+        container.login(SyntheticDataset.USERNAME);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        BenchmarkContainer.stop();
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    public SyntheticDataset getDataset() {
+        return dataset;
+    }
+
+    public BenchmarkContainer getContainer() {
+        return container;
+    }
+
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Generates the benchmark dataset: catalog items with inventory units and a
+ * machine design hierarchy, owned by one admin user. Sizes can be changed
+ * with system properties, the content is the same for every run.
+ */
+public class SyntheticDataset {
+
+    private static final Logger logger = LogManager.getLogger(SyntheticDataset.class.getName());
+
+    public static final String USERNAME = "cdb";
+    public static final String ADMIN_GROUP_NAME = "CDB_ADMIN";
+    public static final String MACHINE_DESIGN_ROOT_NAME = "Benchmark Root";
+
+    public static final int CATALOG_DOMAIN_ID = 2;
+    public static final int INVENTORY_DOMAIN_ID = 3;
+    public static final int MACHINE_DESIGN_DOMAIN_ID = 6;
+
+    private static final int CATALOG_ITEM_COUNT = Integer.getInteger("cdb.benchmark.catalogItemCount", 5000);
+    private static final int INVENTORY_ITEMS_PER_CATALOG_ITEM = Integer.getInteger("cdb.benchmark.inventoryItemsPerCatalogItem", 4);
+    private static final int MACHINE_DESIGN_FANOUT = Integer.getInteger("cdb.benchmark.machineDesignFanout", 10);
+    private static final int MACHINE_DESIGN_DEPTH = Integer.getInteger("cdb.benchmark.machineDesignDepth", 3);
+    private static final int SOURCE_COUNT = 20;
+    private static final int PROJECT_COUNT = 3;
+
+    private static final int BATCH_SIZE = 1000;
+    private static final long RANDOM_SEED = 42;
+
+    private static final String[] NAME_WORDS = {
+        "Valve", "Pump", "Magnet", "Sensor", "Controller",
+        "Power Supply", "Gauge", "Detector", "Motor", "Chassis"
+    };
+    private static final String[] DESCRIPTION_WORDS = {
+        "vacuum", "cooling", "water", "beamline", "storage ring",
+        "injector", "booster", "diagnostics", "insertion device", "front end"
+    };
+
+    private static final int USER_ID = 1;
+    private static final int USER_GROUP_ID = 1;
+
+    private final Connection connection;
+    private final Random random = new Random(RANDOM_SEED);
+    private final Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+
+    private final List<Integer> catalogItemIdList = new ArrayList<>();
+    private final List<Integer> inventoryItemIdList = new ArrayList<>();
+    private final List<String> sourceNameList = new ArrayList<>();
+    private final List<String> projectNameList = new ArrayList<>();
+    private int machineDesignRootId;
+    private int machineDesignItemCount;
+
+    private int lastItemId = 0;
+    private int lastItemElementId = 0;
+    private int lastEntityInfoId = 0;
+    private int lastItemSourceId = 0;
+    private int pendingRowCount = 0;
+
+    private PreparedStatement entityInfoStatement;
+    private PreparedStatement itemStatement;
+    private PreparedStatement itemElementStatement;
+    private PreparedStatement itemProjectStatement;
+    private PreparedStatement itemSourceStatement;
+
+    private SyntheticDataset(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Loads the dataset into an empty database with the static tables
+     * populated and no triggers.
+     */
+    public static SyntheticDataset load(Connection connection) throws SQLException {
+        SyntheticDataset dataset = new SyntheticDataset(connection);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            dataset.generate();
+            connection.commit();
+        } catch (SQLException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        logger.info("Loaded " + dataset.catalogItemIdList.size() + " catalog items, "
+                + dataset.inventoryItemIdList.size() + " inventory items and "
+                + dataset.machineDesignItemCount + " machine design items.");
+        return dataset;
+    }
+
+    public List<Integer> getCatalogItemIdList() {
+        return catalogItemIdList;
+    }
+
+    public List<Integer> getInventoryItemIdList() {
+        return inventoryItemIdList;
+    }
+
+    public List<String> getSourceNameList() {
+        return sourceNameList;
+    }
+
+    public List<String> getProjectNameList() {
+        return projectNameList;
+    }
+
+    public int getMachineDesignRootId() {
+        return machineDesignRootId;
+    }
+
+    private void generate() throws SQLException {
+        createUsers();
+        createProjectsAndSources();
+
+        entityInfoStatement = connection.prepareStatement(
+                "INSERT INTO entity_info (id, owner_user_id, owner_user_group_id, is_group_writeable, "
+                + "created_on_date_time, created_by_user_id, last_modified_on_date_time, last_modified_by_user_id) "
+                + "VALUES (?, ?, ?, 1, ?, ?, ?, ?)");
+        itemStatement = connection.prepareStatement(
+                "INSERT INTO item (id, domain_id, name, derived_from_item_id, item_identifier1, item_identifier2, qr_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)");
+        itemElementStatement = connection.prepareStatement(
+                "INSERT INTO item_element (id, name, parent_item_id, contained_item_id1, description, sort_order, entity_info_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)");
+        itemProjectStatement = connection.prepareStatement(
+                "INSERT INTO item_item_project (item_id, item_project_id) VALUES (?, ?)");
+        itemSourceStatement = connection.prepareStatement(
+                "INSERT INTO item_source (id, item_id, source_id, part_number, is_manufacturer) VALUES (?, ?, ?, ?, 1)");
+        try {
+            createCatalogItems();
+            flush();
+            createInventoryItems();
+            flush();
+            createMachineDesignItems();
+            flush();
+        } finally {
+            entityInfoStatement.close();
+            itemStatement.close();
+            itemElementStatement.close();
+            itemProjectStatement.close();
+            itemSourceStatement.close();
+        }
+    }
+
+    private void createUsers() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO user_info (id, username, first_name, last_name) "
+                    + "VALUES (" + USER_ID + ", '" + USERNAME + "', 'CDB', 'Benchmark')");
+            statement.executeUpdate("INSERT INTO user_group (id, name, description) "
+                    + "VALUES (" + USER_GROUP_ID + ", '" + ADMIN_GROUP_NAME + "', 'Administrators')");
+            statement.executeUpdate("INSERT INTO user_user_group (user_id, user_group_id) "
+                    + "VALUES (" + USER_ID + ", " + USER_GROUP_ID + ")");
+        }
+    }
+
+    private void createProjectsAndSources() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO item_project (id, name, description) VALUES (?, ?, ?)")) {
+            for (int id = 1; id <= PROJECT_COUNT; id++) {
+                String name = "Project " + id;
+                statement.setInt(1, id);
+                statement.setString(2, name);
+                statement.setString(3, "Benchmark project " + id);
+                statement.addBatch();
+                projectNameList.add(name);
+            }
+            statement.executeBatch();
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO source (id, name, description, contact_info, url) VALUES (?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= SOURCE_COUNT; id++) {
+                String name = "Source " + id;
+                statement.setInt(1, id);
+                statement.setString(2, name);
+                statement.setString(3, "Benchmark manufacturer " + id);
+                statement.setString(4, "sales" + id + "@example.com");
+                statement.setString(5, "https://example.com/source" + id);
+                statement.addBatch();
+                sourceNameList.add(name);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void createCatalogItems() throws SQLException {
+        for (int index = 1; index <= CATALOG_ITEM_COUNT; index++) {
+            String nameWord = NAME_WORDS[random.nextInt(NAME_WORDS.length)];
+            String descriptionWord = DESCRIPTION_WORDS[random.nextInt(DESCRIPTION_WORDS.length)];
+            String modelNumber = String.format("MN-%06d", index);
+
+            int itemId = addItem(CATALOG_DOMAIN_ID, nameWord + " " + index, null, modelNumber, null, null,
+                    nameWord + " for " + descriptionWord + " systems");
+            catalogItemIdList.add(itemId);
+
+            itemProjectStatement.setInt(1, itemId);
+            itemProjectStatement.setInt(2, 1 + index % PROJECT_COUNT);
+            itemProjectStatement.addBatch();
+
+            itemSourceStatement.setInt(1, ++lastItemSourceId);
+            itemSourceStatement.setInt(2, itemId);
+            itemSourceStatement.setInt(3, 1 + index % SOURCE_COUNT);
+            itemSourceStatement.setString(4, "PN-" + index);
+            itemSourceStatement.addBatch();
+            pendingRowCount += 2;
+            flushIfNeeded();
+        }
+    }
+
+    private void createInventoryItems() throws SQLException {
+        int qrId = 1;
+        for (Integer catalogItemId : catalogItemIdList) {
+            for (int unit = 1; unit <= INVENTORY_ITEMS_PER_CATALOG_ITEM; unit++) {
+                int itemId = addItem(INVENTORY_DOMAIN_ID, "Unit: " + unit, catalogItemId,
+                        String.format("SN-%08d", qrId), null, qrId, null);
+                inventoryItemIdList.add(itemId);
+                qrId++;
+                flushIfNeeded();
+            }
+        }
+    }
+
+    private void createMachineDesignItems() throws SQLException {
+        machineDesignRootId = addItem(MACHINE_DESIGN_DOMAIN_ID, MACHINE_DESIGN_ROOT_NAME, null, null, null, null,
+                "Root of the benchmark machine design hierarchy");
+        machineDesignItemCount = 1;
+        createMachineDesignChildren(machineDesignRootId, MACHINE_DESIGN_ROOT_NAME, 1);
+    }
+
+    private void createMachineDesignChildren(int parentItemId, String parentName, int level) throws SQLException {
+        if (level > MACHINE_DESIGN_DEPTH) {
+            return;
+        }
+        for (int index = 1; index <= MACHINE_DESIGN_FANOUT; index++) {
+            String name = parentName + "-" + index;
+            int itemId = addItem(MACHINE_DESIGN_DOMAIN_ID, name, null, null, null, null, null);
+            machineDesignItemCount++;
+            addItemElement(name, parentItemId, itemId, null, (float) index);
+            flushIfNeeded();
+            createMachineDesignChildren(itemId, name, level + 1);
+        }
+    }
+
+    /**
+     * Adds an item with its self element.
+     */
+    private int addItem(int domainId, String name, Integer derivedFromItemId, String itemIdentifier1,
+            String itemIdentifier2, Integer qrId, String description) throws SQLException {
+        int itemId = ++lastItemId;
+        itemStatement.setInt(1, itemId);
+        itemStatement.setInt(2, domainId);
+        itemStatement.setString(3, name);
+        setNullableInt(itemStatement, 4, derivedFromItemId);
+        itemStatement.setString(5, itemIdentifier1);
+        itemStatement.setString(6, itemIdentifier2);
+        setNullableInt(itemStatement, 7, qrId);
+        itemStatement.addBatch();
+        pendingRowCount++;
+
+        addItemElement(null, itemId, null, description, null);
+        return itemId;
+    }
+
+    private void addItemElement(String name, int parentItemId, Integer containedItemId,
+            String description, Float sortOrder) throws SQLException {
+        int entityInfoId = ++lastEntityInfoId;
+        entityInfoStatement.setInt(1, entityInfoId);
+        entityInfoStatement.setInt(2, USER_ID);
+        entityInfoStatement.setInt(3, USER_GROUP_ID);
+        entityInfoStatement.setTimestamp(4, timestamp);
+        entityInfoStatement.setInt(5, USER_ID);
+        entityInfoStatement.setTimestamp(6, timestamp);
+        entityInfoStatement.setInt(7, USER_ID);
+        entityInfoStatement.addBatch();
+
+        itemElementStatement.setInt(1, ++lastItemElementId);
+        itemElementStatement.setString(2, name);
+        itemElementStatement.setInt(3, parentItemId);
+        setNullableInt(itemElementStatement, 4, containedItemId);
+        itemElementStatement.setString(5, description);
+        if (sortOrder != null) {
+            itemElementStatement.setFloat(6, sortOrder);
+        } else {
+            itemElementStatement.setNull(6, Types.FLOAT);
+        }
+        itemElementStatement.setInt(7, entityInfoId);
+        itemElementStatement.addBatch();
+        pendingRowCount += 2;
+    }
+
+    private static void setNullableInt(PreparedStatement statement, int parameterIndex, Integer value) throws SQLException {
+        if (value != null) {
+            statement.setInt(parameterIndex, value);
+        } else {
+            statement.setNull(parameterIndex, Types.INTEGER);
+        }
+    }
+
+    private void flushIfNeeded() throws SQLException {
+        if (pendingRowCount >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Executes the batches in foreign key order.
+     */
+    private void flush() throws SQLException {
+        entityInfoStatement.executeBatch();
+        itemStatement.executeBatch();
+        itemElementStatement.executeBatch();
+        itemProjectStatement.executeBatch();
+        itemSourceStatement.executeBatch();
+        pendingRowCount = 0;
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.utilities;
+
+import gov.anl.aps.cdb.benchmark.BenchmarkContainer;
+import gov.anl.aps.cdb.portal.model.db.entities.UserInfo;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Class overrides the session utility for benchmarks, beans and facades are
+ * provided by the benchmark container instead of faces and JNDI.
+ */
+public class SessionUtility {
+
+    public static final String MESSAGES_KEY = "messages";
+    public static final String USER_KEY = "user";
+    public static final String LAST_USERNAME_KEY = "lastUsername";
+    public static final String VIEW_STACK_KEY = "viewStack";
+    public static final String LAST_SESSION_ERROR_KEY = "lastSessionError";
+    public static final String ROLE_KEY = "role";
+
+    private static final Logger logger = LogManager.getLogger(SessionUtility.class.getName());
+
+    private static final Map<String, Object> sessionMap = new HashMap<>();
+
+    public SessionUtility() {
+    }
+
+    public static void addErrorMessage(String summary, String detail) {
+        logger.debug(summary + ": " + detail);
+    }
+
+    public static void addWarningMessage(String summary, String detail) {
+        logger.debug(summary + ": " + detail);
+    }
+
+    public static void addInfoMessage(String summary, String detail) {
+        logger.debug(summary + ": " + detail);
+    }
+
+    public static void setFlashValue(String key, Object value) {
+        sessionMap.put(key, value);
+    }
+
+    public static Object getFlashValue(String key) {
+        return sessionMap.get(key);
+    }
+
+    public static String getRequestParameterValue(String parameterName) {
+        return null;
+    }
+
+    public static void setUser(UserInfo user) {
+        sessionMap.put(USER_KEY, user);
+    }
+
+    public static UserInfo getUser() {
+        return (UserInfo) sessionMap.get(USER_KEY);
+    }
+
+    public static void pushViewOnStack(String viewId) {
+    }
+
+    public static String getCurrentViewId() {
+        return null;
+    }
+
+    public static void navigateTo(String url) {
+    }
+
+    public static void redirectTo(String url) throws IOException {
+    }
+
+    public static void setLastSessionError(String error) {
+        sessionMap.put(LAST_SESSION_ERROR_KEY, error);
+    }
+
+    public static void setRole(Object role) {
+        sessionMap.put(ROLE_KEY, role);
+    }
+
+    public static Object getRole() {
+        return sessionMap.get(ROLE_KEY);
+    }
+
+    public static void executeRemoteCommand(String commandName) {
+    }
+
+    public static Object findBean(String beanName) {
+        return BenchmarkContainer.getInstance().findBean(beanName);
+    }
+
+    public static Object findFacade(String facadeName) {
+        return BenchmarkContainer.getInstance().findFacade(facadeName);
+    }
+
+    public static boolean runningFaces() {
+        return false;
+    }
+
+    public static void clearSession() {
+        sessionMap.clear();
+    }
+
+}
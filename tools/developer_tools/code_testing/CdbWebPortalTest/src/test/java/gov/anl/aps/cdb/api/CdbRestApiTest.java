@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import gov.anl.aps.cdb.common.exceptions.CdbException;
+import gov.anl.aps.cdb.common.exceptions.CommunicationError;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the shared REST client against a stub HTTP server.
+ */
+public class CdbRestApiTest {
+
+    private static final String SERVICE_PATH = "/cdb";
+    private static final String AUTHORIZATION_HEADER = "Basic dGVzdDp0ZXN0";
+    private static final int SLOW_RESPONSE_IN_MILLIS = 2000;
+
+    private HttpServer server;
+    private Set<Integer> clientPortSet;
+    private Map<String, String> lastRequestHeaderMap;
+    private String lastRequestBody;
+
+    /**
+     * Client setting an authorization header on each connection, like the
+     * plugin clients.
+     */
+    private static class AuthorizedRestApi extends CdbRestApi {
+
+        AuthorizedRestApi(String webServiceUrl) throws CdbException {
+            super(webServiceUrl);
+        }
+
+        @Override
+        protected void configureConnection(HttpURLConnection connection) {
+            connection.setRequestProperty("Authorization", AUTHORIZATION_HEADER);
+        }
+
+        String postJson(String requestUrl, String data) throws CdbException {
+            return invokePostRequest(requestUrl, data, "application/json");
+        }
+    }
+
+    /**
+     * Client sending POST data as JSON, like the traveler plugin client.
+     */
+    private static class JsonRestApi extends CdbRestApi {
+
+        JsonRestApi(String webServiceUrl) throws CdbException {
+            super(webServiceUrl);
+        }
+
+        @Override
+        public String invokePostRequest(String requestUrl, Map<String, String> data) throws CdbException {
+            return invokePostRequest(requestUrl, prepareJsonPostData(data), "application/json");
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        clientPortSet = ConcurrentHashMap.newKeySet();
+        lastRequestHeaderMap = new ConcurrentHashMap<>();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(SERVICE_PATH + "/echo", exchange -> {
+            recordRequest(exchange);
+            sendResponse(exchange, "ok");
+        });
+        server.createContext(SERVICE_PATH + "/slow", exchange -> {
+            try {
+                Thread.sleep(SLOW_RESPONSE_IN_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            sendResponse(exchange, "slow");
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private void recordRequest(HttpExchange exchange) throws IOException {
+        clientPortSet.add(exchange.getRemoteAddress().getPort());
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization != null) {
+            lastRequestHeaderMap.put("Authorization", authorization);
+        }
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null) {
+            lastRequestHeaderMap.put("Content-Type", contentType);
+        }
+        try (InputStream inputStream = exchange.getRequestBody()) {
+            lastRequestBody = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void sendResponse(HttpExchange exchange, String response) throws IOException {
+        byte[] responseData = response.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, responseData.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(responseData);
+        }
+    }
+
+    private String getServiceUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + SERVICE_PATH;
+    }
+
+    /**
+     * Sequential requests to the same service reuse one kept alive
+     * connection.
+     */
+    @Test
+    public void testConnectionReuse() throws CdbException {
+        CdbRestApi client = new CdbRestApi(getServiceUrl());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("ok\n", client.invokeGetRequest("/echo"));
+        }
+        assertEquals(1, clientPortSet.size());
+    }
+
+    @Test
+    public void testReadTimeout() throws CdbException {
+        CdbRestApi client = new CdbRestApi(getServiceUrl());
+        client.setTimeouts(1000, 200);
+        long startTime = System.currentTimeMillis();
+        try {
+            client.invokeGetRequest("/slow");
+            fail("Expected communication error");
+        } catch (CommunicationError ex) {
+            assertTrue(System.currentTimeMillis() - startTime < SLOW_RESPONSE_IN_MILLIS);
+        }
+    }
+
+    /**
+     * Requests are suspended after repeated connection failures and fail
+     * fast without connecting.
+     */
+    @Test
+    public void testCircuitBreakerOpens() throws CdbException, IOException {
+        int unusedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            unusedPort = socket.getLocalPort();
+        }
+        CdbRestApi client = new CdbRestApi("http://127.0.0.1:" + unusedPort + SERVICE_PATH);
+        for (int i = 0; i < ServiceCircuitBreaker.DEFAULT_FAILURE_THRESHOLD; i++) {
+            try {
+                client.invokeGetRequest("/echo");
+                fail("Expected communication error");
+            } catch (CommunicationError ex) {
+                assertFalse(ex.getMessage().contains("suspended"));
+            }
+        }
+        assertTrue(client.getCircuitBreaker().isOpen());
+        try {
+            client.invokeGetRequest("/echo");
+            fail("Expected communication error");
+        } catch (CommunicationError ex) {
+            assertTrue(ex.getMessage().contains("suspended"));
+        }
+    }
+
+    @Test
+    public void testConfigureConnectionAndPostContentType() throws CdbException {
+        AuthorizedRestApi client = new AuthorizedRestApi(getServiceUrl());
+        client.postJson("/echo", "{\"name\":\"test\"}");
+        assertEquals(AUTHORIZATION_HEADER, lastRequestHeaderMap.get("Authorization"));
+        assertEquals("application/json", lastRequestHeaderMap.get("Content-Type"));
+        assertEquals("{\"name\":\"test\"}", lastRequestBody);
+
+        Map<String, String> data = new HashMap<>();
+        data.put("name", "test");
+        client.invokePostRequest("/echo", data);
+        assertEquals("application/x-www-form-urlencoded", lastRequestHeaderMap.get("Content-Type"));
+        assertEquals("name=test", lastRequestBody);
+    }
+
+    /**
+     * Non-ASCII text is sent as UTF-8 in both form and JSON bodies.
+     */
+    @Test
+    public void testPostDataEncoding() throws CdbException {
+        AuthorizedRestApi client = new AuthorizedRestApi(getServiceUrl());
+        client.postJson("/echo", "{\"name\":\"Magnet \u00b5-\u03a9\"}");
+        assertEquals("{\"name\":\"Magnet \u00b5-\u03a9\"}", lastRequestBody);
+
+        Map<String, String> data = new HashMap<>();
+        data.put("name", "\u00b5");
+        client.invokePostRequest("/echo", data);
+        assertEquals("name=%C2%B5", lastRequestBody);
+    }
+
+    /**
+     * Raw maps of the plugin clients may hold values other than strings.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPostJsonDataWithNonStringValues() throws CdbException {
+        JsonRestApi client = new JsonRestApi(getServiceUrl());
+        Map data = new HashMap();
+        data.put("works", new String[]{"w1", "w2"});
+        data.put("archived", Boolean.TRUE);
+        client.invokePostRequest("/echo", data);
+        assertEquals("application/json", lastRequestHeaderMap.get("Content-Type"));
+        assertTrue(lastRequestBody.contains("\"works\":[\"w1\",\"w2\"]"));
+        assertTrue(lastRequestBody.contains("\"archived\":true"));
+    }
+
+    /**
+     * Refused POST requests count as failures of the service.
+     */
+    @Test
+    public void testRefusedPostOpensCircuitBreaker() throws CdbException, IOException {
+        int unusedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            unusedPort = socket.getLocalPort();
+        }
+        // own service URL, so the circuit breaker is not shared with other tests
+        CdbRestApi client = new CdbRestApi("http://127.0.0.1:" + unusedPort + SERVICE_PATH + "/post");
+        Map<String, String> data = new HashMap<>();
+        data.put("name", "test");
+        for (int i = 0; i < ServiceCircuitBreaker.DEFAULT_FAILURE_THRESHOLD; i++) {
+            try {
+                client.invokePostRequest("/echo", data);
+                fail("Expected communication error");
+            } catch (CommunicationError ex) {
+                assertFalse(ex.getMessage().contains("suspended"));
+            }
+        }
+        assertTrue(client.getCircuitBreaker().isOpen());
+    }
+
+    /**
+     * A trial request that could not be sent lets the next one through.
+     */
+    @Test
+    public void testReleaseTrial() {
+        ServiceCircuitBreaker circuitBreaker = new ServiceCircuitBreaker(1, 0);
+        circuitBreaker.recordFailure();
+        assertTrue(circuitBreaker.allowRequest());
+        assertFalse(circuitBreaker.allowRequest());
+        circuitBreaker.releaseTrial();
+        assertTrue(circuitBreaker.allowRequest());
+        circuitBreaker.recordSuccess();
+        assertFalse(circuitBreaker.isOpen());
+    }
+
+    @Test
+    public void testInvokeGetRequestsOnCallerExecutor() throws CdbException {
+        CdbRestApi client = new CdbRestApi(getServiceUrl());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Map<String, String> responseMap = client.invokeGetRequests(Arrays.asList("/echo", "/echo?id=2"), executor);
+            assertEquals(2, responseMap.size());
+            assertEquals("ok\n", responseMap.get("/echo"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.model.db.utilities;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Verifies that names matched by the database give the 0/-1/id results of the
+ * per name lookups of the IdList endpoints.
+ */
+public class ItemIdListResolverTest {
+
+    public ItemIdListResolverTest() {
+    }
+
+    /**
+     * Ids by requested name, as the facade returns them: a name equal to a
+     * stored name under the column collation has its own entry.
+     */
+    private static Map<String, List<Integer>> createNameIdListMap(Object... nameAndIdList) {
+        Map<String, List<Integer>> nameIdListMap = new HashMap<>();
+        for (int i = 0; i < nameAndIdList.length; i += 2) {
+            nameIdListMap.put((String) nameAndIdList[i], (List<Integer>) nameAndIdList[i + 1]);
+        }
+        return nameIdListMap;
+    }
+
+    /**
+     * Test of matchIdList method, of class ItemIdListResolver.
+     */
+    @Test
+    public void testMatchIdList() {
+        System.out.println("matchIdList");
+        Map<String, List<Integer>> nameIdListMap = createNameIdListMap(
+                "Cable-1", Arrays.asList(11),
+                "CABLE-1 ", Arrays.asList(11),
+                "Cable-2", Arrays.asList(21, 22));
+
+        assertEquals(Arrays.asList(11, 11, -1, 0, 0, 0), ItemIdListResolver.matchIdList(
+                Arrays.asList("Cable-1", "CABLE-1 ", "Cable-2", "Cable-3", " ", null),
+                nameIdListMap));
+    }
+
+    /**
+     * Test of matchHierarchyIdList method, of class ItemIdListResolver.
+     */
+    @Test
+    public void testMatchHierarchyIdList() {
+        System.out.println("matchHierarchyIdList");
+        // Root(1) > Rack(2, alternate R2) > Device(10)
+        // Root(1) > Other(3) > Device(11)
+        // Root(1) > Rack(2) > Crate(4) > Card(12)
+        // Elsewhere(5) > Rack(6) > Card(13)
+        List<Object[]> parentRowList = Arrays.asList(
+                new Object[]{10, 2, "Rack", "R2"},
+                new Object[]{11, 3, "Other", null},
+                new Object[]{12, 4, "Crate", null},
+                new Object[]{13, 6, "Rack", null},
+                new Object[]{2, 1, "Root", null},
+                new Object[]{3, 1, "Root", null},
+                new Object[]{4, 2, "Rack", "R2"},
+                new Object[]{6, 5, "Elsewhere", null});
+        Map<String, List<Integer>> nameIdListMap = createNameIdListMap(
+                "Device", Arrays.asList(10, 11),
+                "device", Arrays.asList(10, 11),
+                "Card", Arrays.asList(12, 13),
+                "Orphan", Arrays.asList(14));
+        Map<String, List<Integer>> alternateNameIdListMap = createNameIdListMap(
+                "D10", Arrays.asList(10),
+                "Device", Arrays.asList(11));
+
+        assertEquals(Arrays.asList(10, 10, 11, 0, 12, 0, -1, 10, 0, 0, 0),
+                ItemIdListResolver.matchHierarchyIdList("Root",
+                        Arrays.asList("Device", "device", "Device", "Device", "Card", "Card", "Device", "D10", "Orphan", "Device", null),
+                        Arrays.asList("Rack", "R2", "Other", "Crate", "Rack", "Elsewhere", "Root", "Rack", "Rack", "rack", "Rack"),
+                        nameIdListMap, alternateNameIdListMap, parentRowList));
+
+        // the first parent row of an item is its parent; cycles end the walk
+        assertEquals(Collections.singletonList(0), ItemIdListResolver.matchHierarchyIdList("Root",
+                Arrays.asList("Loop"), Arrays.asList("Rack"),
+                createNameIdListMap("Loop", Arrays.asList(20)), new HashMap<>(),
+                Arrays.asList(
+                        new Object[]{20, 21, "Rack", null},
+                        new Object[]{21, 20, "Loop", null},
+                        new Object[]{21, 1, "Root", null})));
+    }
+
+}
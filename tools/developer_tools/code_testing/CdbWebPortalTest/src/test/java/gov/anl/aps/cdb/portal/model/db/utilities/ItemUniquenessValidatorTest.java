@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.model.db.utilities;
+
+import gov.anl.aps.cdb.portal.model.db.entities.Domain;
+import gov.anl.aps.cdb.portal.model.db.entities.Item;
+import java.lang.reflect.Field;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the checks of bulk writes that do not need the database.
+ */
+public class ItemUniquenessValidatorTest {
+
+    private Domain catalogDomain;
+    private Domain plainDomain;
+
+    public ItemUniquenessValidatorTest() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        catalogDomain = createDomain(1, "Model Number", "Alternate Name");
+        plainDomain = createDomain(2, null, null);
+    }
+
+    private static Domain createDomain(int id, String identifier1Label, String identifier2Label) throws Exception {
+        Domain domain = new Domain(id);
+        setField(domain, "itemIdentifier1Label", identifier1Label);
+        setField(domain, "itemIdentifier2Label", identifier2Label);
+        return domain;
+    }
+
+    private static void setField(Object object, String fieldName, Object value) throws Exception {
+        Field field = object.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(object, value);
+    }
+
+    private static Item createItem(Integer id, Domain domain, String name, String identifier1, String identifier2, Item derivedFromItem) {
+        Item item = new Item();
+        item.setId(id);
+        item.setDomain(domain);
+        item.setName(name);
+        item.setItemIdentifier1(identifier1);
+        item.setItemIdentifier2(identifier2);
+        item.setDerivedFromItem(derivedFromItem);
+        return item;
+    }
+
+    /**
+     * Test of getInvalidAttributesMessage method, of class
+     * ItemUniquenessValidator.
+     */
+    @Test
+    public void testGetInvalidAttributesMessage() {
+        System.out.println("getInvalidAttributesMessage");
+        assertNull(ItemUniquenessValidator.getInvalidAttributesMessage(
+                createItem(null, catalogDomain, "Valve", "M1", "A1", null)));
+        // empty identifiers are stored as null
+        assertNull(ItemUniquenessValidator.getInvalidAttributesMessage(
+                createItem(null, plainDomain, "Valve", "", "", null)));
+        assertEquals(ItemUniquenessValidator.IDENTIFIER1_NOT_ALLOWED_MESSAGE, ItemUniquenessValidator.getInvalidAttributesMessage(
+                createItem(null, plainDomain, "Valve", "M1", null, null)));
+        assertEquals(ItemUniquenessValidator.IDENTIFIER2_NOT_ALLOWED_MESSAGE, ItemUniquenessValidator.getInvalidAttributesMessage(
+                createItem(null, plainDomain, "Valve", null, "A1", null)));
+        // the second error replaces the first one
+        assertEquals(ItemUniquenessValidator.IDENTIFIER2_NOT_ALLOWED_MESSAGE, ItemUniquenessValidator.getInvalidAttributesMessage(
+                createItem(null, plainDomain, "Valve", "M1", "A1", null)));
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) UChicago Argonne, LLC. All rights reserved.
+ * See LICENSE file.
+ */
+package gov.anl.aps.cdb.portal.utilities;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Verifies that subscribers are checked when they subscribe and on each
+ * dispatch until they are done.
+ */
+public class EntityChangeFeedTest {
+
+    public EntityChangeFeedTest() {
+    }
+
+    /**
+     * Subscriber that is done after the given number of checks.
+     */
+    private static class CountingSubscriber implements EntityChangeSubscriber {
+
+        private final AtomicInteger checkCount = new AtomicInteger();
+        private final int doneAfterCheckCount;
+
+        CountingSubscriber(int doneAfterCheckCount) {
+            this.doneAfterCheckCount = doneAfterCheckCount;
+        }
+
+        @Override
+        public boolean checkForChanges(EntityChangeFeed feed) {
+            return checkCount.incrementAndGet() < doneAfterCheckCount;
+        }
+    }
+
+    /**
+     * Test of subscribe and dispatchChanges methods, of class
+     * EntityChangeFeed.
+     */
+    @Test
+    public void testDispatchChanges() {
+        System.out.println("dispatchChanges");
+        EntityChangeFeed feed = EntityChangeFeed.getInstance();
+        int subscriberCount = feed.getSubscriberCount();
+
+        // changes already there are delivered without waiting
+        CountingSubscriber immediateSubscriber = new CountingSubscriber(1);
+        feed.subscribe(immediateSubscriber);
+        assertEquals(1, immediateSubscriber.checkCount.get());
+        assertEquals(subscriberCount, feed.getSubscriberCount());
+
+        CountingSubscriber waitingSubscriber = new CountingSubscriber(3);
+        feed.subscribe(waitingSubscriber);
+        assertEquals(subscriberCount + 1, feed.getSubscriberCount());
+        feed.dispatchChanges();
+        assertEquals(2, waitingSubscriber.checkCount.get());
+        assertEquals(subscriberCount + 1, feed.getSubscriberCount());
+        feed.dispatchChanges();
+        assertEquals(3, waitingSubscriber.checkCount.get());
+        assertEquals(subscriberCount, feed.getSubscriberCount());
+        feed.dispatchChanges();
+        assertEquals(3, waitingSubscriber.checkCount.get());
+    }
+
+    /**
+     * Subscribers failing to deliver changes are removed.
+     */
+    @Test
+    public void testFailingSubscriberRemoved() {
+        System.out.println("failingSubscriberRemoved");
+        EntityChangeFeed feed = EntityChangeFeed.getInstance();
+        int subscriberCount = feed.getSubscriberCount();
+        AtomicInteger checkCount = new AtomicInteger();
+        feed.subscribe(f -> {
+            if (checkCount.incrementAndGet() > 1) {
+                throw new IllegalStateException("stream closed");
+            }
+            return true;
+        });
+        assertEquals(subscriberCount + 1, feed.getSubscriberCount());
+        feed.dispatchChanges();
+        assertEquals(2, checkCount.get());
+        assertEquals(subscriberCount, feed.getSubscriberCount());
+    }
+
+}